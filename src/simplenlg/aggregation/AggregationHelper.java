@@ -26,7 +26,6 @@ import simplenlg.features.DiscourseFunction;
 import simplenlg.features.InternalFeature;
 import simplenlg.framework.ElementCategory;
 import simplenlg.framework.LexicalCategory;
-import simplenlg.framework.ListElement;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.PhraseCategory;
 
@@ -79,20 +78,20 @@ public class AggregationHelper {
 
 	private static List<NLGElement> getAllChildren(NLGElement element) {
 		List<NLGElement> children = new ArrayList<NLGElement>();
-		List<NLGElement> components = element instanceof ListElement ? element
-				.getFeatureAsElementList(InternalFeature.COMPONENTS) : element
-				.getChildren();
+		addAllChildren(element, children);
+		return children;
+	}
 
-		for (NLGElement child : components) {
+	private static void addAllChildren(NLGElement element,
+			List<NLGElement> children) {
+		for (NLGElement child : element.getChildrenView()) {
 			children.add(child);
 
 			if (child.getCategory() == PhraseCategory.VERB_PHRASE
 					|| child.getFeature(InternalFeature.DISCOURSE_FUNCTION) == DiscourseFunction.VERB_PHRASE) {
-				children.addAll(getAllChildren(child));
+				addAllChildren(child, children);
 			}
 		}
-
-		return children;
 	}
 
 }
@@ -122,7 +122,7 @@ public abstract class AggregationRule {
 		NLGElement result = null;
 
 		if (phrase instanceof CoordinatedPhraseElement) {			
-			List<NLGElement> children = ((CoordinatedPhraseElement) phrase).getChildren();
+			List<NLGElement> children = ((CoordinatedPhraseElement) phrase).getChildrenView();
 			List<NLGElement> aggregated = apply(children);
 
 			if(aggregated.size() == 1) {
@@ -62,7 +62,7 @@ public class FunctionalSet {
 		NLGElement firstElement = this.components.get(0);
 
 		for (int i = 1; i < this.components.size() && ident; i++) {
-			ident = firstElement.equals(components.get(i));
+			ident = PhraseChecker.sameElement(firstElement, components.get(i));
 		}
 
 		return ident;
@@ -87,7 +87,7 @@ public class FunctionalSet {
 	
 	private void recursiveElide(NLGElement component) {
 		if(component instanceof ListElement) {
-			for(NLGElement subcomponent: component.getFeatureAsElementList(InternalFeature.COMPONENTS)) {
+			for(NLGElement subcomponent: component.getFeatureAsElementListView(InternalFeature.COMPONENTS)) {
 				recursiveElide(subcomponent);
 			}
 		} else {
@@ -50,7 +50,7 @@ public abstract class PhraseChecker {
 
 		if (sentences.length >= 2) {
 			for (int i = 1; i < sentences.length; i++) {
-				equal = sentences[i - 1].equals(sentences[i]);
+				equal = sameElement(sentences[i - 1], sentences[i]);
 			}
 		}
 
@@ -96,26 +96,15 @@ public abstract class PhraseChecker {
 
 				if (!sentences[i - 1].hasFeature(Feature.CUE_PHRASE)
 						&& !sentences[i].hasFeature(Feature.CUE_PHRASE)) {
-					equal = sentences[i - 1]
-							.getFeatureAsElementList(
-									InternalFeature.FRONT_MODIFIERS)
-							.equals(
-									sentences[i]
-											.getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS));
+					equal = sameFeature(sentences[i - 1], sentences[i],
+							InternalFeature.FRONT_MODIFIERS);
 
 				} else if (sentences[i - 1].hasFeature(Feature.CUE_PHRASE)
 						&& sentences[i].hasFeature(Feature.CUE_PHRASE)) {
-					equal = sentences[i - 1]
-							.getFeatureAsElementList(
-									InternalFeature.FRONT_MODIFIERS)
-							.equals(
-									sentences[i]
-											.getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS))
-							&& sentences[i]
-									.getFeatureAsElementList(Feature.CUE_PHRASE)
-									.equals(
-											sentences[i - 1]
-													.getFeatureAsElementList(Feature.CUE_PHRASE));
+					equal = sameFeature(sentences[i - 1], sentences[i],
+							InternalFeature.FRONT_MODIFIERS)
+							&& sameFeature(sentences[i - 1], sentences[i],
+									Feature.CUE_PHRASE);
 
 				} else {
 					equal = false;
@@ -139,11 +128,8 @@ public abstract class PhraseChecker {
 		if (sentences.length >= 2) {
 
 			for (int i = 1; i < sentences.length && equal; i++) {
-				equal = sentences[i - 1]
-						.getFeatureAsElementList(InternalFeature.POSTMODIFIERS)
-						.equals(
-								sentences[i]
-										.getFeatureAsElementList(InternalFeature.POSTMODIFIERS));
+				equal = sameFeature(sentences[i - 1], sentences[i],
+						InternalFeature.POSTMODIFIERS);
 			}
 		}
 
@@ -163,10 +149,8 @@ public abstract class PhraseChecker {
 		boolean equal = sentences.length >= 2;
 
 		for (int i = 1; i < sentences.length && equal; i++) {
-			equal = sentences[i - 1].getFeatureAsElementList(
-					InternalFeature.SUBJECTS).equals(
-					sentences[i]
-							.getFeatureAsElementList(InternalFeature.SUBJECTS));
+			equal = sameFeature(sentences[i - 1], sentences[i],
+					InternalFeature.SUBJECTS);
 		}
 
 		return equal;
@@ -269,7 +253,7 @@ public abstract class PhraseChecker {
 			if (vp1 != null && vp2 != null) {
 				NLGElement h1 = vp1.getFeatureAsElement(InternalFeature.HEAD);
 				NLGElement h2 = vp2.getFeatureAsElement(InternalFeature.HEAD);
-				equal = h1 != null && h2 != null ? h1.equals(h2) : false;
+				equal = sameElement(h1, h2);
 
 			} else {
 				equal = false;
@@ -333,8 +317,8 @@ public abstract class PhraseChecker {
 		boolean equal = sentences.length >= 2;
 
 		for (int i = 1; i < sentences.length && equal; i++) {
-			equal = sentences[i - 1].getFeatureAsElement(
-					InternalFeature.VERB_PHRASE).equals(
+			equal = sameElement(sentences[i - 1]
+					.getFeatureAsElement(InternalFeature.VERB_PHRASE),
 					sentences[i]
 							.getFeatureAsElement(InternalFeature.VERB_PHRASE));
 		}
@@ -360,11 +344,7 @@ public abstract class PhraseChecker {
 			NLGElement vp2 = sentences[i]
 					.getFeatureAsElement(InternalFeature.VERB_PHRASE);
 
-			equal = vp1
-					.getFeatureAsElementList(InternalFeature.COMPLEMENTS)
-					.equals(
-							vp2
-									.getFeatureAsElementList(InternalFeature.COMPLEMENTS));
+			equal = sameFeature(vp1, vp2, InternalFeature.COMPLEMENTS);
 		}
 
 		return equal;
@@ -388,17 +368,8 @@ public abstract class PhraseChecker {
 			NLGElement vp2 = sentences[i]
 					.getFeatureAsElement(InternalFeature.VERB_PHRASE);
 
-			equal = vp1
-					.getFeatureAsElementList(InternalFeature.POSTMODIFIERS)
-					.equals(
-							vp2
-									.getFeatureAsElementList(InternalFeature.POSTMODIFIERS))
-					&& vp1
-							.getFeatureAsElementList(
-									InternalFeature.PREMODIFIERS)
-							.equals(
-									vp2
-											.getFeatureAsElementList(InternalFeature.PREMODIFIERS));
+			equal = sameFeature(vp1, vp2, InternalFeature.POSTMODIFIERS)
+					&& sameFeature(vp1, vp2, InternalFeature.PREMODIFIERS);
 		}
 
 		return equal;
@@ -422,18 +393,18 @@ public abstract class PhraseChecker {
 
 		for (NLGElement s : sentences) {
 			if (s.hasFeature(Feature.CUE_PHRASE)) {
-				cue.addPhrases(s.getFeatureAsElementList(Feature.CUE_PHRASE));
+				cue.addPhrases(s.getFeatureAsElementListView(Feature.CUE_PHRASE));
 			}
 
 			if (s.hasFeature(InternalFeature.FRONT_MODIFIERS)) {
 				front
 						.addPhrases(s
-								.getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS));
+								.getFeatureAsElementListView(InternalFeature.FRONT_MODIFIERS));
 			}
 
 			if (s.hasFeature(InternalFeature.SUBJECTS)) {
 				subj.addPhrases(s
-						.getFeatureAsElementList(InternalFeature.SUBJECTS));
+						.getFeatureAsElementListView(InternalFeature.SUBJECTS));
 			}
 		}
 
@@ -466,20 +437,20 @@ public abstract class PhraseChecker {
 				if (vp.hasFeature(InternalFeature.COMPLEMENTS)) {
 					comps
 							.addPhrases(vp
-									.getFeatureAsElementList(InternalFeature.COMPLEMENTS));
+									.getFeatureAsElementListView(InternalFeature.COMPLEMENTS));
 				}
 
 				if (vp.hasFeature(InternalFeature.POSTMODIFIERS)) {
 					pmods
 							.addPhrases(vp
-									.getFeatureAsElementList(InternalFeature.POSTMODIFIERS));
+									.getFeatureAsElementListView(InternalFeature.POSTMODIFIERS));
 				}
 			}
 			
 			if (s.hasFeature(InternalFeature.POSTMODIFIERS)) {
 				pmods
 						.addPhrases(s
-								.getFeatureAsElementList(InternalFeature.POSTMODIFIERS));
+								.getFeatureAsElementListView(InternalFeature.POSTMODIFIERS));
 			}
 		}
 
@@ -488,6 +459,54 @@ public abstract class PhraseChecker {
 		return funcsets;
 	}
 
+	/**
+	 * Check that two elements are equal. Their hash codes are compared first,
+	 * so elements which differ are normally rejected without comparing their
+	 * trees. Elements keep their hash codes, so comparing the same elements
+	 * again is cheap.
+	 * 
+	 * @param element1
+	 *            the first element
+	 * @param element2
+	 *            the second element
+	 * @return <code>true</code> if neither element is <code>null</code> and
+	 *         <code>element1.equals(element2)</code>
+	 */
+	static boolean sameElement(NLGElement element1, NLGElement element2) {
+		return element1 != null
+				&& element2 != null
+				&& (element1 == element2 || element1.hashCode() == element2
+						.hashCode()
+						&& element1.equals(element2));
+	}
+
+	/**
+	 * Check that two phrases have equal elements, in the same order, as the
+	 * value of a feature.
+	 * 
+	 * @param phrase1
+	 *            the first phrase
+	 * @param phrase2
+	 *            the second phrase
+	 * @param featureName
+	 *            the feature
+	 * @return <code>true</code> if the elements are equal
+	 */
+	static boolean sameFeature(NLGElement phrase1, NLGElement phrase2,
+			String featureName) {
+		List<NLGElement> elements1 = phrase1
+				.getFeatureAsElementListView(featureName);
+		List<NLGElement> elements2 = phrase2
+				.getFeatureAsElementListView(featureName);
+		boolean equal = elements1.size() == elements2.size();
+
+		for (int i = 0; i < elements1.size() && equal; i++) {
+			equal = sameElement(elements1.get(i), elements2.get(i));
+		}
+
+		return equal;
+	}
+
 	/**
 	 * Check that no element of a give array of sentences is passive.
 	 * 
@@ -133,7 +133,8 @@ public class PhraseSet {
 			if (left != null && right != null) {				
 				NLGElement leftHead = left.getFeatureAsElement(InternalFeature.HEAD);
 				NLGElement rightHead = right.getFeatureAsElement(InternalFeature.HEAD);				
-				ident = (leftHead == rightHead || leftHead.equals(rightHead));
+				ident = (leftHead == rightHead || PhraseChecker.sameElement(
+						leftHead, rightHead));
 			}
 		}
 
@@ -155,7 +156,7 @@ public class PhraseSet {
 			NLGElement right = this.phrases.get(i);
 
 			if (left != null && right != null) {
-				ident = left.equals(right);
+				ident = PhraseChecker.sameElement(left, right);
 			}
 		}
 
@@ -0,0 +1,243 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.framework;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A cache holding a limited number of values, which counts how many keys were
+ * found and not found so that the hit rate can be checked. The caches of the
+ * realiser and its processors extend it, each with its own kind of key.
+ * </p>
+ * 
+ * <p>
+ * The cache is split into segments, each holding its share of the values and
+ * with its own lock, so that threads looking up different keys do not wait
+ * for each other. When a segment is full it drops the value which has gone
+ * longest without being used. Small caches have one segment, so they drop the
+ * value used longest ago in the whole cache.
+ * </p>
+ * 
+ * @param <K>
+ *            the type of the keys, which must define <code>equals</code> and
+ *            <code>hashCode</code>.
+ * @param <V>
+ *            the type of the values.
+ */
+public abstract class BoundedCache<K, V> {
+
+	/** The most segments a cache is split into. */
+	private static final int MAXIMUM_SEGMENTS = 16;
+
+	/** The fewest values a segment holds, unless the cache is smaller. */
+	private static final int MINIMUM_SEGMENT_SIZE = 256;
+
+	/** The most values held. */
+	private final int maximumSize;
+
+	private final Segment<K, V>[] segments;
+
+	// how far a spread hash code is shifted to give the segment number
+	private final int segmentShift;
+
+	/**
+	 * A segment of the cache: its values, least recently used first, and its
+	 * hit and miss counts, all guarded by the segment itself.
+	 */
+	private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maximumSize;
+
+		long hits;
+		long misses;
+
+		Segment(int maximumSize) {
+			super(16, 0.75f, true);
+			this.maximumSize = maximumSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			return size() > this.maximumSize;
+		}
+	}
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maximumSize
+	 *            the most values held, at least 1.
+	 */
+	@SuppressWarnings("unchecked")
+	protected BoundedCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException(
+					"cache size must be at least 1"); //$NON-NLS-1$
+		}
+		this.maximumSize = maximumSize;
+
+		int segmentCount = 1;
+		while (segmentCount < MAXIMUM_SEGMENTS
+				&& maximumSize / (2 * segmentCount) >= MINIMUM_SEGMENT_SIZE) {
+			segmentCount *= 2;
+		}
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+
+		// the segments share the values out, so they hold maximumSize between
+		// them
+		this.segments = new Segment[segmentCount];
+		for (int index = 0; index < segmentCount; index++) {
+			this.segments[index] = new Segment<K, V>(maximumSize
+					/ segmentCount
+					+ (index < maximumSize % segmentCount ? 1 : 0));
+		}
+	}
+
+	/**
+	 * @param key
+	 *            the key.
+	 * @return the segment which holds the key. The segment is picked by the
+	 *         top bits of the spread hash code, as the maps in the segments
+	 *         use the bottom bits.
+	 */
+	private Segment<K, V> segmentFor(Object key) {
+		if (this.segments.length == 1) {
+			return this.segments[0];
+		}
+		return this.segments[(key.hashCode() * 0x9E3779B9) >>> this.segmentShift];
+	}
+
+	/**
+	 * Looks up a key, counting it as a hit or a miss.
+	 * 
+	 * @param key
+	 *            the key.
+	 * @return the value, or <code>null</code> if the key is not in the cache.
+	 */
+	protected final V getValue(K key) {
+		Segment<K, V> segment = segmentFor(key);
+
+		synchronized (segment) {
+			V value = segment.get(key);
+			if (value != null) {
+				segment.hits++;
+			} else {
+				segment.misses++;
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * Adds a value to the cache, dropping the value of its segment which has
+	 * gone longest without being used if the segment is full.
+	 * 
+	 * @param key
+	 *            the key.
+	 * @param value
+	 *            the value, not <code>null</code>.
+	 */
+	protected final void putValue(K key, V value) {
+		Segment<K, V> segment = segmentFor(key);
+
+		synchronized (segment) {
+			segment.put(key, value);
+		}
+	}
+
+	/**
+	 * @return the most values held.
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * @return the number of values held.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : this.segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the number of keys found in the cache.
+	 */
+	public long getHits() {
+		long hits = 0;
+		for (Segment<K, V> segment : this.segments) {
+			synchronized (segment) {
+				hits += segment.hits;
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * @return the number of keys not found in the cache.
+	 */
+	public long getMisses() {
+		long misses = 0;
+		for (Segment<K, V> segment : this.segments) {
+			synchronized (segment) {
+				misses += segment.misses;
+			}
+		}
+		return misses;
+	}
+
+	/**
+	 * @return the proportion of keys looked up which were found, or
+	 *         <code>0</code> if none have been looked up.
+	 */
+	public double getHitRate() {
+		long hitCount = getHits();
+		long total = hitCount + getMisses();
+		return total == 0 ? 0.0 : (double) hitCount / total;
+	}
+
+	/**
+	 * Removes all values, and sets the hit and miss counts to <code>0</code>.
+	 */
+	public void clear() {
+		for (Segment<K, V> segment : this.segments) {
+			synchronized (segment) {
+				segment.clear();
+				segment.hits = 0;
+				segment.misses = 0;
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[size=" + size() //$NON-NLS-1$
+				+ ", maximumSize=" + this.maximumSize + ", hits=" //$NON-NLS-1$ //$NON-NLS-2$
+				+ getHits() + ", misses=" + getMisses() + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -121,6 +121,11 @@ public class CoordinatedPhraseElement extends NLGElement {
 		return this.getFeatureAsElementList(InternalFeature.COORDINATES);
 	}
 
+	@Override
+	public List<NLGElement> getChildrenView() {
+		return getFeatureAsElementListView(InternalFeature.COORDINATES);
+	}
+
 	/**
 	 * Clears the existing coordinates in this coordination. It performs exactly
 	 * the same as <code>removeFeature(Feature.COORDINATES)</code>.
@@ -268,6 +268,11 @@ public class DocumentElement extends NLGElement {
 		return getComponents();
 	}
 
+	@Override
+	public List<NLGElement> getChildrenView() {
+		return getFeatureAsElementListView(FEATURE_COMPONENTS);
+	}
+
 	/**
 	 * Replaces the existing components with the supplied list of components.
 	 * This is identical to calling:<br>
@@ -0,0 +1,444 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.framework;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+
+/**
+ * <p>
+ * <code>FeatureMap</code> is the <code>Map</code> which holds the features of
+ * an {@link NLGElement}. Each feature named in {@link Feature},
+ * {@link InternalFeature} or {@link LexicalFeature} has a fixed slot number.
+ * The map keeps a bit mask of the slots which are set, and their values in an
+ * array in slot order, so finding a known feature needs no hash table entry
+ * and an element with a few features only needs a small array. Other feature
+ * names, for example those added by applications, are kept in an ordinary
+ * <code>HashMap</code> which is only created when needed.
+ * </p>
+ * 
+ * <p>
+ * The map behaves like a <code>HashMap</code> in all other respects, and is
+ * equal to any other <code>Map</code> with the same entries. Known features
+ * are iterated in slot order, followed by other features.
+ * </p>
+ */
+public class FeatureMap extends AbstractMap<String, Object> {
+
+	/** Maximum number of known features (the size of the bit mask). */
+	private static final int MAX_SLOTS = 128;
+
+	/** The known feature names, by slot. */
+	private static final String[] SLOT_NAMES;
+
+	/**
+	 * Hash table from known feature name to slot, with linear probing. Names
+	 * are compared by identity first, as they are normally the constants
+	 * themselves.
+	 */
+	private static final String[] TABLE_NAMES;
+
+	private static final int[] TABLE_SLOTS;
+
+	private static final Object[] NO_VALUES = new Object[0];
+
+	static {
+		List<String> names = new ArrayList<String>();
+		for (Class<?> featureClass : new Class<?>[] { Feature.class,
+				InternalFeature.class, LexicalFeature.class }) {
+			for (Field field : featureClass.getFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers)
+						&& field.getType() == String.class) {
+					try {
+						String name = (String) field.get(null);
+						if (name != null && !names.contains(name)
+								&& names.size() < MAX_SLOTS)
+							names.add(name);
+					} catch (IllegalAccessException ex) {
+						// public field, cannot happen
+					}
+				}
+			}
+		}
+		SLOT_NAMES = names.toArray(new String[names.size()]);
+
+		int tableSize = 4;
+		while (tableSize < 2 * SLOT_NAMES.length)
+			tableSize *= 2;
+		TABLE_NAMES = new String[tableSize];
+		TABLE_SLOTS = new int[tableSize];
+		for (int slot = 0; slot < SLOT_NAMES.length; slot++) {
+			int i = hash(SLOT_NAMES[slot]) & (tableSize - 1);
+			while (TABLE_NAMES[i] != null)
+				i = (i + 1) & (tableSize - 1);
+			TABLE_NAMES[i] = SLOT_NAMES[slot];
+			TABLE_SLOTS[i] = slot;
+		}
+	}
+
+	/** Bit masks of the slots which are set: slots 0-63, then 64-127. */
+	private long lowSlots;
+
+	private long highSlots;
+
+	/** Values of the slots which are set, in slot order. */
+	private Object[] values = NO_VALUES;
+
+	/** Number of slots which are set. */
+	private int slotCount;
+
+	/** Features which do not have a slot, or <code>null</code> if none. */
+	private HashMap<String, Object> otherFeatures;
+
+	/**
+	 * Creates an empty feature map.
+	 */
+	public FeatureMap() {
+		// nothing to do
+	}
+
+	/**
+	 * Creates a feature map with the same features as another map.
+	 * 
+	 * @param features
+	 *            the features to copy.
+	 */
+	public FeatureMap(Map<String, Object> features) {
+		if (features instanceof FeatureMap) {
+			FeatureMap other = (FeatureMap) features;
+			this.lowSlots = other.lowSlots;
+			this.highSlots = other.highSlots;
+			this.slotCount = other.slotCount;
+			this.values = other.slotCount == 0 ? NO_VALUES : copyOf(
+					other.values, other.slotCount);
+			if (other.otherFeatures != null)
+				this.otherFeatures = new HashMap<String, Object>(
+						other.otherFeatures);
+		} else {
+			putAll(features);
+		}
+	}
+
+	/**
+	 * Gets the slot number of a feature.
+	 * 
+	 * @param featureName
+	 *            the name of the feature.
+	 * @return the slot, or -1 if the feature is not a known feature.
+	 */
+	public static int getSlot(Object featureName) {
+		if (!(featureName instanceof String))
+			return -1;
+		int mask = TABLE_NAMES.length - 1;
+		int i = hash((String) featureName) & mask;
+		String name;
+		while ((name = TABLE_NAMES[i]) != null) {
+			if (name == featureName || name.equals(featureName))
+				return TABLE_SLOTS[i];
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the number of known features, each of which has a slot.
+	 */
+	public static int getSlotCount() {
+		return SLOT_NAMES.length;
+	}
+
+	@Override
+	public Object get(Object key) {
+		int slot = getSlot(key);
+		if (slot < 0)
+			return this.otherFeatures != null ? this.otherFeatures.get(key)
+					: null;
+		return isSet(slot) ? this.values[index(slot)] : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		int slot = getSlot(key);
+		if (slot < 0)
+			return this.otherFeatures != null
+					&& this.otherFeatures.containsKey(key);
+		return isSet(slot);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		int slot = getSlot(key);
+		if (slot < 0) {
+			if (this.otherFeatures == null)
+				this.otherFeatures = new HashMap<String, Object>(4);
+			return this.otherFeatures.put(key, value);
+		}
+
+		int index = index(slot);
+		if (isSet(slot)) {
+			Object old = this.values[index];
+			this.values[index] = value;
+			return old;
+		}
+
+		if (this.slotCount == this.values.length) {
+			int length = this.slotCount < 4 ? 4 : this.slotCount
+					+ (this.slotCount >> 1);
+			this.values = copyOf(this.values, length);
+		}
+		System.arraycopy(this.values, index, this.values, index + 1,
+				this.slotCount - index);
+		this.values[index] = value;
+		this.slotCount++;
+		setBit(slot, true);
+		return null;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		int slot = getSlot(key);
+		if (slot < 0)
+			return this.otherFeatures != null ? this.otherFeatures.remove(key)
+					: null;
+		return isSet(slot) ? removeSlot(slot) : null;
+	}
+
+	@Override
+	public int size() {
+		return this.slotCount
+				+ (this.otherFeatures != null ? this.otherFeatures.size() : 0);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		this.lowSlots = 0;
+		this.highSlots = 0;
+		this.values = NO_VALUES;
+		this.slotCount = 0;
+		this.otherFeatures = null;
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return new AbstractSet<Map.Entry<String, Object>>() {
+			@Override
+			public Iterator<Map.Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return FeatureMap.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the known features in slot order, then the other
+	 * features.
+	 */
+	private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+		/** The next slot to look at. */
+		private int nextSlot = nextSetSlot(0);
+
+		/** The slot last returned, or -1. */
+		private int lastSlot = -1;
+
+		/** Iterator over other features, once the slots are done. */
+		private Iterator<Map.Entry<String, Object>> others;
+
+		public boolean hasNext() {
+			if (this.nextSlot >= 0)
+				return true;
+			if (this.others == null)
+				this.others = otherFeatures != null ? otherFeatures.entrySet()
+						.iterator() : null;
+			return this.others != null && this.others.hasNext();
+		}
+
+		public Map.Entry<String, Object> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			if (this.nextSlot >= 0) {
+				this.lastSlot = this.nextSlot;
+				this.nextSlot = nextSetSlot(this.nextSlot + 1);
+				return new SlotEntry(this.lastSlot);
+			}
+			this.lastSlot = -1;
+			return this.others.next();
+		}
+
+		public void remove() {
+			if (this.lastSlot >= 0) {
+				if (isSet(this.lastSlot))
+					removeSlot(this.lastSlot);
+				this.lastSlot = -1;
+			} else if (this.others != null) {
+				this.others.remove();
+			} else {
+				throw new IllegalStateException();
+			}
+		}
+	}
+
+	/**
+	 * An entry for a known feature, which reads and writes the map.
+	 */
+	private class SlotEntry implements Map.Entry<String, Object> {
+		private final int slot;
+
+		SlotEntry(int slot) {
+			this.slot = slot;
+		}
+
+		public String getKey() {
+			return SLOT_NAMES[this.slot];
+		}
+
+		public Object getValue() {
+			return isSet(this.slot) ? values[index(this.slot)] : null;
+		}
+
+		public Object setValue(Object value) {
+			return put(getKey(), value);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry<?, ?>))
+				return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			Object value = getValue();
+			return getKey().equals(e.getKey())
+					&& (value == null ? e.getValue() == null : value.equals(e
+							.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue(); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Removes a slot which is set.
+	 * 
+	 * @param slot
+	 *            the slot.
+	 * @return the old value.
+	 */
+	private Object removeSlot(int slot) {
+		int index = index(slot);
+		Object old = this.values[index];
+		System.arraycopy(this.values, index + 1, this.values, index,
+				this.slotCount - index - 1);
+		this.slotCount--;
+		this.values[this.slotCount] = null;
+		setBit(slot, false);
+		return old;
+	}
+
+	/**
+	 * @return true if the slot is set.
+	 */
+	private boolean isSet(int slot) {
+		return slot < 64 ? (this.lowSlots & (1L << slot)) != 0
+				: (this.highSlots & (1L << (slot - 64))) != 0;
+	}
+
+	private void setBit(int slot, boolean set) {
+		if (slot < 64) {
+			if (set)
+				this.lowSlots |= 1L << slot;
+			else
+				this.lowSlots &= ~(1L << slot);
+		} else {
+			if (set)
+				this.highSlots |= 1L << (slot - 64);
+			else
+				this.highSlots &= ~(1L << (slot - 64));
+		}
+	}
+
+	/**
+	 * @return the index in the value array of a slot: the number of set slots
+	 *         before it.
+	 */
+	private int index(int slot) {
+		if (slot < 64)
+			return Long.bitCount(this.lowSlots & ((1L << slot) - 1));
+		return Long.bitCount(this.lowSlots)
+				+ Long.bitCount(this.highSlots & ((1L << (slot - 64)) - 1));
+	}
+
+	/**
+	 * @return the first set slot at or after a slot, or -1 if there is none.
+	 */
+	private int nextSetSlot(int slot) {
+		if (slot < 64) {
+			long bits = this.lowSlots & (-1L << slot);
+			if (bits != 0)
+				return Long.numberOfTrailingZeros(bits);
+			slot = 64;
+		}
+		if (slot < MAX_SLOTS) {
+			long bits = this.highSlots & (-1L << (slot - 64));
+			if (bits != 0)
+				return 64 + Long.numberOfTrailingZeros(bits);
+		}
+		return -1;
+	}
+
+	private static int hash(String name) {
+		int h = name.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	private static Object[] copyOf(Object[] array, int length) {
+		Object[] copy = new Object[length];
+		System.arraycopy(array, 0, copy, 0, Math.min(array.length, length));
+		return copy;
+	}
+}
@@ -18,6 +18,7 @@
  */
 package simplenlg.framework;
 
+import java.util.Collections;
 import java.util.List;
 
 import simplenlg.features.InternalFeature;
@@ -78,6 +79,11 @@ public class InflectedWordElement extends NLGElement {
 		return null;
 	}
 
+	@Override
+	public List<NLGElement> getChildrenView() {
+		return Collections.emptyList();
+	}
+
 	@Override
 	public String toString() {
 		return "InflectedWordElement[" + getBaseForm() + ':' //$NON-NLS-1$
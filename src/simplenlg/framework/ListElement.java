@@ -72,6 +72,11 @@ public class ListElement extends NLGElement {
 		return getFeatureAsElementList(InternalFeature.COMPONENTS);
 	}
 
+	@Override
+	public List<NLGElement> getChildrenView() {
+		return getFeatureAsElementListView(InternalFeature.COMPONENTS);
+	}
+
 	/**
 	 * Creates a new list element containing the given component.
 	 * 
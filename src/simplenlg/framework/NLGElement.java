@@ -18,15 +18,19 @@
  */
 package simplenlg.framework;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.Map;
 
 import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
 import simplenlg.features.NumberAgreement;
 import simplenlg.features.Tense;
 
@@ -49,24 +53,65 @@ import simplenlg.features.Tense;
  * 
  * <p>
  * The features are stored in a <code>Map</code> of <code>String</code> (the
- * feature name) and <code>Object</code> (the value of the feature).
+ * feature name) and <code>Object</code> (the value of the feature). The map is
+ * a {@link FeatureMap}, which keeps the features named in the
+ * <code>features</code> package in fixed slots rather than in a hash table.
+ * </p>
+ * 
+ * <p>
+ * Element trees can be copied with {@link #deepCopy()}, or a little more
+ * cheaply with {@link #copyOnWrite()}, a deep copy whose words and other
+ * leaves share their feature maps with the original until one of them is
+ * changed.
+ * </p>
+ * 
+ * <p>
+ * Elements have a structural hash code, consistent with {@link #equals(Object)}
+ * , so they can be used as keys in hash tables. The hash code is kept once it
+ * has been computed if the element is the parent of every element in its
+ * features, and a change to an element drops its own hash code and those of
+ * the elements above it, found through their parents. Lists held in features
+ * are not watched, so they should be replaced rather than changed in place.
+ * Two elements whose hash codes are known and differ are found to be unequal
+ * without comparing their trees.
  * </p>
  * 
  * 
  * @author D. Westwater, University of Aberdeen.
  * @version 4.0
  */
-public abstract class NLGElement {
+public abstract class NLGElement implements Cloneable {
 
 	/** The category of this element. */
 	private ElementCategory category;
 
-	/** The features of this element. */
-	protected HashMap<String, Object> features = new HashMap<String, Object>();
+	/**
+	 * The features of this element. This is normally a {@link FeatureMap}, but
+	 * any <code>Map</code> may be used.
+	 */
+	protected Map<String, Object> features = new FeatureMap();
+
+	/**
+	 * Whether the feature map is shared with a copy-on-write copy, and must be
+	 * copied before it is changed.
+	 */
+	private volatile boolean sharedFeatures;
+
+	/** Whether <code>hash</code> holds a computed hash code. */
+	private volatile boolean hashComputed;
+
+	/** The cached hash code. */
+	private int hash;
 
 	/** The parent of this element. */
 	private NLGElement parent;
 
+	/**
+	 * The number of changes made to the category and features of this
+	 * element, so that what is read from them can be checked for staleness.
+	 */
+	private int changes;
+
 	/** The realisation of this element. */
 	private String realisation;
 
@@ -80,6 +125,7 @@ public abstract class NLGElement {
 	 *            the new <code>ElementCategory</code> for this element.
 	 */
 	public void setCategory(ElementCategory newCategory) {
+		changed();
 		this.category = newCategory;
 	}
 
@@ -106,9 +152,9 @@ public abstract class NLGElement {
 	public void setFeature(String featureName, Object featureValue) {
 		if (featureName != null) {
 			if (featureValue == null) {
-				this.features.remove(featureName);
+				writableFeatures().remove(featureName);
 			} else {
-				this.features.put(featureName, featureValue);
+				writableFeatures().put(featureName, featureValue);
 			}
 		}
 	}
@@ -123,7 +169,7 @@ public abstract class NLGElement {
 	 */
 	public void setFeature(String featureName, boolean featureValue) {
 		if (featureName != null) {
-			this.features.put(featureName, new Boolean(featureValue));
+			writableFeatures().put(featureName, Boolean.valueOf(featureValue));
 		}
 	}
 
@@ -137,7 +183,7 @@ public abstract class NLGElement {
 	 */
 	public void setFeature(String featureName, int featureValue) {
 		if (featureName != null) {
-			this.features.put(featureName, new Integer(featureValue));
+			writableFeatures().put(featureName, Integer.valueOf(featureValue));
 		}
 	}
 
@@ -151,7 +197,7 @@ public abstract class NLGElement {
 	 */
 	public void setFeature(String featureName, long featureValue) {
 		if (featureName != null) {
-			this.features.put(featureName, new Long(featureValue));
+			writableFeatures().put(featureName, Long.valueOf(featureValue));
 		}
 	}
 
@@ -165,7 +211,7 @@ public abstract class NLGElement {
 	 */
 	public void setFeature(String featureName, float featureValue) {
 		if (featureName != null) {
-			this.features.put(featureName, new Float(featureValue));
+			writableFeatures().put(featureName, Float.valueOf(featureValue));
 		}
 	}
 
@@ -180,7 +226,7 @@ public abstract class NLGElement {
 	 */
 	public void setFeature(String featureName, double featureValue) {
 		if (featureName != null) {
-			this.features.put(featureName, new Double(featureValue));
+			writableFeatures().put(featureName, Double.valueOf(featureValue));
 		}
 	}
 
@@ -192,7 +238,10 @@ public abstract class NLGElement {
 	 * @return the <code>Object</code> value of the feature.
 	 */
 	public Object getFeature(String featureName) {
-		return featureName != null ? this.features.get(featureName) : null;
+		if (featureName == null) {
+			return null;
+		}
+		return this.features.get(featureName);
 	}
 
 	/**
@@ -248,6 +297,63 @@ public abstract class NLGElement {
 		return list;
 	}
 	
+	/**
+	 * <p>
+	 * Retrieves a read-only view of the feature as a list of elements. This
+	 * returns the same elements as {@link #getFeatureAsElementList(String)}
+	 * but does not copy them: a list of elements is wrapped rather than copied
+	 * and a single element is returned as a singleton list. The view is meant
+	 * for walking the tree and should not be kept once the feature is changed.
+	 * </p>
+	 * 
+	 * @param featureName
+	 *            the name of the feature.
+	 * @return an unmodifiable <code>List</code> of <code>NLGElement</code>s
+	 */
+	public List<NLGElement> getFeatureAsElementListView(String featureName) {
+		return elementListView(getFeature(featureName));
+	}
+
+	/**
+	 * Wraps a feature value as a read-only list of elements. Lists holding
+	 * anything other than elements are rare, and are filtered into a new list.
+	 * 
+	 * @param value
+	 *            the feature value.
+	 * @return an unmodifiable <code>List</code> of <code>NLGElement</code>s
+	 */
+	@SuppressWarnings("unchecked")
+	static List<NLGElement> elementListView(Object value) {
+		if (value instanceof NLGElement) {
+			return Collections.singletonList((NLGElement) value);
+
+		} else if (value instanceof List<?>) {
+			List<?> values = (List<?>) value;
+			for (int index = 0; index < values.size(); index++) {
+				if (!(values.get(index) instanceof NLGElement)) {
+					List<NLGElement> list = new ArrayList<NLGElement>();
+					for (Object eachValue : values) {
+						if (eachValue instanceof NLGElement) {
+							list.add((NLGElement) eachValue);
+						}
+					}
+					return Collections.unmodifiableList(list);
+				}
+			}
+			return Collections.unmodifiableList((List<NLGElement>) values);
+
+		} else if (value instanceof Collection<?>) {
+			List<NLGElement> list = new ArrayList<NLGElement>();
+			for (Object eachValue : (Collection<?>) value) {
+				if (eachValue instanceof NLGElement) {
+					list.add((NLGElement) eachValue);
+				}
+			}
+			return Collections.unmodifiableList(list);
+		}
+		return Collections.emptyList();
+	}
+
 	/**
 	 * <p>
 	 * Retrieves the value of the feature as a list of java objects. If the feature
@@ -475,12 +581,15 @@ public abstract class NLGElement {
 	}
 
 	/**
-	 * Retrieves the map containing all the features for this element.
+	 * Retrieves the map containing all the features for this element. The map
+	 * is live: it always shows the current features, and changing it changes
+	 * the features of the element, just as <code>setFeature</code> and
+	 * <code>removeFeature</code> do.
 	 * 
 	 * @return a <code>Map</code> of <code>String</code>, <code>Object</code>.
 	 */
 	public Map<String, Object> getAllFeatures() {
-		return this.features;
+		return new FeatureView();
 	}
 
 	/**
@@ -503,14 +612,14 @@ public abstract class NLGElement {
 	 *            the name of the feature to be removed.
 	 */
 	public void removeFeature(String featureName) {
-		this.features.remove(featureName);
+		writableFeatures().remove(featureName);
 	}
 
 	/**
 	 * Deletes all the features in the map.
 	 */
 	public void clearAllFeatures() {
-		this.features.clear();
+		writableFeatures().clear();
 	}
 
 	/**
@@ -521,6 +630,11 @@ public abstract class NLGElement {
 	 *            element.
 	 */
 	public void setParent(NLGElement newParent) {
+		if (newParent != this.parent) {
+			// the old parent may have kept a hash code which includes this
+			// element's, and will no longer hear of changes to it
+			clearHashCodes(this.parent);
+		}
 		this.parent = newParent;
 	}
 
@@ -541,6 +655,7 @@ public abstract class NLGElement {
 	 *            this element.
 	 */
 	public void setRealisation(String realised) {
+		clearHashCodes(this);
 		this.realisation = realised;
 	}
 
@@ -610,14 +725,37 @@ public abstract class NLGElement {
 	 */
 	public abstract List<NLGElement> getChildren();
 
+	/**
+	 * Retrieves a read-only view of the children of this element. The view
+	 * holds the same elements, in the same order, as {@link #getChildren()}.
+	 * It should not be kept once the element is changed. Elements without
+	 * children return an empty list rather than <code>null</code>.
+	 * <p>
+	 * This default wraps the list built by <code>getChildren()</code>. The
+	 * element classes of this package override it to read the children from
+	 * the element's features instead, so walking a tree does not create a list
+	 * at every node; a new kind of element should do the same.
+	 * </p>
+	 * 
+	 * @return an unmodifiable <code>List</code> of <code>NLGElement</code>s
+	 *         representing the children of this element.
+	 */
+	public List<NLGElement> getChildrenView() {
+		List<NLGElement> children = getChildren();
+		return children == null ? Collections.<NLGElement> emptyList()
+				: Collections.unmodifiableList(children);
+	}
+
 	/**
 	 * Retrieves the set of features currently contained in the feature map.
+	 * The set is live, like {@link #getAllFeatures()}, and removing a name
+	 * from it removes the feature from the element.
 	 * 
 	 * @return a <code>Set</code> of <code>String</code>s representing the
 	 *         feature names. The set is unordered.
 	 */
 	public Set<String> getAllFeatureNames() {
-		return this.features.keySet();
+		return new FeatureView().keySet();
 	}
 
 	public String printTree(String indent) {
@@ -773,6 +911,392 @@ public abstract class NLGElement {
 		this.factory = factory;
 	}
 
+	/**
+	 * Creates a deep copy of this element and the elements below it. The copy
+	 * has its own feature maps and child lists, so it can be changed, or
+	 * realised, without affecting this element. Elements which appear more than
+	 * once in the tree are copied once. <code>WordElement</code>s which are
+	 * part of the tree (eg, the head of a phrase) are copied, as realisation
+	 * sets features on them, but the base words of
+	 * <code>InflectedWordElement</code>s are shared with the lexicon.
+	 * <p>
+	 * Parents are set within the copy; the copy itself has no parent.
+	 * 
+	 * @return the copy of this element.
+	 */
+	public NLGElement deepCopy() {
+		return copyTree(false);
+	}
+
+	/**
+	 * <p>
+	 * Creates a deep copy of this element whose leaves share their feature
+	 * maps with this element. Every element of the tree is copied, as by
+	 * {@link #deepCopy()}, so the copy can be changed, or realised, without
+	 * affecting this element, and every element with elements or lists among
+	 * its features (eg, a phrase) gets its own feature map. An element with
+	 * none (eg, a word) shares its feature map with its copy, and the map is
+	 * copied by whichever of the two is changed first, so reading either
+	 * element never changes it. This only saves copying the feature maps of
+	 * the leaves; the rest of the tree is copied in full.
+	 * </p>
+	 * <p>
+	 * This is meant for copying templates. Several threads may copy the same
+	 * template at once, as long as none of them changes it.
+	 * </p>
+	 * 
+	 * @return the copy of this element.
+	 */
+	public NLGElement copyOnWrite() {
+		return copyTree(true);
+	}
+
+	/**
+	 * Copies this element and the elements below it.
+	 * 
+	 * @param shareLeaves
+	 *            whether elements with no elements or lists among their
+	 *            features share their feature maps with their copies.
+	 * @return the copy of this element.
+	 */
+	private NLGElement copyTree(boolean shareLeaves) {
+		Map<NLGElement, NLGElement> copies = new IdentityHashMap<NLGElement, NLGElement>();
+		Map<NLGElement, NLGElement> containers = new IdentityHashMap<NLGElement, NLGElement>();
+		NLGElement copy = copyElement(this, copies, containers, shareLeaves);
+
+		// an element whose parent is not in the tree takes the element it was
+		// found in
+		for (Map.Entry<NLGElement, NLGElement> entry : copies.entrySet()) {
+			NLGElement parent = entry.getKey().parent;
+			NLGElement parentCopy = copies.get(parent);
+			entry.getValue().parent = parentCopy != null || parent == null ? parentCopy
+					: containers.get(entry.getKey());
+		}
+		copy.parent = null;
+
+		// components of a document always have the document as parent
+		for (NLGElement eachCopy : copies.values()) {
+			if (eachCopy instanceof DocumentElement) {
+				for (NLGElement component : eachCopy.getChildren()) {
+					component.parent = eachCopy;
+				}
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the feature map, ready to be changed. A map shared with a
+	 * copy-on-write copy is copied first.
+	 * 
+	 * @return the feature map of this element.
+	 */
+	private Map<String, Object> writableFeatures() {
+		changed();
+		if (this.sharedFeatures) {
+			this.features = new FeatureMap(this.features);
+			this.sharedFeatures = false;
+		}
+		return this.features;
+	}
+
+	/**
+	 * The features of this element as returned by {@link #getAllFeatures()}.
+	 * Reads go to the current feature map, and writes go through
+	 * {@link NLGElement#writableFeatures()}, so that a shared map is copied
+	 * first and the kept hash codes are dropped.
+	 */
+	private class FeatureView extends AbstractMap<String, Object> {
+
+		@Override
+		public Object get(Object key) {
+			return features.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return features.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			return features.size();
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			return writableFeatures().put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			return features.containsKey(key) ? writableFeatures().remove(key)
+					: null;
+		}
+
+		@Override
+		public void clear() {
+			if (!features.isEmpty()) {
+				writableFeatures().clear();
+			}
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					return new FeatureIterator<Map.Entry<String, Object>>() {
+						public Map.Entry<String, Object> next() {
+							final String key = nextKey();
+							return new AbstractMap.SimpleEntry<String, Object>(
+									key, features.get(key)) {
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public Object setValue(Object value) {
+									super.setValue(value);
+									return writableFeatures().put(key, value);
+								}
+							};
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return features.size();
+				}
+			};
+		}
+
+		@Override
+		public Set<String> keySet() {
+			// walks the names without making an entry for each
+			return new AbstractSet<String>() {
+				@Override
+				public Iterator<String> iterator() {
+					return new FeatureIterator<String>() {
+						public String next() {
+							return nextKey();
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return features.size();
+				}
+
+				@Override
+				public boolean contains(Object name) {
+					return features.containsKey(name);
+				}
+
+				@Override
+				public boolean remove(Object name) {
+					boolean present = features.containsKey(name);
+					FeatureView.this.remove(name);
+					return present;
+				}
+
+				@Override
+				public void clear() {
+					FeatureView.this.clear();
+				}
+			};
+		}
+	}
+
+	/**
+	 * Iterates over the feature map as it was when the iteration started.
+	 * Removing a feature, or setting the value of an entry, goes through
+	 * {@link NLGElement#writableFeatures()}; if that copies a shared map, the
+	 * iteration carries on over the old map, which is not changed.
+	 * 
+	 * @param <T>
+	 *            the type of the items returned, entries or names.
+	 */
+	private abstract class FeatureIterator<T> implements Iterator<T> {
+
+		private final Map<String, Object> map = features;
+		private final Iterator<Map.Entry<String, Object>> entries = this.map
+				.entrySet().iterator();
+		private String lastKey;
+
+		public boolean hasNext() {
+			return this.entries.hasNext();
+		}
+
+		/**
+		 * @return the name of the next feature.
+		 */
+		String nextKey() {
+			this.lastKey = this.entries.next().getKey();
+			return this.lastKey;
+		}
+
+		public void remove() {
+			if (this.lastKey == null) {
+				throw new IllegalStateException();
+			}
+			Map<String, Object> writable = writableFeatures();
+			if (writable == this.map) {
+				this.entries.remove();
+			} else {
+				writable.remove(this.lastKey);
+			}
+			this.lastKey = null;
+		}
+	}
+
+	/**
+	 * Copies an element and, recursively, the elements in its features.
+	 * 
+	 * @param element
+	 *            the element to be copied.
+	 * @param copies
+	 *            the elements copied so far and their copies.
+	 * @param containers
+	 *            the elements copied so far and the copy of the element each
+	 *            was first found in.
+	 * @param shareLeaves
+	 *            whether elements with no elements or lists among their
+	 *            features share their feature maps with their copies.
+	 * @return the copy.
+	 */
+	private static NLGElement copyElement(NLGElement element,
+			Map<NLGElement, NLGElement> copies,
+			Map<NLGElement, NLGElement> containers, boolean shareLeaves) {
+		NLGElement copy = copies.get(element);
+
+		if (copy == null) {
+			copy = cloneElement(element);
+			copies.put(element, copy);
+
+			boolean leaf = !hasElementValues(element);
+			if (leaf && element.hashComputed) {
+				// the copy of a leaf is the same as it, so keeps its hash code;
+				// the flag is read first, so the hash read is the one kept
+				copy.hash = element.hash;
+				copy.hashComputed = true;
+			}
+
+			if (shareLeaves && leaf) {
+				// not written if already set, as the element may be shared
+				// between threads (eg, a word in a lexicon)
+				if (!element.sharedFeatures) {
+					element.sharedFeatures = true;
+				}
+				copy.sharedFeatures = true;
+				return copy;
+			}
+			copy.features = new FeatureMap(element.features);
+			copy.sharedFeatures = false;
+
+			for (Map.Entry<String, Object> feature : copy.features.entrySet()) {
+				Object value = feature.getValue();
+				if (value instanceof NLGElement) {
+					if (!InternalFeature.BASE_WORD.equals(feature.getKey())) {
+						feature.setValue(copyChildElement((NLGElement) value,
+								copy, copies, containers, shareLeaves));
+					}
+				} else if (value instanceof List<?>) {
+					List<Object> listCopy = new ArrayList<Object>(
+							((List<?>) value).size());
+					for (Object eachValue : (List<?>) value) {
+						listCopy.add(eachValue instanceof NLGElement ? copyChildElement(
+								(NLGElement) eachValue, copy, copies, containers,
+								shareLeaves) : eachValue);
+					}
+					feature.setValue(listCopy);
+				}
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Copies an element found in the features of another, noting where it was
+	 * found.
+	 * 
+	 * @param element
+	 *            the element to be copied.
+	 * @param container
+	 *            the copy of the element it was found in.
+	 * @param copies
+	 *            the elements copied so far and their copies.
+	 * @param containers
+	 *            the elements copied so far and the copy of the element each
+	 *            was first found in.
+	 * @param shareLeaves
+	 *            whether elements with no elements or lists among their
+	 *            features share their feature maps with their copies.
+	 * @return the copy.
+	 */
+	private static NLGElement copyChildElement(NLGElement element,
+			NLGElement container, Map<NLGElement, NLGElement> copies,
+			Map<NLGElement, NLGElement> containers, boolean shareLeaves) {
+		if (!containers.containsKey(element)) {
+			containers.put(element, container);
+		}
+		return copyElement(element, copies, containers, shareLeaves);
+	}
+
+	/**
+	 * Checks whether any of the features of an element, other than its base
+	 * word, is an element or a list, which a copy needs copies of.
+	 * 
+	 * @param element
+	 *            the element.
+	 * @return <code>true</code> if the element has such features.
+	 */
+	private static boolean hasElementValues(NLGElement element) {
+		for (Map.Entry<String, Object> feature : element.features.entrySet()) {
+			Object value = feature.getValue();
+			if ((value instanceof NLGElement || value instanceof List<?>)
+					&& !InternalFeature.BASE_WORD.equals(feature.getKey())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Makes a shallow copy of an element, sharing its feature map. The copy
+	 * starts without a hash code, as copies are usually changed, and any
+	 * other fields which can be changed are dealt with by
+	 * {@link #copyFields(NLGElement)}.
+	 * 
+	 * @param element
+	 *            the element to be copied.
+	 * @return the copy.
+	 */
+	private static NLGElement cloneElement(NLGElement element) {
+		try {
+			NLGElement copy = (NLGElement) element.clone();
+			copy.hashComputed = false;
+			copy.copyFields(element);
+			return copy;
+		} catch (CloneNotSupportedException e) {
+			// cannot happen, NLGElement is Cloneable
+			throw new IllegalStateException(e.toString());
+		}
+	}
+
+	/**
+	 * Called on a copy just made by <code>clone()</code>, which shares all its
+	 * fields with the original. Subclasses with fields, other than the
+	 * features, which can be changed in place make sure here that changing
+	 * the copy does not change the original, or the other way round.
+	 * 
+	 * @param original
+	 *            the element this is a copy of.
+	 */
+	void copyFields(NLGElement original) {
+		// elements have no such fields
+	}
+
 	/**
 	 * An NLG element is equal to some object if the object is an NLGElement,
 	 * they have the same category and the same features.
@@ -781,13 +1305,139 @@ public abstract class NLGElement {
 	public boolean equals(Object o) {
 		boolean eq = false;
 
-		if (o instanceof NLGElement) {
+		if (o == this) {
+			eq = true;
+
+		} else if (o instanceof NLGElement) {
 			NLGElement element = (NLGElement) o;
 			eq = this.category == element.category
+					&& !hashCodesDiffer(this, element)
 					&& this.features.equals(element.features);
 		}
 
 		return eq;
 	}
 
+	/**
+	 * Returns a hash code computed from the category and features of the
+	 * element, and from the hash codes of the elements in its features. It is
+	 * kept until the element or an element below it is changed, if the
+	 * elements in its features have kept theirs and have this element as
+	 * parent, so that changes to them reach this element. Otherwise (eg, for
+	 * an inflected word, whose base word belongs to the lexicon) it is
+	 * computed each time.
+	 */
+	@Override
+	public int hashCode() {
+		if (this.hashComputed) {
+			return this.hash;
+		}
+		int newHash = computeHashCode();
+		if (canKeepHashCode()) {
+			this.hash = newHash;
+			// written last, so that a thread which sees the flag sees the hash
+			this.hashComputed = true;
+		}
+		return newHash;
+	}
+
+	/**
+	 * Checks whether the hash code just computed may be kept: every element
+	 * in the features of this element, directly or in a collection, has kept
+	 * its own hash code and has this element as parent.
+	 * 
+	 * @return <code>true</code> if the hash code may be kept.
+	 */
+	private boolean canKeepHashCode() {
+		for (Object value : this.features.values()) {
+			if (value instanceof NLGElement) {
+				if (!keepsHashCodeOf((NLGElement) value)) {
+					return false;
+				}
+			} else if (value instanceof Collection<?>) {
+				for (Object eachValue : (Collection<?>) value) {
+					if (eachValue instanceof NLGElement
+							&& !keepsHashCodeOf((NLGElement) eachValue)) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether a change to an element in the features of this one would
+	 * reach this element's kept hash code.
+	 * 
+	 * @param child
+	 *            the element in the features of this one.
+	 * @return <code>true</code> if the element has kept its hash code and has
+	 *         this element as parent.
+	 */
+	private boolean keepsHashCodeOf(NLGElement child) {
+		return child.parent == this && child.hashComputed;
+	}
+
+	/**
+	 * Computes the hash code of this element. Subclasses which compare other
+	 * fields in <code>equals</code> override this to match.
+	 * 
+	 * @return the hash code.
+	 */
+	int computeHashCode() {
+		return 31 * (this.category == null ? 0 : this.category.hashCode())
+				+ this.features.hashCode();
+	}
+
+	/**
+	 * Called when the category or features of the element are about to
+	 * change. Counts the change, and drops the kept hash codes of this element
+	 * and of the elements above it.
+	 */
+	void changed() {
+		this.changes++;
+		clearHashCodes(this);
+	}
+
+	/**
+	 * @return the number of changes made to the category and features of this
+	 *         element so far.
+	 */
+	int getChangeCount() {
+		return this.changes;
+	}
+
+	/**
+	 * Drops the kept hash code of an element and of the elements above it. An
+	 * element only keeps its hash code if the elements below it have kept
+	 * theirs, so the walk stops at the first element without one.
+	 * 
+	 * @param element
+	 *            the element, or <code>null</code>.
+	 */
+	private static void clearHashCodes(NLGElement element) {
+		while (element != null && element.hashComputed) {
+			element.hashComputed = false;
+			element = element.parent;
+		}
+	}
+
+	/**
+	 * Checks whether two elements are known to be unequal from their cached
+	 * hash codes. Hash codes are not computed here, so that comparing
+	 * elements has no side effects.
+	 * 
+	 * @param element1
+	 *            the first element.
+	 * @param element2
+	 *            the second element.
+	 * @return <code>true</code> if both elements have kept their hash codes
+	 *         and they differ.
+	 */
+	static boolean hashCodesDiffer(NLGElement element1, NLGElement element2) {
+		return element1.hashComputed && element2.hashComputed
+				&& element1.hash != element2.hash;
+	}
+
 }
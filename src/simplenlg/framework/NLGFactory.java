@@ -165,7 +165,8 @@ public class NLGFactory {
 	 * an <code>NLGElement</code> then that is returned unchanged. If a
 	 * <code>String</code> is passed as the word then the factory will look up
 	 * the <code>Lexicon</code> if one exists and use the details found to
-	 * create a new <code>WordElement</code>.
+	 * create a new <code>WordElement</code>. This is a copy of the lexicon's
+	 * word, so changing it does not change the lexicon.
 	 * 
 	 * @param word
 	 *            the base word for the new element. This can be a
@@ -192,6 +193,11 @@ public class NLGFactory {
 			// }
 			// wordElement = lexicon.getWord((String) word, category);
 			wordElement = lexicon.lookupWord((String) word, category);
+			// the lexicon's words are shared, so the caller gets a copy to
+			// change
+			if (wordElement != null) {
+				wordElement = wordElement.copyOnWrite();
+			}
 			if (PRONOUNS.contains(word)) {
 				setPronounFeatures(wordElement, (String) word);
 			}
@@ -252,7 +258,10 @@ public class NLGFactory {
 	}
 
 	/**
-	 * A helper method to set the features on newly created pronoun words.
+	 * A helper method to set the features on newly created pronoun words. Only
+	 * the features which do not already have the right values are set, so
+	 * that the copy of the word can go on sharing its feature map with the
+	 * lexicon.
 	 * 
 	 * @param wordElement
 	 *            the created element representing the pronoun.
@@ -260,50 +269,74 @@ public class NLGFactory {
 	 *            the base word for the pronoun.
 	 */
 	private void setPronounFeatures(NLGElement wordElement, String word) {
-		wordElement.setCategory(LexicalCategory.PRONOUN);
+		if (wordElement.getCategory() != LexicalCategory.PRONOUN) {
+			wordElement.setCategory(LexicalCategory.PRONOUN);
+		}
 		if (FIRST_PRONOUNS.contains(word)) {
-			wordElement.setFeature(Feature.PERSON, Person.FIRST);
+			setPronounFeature(wordElement, Feature.PERSON, Person.FIRST);
 		} else if (SECOND_PRONOUNS.contains(word)) {
-			wordElement.setFeature(Feature.PERSON, Person.SECOND);
+			setPronounFeature(wordElement, Feature.PERSON, Person.SECOND);
 
 			if ("yourself".equalsIgnoreCase(word)) { //$NON-NLS-1$
-				wordElement.setPlural(false);
+				setPronounFeature(wordElement, Feature.NUMBER,
+						NumberAgreement.SINGULAR);
 			} else if ("yourselves".equalsIgnoreCase(word)) { //$NON-NLS-1$
-				wordElement.setPlural(true);
+				setPronounFeature(wordElement, Feature.NUMBER,
+						NumberAgreement.PLURAL);
 			} else {
-				wordElement.setFeature(Feature.NUMBER, NumberAgreement.BOTH);
+				setPronounFeature(wordElement, Feature.NUMBER,
+						NumberAgreement.BOTH);
 			}
 		} else {
-			wordElement.setFeature(Feature.PERSON, Person.THIRD);
-		}
-		if (REFLEXIVE_PRONOUNS.contains(word)) {
-			wordElement.setFeature(LexicalFeature.REFLEXIVE, true);
-		} else {
-			wordElement.setFeature(LexicalFeature.REFLEXIVE, false);
+			setPronounFeature(wordElement, Feature.PERSON, Person.THIRD);
 		}
+		setPronounFeature(wordElement, LexicalFeature.REFLEXIVE,
+				REFLEXIVE_PRONOUNS.contains(word));
 		if (MASCULINE_PRONOUNS.contains(word)) {
-			wordElement.setFeature(LexicalFeature.GENDER, Gender.MASCULINE);
+			setPronounFeature(wordElement, LexicalFeature.GENDER,
+					Gender.MASCULINE);
 		} else if (FEMININE_PRONOUNS.contains(word)) {
-			wordElement.setFeature(LexicalFeature.GENDER, Gender.FEMININE);
+			setPronounFeature(wordElement, LexicalFeature.GENDER,
+					Gender.FEMININE);
 		} else {
-			wordElement.setFeature(LexicalFeature.GENDER, Gender.NEUTER);
+			setPronounFeature(wordElement, LexicalFeature.GENDER,
+					Gender.NEUTER);
 		}
 
-		if (POSSESSIVE_PRONOUNS.contains(word)) {
-			wordElement.setFeature(Feature.POSSESSIVE, true);
-		} else {
-			wordElement.setFeature(Feature.POSSESSIVE, false);
-		}
+		setPronounFeature(wordElement, Feature.POSSESSIVE,
+				POSSESSIVE_PRONOUNS.contains(word));
 
-		if (PLURAL_PRONOUNS.contains(word) && !SECOND_PRONOUNS.contains(word)) {
-			wordElement.setPlural(true);
+		if (PLURAL_PRONOUNS.contains(word)
+				&& !SECOND_PRONOUNS.contains(word)) {
+			setPronounFeature(wordElement, Feature.NUMBER,
+					NumberAgreement.PLURAL);
 		} else if (!EITHER_NUMBER_PRONOUNS.contains(word)) {
-			wordElement.setPlural(false);
+			setPronounFeature(wordElement, Feature.NUMBER,
+					NumberAgreement.SINGULAR);
 		}
 
 		if (EXPLETIVE_PRONOUNS.contains(word)) {
-			wordElement.setFeature(InternalFeature.NON_MORPH, true);
-			wordElement.setFeature(LexicalFeature.EXPLETIVE_SUBJECT, true);
+			setPronounFeature(wordElement, InternalFeature.NON_MORPH, true);
+			setPronounFeature(wordElement,
+					LexicalFeature.EXPLETIVE_SUBJECT, true);
+		}
+	}
+
+	/**
+	 * A helper method to set a feature on a pronoun word, unless it already has
+	 * the given value.
+	 * 
+	 * @param wordElement
+	 *            the element representing the pronoun.
+	 * @param featureName
+	 *            the name of the feature.
+	 * @param featureValue
+	 *            the value of the feature.
+	 */
+	private void setPronounFeature(NLGElement wordElement, String featureName,
+			Object featureValue) {
+		if (!featureValue.equals(wordElement.getFeature(featureName))) {
+			wordElement.setFeature(featureName, featureValue);
 		}
 	}
 
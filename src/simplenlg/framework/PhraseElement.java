@@ -18,9 +18,14 @@
  */
 package simplenlg.framework;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 
 import simplenlg.features.ClauseStatus;
 import simplenlg.features.DiscourseFunction;
@@ -45,6 +50,25 @@ import simplenlg.phrasespec.NPPhraseSpec;
  */
 public class PhraseElement extends NLGElement {
 
+	// the features holding the children of each kind of phrase, in order
+	private static final String[] CLAUSE_CHILDREN = { Feature.CUE_PHRASE,
+			InternalFeature.FRONT_MODIFIERS, InternalFeature.PREMODIFIERS,
+			InternalFeature.SUBJECTS, InternalFeature.VERB_PHRASE,
+			InternalFeature.COMPLEMENTS };
+
+	private static final String[] NOUN_PHRASE_CHILDREN = {
+			InternalFeature.SPECIFIER, InternalFeature.PREMODIFIERS,
+			InternalFeature.HEAD, InternalFeature.COMPLEMENTS,
+			InternalFeature.POSTMODIFIERS };
+
+	private static final String[] PHRASE_CHILDREN = {
+			InternalFeature.PREMODIFIERS, InternalFeature.HEAD,
+			InternalFeature.COMPLEMENTS, InternalFeature.POSTMODIFIERS };
+
+	// the cue phrase, specifier and head may be given as strings
+	private static final String[] SINGLE_CHILDREN = { Feature.CUE_PHRASE,
+			InternalFeature.SPECIFIER, InternalFeature.HEAD };
+
 	/**
 	 * Creates a new phrase of the given type.
 	 * 
@@ -155,6 +179,226 @@ public class PhraseElement extends NLGElement {
 		return children;
 	}
 
+	/**
+	 * Retrieves a read-only view of the child components of this phrase,
+	 * holding the same elements as {@link #getChildren()}. The view reads the
+	 * features of the phrase when it is used, so no list of children is built
+	 * just to walk over them.
+	 * 
+	 * @return an unmodifiable <code>List</code> of <code>NLGElement</code>s
+	 *         representing the child elements of this phrase.
+	 */
+	@Override
+	public List<NLGElement> getChildrenView() {
+		ElementCategory category = getCategory();
+		String[] features = null;
+
+		if (category instanceof PhraseCategory) {
+			switch ((PhraseCategory) category) {
+			case CLAUSE:
+				features = CLAUSE_CHILDREN;
+				break;
+
+			case NOUN_PHRASE:
+				features = NOUN_PHRASE_CHILDREN;
+				break;
+
+			case CANNED_TEXT:
+				break;
+
+			default:
+				features = PHRASE_CHILDREN;
+				break;
+			}
+		}
+		// canned text, and elements which are not phrases, have no children
+		return features == null ? Collections.<NLGElement> emptyList()
+				: new ChildrenView(features);
+	}
+
+	/**
+	 * The children of a phrase, read in turn from each of a list of features.
+	 * Iterating over the view walks the feature values themselves, so it reads
+	 * each feature once and copies nothing. Indexed access reads the children
+	 * into an array on first use, which is read again only after the phrase
+	 * has changed, so indexed loops take linear time. A cue phrase, specifier
+	 * or head given as a string is wrapped in a <code>StringElement</code> in
+	 * that array, and iterating takes it from there.
+	 */
+	private class ChildrenView extends AbstractList<NLGElement> {
+
+		private final String[] features;
+
+		// the children as last read, and the change count of the phrase then
+		private volatile Children children;
+
+		ChildrenView(String[] features) {
+			this.features = features;
+		}
+
+		@Override
+		public NLGElement get(int index) {
+			NLGElement[] elements = getElements();
+			if (index < 0 || index >= elements.length) {
+				throw new IndexOutOfBoundsException("Index: " + index //$NON-NLS-1$
+						+ ", Size: " + elements.length); //$NON-NLS-1$
+			}
+			return elements[index];
+		}
+
+		@Override
+		public int size() {
+			return getElements().length;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return !iterator().hasNext();
+		}
+
+		@Override
+		public Iterator<NLGElement> iterator() {
+			return new ChildIterator();
+		}
+
+		/**
+		 * @return the children, read again if the phrase has changed since
+		 *         they were last read.
+		 */
+		NLGElement[] getElements() {
+			int changes = getChangeCount();
+			Children current = this.children;
+			if (current == null || current.changes != changes) {
+				current = new Children(changes, readElements());
+				this.children = current;
+			}
+			return current.elements;
+		}
+
+		private NLGElement[] readElements() {
+			List<NLGElement> elements = new ArrayList<NLGElement>();
+			for (String feature : this.features) {
+				Object value = getFeature(feature);
+				if (value instanceof NLGElement) {
+					elements.add((NLGElement) value);
+				} else if (isSingle(feature)) {
+					if (value instanceof String) {
+						elements.add(new StringElement((String) value));
+					}
+				} else if (value instanceof Collection<?>) {
+					for (Object each : (Collection<?>) value) {
+						if (each instanceof NLGElement) {
+							elements.add((NLGElement) each);
+						}
+					}
+				}
+			}
+			return elements.toArray(new NLGElement[elements.size()]);
+		}
+
+		private boolean isSingle(String feature) {
+			for (String single : SINGLE_CHILDREN) {
+				if (single == feature) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Walks the features of the view in turn, stepping through the
+		 * elements of each list feature.
+		 */
+		private class ChildIterator implements Iterator<NLGElement> {
+
+			// the next feature to read
+			private int featureIndex = 0;
+
+			// the list feature being walked, and the position in it
+			private List<?> values = Collections.emptyList();
+			private int position = 0;
+
+			// the next child, and the number of children found so far
+			private NLGElement next;
+			private int count = 0;
+
+			ChildIterator() {
+				advance();
+			}
+
+			public boolean hasNext() {
+				return this.next != null;
+			}
+
+			public NLGElement next() {
+				if (this.next == null) {
+					throw new NoSuchElementException();
+				}
+				NLGElement child = this.next;
+				advance();
+				return child;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+			private void advance() {
+				this.next = null;
+				while (this.next == null) {
+					if (this.position < this.values.size()) {
+						Object value = this.values.get(this.position++);
+						if (value instanceof NLGElement) {
+							this.next = (NLGElement) value;
+						}
+
+					} else if (this.featureIndex < features.length) {
+						String feature = features[this.featureIndex];
+						Object value = getFeature(feature);
+						this.values = Collections.emptyList();
+						this.position = 0;
+
+						if (value instanceof NLGElement) {
+							this.next = (NLGElement) value;
+						} else if (isSingle(feature)) {
+							if (value instanceof String) {
+								// the wrapped string is the one indexed access
+								// gives
+								this.next = getElements()[this.count];
+							}
+						} else if (value instanceof List<?>) {
+							this.values = (List<?>) value;
+						} else if (value instanceof Collection<?>) {
+							this.values = new ArrayList<Object>(
+									(Collection<?>) value);
+						}
+						this.featureIndex++;
+
+					} else {
+						return;
+					}
+				}
+				this.count++;
+			}
+		}
+	}
+
+	/**
+	 * The children of a phrase as read by a view, with the change count of the
+	 * phrase when they were read. A view holds one of these in a single field,
+	 * so that threads reading the view at once see a matching pair.
+	 */
+	private static final class Children {
+
+		final int changes;
+		final NLGElement[] elements;
+
+		Children(int changes, NLGElement[] elements) {
+			this.changes = changes;
+			this.elements = elements;
+		}
+	}
+
 	/**
 	 * Sets the head, or main component, of this current phrase. For example,
 	 * the head for a verb phrase should be a verb while the head of a noun
@@ -19,6 +19,7 @@
 package simplenlg.framework;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -59,6 +60,11 @@ public class StringElement extends NLGElement {
 		return new ArrayList<NLGElement>();
 	}
 
+	@Override
+	public List<NLGElement> getChildrenView() {
+		return Collections.emptyList();
+	}
+
 	@Override
 	public String toString() {
 		return getRealisation();
@@ -73,6 +79,17 @@ public class StringElement extends NLGElement {
 		return super.equals(o) && (o instanceof StringElement) && realisationsMatch((StringElement) o);
 	}
 
+	/**
+	 * The hash code of a string element includes its text, which is compared
+	 * by <code>equals</code>.
+	 */
+	@Override
+	int computeHashCode() {
+		String text = getRealisation();
+		return 31 * super.computeHashCode()
+				+ (text == null ? 0 : text.hashCode());
+	}
+
 	private boolean realisationsMatch(StringElement o) {
 		if  (getRealisation() == null) {
 			return o.getRealisation() == null;
@@ -20,6 +20,7 @@ package simplenlg.framework;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedSet;
@@ -27,6 +28,7 @@ import java.util.TreeSet;
 
 import simplenlg.features.Inflection;
 import simplenlg.features.LexicalFeature;
+import simplenlg.morphology.english.InflectionTable;
 
 /**
  * This is the class for a lexical entry (ie, a word). Words are stored in a
@@ -82,6 +84,21 @@ public class WordElement extends NLGElement {
 		String getForm(String feature) {
 			return this.forms.get(feature);
 		}
+
+		/*
+		 * sets are equal if they have the same forms, as they are kept under
+		 * their inflection
+		 */
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof InflectionSet
+					&& this.forms.equals(((InflectionSet) o).forms);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.forms.hashCode();
+		}
 	}
 
 	// Words have baseForm, category, id, and features
@@ -94,8 +111,15 @@ public class WordElement extends NLGElement {
 
 	Map<Inflection, InflectionSet> inflVars; // the inflectional variants
 
+	// whether inflVars is shared with a copy, and must be copied before it is
+	// changed
+	private volatile boolean sharedInflVars;
+
 	Inflection defaultInfl; // the default inflectional variant
 
+	// precomputed inflected forms (may be null); dropped when the word changes
+	private volatile InflectionTable inflectionTable;
+
 	// LexicalCategory category; // type of word
 
 	/**********************************************************/
@@ -185,6 +209,7 @@ public class WordElement extends NLGElement {
 	 *            the baseForm to set
 	 */
 	public void setBaseForm(String baseForm) {
+		changed();
 		this.baseForm = baseForm;
 	}
 
@@ -193,9 +218,30 @@ public class WordElement extends NLGElement {
 	 *            the id to set
 	 */
 	public void setId(String id) {
+		changed();
 		this.id = id;
 	}
 
+	/**
+	 * @return the precomputed inflected forms of this word, or
+	 *         <code>null</code> if there are none
+	 */
+	public InflectionTable getInflectionTable() {
+		return this.inflectionTable;
+	}
+
+	/**
+	 * Sets the precomputed inflected forms of this word. This is meant for use
+	 * by a <code>Lexicon</code>; the table is dropped if the word is changed
+	 * afterwards.
+	 * 
+	 * @param inflectionTable
+	 *            the table, or <code>null</code>
+	 */
+	public void setInflectionTable(InflectionTable inflectionTable) {
+		this.inflectionTable = inflectionTable;
+	}
+
 	/**
 	 * Set the default inflectional variant of a word. This is mostly relevant
 	 * if the word has more than one possible inflectional variant (for example,
@@ -328,12 +374,13 @@ public class WordElement extends NLGElement {
 	 */
 	public void addInflectionalVariant(Inflection infl, String lexicalFeature,
 			String form) {
-		if (this.inflVars.containsKey(infl)) {
-			this.inflVars.get(infl).addForm(lexicalFeature, form);
+		Map<Inflection, InflectionSet> variants = writableInflVars();
+		if (variants.containsKey(infl)) {
+			variants.get(infl).addForm(lexicalFeature, form);
 		} else {
 			InflectionSet set = new InflectionSet(infl);
 			set.addForm(lexicalFeature, form);
-			this.inflVars.put(infl, set);
+			variants.put(infl, set);
 		}
 	}
 
@@ -344,7 +391,7 @@ public class WordElement extends NLGElement {
 	 *            the variant
 	 */
 	public void addInflectionalVariant(Inflection infl) {
-		this.inflVars.put(infl, new InflectionSet(infl));
+		writableInflVars().put(infl, new InflectionSet(infl));
 	}
 
 	/**
@@ -416,6 +463,11 @@ public class WordElement extends NLGElement {
 		return new ArrayList<NLGElement>();
 	}
 
+	@Override
+	public List<NLGElement> getChildrenView() {
+		return Collections.emptyList();
+	}
+
 	@Override
 	public String printTree(String indent) {
 		StringBuffer print = new StringBuffer();
@@ -431,20 +483,104 @@ public class WordElement extends NLGElement {
 	 * @param o
 	 *            the object
 	 * @return <code>true</code> iff the object is a word element with the same
-	 *         id and the same baseform and the same features.
+	 *         id, baseform, category, inflectional variants and default
+	 *         inflectional variant, and the same features.
 	 * 
 	 */
 	@Override
 	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
 		if (o instanceof WordElement) {
 			WordElement we = (WordElement) o;
 
-			return (this.baseForm == we.baseForm || this.baseForm
-					.equals(we.baseForm))
-					&& (this.id == we.id || this.id.equals(we.id))
+			return sameObject(this.baseForm, we.baseForm)
+					&& sameObject(this.id, we.id)
+					&& getCategory() == we.getCategory()
+					&& this.defaultInfl == we.defaultInfl
+					&& !hashCodesDiffer(this, we)
+					&& we.inflVars.equals(this.inflVars)
 					&& we.features.equals(this.features);
 		}
 
 		return false;
 	}
+
+	/**
+	 * @return <code>true</code> if both objects are <code>null</code>, or are
+	 *         equal
+	 */
+	private static boolean sameObject(Object object1, Object object2) {
+		return object1 == null ? object2 == null : object1.equals(object2);
+	}
+
+	/**
+	 * A copy of a word shares its inflectional variants with the original
+	 * until one of them adds a variant, which copies them first. So adding
+	 * variants to the copy (eg, of a word in the lexicon) does not change the
+	 * original.
+	 */
+	@Override
+	void copyFields(NLGElement original) {
+		WordElement word = (WordElement) original;
+		// not written if already set, as the word may be shared between
+		// threads (eg, a word in a lexicon)
+		if (!word.sharedInflVars) {
+			word.sharedInflVars = true;
+		}
+		this.sharedInflVars = true;
+	}
+
+	/**
+	 * Returns the inflectional variants, ready to be changed, like the
+	 * features: the hash code is dropped, and variants shared with a copy
+	 * are copied first.
+	 * 
+	 * @return the inflectional variants of this word
+	 */
+	private Map<Inflection, InflectionSet> writableInflVars() {
+		changed();
+		if (this.sharedInflVars) {
+			Map<Inflection, InflectionSet> copy = new HashMap<Inflection, InflectionSet>();
+			for (Map.Entry<Inflection, InflectionSet> variant : this.inflVars
+					.entrySet()) {
+				InflectionSet set = new InflectionSet(variant.getKey());
+				set.forms.putAll(variant.getValue().forms);
+				copy.put(variant.getKey(), set);
+			}
+			this.inflVars = copy;
+			this.sharedInflVars = false;
+		}
+		return this.inflVars;
+	}
+
+	/**
+	 * Changes to the features, category, base form, id or inflectional
+	 * variants of a word also make its inflected forms out of date, so its
+	 * table is dropped. Reading the word, eg to build a table or write it out,
+	 * keeps the table.
+	 */
+	@Override
+	void changed() {
+		super.changed();
+		this.inflectionTable = null;
+	}
+
+	/**
+	 * The hash code of a word comes from its base form, id, category,
+	 * inflectional variants and features, which are the fields compared by
+	 * <code>equals</code>.
+	 */
+	@Override
+	int computeHashCode() {
+		int hash = this.baseForm == null ? 0 : this.baseForm.hashCode();
+		hash = 31 * hash + (this.id == null ? 0 : this.id.hashCode());
+		hash = 31 * hash
+				+ (getCategory() == null ? 0 : getCategory().hashCode());
+		hash = 31 * hash
+				+ (this.defaultInfl == null ? 0 : this.defaultInfl.hashCode());
+		hash = 31 * hash + this.inflVars.hashCode();
+		return 31 * hash + this.features.hashCode();
+	}
 }
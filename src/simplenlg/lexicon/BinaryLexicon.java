@@ -0,0 +1,602 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.lexicon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import simplenlg.features.Inflection;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class reads words from a compiled (binary) lexicon, as written by
+ * {@link simplenlg.lexicon.BinaryLexiconWriter}. The file already contains the
+ * base form, variant and ID indices, so nothing needs to be parsed when the
+ * lexicon is opened: the file is memory-mapped, and each
+ * <code>WordElement</code> is only decoded the first time it is looked up.
+ *
+ * <P>
+ * A compiled lexicon answers the same queries as the
+ * {@link simplenlg.lexicon.XMLLexicon} it was compiled from. The simplenlg jar
+ * contains a compiled copy of the default lexicon (made by the
+ * <code>compile.lexicon</code> Ant target), which is loaded by the no-argument
+ * constructor.
+ *
+ * <P>
+ * File layout (fixed-size integers are 4 bytes, big-endian; lengths, counts,
+ * symbols and word numbers in records and index entries are varints, 7 bits a
+ * byte, so most take one or two bytes):
+ * <UL>
+ * <LI>header: magic number, format version, number of words, and offsets of
+ * the word table, symbol table and the base, variant and ID indices
+ * <LI>word records: base form, category, ID, default inflection, inflectional
+ * variants and features of each word
+ * <LI>word table: offset of each word record
+ * <LI>symbol table: feature names, categories and inflections, which are
+ * stored in word records as numbers
+ * <LI>base and variant indices: open-addressing hash tables from a key (eg, a
+ * base form) to an entry holding the key and the numbers of the words indexed
+ * under it
+ * <LI>ID index: a hash table from an ID straight to the number of its word,
+ * whose record holds the ID
+ * </UL>
+ */
+public class BinaryLexicon extends Lexicon {
+
+	// file format constants, shared with BinaryLexiconWriter
+	static final int MAGIC = 0x534E4C58; // "SNLX"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 32; // 8 ints
+
+	// types of feature values in a word record
+	static final byte TYPE_STRING = 0;
+	static final byte TYPE_BOOLEAN = 1;
+	static final byte TYPE_INFLECTION = 2;
+	static final byte TYPE_STRING_LIST = 3;
+	static final byte TYPE_INTEGER = 4;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	// classpath location of the compiled default lexicon
+	private static final String DEFAULT_LEXICON = "/simplenlg/lexicon/default-lexicon.bin"; //$NON-NLS-1$
+
+	// lexicon
+	private ByteBuffer buffer; // the compiled lexicon
+	private int wordCount; // number of words
+	private int wordTable; // offset of word table
+	private String[] symbols; // feature names, categories and inflections
+	private int baseIndex; // offset of base form index
+	private int variantIndex; // offset of variant index
+	private int idIndex; // offset of ID index
+	private AtomicReferenceArray<WordElement> decodedWords; // words decoded so
+	// far
+
+	/**********************************************************************/
+	// constructors
+	/**********************************************************************/
+
+	/**
+	 * Load the compiled default lexicon from the classpath. This is the same
+	 * lexicon as <code>new XMLLexicon()</code>, but is much quicker to open
+	 *
+	 * @throws IllegalArgumentException
+	 *             if there is no compiled default lexicon on the classpath
+	 */
+	public BinaryLexicon() {
+		this(getDefaultLexiconURI());
+	}
+
+	/**
+	 * Load a compiled lexicon from a named file
+	 *
+	 * @param filename
+	 */
+	public BinaryLexicon(String filename) {
+		this(new File(filename));
+	}
+
+	/**
+	 * Load a compiled lexicon from a File. The file is memory-mapped.
+	 *
+	 * @param file
+	 */
+	public BinaryLexicon(File file) {
+		super();
+		openLexicon(mapFile(file));
+	}
+
+	/**
+	 * Load a compiled lexicon from a URI. <code>file:</code> URIs are
+	 * memory-mapped, anything else (eg, a lexicon inside a jar) is read into
+	 * memory.
+	 *
+	 * @param lexiconURI
+	 */
+	public BinaryLexicon(URI lexiconURI) {
+		super();
+		if ("file".equalsIgnoreCase(lexiconURI.getScheme())) {
+			openLexicon(mapFile(new File(lexiconURI)));
+		} else {
+			try {
+				InputStream in = lexiconURI.toURL().openStream();
+				try {
+					openLexicon(ByteBuffer.wrap(readFully(in)));
+				} finally {
+					in.close();
+				}
+			} catch (IOException ex) {
+				throw new IllegalArgumentException(
+						"Cannot open compiled lexicon " + lexiconURI + ": "
+								+ ex.toString());
+			}
+		}
+	}
+
+	/**
+	 * @return location of the compiled default lexicon on the classpath
+	 */
+	private static URI getDefaultLexiconURI() {
+		URL url = BinaryLexicon.class.getResource(DEFAULT_LEXICON);
+		if (url == null)
+			throw new IllegalArgumentException("No compiled lexicon "
+					+ DEFAULT_LEXICON + " on the classpath");
+		try {
+			return url.toURI();
+		} catch (URISyntaxException ex) {
+			throw new IllegalArgumentException("Cannot open compiled lexicon "
+					+ url + ": " + ex.toString());
+		}
+	}
+
+	/**
+	 * check the header of a compiled lexicon, and set up the lexicon
+	 *
+	 * @param compiled
+	 */
+	private void openLexicon(ByteBuffer compiled) {
+		this.buffer = compiled;
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			throw new IllegalArgumentException("Not a compiled lexicon");
+		if (buffer.getInt(4) != VERSION)
+			throw new IllegalArgumentException(
+					"Unsupported compiled lexicon version " + buffer.getInt(4));
+
+		wordCount = buffer.getInt(8);
+		wordTable = buffer.getInt(12);
+		baseIndex = buffer.getInt(20);
+		variantIndex = buffer.getInt(24);
+		idIndex = buffer.getInt(28);
+
+		// the symbol table is small, so is read straight away
+		int[] pos = { buffer.getInt(16) };
+		symbols = new String[readVarint(pos)];
+		for (int i = 0; i < symbols.length; i++)
+			symbols[i] = readString(pos);
+		decodedWords = new AtomicReferenceArray<WordElement>(wordCount);
+	}
+
+	/**
+	 * memory-map a file (read only)
+	 *
+	 * @param file
+	 * @return
+	 */
+	private static ByteBuffer mapFile(File file) {
+		try {
+			FileInputStream in = new FileInputStream(file);
+			try {
+				FileChannel channel = in.getChannel();
+				return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel
+						.size());
+			} finally {
+				in.close();
+			}
+		} catch (IOException ex) {
+			throw new IllegalArgumentException("Cannot open compiled lexicon "
+					+ file + ": " + ex.toString());
+		}
+	}
+
+	/**
+	 * read all of a stream into a byte array
+	 *
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	private static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] chunk = new byte[8192];
+		int read;
+		while ((read = in.read(chunk)) > 0)
+			out.write(chunk, 0, read);
+		return out.toByteArray();
+	}
+
+	/******************************************************************************************/
+	// main methods to get data from lexicon
+	/******************************************************************************************/
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see simplenlg.lexicon.Lexicon#getWords(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
+		return getWordsFromIndex(baseForm, category, baseIndex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see simplenlg.lexicon.Lexicon#getWordsByID(java.lang.String)
+	 */
+	@Override
+	public List<WordElement> getWordsByID(String id) {
+		List<WordElement> result = new ArrayList<WordElement>();
+		if (id == null)
+			return result;
+
+		// the slots hold word numbers plus one
+		byte[] keyBytes = id.getBytes(UTF8);
+		int slotCount = buffer.getInt(idIndex);
+		int slot = getSlot(id, slotCount);
+		while (true) {
+			int wordNumber = buffer.getInt(idIndex + 4 + 4 * slot) - 1;
+			if (wordNumber < 0)
+				return result;
+			if (keyMatches(getIDOffset(wordNumber), keyBytes)) {
+				result.add(getWordByNumber(wordNumber));
+				return result;
+			}
+			slot = (slot + 1) % slotCount;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see simplenlg.lexicon.Lexicon#getWordsFromVariant(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public List<WordElement> getWordsFromVariant(String variant,
+			LexicalCategory category) {
+		return getWordsFromIndex(variant, category, variantIndex);
+	}
+
+	/**
+	 * @return number of words in this lexicon
+	 */
+	public int size() {
+		return wordCount;
+	}
+
+	/**
+	 * @return the words decoded so far; words decoded later get inflection
+	 *         tables as they are decoded
+	 */
+	@Override
+	protected Collection<WordElement> getLoadedWords() {
+		List<WordElement> words = new ArrayList<WordElement>();
+		for (int i = 0; i < decodedWords.length(); i++) {
+			WordElement word = decodedWords.get(i);
+			if (word != null)
+				words.add(word);
+		}
+		return words;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getForms(simplenlg.lexicon.LookupStage)
+	 */
+	@Override
+	Collection<String> getForms(LookupStage kind) {
+		int index = kind == LookupStage.BASE ? baseIndex
+				: kind == LookupStage.VARIANT ? variantIndex : idIndex;
+		List<String> forms = new ArrayList<String>();
+		int slotCount = buffer.getInt(index);
+		for (int slot = 0; slot < slotCount; slot++) {
+			int entry = buffer.getInt(index + 4 + 4 * slot);
+			if (entry == 0)
+				continue;
+			// ID slots hold word numbers plus one, other slots entry offsets
+			int keyOffset = index == idIndex ? getIDOffset(entry - 1) : entry;
+			forms.add(readString(new int[] { keyOffset }));
+		}
+		return forms;
+	}
+
+	/**
+	 * get matching words from one of the indices in the file
+	 *
+	 * @param indexKey
+	 * @param category
+	 * @param index
+	 *            - offset of index in file
+	 * @return
+	 */
+	private List<WordElement> getWordsFromIndex(String indexKey,
+			LexicalCategory category, int index) {
+		List<WordElement> result = new ArrayList<WordElement>();
+		if (indexKey == null)
+			return result;
+
+		int entry = findEntry(indexKey, index);
+		if (entry < 0)
+			return result;
+
+		// entry is key, number of words, word numbers
+		int[] pos = { entry };
+		skipString(pos);
+		int count = readVarint(pos);
+		for (int i = 0; i < count; i++) {
+			WordElement word = getWordByNumber(readVarint(pos));
+			if (category == LexicalCategory.ANY
+					|| word.getCategory() == category)
+				result.add(word);
+		}
+		return result;
+	}
+
+	/**
+	 * find the offset of the entry for a key in an index, using linear probing
+	 *
+	 * @param key
+	 * @param index
+	 *            - offset of index in file
+	 * @return offset of entry, or -1 if the key is not in the index
+	 */
+	private int findEntry(String key, int index) {
+		byte[] keyBytes = key.getBytes(UTF8);
+		int slotCount = buffer.getInt(index);
+		int slot = getSlot(key, slotCount);
+		while (true) {
+			int entry = buffer.getInt(index + 4 + 4 * slot);
+			if (entry == 0)
+				return -1;
+			if (keyMatches(entry, keyBytes))
+				return entry;
+			slot = (slot + 1) % slotCount;
+		}
+	}
+
+	/**
+	 * @param size
+	 *            - number of keys in an index
+	 * @return number of slots in its hash table, which is at most 3/4 full
+	 */
+	static int getSlotCount(int size) {
+		return size + size / 3 + 1;
+	}
+
+	/**
+	 * @param key
+	 * @param slotCount
+	 * @return the slot at which to start looking for a key
+	 */
+	static int getSlot(String key, int slotCount) {
+		return (key.hashCode() & 0x7FFFFFFF) % slotCount;
+	}
+
+	/**
+	 * @param offset
+	 *            - offset of a string in the file
+	 * @param keyBytes
+	 * @return true if the string stored at this offset is keyBytes
+	 */
+	private boolean keyMatches(int offset, byte[] keyBytes) {
+		int[] pos = { offset };
+		if (readVarint(pos) != keyBytes.length + 1)
+			return false;
+		for (int i = 0; i < keyBytes.length; i++)
+			if (buffer.get(pos[0] + i) != keyBytes[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * @param wordNumber
+	 * @return offset of the ID in a word record, which follows the base form
+	 *         and category
+	 */
+	private int getIDOffset(int wordNumber) {
+		int[] pos = { buffer.getInt(wordTable + 4 * wordNumber) };
+		skipString(pos);
+		readVarint(pos);
+		return pos[0];
+	}
+
+	/**
+	 * get a word by its number in the file, decoding it if this has not yet
+	 * been done
+	 *
+	 * @param wordNumber
+	 * @return
+	 */
+	private WordElement getWordByNumber(int wordNumber) {
+		WordElement word = decodedWords.get(wordNumber);
+		if (word == null) {
+			word = decodeWord(buffer.getInt(wordTable + 4 * wordNumber));
+			if (isPrecomputeInflections())
+				updateInflectionTable(word);
+			// if another thread got there first, use its word
+			if (!decodedWords.compareAndSet(wordNumber, null, word))
+				word = decodedWords.get(wordNumber);
+		}
+		return word;
+	}
+
+	/******************************************************************************************/
+	// decoding words
+	/******************************************************************************************/
+
+	/**
+	 * decode the word record at this offset. The features are written in name
+	 * order, not the order XMLLexicon sets them in, but feature maps are equal
+	 * whatever order their features were set in, so the word is the same. The
+	 * default_infl feature is set with the default inflection
+	 *
+	 * @param offset
+	 * @return
+	 */
+	private WordElement decodeWord(int offset) {
+		int[] pos = { offset };
+		WordElement word = new WordElement();
+		word.setBaseForm(readString(pos));
+		word.setCategory(LexicalCategory.valueOf(readSymbol(pos)));
+		word.setId(readString(pos));
+
+		String defaultInfl = readSymbol(pos);
+		int inflCount = readVarint(pos);
+		List<Inflection> inflections = new ArrayList<Inflection>(inflCount);
+		for (int i = 0; i < inflCount; i++)
+			inflections.add(Inflection.valueOf(readSymbol(pos)));
+
+		int featureCount = readVarint(pos);
+		for (int i = 0; i < featureCount; i++) {
+			String feature = readSymbol(pos);
+			word.setFeature(feature, readValue(pos));
+		}
+
+		if (defaultInfl != null)
+			word.setDefaultInflectionalVariant(Inflection.valueOf(defaultInfl));
+		for (Inflection infl : inflections)
+			word.addInflectionalVariant(infl);
+
+		return word;
+	}
+
+	/**
+	 * read a feature value
+	 *
+	 * @param pos
+	 * @return
+	 */
+	private Object readValue(int[] pos) {
+		byte type = buffer.get(pos[0]++);
+		switch (type) {
+		case TYPE_STRING:
+			return readString(pos);
+		case TYPE_BOOLEAN:
+			return Boolean.valueOf(buffer.get(pos[0]++) != 0);
+		case TYPE_INFLECTION:
+			return Inflection.valueOf(readSymbol(pos));
+		case TYPE_INTEGER:
+			return Integer.valueOf(readInt(pos));
+		case TYPE_STRING_LIST:
+			int count = readVarint(pos);
+			List<String> values = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++)
+				values.add(readString(pos));
+			return values;
+		default:
+			throw new IllegalStateException("Bad feature type " + type
+					+ " in compiled lexicon");
+		}
+	}
+
+	/**
+	 * read an int, and advance the position
+	 *
+	 * @param pos
+	 * @return
+	 */
+	private int readInt(int[] pos) {
+		int value = buffer.getInt(pos[0]);
+		pos[0] += 4;
+		return value;
+	}
+
+	/**
+	 * read a varint (7 bits a byte, low bits first, top bit set on all but
+	 * the last byte), and advance the position
+	 *
+	 * @param pos
+	 * @return
+	 */
+	private int readVarint(int[] pos) {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = buffer.get(pos[0]++);
+			value |= (b & 0x7F) << shift;
+			if (b >= 0)
+				return value;
+		}
+	}
+
+	/**
+	 * read a symbol (number in symbol table plus one; 0 is null), and advance
+	 * the position
+	 *
+	 * @param pos
+	 * @return
+	 */
+	private String readSymbol(int[] pos) {
+		int number = readVarint(pos);
+		return number == 0 ? null : symbols[number - 1];
+	}
+
+	/**
+	 * skip a string, advancing the position past it
+	 *
+	 * @param pos
+	 */
+	private void skipString(int[] pos) {
+		int length = readVarint(pos) - 1;
+		if (length > 0)
+			pos[0] += length;
+	}
+
+	/**
+	 * read a string (length plus one, then UTF-8 bytes; length 0 is null),
+	 * and advance the position
+	 *
+	 * @param pos
+	 * @return
+	 */
+	private String readString(int[] pos) {
+		int length = readVarint(pos) - 1;
+		if (length < 0)
+			return null;
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++)
+			bytes[i] = buffer.get(pos[0] + i);
+		pos[0] += length;
+		return new String(bytes, UTF8);
+	}
+}
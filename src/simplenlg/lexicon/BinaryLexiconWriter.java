@@ -0,0 +1,397 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.lexicon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class compiles an XML lexicon into the binary format read by
+ * {@link simplenlg.lexicon.BinaryLexicon}. The indices are taken from the
+ * loaded {@link simplenlg.lexicon.XMLLexicon}, so a compiled lexicon finds
+ * exactly the same words as the XML lexicon it came from.
+ *
+ * <P>
+ * Usage: <code>java simplenlg.lexicon.BinaryLexiconWriter lexicon.xml
+ * lexicon.bin</code>
+ */
+public class BinaryLexiconWriter {
+
+	// words in the order they are written, and their numbers
+	private List<WordElement> wordList = new ArrayList<WordElement>();
+	private Map<WordElement, Integer> wordNumbers = new IdentityHashMap<WordElement, Integer>();
+
+	// symbols (feature names, categories, inflections) and their numbers
+	private List<String> symbolList = new ArrayList<String>();
+	private Map<String, Integer> symbolNumbers = new HashMap<String, Integer>();
+
+	// the output, excluding header
+	private ByteArrayOutputStream body = new ByteArrayOutputStream();
+	private DataOutputStream data = new DataOutputStream(body);
+
+	/**
+	 * compile an XML lexicon file into a binary lexicon file
+	 *
+	 * @param args
+	 *            - XML lexicon filename, binary lexicon filename
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.out
+					.println("usage: BinaryLexiconWriter <lexicon.xml> <lexicon.bin>");
+			return;
+		}
+
+		try {
+			long startTime = System.currentTimeMillis();
+			XMLLexicon lexicon = new XMLLexicon(args[0]);
+			int words = write(lexicon, new File(args[1]));
+			System.out.format("Compiled %d words from %s to %s in %d ms%n",
+					words, args[0], args[1], System.currentTimeMillis()
+							- startTime);
+		} catch (IOException ex) {
+			System.out.println("Cannot write compiled lexicon: "
+					+ ex.toString());
+		}
+	}
+
+	/**
+	 * write a loaded XML lexicon to a file in binary form
+	 *
+	 * @param lexicon
+	 * @param file
+	 * @return number of words written
+	 * @throws IOException
+	 */
+	public static int write(XMLLexicon lexicon, File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			return write(lexicon, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * write a loaded XML lexicon to a stream in binary form
+	 *
+	 * @param lexicon
+	 * @param out
+	 * @return number of words written
+	 * @throws IOException
+	 */
+	public static int write(XMLLexicon lexicon, OutputStream out)
+			throws IOException {
+		BinaryLexiconWriter writer = new BinaryLexiconWriter();
+
+		// number words in the order they were loaded; also pick up words
+		// which are only in the indices (eg, duplicates)
+		for (WordElement word : lexicon.getAllWords())
+			writer.numberWord(word);
+		for (List<WordElement> words : lexicon.getBaseIndex().values())
+			for (WordElement word : words)
+				writer.numberWord(word);
+		for (List<WordElement> words : lexicon.getVariantIndex().values())
+			for (WordElement word : words)
+				writer.numberWord(word);
+
+		Map<String, WordElement> idIndex = lexicon.getIDIndex();
+		for (WordElement word : idIndex.values())
+			writer.numberWord(word);
+
+		writer.writeBody(lexicon.getBaseIndex(), lexicon.getVariantIndex(),
+				idIndex, out);
+		return writer.wordList.size();
+	}
+
+	/**
+	 * give a word a number, unless it already has one
+	 *
+	 * @param word
+	 */
+	private void numberWord(WordElement word) {
+		if (!wordNumbers.containsKey(word)) {
+			wordNumbers.put(word, wordList.size());
+			wordList.add(word);
+		}
+	}
+
+	/**
+	 * write words, word table and indices, then header and body to out
+	 *
+	 * @param baseIndex
+	 * @param variantIndex
+	 * @param idIndex
+	 * @param out
+	 * @throws IOException
+	 */
+	private void writeBody(Map<String, List<WordElement>> baseIndex,
+			Map<String, List<WordElement>> variantIndex,
+			Map<String, WordElement> idIndex, OutputStream out)
+			throws IOException {
+		int[] wordOffsets = new int[wordList.size()];
+		for (int i = 0; i < wordList.size(); i++) {
+			wordOffsets[i] = offset();
+			writeWord(wordList.get(i));
+		}
+
+		int wordTable = offset();
+		for (int wordOffset : wordOffsets)
+			data.writeInt(wordOffset);
+
+		int symbolTable = offset();
+		writeVarint(symbolList.size());
+		for (String symbol : symbolList)
+			writeString(symbol);
+
+		int baseIndexOffset = writeIndex(baseIndex);
+		int variantIndexOffset = writeIndex(variantIndex);
+		int idIndexOffset = writeIDIndex(idIndex);
+		data.flush();
+
+		DataOutputStream header = new DataOutputStream(out);
+		header.writeInt(BinaryLexicon.MAGIC);
+		header.writeInt(BinaryLexicon.VERSION);
+		header.writeInt(wordList.size());
+		header.writeInt(wordTable);
+		header.writeInt(symbolTable);
+		header.writeInt(baseIndexOffset);
+		header.writeInt(variantIndexOffset);
+		header.writeInt(idIndexOffset);
+		body.writeTo(header);
+		header.flush();
+	}
+
+	/**
+	 * @return offset in file of the next byte to be written
+	 */
+	private int offset() {
+		return BinaryLexicon.HEADER_SIZE + data.size();
+	}
+
+	/**
+	 * write a word record
+	 *
+	 * @param word
+	 * @throws IOException
+	 */
+	private void writeWord(WordElement word) throws IOException {
+		writeString(word.getBaseForm());
+		writeSymbol(word.getCategory().toString());
+		writeString(word.getId());
+
+		Object defaultInfl = word.getDefaultInflectionalVariant();
+		writeSymbol(defaultInfl == null ? null : defaultInfl.toString());
+		List<Inflection> inflections = new ArrayList<Inflection>();
+		for (Inflection infl : Inflection.values())
+			if (word.hasInflectionalVariant(infl))
+				inflections.add(infl);
+		writeVarint(inflections.size());
+		for (Inflection infl : inflections)
+			writeSymbol(infl.toString());
+
+		// null features are not stored by WordElement, so all are written,
+		// in name order so that the file does not depend on map order. The
+		// default_infl feature is left out if it is the default inflection,
+		// as setting that sets the feature too
+		Map<String, Object> features = new TreeMap<String, Object>(word
+				.getAllFeatures());
+		if (defaultInfl != null
+				&& defaultInfl.equals(features.get(LexicalFeature.DEFAULT_INFL)))
+			features.remove(LexicalFeature.DEFAULT_INFL);
+		writeVarint(features.size());
+		for (Map.Entry<String, Object> feature : features.entrySet()) {
+			writeSymbol(feature.getKey());
+			writeValue(feature.getValue());
+		}
+	}
+
+	/**
+	 * write a feature value. Values which are not strings, booleans,
+	 * inflections, integers or collections are written as strings
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeValue(Object value) throws IOException {
+		if (value instanceof Boolean) {
+			data.writeByte(BinaryLexicon.TYPE_BOOLEAN);
+			data.writeByte(((Boolean) value).booleanValue() ? 1 : 0);
+		} else if (value instanceof Inflection) {
+			data.writeByte(BinaryLexicon.TYPE_INFLECTION);
+			writeSymbol(value.toString());
+		} else if (value instanceof Integer) {
+			data.writeByte(BinaryLexicon.TYPE_INTEGER);
+			data.writeInt(((Integer) value).intValue());
+		} else if (value instanceof Collection<?>) {
+			data.writeByte(BinaryLexicon.TYPE_STRING_LIST);
+			writeVarint(((Collection<?>) value).size());
+			for (Object eachValue : (Collection<?>) value)
+				writeString(eachValue.toString());
+		} else {
+			data.writeByte(BinaryLexicon.TYPE_STRING);
+			writeString(value.toString());
+		}
+	}
+
+	/**
+	 * write an index as an open-addressing hash table. The entries (key, word
+	 * count, word numbers) are written first, then the slot count and slots,
+	 * which hold entry offsets
+	 *
+	 * @param index
+	 * @return offset of slot count
+	 * @throws IOException
+	 */
+	private int writeIndex(Map<String, List<WordElement>> index)
+			throws IOException {
+		int[] slots = new int[BinaryLexicon.getSlotCount(index.size())];
+
+		// sorted so that the file does not depend on HashMap order
+		for (Map.Entry<String, List<WordElement>> entry : new TreeMap<String, List<WordElement>>(
+				index).entrySet()) {
+			slots[freeSlot(slots, entry.getKey())] = offset();
+
+			writeString(entry.getKey());
+			writeVarint(entry.getValue().size());
+			for (WordElement word : entry.getValue())
+				writeVarint(wordNumbers.get(word));
+		}
+		return writeSlots(slots);
+	}
+
+	/**
+	 * write the ID index. Each ID names one word, whose record holds the ID,
+	 * so the slots hold word numbers (plus one, as 0 is an empty slot) and
+	 * there are no entries
+	 *
+	 * @param index
+	 * @return offset of slot count
+	 * @throws IOException
+	 *             if a word is indexed under an ID which is not its own
+	 */
+	private int writeIDIndex(Map<String, WordElement> index)
+			throws IOException {
+		int[] slots = new int[BinaryLexicon.getSlotCount(index.size())];
+		for (Map.Entry<String, WordElement> entry : new TreeMap<String, WordElement>(
+				index).entrySet()) {
+			if (!entry.getKey().equals(entry.getValue().getId()))
+				throw new IOException("Word " + entry.getValue()
+						+ " is indexed under ID " + entry.getKey());
+			slots[freeSlot(slots, entry.getKey())] = wordNumbers.get(entry
+					.getValue()) + 1;
+		}
+		return writeSlots(slots);
+	}
+
+	/**
+	 * @param slots
+	 * @param key
+	 * @return the first free slot for key, probing linearly from its hash
+	 */
+	private static int freeSlot(int[] slots, String key) {
+		int slot = BinaryLexicon.getSlot(key, slots.length);
+		while (slots[slot] != 0)
+			slot = (slot + 1) % slots.length;
+		return slot;
+	}
+
+	/**
+	 * write the slot count and slots of an index
+	 *
+	 * @param slots
+	 * @return offset of slot count
+	 * @throws IOException
+	 */
+	private int writeSlots(int[] slots) throws IOException {
+		int indexOffset = offset();
+		data.writeInt(slots.length);
+		for (int slot : slots)
+			data.writeInt(slot);
+		return indexOffset;
+	}
+
+	/**
+	 * write a symbol as its number in the symbol table plus one, adding it to
+	 * the table if necessary; null is written as 0
+	 *
+	 * @param symbol
+	 * @throws IOException
+	 */
+	private void writeSymbol(String symbol) throws IOException {
+		if (symbol == null) {
+			writeVarint(0);
+		} else {
+			Integer number = symbolNumbers.get(symbol);
+			if (number == null) {
+				number = symbolList.size();
+				symbolNumbers.put(symbol, number);
+				symbolList.add(symbol);
+			}
+			writeVarint(number + 1);
+		}
+	}
+
+	/**
+	 * write a string as its length plus one and its UTF-8 bytes; null is
+	 * written as length 0
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeString(String value) throws IOException {
+		if (value == null) {
+			writeVarint(0);
+		} else {
+			byte[] bytes = value.getBytes(BinaryLexicon.UTF8);
+			writeVarint(bytes.length + 1);
+			data.write(bytes);
+		}
+	}
+
+	/**
+	 * write a non-negative number in as few bytes as it needs: 7 bits a
+	 * byte, low bits first, with the top bit set on all but the last byte
+	 *
+	 * @param value
+	 * @throws IOException
+	 */
+	private void writeVarint(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			data.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data.writeByte(value);
+	}
+}
@@ -18,10 +18,25 @@
  */
 package simplenlg.lexicon;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import simplenlg.framework.InflectedWordElement;
 import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
 import simplenlg.framework.WordElement;
+import simplenlg.morphology.english.InflectionTable;
 
 /**
  * This is the generic abstract class for a Lexicon. In simplenlg V4, a
@@ -32,7 +47,8 @@ import simplenlg.framework.WordElement;
  * {@link simplenlg.lexicon.NIHDBLexicon}) or from an XML file (
  * {@link simplenlg.lexicon.XMLLexicon}). Simplenlg V4 comes with a default
  * (XML) lexicon, which is retrieved by the <code>getDefaultLexicon</code>
- * method.
+ * method. The default lexicon is shared by everyone in the JVM; use
+ * <code>createDefaultLexicon</code> for a private copy.
  * 
  * There are several ways of retrieving words. If in doubt, use
  * <code>lookupWord</code>. More control is available from the
@@ -71,22 +87,113 @@ import simplenlg.framework.WordElement;
  * at least one matching <code>WordElement</code>
  * </UL>
  * 
+ * Many words can be looked up at once with the batch methods, which take a
+ * collection of {@link simplenlg.lexicon.WordQuery}. This is much faster for
+ * lexicons which make a DB query per lookup.
+ * 
  * @author Albert Gatt (simplenlg v3 lexicon)
  * @author Ehud Reiter (simplenlg v4 lexicon)
  */
 
 public abstract class Lexicon {
 
+	/** default number of forms kept in the negative lookup cache */
+	public static final int DEFAULT_NEGATIVE_CACHE_SIZE = 1000;
+
+	// number of lookupWord calls resolved by each LookupStage
+	private final AtomicLong[] lookupCounts = new AtomicLong[LookupStage
+			.values().length];
+
+	// negative lookup cache: forms which lookupWord did not find, with the
+	// categories they were looked up with; forms are evicted oldest first
+	private int negativeCacheSize = DEFAULT_NEGATIVE_CACHE_SIZE;
+	private final ConcurrentHashMap<String, Miss> misses = new ConcurrentHashMap<String, Miss>();
+	private final ConcurrentLinkedQueue<String> missOrder = new ConcurrentLinkedQueue<String>();
+	private final AtomicLong negativeCacheHits = new AtomicLong();
+
+	// whether loaded words get precomputed inflection tables
+	private volatile boolean precomputeInflections = false;
+
+	// whether this is the default lexicon shared by the whole JVM, whose
+	// words are not changed
+	private boolean shared = false;
+
+	/**
+	 * A form which lookupWord did not find
+	 */
+	private static class Miss {
+		// bit set of LexicalCategory ordinals this form was not found with
+		final AtomicInteger categories = new AtomicInteger();
+
+		// number of lookups of this form which created a word
+		final AtomicInteger count = new AtomicInteger();
+
+		boolean hasCategory(LexicalCategory category) {
+			return (categories.get() & (1 << category.ordinal())) != 0;
+		}
+
+		void addCategory(LexicalCategory category) {
+			int current;
+			do {
+				current = categories.get();
+			} while (!categories.compareAndSet(current, current
+					| (1 << category.ordinal())));
+		}
+	}
+
+	/**
+	 * create a lexicon
+	 */
+	public Lexicon() {
+		for (int i = 0; i < lookupCounts.length; i++)
+			lookupCounts[i] = new AtomicLong();
+	}
+
 	/****************************************************************************/
 	// constructors and related
 	/****************************************************************************/
 
 	/**
-	 * returns the default built-in lexicon
+	 * Holder for the shared default lexicon. The lexicon is loaded the first
+	 * time it is asked for; class initialisation guarantees that this happens
+	 * once, and that all threads see the fully loaded lexicon.
+	 */
+	private static class DefaultLexiconHolder {
+		static final Lexicon DEFAULT_LEXICON = createSharedLexicon();
+
+		private static Lexicon createSharedLexicon() {
+			Lexicon lexicon = new XMLLexicon();
+			lexicon.shared = true;
+			return lexicon;
+		}
+	}
+
+	/**
+	 * returns the default built-in lexicon. This is loaded once per JVM and
+	 * shared by all callers, so it may be read from many threads at once, and
+	 * its words must not be changed. The lists it returns are read-only, and
+	 * it cannot be made to precompute inflections. <code>NLGFactory</code>
+	 * copies the words it looks up before putting them in phrases, so
+	 * building and realising phrases leaves the lexicon as it was loaded.
+	 * Callers which need a lexicon of their own (eg, to change the
+	 * <code>WordElement</code>s returned by <code>getWord</code>) should use
+	 * {@link #createDefaultLexicon()} instead
 	 * 
 	 * @return default lexicon
 	 */
 	public static Lexicon getDefaultLexicon() {
+		return DefaultLexiconHolder.DEFAULT_LEXICON;
+	}
+
+	/**
+	 * returns a new, private copy of the default built-in lexicon. Unlike
+	 * {@link #getDefaultLexicon()}, this loads the lexicon again each time it
+	 * is called, so the caller may change its words without affecting anyone
+	 * else
+	 * 
+	 * @return new default lexicon
+	 */
+	public static Lexicon createDefaultLexicon() {
 		return new XMLLexicon();
 	}
 
@@ -130,21 +237,57 @@ public abstract class Lexicon {
 
 	/**
 	 * General word lookup method, tries base form, variant, ID (in this order)
-	 * Creates new word if can't find existing word
+	 * Creates new word if can't find existing word. Forms which are not found
+	 * are remembered in a negative cache (see
+	 * {@link #setNegativeCacheSize(int)}), so looking them up again goes
+	 * straight to creating the word. The stage which resolved each lookup is
+	 * counted (see {@link #getLookupCount(LookupStage)})
 	 * 
 	 * @param baseForm
 	 * @param category
 	 * @return word
 	 */
 	public WordElement lookupWord(String baseForm, LexicalCategory category) {
-		if (hasWord(baseForm, category))
-			return getWord(baseForm, category);
-		else if (hasWordFromVariant(baseForm, category))
-			return getWordFromVariant(baseForm, category);
-		else if (hasWordByID(baseForm))
-			return getWordByID(baseForm);
-		else
+		if (isKnownMiss(baseForm, category)) {
+			recordLookup(LookupStage.CREATED);
 			return createWord(baseForm, category);
+		}
+
+		// each index is only searched once (not once by hasXXX and again by
+		// getXXX)
+		List<WordElement> wordElements = getWords(baseForm, category);
+		if (!wordElements.isEmpty()) {
+			recordLookup(LookupStage.BASE);
+			return selectMatchingWord(wordElements, baseForm);
+		}
+
+		wordElements = getWordsFromVariant(baseForm, category);
+		if (!wordElements.isEmpty()) {
+			recordLookup(LookupStage.VARIANT);
+			return wordElements.get(0);
+		}
+
+		return lookupWordByID(baseForm, category);
+	}
+
+	/**
+	 * last stages of <code>lookupWord</code>, for a form which is not a base
+	 * form or variant: look it up as an ID, or else create a word
+	 * 
+	 * @param baseForm
+	 * @param category
+	 * @return word
+	 */
+	private WordElement lookupWordByID(String baseForm, LexicalCategory category) {
+		List<WordElement> wordElements = getWordsByID(baseForm);
+		if (!wordElements.isEmpty()) {
+			recordLookup(LookupStage.ID);
+			return wordElements.get(0);
+		}
+
+		recordMiss(baseForm, category);
+		recordLookup(LookupStage.CREATED);
+		return createWord(baseForm, category);
 	}
 
 	/**
@@ -158,6 +301,224 @@ public abstract class Lexicon {
 		return lookupWord(baseForm, LexicalCategory.ANY);
 	}
 
+	/****************************************************************************/
+	// lookup statistics and negative lookup cache
+	/****************************************************************************/
+
+	/**
+	 * count a lookupWord call which was resolved by this stage. Subclasses
+	 * which override <code>lookupWord</code> should call this, and use
+	 * {@link #isKnownMiss(String, LexicalCategory)} and
+	 * {@link #recordMiss(String, LexicalCategory)} for forms which are not in
+	 * the lexicon
+	 * 
+	 * @param stage
+	 */
+	protected void recordLookup(LookupStage stage) {
+		lookupCounts[stage.ordinal()].incrementAndGet();
+	}
+
+	/**
+	 * get the number of lookupWord calls which were resolved by a stage; for
+	 * example, <code>getLookupCount(LookupStage.CREATED)</code> is the number
+	 * of lookups which did not find a word in the lexicon
+	 * 
+	 * @param stage
+	 * @return number of lookups
+	 */
+	public long getLookupCount(LookupStage stage) {
+		return lookupCounts[stage.ordinal()].get();
+	}
+
+	/**
+	 * @return number of lookupWord calls which were answered by the negative
+	 *         cache, without searching the lexicon
+	 */
+	public long getNegativeCacheHits() {
+		return negativeCacheHits.get();
+	}
+
+	/**
+	 * set all lookup counts (including negative cache hits) to zero
+	 */
+	public void resetLookupStatistics() {
+		for (AtomicLong count : lookupCounts)
+			count.set(0);
+		negativeCacheHits.set(0);
+	}
+
+	/**
+	 * get the forms in the negative cache, with the number of times each was
+	 * looked up and not found. This is useful for deciding which words should
+	 * be added to the lexicon
+	 * 
+	 * @return map from form to number of lookups which created a word
+	 */
+	public Map<String, Integer> getMissedForms() {
+		Map<String, Integer> result = new HashMap<String, Integer>();
+		for (Map.Entry<String, Miss> entry : misses.entrySet())
+			result.put(entry.getKey(), entry.getValue().count.get());
+		return result;
+	}
+
+	/**
+	 * @return maximum number of forms kept in the negative lookup cache
+	 */
+	public int getNegativeCacheSize() {
+		return negativeCacheSize;
+	}
+
+	/**
+	 * set the maximum number of forms kept in the negative lookup cache. When
+	 * the cache is full, the oldest form is dropped. 0 turns the cache off
+	 * 
+	 * @param negativeCacheSize
+	 */
+	public void setNegativeCacheSize(int negativeCacheSize) {
+		this.negativeCacheSize = negativeCacheSize;
+		while (misses.size() > negativeCacheSize && !missOrder.isEmpty())
+			misses.remove(missOrder.poll());
+	}
+
+	/**
+	 * empty the negative lookup cache. Lexicons whose contents can change
+	 * must call this when they do
+	 */
+	public void clearNegativeCache() {
+		misses.clear();
+		missOrder.clear();
+	}
+
+	/**
+	 * @return true if the inflected forms of words are worked out when they
+	 *         are loaded
+	 */
+	public boolean isPrecomputeInflections() {
+		return precomputeInflections;
+	}
+
+	/**
+	 * set whether the inflected forms of words are worked out when they are
+	 * loaded, and kept in an {@link InflectionTable} on each word, so that the
+	 * morphology processor looks them up instead of applying its rules each
+	 * time. Words already loaded get (or lose) their tables now. The tables
+	 * cost memory, which is reported by <code>getInflectionTableSize</code>.
+	 * Lexicons which do not keep their words (eg, NIHDBLexicon) are not
+	 * affected. The shared default lexicon cannot precompute inflections, as
+	 * that would change its words; use {@link #createDefaultLexicon()}
+	 * 
+	 * @param precomputeInflections
+	 * @throws UnsupportedOperationException
+	 *             if this is the lexicon returned by
+	 *             {@link #getDefaultLexicon()}
+	 */
+	public void setPrecomputeInflections(boolean precomputeInflections) {
+		if (shared)
+			throw new UnsupportedOperationException(
+					"the shared default lexicon cannot precompute inflections; use createDefaultLexicon()");
+		this.precomputeInflections = precomputeInflections;
+		for (WordElement word : getLoadedWords())
+			updateInflectionTable(word);
+	}
+
+	/**
+	 * @return number of words with precomputed inflection tables
+	 */
+	public int getInflectionTableCount() {
+		int count = 0;
+		for (WordElement word : getLoadedWords())
+			if (word.getInflectionTable() != null)
+				count++;
+		return count;
+	}
+
+	/**
+	 * @return approximate number of bytes taken by precomputed inflection
+	 *         tables; rule-based inflection takes none
+	 */
+	public long getInflectionTableSize() {
+		long size = 0;
+		for (WordElement word : getLoadedWords()) {
+			InflectionTable table = word.getInflectionTable();
+			if (table != null)
+				size += table.getEstimatedSize();
+		}
+		return size;
+	}
+
+	/**
+	 * give a word an inflection table if inflections are precomputed, and
+	 * remove its table if not. Lexicons call this for each word they load
+	 * 
+	 * @param word
+	 */
+	protected void updateInflectionTable(WordElement word) {
+		word.setInflectionTable(precomputeInflections ? InflectionTable
+				.build(word) : null);
+	}
+
+	/**
+	 * get the words which this lexicon has loaded and keeps. Lexicons which
+	 * keep their words override this, so that they can be given inflection
+	 * tables
+	 * 
+	 * @return loaded words (none by default)
+	 */
+	protected Collection<WordElement> getLoadedWords() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * check the negative lookup cache before looking up a form; a form which
+	 * is found there counts as a negative cache hit. Lookups without a
+	 * category (<code>null</code>) are not cached
+	 * 
+	 * @param form
+	 * @param category
+	 * @return true if lookupWord has already failed to find this form and
+	 *         category
+	 */
+	protected boolean isKnownMiss(String form, LexicalCategory category) {
+		if (negativeCacheSize <= 0 || form == null || category == null)
+			return false;
+
+		Miss miss = misses.get(form);
+		if (miss != null && miss.hasCategory(category)) {
+			miss.count.incrementAndGet();
+			negativeCacheHits.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * add a form and category to the negative lookup cache, unless the
+	 * category is <code>null</code>
+	 * 
+	 * @param form
+	 * @param category
+	 */
+	protected void recordMiss(String form, LexicalCategory category) {
+		if (negativeCacheSize <= 0 || form == null || category == null)
+			return;
+
+		Miss miss = misses.get(form);
+		if (miss == null) {
+			// make room, oldest form first
+			while (misses.size() >= negativeCacheSize && !missOrder.isEmpty())
+				misses.remove(missOrder.poll());
+
+			miss = new Miss();
+			Miss existing = misses.putIfAbsent(form, miss);
+			if (existing == null)
+				missOrder.add(form);
+			else
+				miss = existing;
+		}
+		miss.addCategory(category);
+		miss.count.incrementAndGet();
+	}
+
 	/****************************************************************************/
 	// get words by baseform and category
 	// fundamental version is getWords(String baseForm, Category category),
@@ -467,10 +828,195 @@ public abstract class Lexicon {
 		return !getWordsFromVariant(variant).isEmpty();
 	}
 
+	/****************************************************************************/
+	// batch methods
+	/****************************************************************************/
+
+	/**
+	 * get the words for a collection of (base form, category) queries. This
+	 * does the same as calling <code>getWords(baseForm, category)</code> for
+	 * each query, but lexicons which can do so (eg, a DB lexicon) answer all
+	 * queries at once
+	 * 
+	 * @param queries
+	 * @return map from each query to its words, in the order of the queries.
+	 *         If there are no matching words, the query is mapped to an empty
+	 *         list
+	 */
+	public Map<WordQuery, List<WordElement>> getWords(
+			Collection<WordQuery> queries) {
+		Map<WordQuery, List<WordElement>> result = new LinkedHashMap<WordQuery, List<WordElement>>();
+		for (WordQuery query : queries)
+			if (!result.containsKey(query))
+				result.put(query, nonNull(getWords(query.getForm(), query
+						.getCategory())));
+		return result;
+	}
+
+	/**
+	 * get the words for a collection of (variant, category) queries. This does
+	 * the same as calling <code>getWordsFromVariant(variant, category)</code>
+	 * for each query, but lexicons which can do so answer all queries at once
+	 * 
+	 * @param queries
+	 * @return map from each query to its words, in the order of the queries.
+	 *         If there are no matching words, the query is mapped to an empty
+	 *         list
+	 */
+	public Map<WordQuery, List<WordElement>> getWordsFromVariant(
+			Collection<WordQuery> queries) {
+		Map<WordQuery, List<WordElement>> result = new LinkedHashMap<WordQuery, List<WordElement>>();
+		for (WordQuery query : queries)
+			if (!result.containsKey(query))
+				result.put(query, nonNull(getWordsFromVariant(query.getForm(),
+						query.getCategory())));
+		return result;
+	}
+
+	/**
+	 * look up a collection of (form, category) queries. Each query gets the
+	 * same word as <code>lookupWord(form, category)</code> would give, but
+	 * base forms and variants are looked up with the batch
+	 * <code>getWords</code> and <code>getWordsFromVariant</code> methods
+	 * 
+	 * @param queries
+	 * @return map from each query to its word, in the order of the queries
+	 */
+	public Map<WordQuery, WordElement> lookupWords(Collection<WordQuery> queries) {
+		Map<WordQuery, WordElement> result = new LinkedHashMap<WordQuery, WordElement>();
+
+		// forms already known not to be in the lexicon are created straight
+		// away, as in lookupWord
+		Set<WordQuery> toLookUp = new LinkedHashSet<WordQuery>();
+		for (WordQuery query : queries) {
+			if (result.containsKey(query))
+				continue;
+			if (isKnownMiss(query.getForm(), query.getCategory())) {
+				recordLookup(LookupStage.CREATED);
+				result.put(query, createWord(query.getForm(), query
+						.getCategory()));
+			} else {
+				toLookUp.add(query);
+			}
+		}
+
+		List<WordQuery> notBase = new ArrayList<WordQuery>();
+		Map<WordQuery, List<WordElement>> baseWords = getWords(toLookUp);
+		for (WordQuery query : toLookUp) {
+			List<WordElement> words = baseWords.get(query);
+			if (words != null && !words.isEmpty()) {
+				recordLookup(LookupStage.BASE);
+				result.put(query, selectMatchingWord(words, query.getForm()));
+			} else {
+				notBase.add(query);
+			}
+		}
+
+		Map<WordQuery, List<WordElement>> variantWords = getWordsFromVariant(notBase);
+		for (WordQuery query : notBase) {
+			List<WordElement> words = variantWords.get(query);
+			if (words != null && !words.isEmpty()) {
+				recordLookup(LookupStage.VARIANT);
+				result.put(query, words.get(0));
+			} else {
+				result.put(query, lookupWordByID(query.getForm(), query
+						.getCategory()));
+			}
+		}
+
+		// put results back in query order
+		Map<WordQuery, WordElement> ordered = new LinkedHashMap<WordQuery, WordElement>();
+		for (WordQuery query : queries)
+			ordered.put(query, result.get(query));
+		return ordered;
+	}
+
+	/**
+	 * look up every word in an element and its descendents, so that a lexicon
+	 * which caches its words (eg, {@link simplenlg.lexicon.NIHDBLexicon}) has
+	 * them ready before the element is realised
+	 * 
+	 * @param element
+	 */
+	public void preloadWords(NLGElement element) {
+		lookupWords(collectWordQueries(element));
+	}
+
+	/**
+	 * collect the base form and category of every word in an element and its
+	 * descendents
+	 * 
+	 * @param element
+	 * @return set of queries, one per distinct (base form, category), in the
+	 *         order the words occur in the element
+	 */
+	public static Set<WordQuery> collectWordQueries(NLGElement element) {
+		Set<WordQuery> queries = new LinkedHashSet<WordQuery>();
+		collectWordQueries(element, queries);
+		return queries;
+	}
+
+	/**
+	 * add the words in an element and its descendents to a set of queries
+	 * 
+	 * @param element
+	 * @param queries
+	 */
+	private static void collectWordQueries(NLGElement element,
+			Set<WordQuery> queries) {
+		if (element instanceof WordElement) {
+			addWordQuery((WordElement) element, queries);
+		} else if (element instanceof InflectedWordElement) {
+			WordElement word = ((InflectedWordElement) element).getBaseWord();
+			if (word != null)
+				addWordQuery(word, queries);
+		} else if (element != null) {
+			for (NLGElement child : element.getChildrenView())
+				collectWordQueries(child, queries);
+		}
+	}
+
+	/**
+	 * add a word's base form and category to a set of queries
+	 * 
+	 * @param word
+	 * @param queries
+	 */
+	private static void addWordQuery(WordElement word, Set<WordQuery> queries) {
+		if (word.getBaseForm() != null
+				&& word.getCategory() instanceof LexicalCategory)
+			queries.add(new WordQuery(word.getBaseForm(),
+					(LexicalCategory) word.getCategory()));
+	}
+
+	/**
+	 * @param words
+	 * @return words, or an empty list if words is null
+	 */
+	private static List<WordElement> nonNull(List<WordElement> words) {
+		if (words == null)
+			return new ArrayList<WordElement>();
+		return words;
+	}
+
 	/****************************************************************************/
 	// other methods
 	/****************************************************************************/
 
+	/**
+	 * list every form which can be looked up in one way, so that the lexicon
+	 * can be indexed by another lexicon (eg, by
+	 * {@link simplenlg.lexicon.MultipleLexicon}). Lexicons which cannot list
+	 * their forms (eg, DB lexicons) return null, which is the default
+	 * 
+	 * @param kind
+	 *            - BASE, VARIANT or ID
+	 * @return forms, or null if they cannot be listed
+	 */
+	Collection<String> getForms(LookupStage kind) {
+		return null;
+	}
+
 	/**
 	 * close the lexicon (if necessary) if lexicon does not need to be closed,
 	 * this does nothing
@@ -0,0 +1,52 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.lexicon;
+
+/**
+ * <p>
+ * An enumeration of the ways in which {@link Lexicon#lookupWord} can resolve a
+ * word. <code>lookupWord</code> tries each of these in order, and the lexicon
+ * counts how many lookups were resolved by each; see
+ * {@link Lexicon#getLookupCount(LookupStage)}.
+ * </p>
+ */
+public enum LookupStage {
+
+	/**
+	 * The word was found by its base form, for example <em>dog</em>.
+	 */
+	BASE,
+
+	/**
+	 * The word was found by an inflected form or spelling variant, for example
+	 * <em>dogs</em> or <em>colour</em>.
+	 */
+	VARIANT,
+
+	/**
+	 * The word was found by its lexicon ID, for example <em>E0051632</em>.
+	 */
+	ID,
+
+	/**
+	 * The word was not in the lexicon, so a default word was created. Words
+	 * which are often created are good candidates for adding to the lexicon.
+	 */
+	CREATED;
+}
@@ -19,7 +19,16 @@
 package simplenlg.lexicon;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.WordElement;
@@ -41,6 +50,15 @@ public class MultipleLexicon extends Lexicon {
 	/* list of lexicons, in order in which they are searched */
 	private List<Lexicon> lexiconList = null;
 
+	/* if this flag is true, lookups use a merged index of all lexicons
+	 * instead of searching them one by one
+	 * it is false by default
+	 * */
+	private boolean useMergedIndex = false;
+
+	/* the merged index, or null if it is not used or cannot be built */
+	private volatile MergedIndex mergedIndex = null;
+
 	/**********************************************************************/
 	// constructors
 	/**********************************************************************/
@@ -72,13 +90,17 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	public void addInitialLexicon(Lexicon lex) {
 		lexiconList.add(0, lex);
+		clearNegativeCache();
+		rebuildMergedIndex();
 	}
 
 	/** add lexicon at end of list (is searched last)
 	 * @param lex
 	 */
 	public void addFinalLexicon(Lexicon lex) {
-		lexiconList.add(0, lex);
+		lexiconList.add(lex);
+		clearNegativeCache();
+		rebuildMergedIndex();
 	}
 
 	/**
@@ -93,6 +115,76 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	public void setAlwaysSearchAll(boolean alwaysSearchAll) {
 		this.alwaysSearchAll = alwaysSearchAll;
+		rebuildMergedIndex();
+	}
+
+	/**
+	 * @return true if lookups use a merged index of all lexicons
+	 */
+	public boolean isUseMergedIndex() {
+		return useMergedIndex;
+	}
+
+	/** if true, build a merged index of all the lexicons, so that a lookup is
+	 * one probe however many lexicons there are. The index gives the same
+	 * words as searching the lexicons in order, and is rebuilt when a lexicon
+	 * is added. It can only be built if every lexicon can list its words (eg,
+	 * XML and binary lexicons, but not DB lexicons); otherwise the lexicons
+	 * are searched one by one as usual
+	 * @param useMergedIndex
+	 */
+	public void setUseMergedIndex(boolean useMergedIndex) {
+		this.useMergedIndex = useMergedIndex;
+		rebuildMergedIndex();
+	}
+
+	/**
+	 * @return true if lookups are currently answered by the merged index
+	 */
+	public boolean hasMergedIndex() {
+		return mergedIndex != null;
+	}
+
+	/** rebuild the merged index (if used), eg after a component lexicon
+	 * has changed
+	 */
+	public void rebuildMergedIndex() {
+		mergedIndex = null;
+		if (useMergedIndex)
+			mergedIndex = buildMergedIndex();
+	}
+
+	/** passed on to the component lexicons (those added later are not
+	 * changed)
+	 * @see simplenlg.lexicon.Lexicon#setPrecomputeInflections(boolean)
+	 */
+	@Override
+	public void setPrecomputeInflections(boolean precomputeInflections) {
+		super.setPrecomputeInflections(precomputeInflections);
+		for (Lexicon lex: lexiconList)
+			lex.setPrecomputeInflections(precomputeInflections);
+	}
+
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#getInflectionTableCount()
+	 */
+	@Override
+	public int getInflectionTableCount() {
+		int count = 0;
+		for (Lexicon lex: lexiconList)
+			count += lex.getInflectionTableCount();
+		return count;
+	}
+
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#getInflectionTableSize()
+	 */
+	@Override
+	public long getInflectionTableSize() {
+		long size = 0;
+		for (Lexicon lex: lexiconList)
+			size += lex.getInflectionTableSize();
+		return size;
 	}
 
 	/**********************************************************************/
@@ -104,6 +196,20 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
+		if (category == null)
+			category = LexicalCategory.ANY;
+		MergedIndex merged = mergedIndex;
+		if (merged != null)
+			return merged.get(LookupStage.BASE, baseForm, category);
+		return searchWords(baseForm, category);
+	}
+
+	/** search the lexicons in order for a base form
+	 * @param baseForm
+	 * @param category
+	 * @return words
+	 */
+	private List<WordElement> searchWords(String baseForm, LexicalCategory category) {
 		List<WordElement> result = new ArrayList<WordElement>();
 		for (Lexicon lex: lexiconList) {
 			List<WordElement> lexResult = lex.getWords(baseForm, category);
@@ -121,6 +227,17 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWordsByID(String id) {
+		MergedIndex merged = mergedIndex;
+		if (merged != null)
+			return merged.get(LookupStage.ID, id, LexicalCategory.ANY);
+		return searchWordsByID(id);
+	}
+
+	/** search the lexicons in order for an ID
+	 * @param id
+	 * @return words
+	 */
+	private List<WordElement> searchWordsByID(String id) {
 		List<WordElement> result = new ArrayList<WordElement>();
 		for (Lexicon lex: lexiconList) {
 			List<WordElement> lexResult = lex.getWordsByID(id);
@@ -138,6 +255,20 @@ public class MultipleLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWordsFromVariant(String variant, LexicalCategory category) {
+		if (category == null)
+			category = LexicalCategory.ANY;
+		MergedIndex merged = mergedIndex;
+		if (merged != null)
+			return merged.get(LookupStage.VARIANT, variant, category);
+		return searchWordsFromVariant(variant, category);
+	}
+
+	/** search the lexicons in order for a variant
+	 * @param variant
+	 * @param category
+	 * @return words
+	 */
+	private List<WordElement> searchWordsFromVariant(String variant, LexicalCategory category) {
 		List<WordElement> result = new ArrayList<WordElement>();
 		for (Lexicon lex: lexiconList) {
 			List<WordElement> lexResult = lex.getWordsFromVariant(variant, category);
@@ -150,6 +281,165 @@ public class MultipleLexicon extends Lexicon {
 		return result;
 	}
 
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#getWords(java.util.Collection)
+	 */
+	@Override
+	public Map<WordQuery, List<WordElement>> getWords(Collection<WordQuery> queries) {
+		return getWords(queries, false);
+	}
+
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#getWordsFromVariant(java.util.Collection)
+	 */
+	@Override
+	public Map<WordQuery, List<WordElement>> getWordsFromVariant(Collection<WordQuery> queries) {
+		return getWords(queries, true);
+	}
+
+	/** batch lookup of base forms or variants. Each lexicon is given all
+	 * the queries which are still unanswered in one batch call
+	 * @param queries
+	 * @param variants - if true, look up variants, else base forms
+	 * @return map from each query to its words
+	 */
+	private Map<WordQuery, List<WordElement>> getWords(Collection<WordQuery> queries, boolean variants) {
+		Map<WordQuery, List<WordElement>> result = new LinkedHashMap<WordQuery, List<WordElement>>();
+		MergedIndex merged = mergedIndex;
+		if (merged != null) {
+			for (WordQuery query: queries)
+				result.put(query, merged.get(variants ? LookupStage.VARIANT
+						: LookupStage.BASE, query.getForm(), query.getCategory()));
+			return result;
+		}
+
+		for (WordQuery query: queries)
+			result.put(query, new ArrayList<WordElement>());
+
+		List<WordQuery> remaining = new ArrayList<WordQuery>(result.keySet());
+		for (Lexicon lex: lexiconList) {
+			if (remaining.isEmpty())
+				break;
+			Map<WordQuery, List<WordElement>> lexResult = variants ? lex
+					.getWordsFromVariant(remaining) : lex.getWords(remaining);
+			List<WordQuery> unanswered = new ArrayList<WordQuery>();
+			for (WordQuery query: remaining) {
+				List<WordElement> words = lexResult.get(query);
+				if (words != null && !words.isEmpty()) {
+					result.get(query).addAll(words);
+					if (alwaysSearchAll)
+						unanswered.add(query);
+				} else
+					unanswered.add(query);
+			}
+			remaining = unanswered;
+		}
+		return result;
+	}
+
+
+	/**********************************************************************/
+	// merged index
+	/**********************************************************************/
+
+	/** build a merged index from the forms listed by each lexicon. The words
+	 * for each form and category are found by searching the lexicons in
+	 * order, so precedence and alwaysSearchAll work as they do without the
+	 * index
+	 * @return index, or null if a lexicon cannot list its forms
+	 */
+	private MergedIndex buildMergedIndex() {
+		MergedIndex merged = new MergedIndex();
+		for (LookupStage kind: MergedIndex.KINDS) {
+			Collection<String> forms = getForms(kind);
+			if (forms == null)
+				return null;
+
+			for (String form: forms) {
+				List<WordElement> all = search(kind, form, LexicalCategory.ANY);
+				if (all.isEmpty())
+					continue;
+				Map<LexicalCategory, List<WordElement>> byCategory = new EnumMap<LexicalCategory, List<WordElement>>(LexicalCategory.class);
+				byCategory.put(LexicalCategory.ANY, Collections.unmodifiableList(all));
+				if (kind != LookupStage.ID) {
+					// a later lexicon may have a category which the first
+					// lexicon with this form does not
+					Set<LexicalCategory> categories = EnumSet.noneOf(LexicalCategory.class);
+					for (Lexicon lex: lexiconList)
+						for (WordElement word: kind == LookupStage.BASE ? lex.getWords(form)
+								: lex.getWordsFromVariant(form))
+							if (word.getCategory() instanceof LexicalCategory)
+								categories.add((LexicalCategory) word.getCategory());
+					for (LexicalCategory category: categories) {
+						List<WordElement> words = search(kind, form, category);
+						if (!words.isEmpty())
+							byCategory.put(category, Collections.unmodifiableList(words));
+					}
+				}
+				merged.put(kind, form, byCategory);
+			}
+		}
+		return merged;
+	}
+
+	/* (non-Javadoc)
+	 * @see simplenlg.lexicon.Lexicon#getForms(simplenlg.lexicon.LookupStage)
+	 */
+	@Override
+	Collection<String> getForms(LookupStage kind) {
+		Set<String> forms = new HashSet<String>();
+		for (Lexicon lex: lexiconList) {
+			Collection<String> lexForms = lex.getForms(kind);
+			if (lexForms == null)
+				return null;
+			forms.addAll(lexForms);
+		}
+		return forms;
+	}
+
+	/** search the lexicons in order
+	 * @param kind
+	 * @param form
+	 * @param category
+	 * @return words
+	 */
+	private List<WordElement> search(LookupStage kind, String form, LexicalCategory category) {
+		if (kind == LookupStage.BASE)
+			return searchWords(form, category);
+		else if (kind == LookupStage.VARIANT)
+			return searchWordsFromVariant(form, category);
+		else
+			return searchWordsByID(form);
+	}
+
+	/** merged index of all the lexicons: for each kind of lookup, a map from
+	 * form to the words for each category. Forms and categories which are not
+	 * in the index have no words
+	 */
+	private static class MergedIndex {
+		static final LookupStage[] KINDS = { LookupStage.BASE, LookupStage.VARIANT, LookupStage.ID };
+		static final List<WordElement> NO_WORDS = Collections.emptyList();
+
+		private final Map<LookupStage, Map<String, Map<LexicalCategory, List<WordElement>>>> index = new EnumMap<LookupStage, Map<String, Map<LexicalCategory, List<WordElement>>>>(LookupStage.class);
+
+		MergedIndex() {
+			for (LookupStage kind: KINDS)
+				index.put(kind, new HashMap<String, Map<LexicalCategory, List<WordElement>>>());
+		}
+
+		void put(LookupStage kind, String form, Map<LexicalCategory, List<WordElement>> words) {
+			index.get(kind).put(form, words);
+		}
+
+		List<WordElement> get(LookupStage kind, String form, LexicalCategory category) {
+			Map<LexicalCategory, List<WordElement>> byCategory = index.get(kind).get(form);
+			if (byCategory == null)
+				return NO_WORDS;
+			List<WordElement> words = byCategory.get(category);
+			return words == null ? NO_WORDS : words;
+		}
+	}
+
 
 	/**********************************************************************/
 	// other methods
@@ -20,6 +20,8 @@ package simplenlg.lexicon;
 
 import gov.nih.nlm.nls.lexAccess.Api.LexAccessApi;
 import gov.nih.nlm.nls.lexAccess.Api.LexAccessApiResult;
+import gov.nih.nlm.nls.lexCheck.Api.ToJavaObjApi;
+import gov.nih.nlm.nls.lexCheck.Gram.CheckFormatEui;
 import gov.nih.nlm.nls.lexCheck.Lib.AdjEntry;
 import gov.nih.nlm.nls.lexCheck.Lib.AdvEntry;
 import gov.nih.nlm.nls.lexCheck.Lib.InflVar;
@@ -29,10 +31,26 @@ import gov.nih.nlm.nls.lexCheck.Lib.VerbEntry;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import simplenlg.features.Inflection;
 import simplenlg.features.LexicalFeature;
@@ -43,6 +61,18 @@ import simplenlg.framework.WordElement;
 /**
  * This class gets Words from the NIH Specialist Lexicon
  * 
+ * <P>
+ * The lexicon may be used by several threads at once. It keeps a pool of DB
+ * connections (by default one per processor), and each lookup uses a
+ * connection of its own, so lookups from different threads run in parallel
+ * 
+ * <P>
+ * Lookup results can be kept in a size-bounded cache (see
+ * {@link #setCacheSize(int)}), so frequent words are only made once. The
+ * cache is off by default. When it is on, lookups of the same form return the
+ * same WordElement objects, so changes made to a word by one caller are seen
+ * by every other caller
+ * 
  * @author ereiter
  * 
  */
@@ -57,12 +87,52 @@ public class NIHDBLexicon extends Lexicon {
 	private static String DB_HSQL_EXTENSION = ".data"; // filename extension for
 	// HSQL DB
 
-	// class variables
-	private Connection conn = null; // DB connection
-	private LexAccessApi lexdb = null; // Lexicon access object
+	// default number of DB connections
+	public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime()
+			.availableProcessors();
+
+	// DB parameters, kept so that more connections can be opened
+	private String dbDriver;
+	private String dbURL;
+	private String dbUsername;
+	private String dbPassword;
+
+	// pool of lexicon access objects, each with its own DB connection. A
+	// thread borrows one for each query, so up to poolSize queries run at once
+	private int poolSize;
+	private BlockingQueue<LexAccessApi> idleHandles = new LinkedBlockingQueue<LexAccessApi>();
+	private List<LexAccessApi> allHandles = new CopyOnWriteArrayList<LexAccessApi>();
+	private AtomicInteger openHandles = new AtomicInteger();
 
 	// if false, don't keep standard inflections in the Word object
-	private boolean keepStandardInflections = false;
+	private volatile boolean keepStandardInflections = false;
+
+	// maximum number of forms in one batch DB query
+	private static final int MAX_BATCH_SIZE = 500;
+
+	// default number of lookup results kept in the word cache (off)
+	public static final int DEFAULT_CACHE_SIZE = 0;
+
+	// cache of lookup results, least recently used first. Access is
+	// synchronized on the map
+	private int cacheSize = DEFAULT_CACHE_SIZE;
+	private LinkedHashMap<CacheKey, List<WordElement>> wordCache = new LinkedHashMap<CacheKey, List<WordElement>>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<CacheKey, List<WordElement>> eldest) {
+			if (size() > cacheSize) {
+				cacheEvictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+	private AtomicLong cacheHits = new AtomicLong();
+	private AtomicLong cacheMisses = new AtomicLong();
+	private AtomicLong cacheEvictions = new AtomicLong();
 
 	/****************************************************************************/
 	// constructors
@@ -76,6 +146,20 @@ public class NIHDBLexicon extends Lexicon {
 	 *            of HSQL DB
 	 */
 	public NIHDBLexicon(String filename) {
+		this(filename, DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 * set up lexicon using file which contains downloaded lexAccess HSQL DB and
+	 * default passwords, with up to poolSize connections to the DB
+	 * 
+	 * @param filename
+	 *            of HSQL DB
+	 * @param poolSize
+	 *            maximum number of DB connections (and so of queries which can
+	 *            run at the same time)
+	 */
+	public NIHDBLexicon(String filename, int poolSize) {
 		super();
 		// get rid of .data at end of filename if necessary
 		String dbfilename = filename;
@@ -83,18 +167,8 @@ public class NIHDBLexicon extends Lexicon {
 			dbfilename = dbfilename.substring(0, dbfilename.length()
 					- DB_HSQL_EXTENSION.length());
 
-		// try to open DB and set up lexicon
-		try {
-			Class.forName(DB_HSQL_DRIVER);
-			conn = DriverManager.getConnection(DB_HQSL_JDBC + dbfilename,
-					DB_DEFAULT_USERNAME, DB_DEFAULT_PASSWORD);
-			// now set up lexical access object
-			lexdb = new LexAccessApi(conn);
-
-		} catch (Exception ex) {
-			System.out.println("Cannot open lexical db: " + ex.toString());
-			// probably should thrown an exception
-		}
+		openPool(DB_HSQL_DRIVER, DB_HQSL_JDBC + dbfilename,
+				DB_DEFAULT_USERNAME, DB_DEFAULT_PASSWORD, poolSize);
 	}
 
 	/**
@@ -108,22 +182,123 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	public NIHDBLexicon(String driver, String url, String username,
 			String password) {
+		this(driver, url, username, password, DEFAULT_POOL_SIZE);
+	}
 
+	/**
+	 * set up lexicon using general DB parameters, with up to poolSize
+	 * connections to the DB; DB must be NIH specialist lexicon from lexAccess
+	 * 
+	 * @param driver
+	 * @param url
+	 * @param username
+	 * @param password
+	 * @param poolSize
+	 *            maximum number of DB connections (and so of queries which can
+	 *            run at the same time)
+	 */
+	public NIHDBLexicon(String driver, String url, String username,
+			String password, int poolSize) {
 		super();
+		openPool(driver, url, username, password, poolSize);
+	}
+
+	// need more constructors for general case...
+
+	/**
+	 * set up the connection pool. The first connection is opened straight
+	 * away, so that errors are reported when the lexicon is created; others
+	 * are opened when needed
+	 * 
+	 * @param driver
+	 * @param url
+	 * @param username
+	 * @param password
+	 * @param poolSize
+	 */
+	private void openPool(String driver, String url, String username,
+			String password, int poolSize) {
+		this.dbDriver = driver;
+		this.dbURL = url;
+		this.dbUsername = username;
+		this.dbPassword = password;
+		this.poolSize = Math.max(1, poolSize);
+
+		openHandles.incrementAndGet();
+		LexAccessApi lexdb = openHandle();
+		if (lexdb != null)
+			idleHandles.add(lexdb);
+		else
+			openHandles.decrementAndGet();
+	}
 
+	/**
+	 * open a new DB connection, and set up a lexical access object for it
+	 * 
+	 * @return lexical access object, or null if DB cannot be opened
+	 */
+	private LexAccessApi openHandle() {
 		// try to open DB and set up lexicon
 		try {
-			Class.forName(driver);
-			conn = DriverManager.getConnection(url, username, password);
+			Class.forName(dbDriver);
+			Connection conn = DriverManager.getConnection(dbURL, dbUsername,
+					dbPassword);
 			// now set up lexical access object
-			lexdb = new LexAccessApi(conn);
+			LexAccessApi lexdb = new LexAccessApi(conn);
+			allHandles.add(lexdb);
+			return lexdb;
 		} catch (Exception ex) {
 			System.out.println("Cannot open lexical db: " + ex.toString());
 			// probably should thrown an exception
+			return null;
 		}
 	}
 
-	// need more constructors for general case...
+	/**
+	 * borrow a lexical access object from the pool. If none is free, a new
+	 * one is opened unless the pool is full, in which case this waits for one
+	 * to be returned
+	 * 
+	 * @return lexical access object, or null if DB cannot be opened
+	 */
+	private LexAccessApi borrowHandle() {
+		LexAccessApi lexdb = idleHandles.poll();
+		if (lexdb != null)
+			return lexdb;
+
+		if (openHandles.incrementAndGet() <= poolSize) {
+			lexdb = openHandle();
+			if (lexdb != null)
+				return lexdb;
+		}
+		// no new connection, so wait for an open one (if there is one)
+		if (openHandles.decrementAndGet() == 0)
+			return null;
+
+		try {
+			return idleHandles.take();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * return a borrowed lexical access object to the pool
+	 * 
+	 * @param lexdb
+	 */
+	private void returnHandle(LexAccessApi lexdb) {
+		if (lexdb != null)
+			idleHandles.add(lexdb);
+	}
+
+	/**
+	 * @return maximum number of DB connections
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
 
 	/***************** methods to set global parameters ****************************/
 
@@ -144,6 +319,80 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	public void setKeepStandardInflections(boolean keepStandardInflections) {
 		this.keepStandardInflections = keepStandardInflections;
+		// cached words were made with the old setting
+		clearCache();
+	}
+
+	/**
+	 * @return maximum number of lookup results kept in the word cache
+	 */
+	public int getCacheSize() {
+		synchronized (wordCache) {
+			return cacheSize;
+		}
+	}
+
+	/**
+	 * set the maximum number of lookup results kept in the word cache. Each
+	 * result is the list of words for one (form, category, lookup kind). If
+	 * the cache is full, the least recently used result is evicted.
+	 * <P>
+	 * While the cache is on, <code>getWords</code>, <code>lookupWord</code>
+	 * etc return shared WordElement objects, which callers should not change
+	 * 
+	 * @param cacheSize
+	 *            - maximum number of results; 0 turns the cache off
+	 */
+	public void setCacheSize(int cacheSize) {
+		synchronized (wordCache) {
+			this.cacheSize = Math.max(0, cacheSize);
+			Iterator<CacheKey> keys = wordCache.keySet().iterator();
+			while (wordCache.size() > this.cacheSize && keys.hasNext()) {
+				keys.next();
+				keys.remove();
+				cacheEvictions.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * empty the word cache. Statistics are not reset
+	 */
+	public void clearCache() {
+		synchronized (wordCache) {
+			wordCache.clear();
+		}
+	}
+
+	/**
+	 * @return number of lookups answered from the word cache
+	 */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * @return number of lookups which had to go to the DB
+	 */
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	/**
+	 * @return number of results evicted from the word cache because it was
+	 *         full
+	 */
+	public long getCacheEvictions() {
+		return cacheEvictions.get();
+	}
+
+	/**
+	 * reset the word cache hit, miss and eviction counts to 0
+	 */
+	public void resetCacheStatistics() {
+		cacheHits.set(0);
+		cacheMisses.set(0);
+		cacheEvictions.set(0);
 	}
 
 	/****************************************************************************/
@@ -157,55 +406,397 @@ public class NIHDBLexicon extends Lexicon {
 	 * simplenlg.features.LexicalCategory)
 	 */
 	@Override
-	public synchronized List<WordElement> getWords(String baseForm, LexicalCategory category) {
-		// get words from DB
+	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
+		return getCachedWords(LookupStage.BASE, baseForm, category);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWordsByID(java.lang.String)
+	 */
+	@Override
+	public List<WordElement> getWordsByID(String id) {
+		return getCachedWords(LookupStage.ID, id, LexicalCategory.ANY);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWordsFromVariant(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public List<WordElement> getWordsFromVariant(String variant,
+			LexicalCategory category) {
+		return getCachedWords(LookupStage.VARIANT, variant, category);
+	}
+
+	/**
+	 * get words from the word cache, or from the DB if they are not in the
+	 * cache. Each call returns a new list, but the words in it are shared with
+	 * other lookups of the same form
+	 * 
+	 * @param kind
+	 *            - kind of lookup (BASE, VARIANT or ID)
+	 * @param term
+	 *            - base form, or variant or ID
+	 * @param category
+	 * @return list of words, or null if there was a DB error
+	 */
+	private List<WordElement> getCachedWords(LookupStage kind, String term,
+			LexicalCategory category) {
+		CacheKey key = new CacheKey(kind, term, category);
+		List<WordElement> words;
+		synchronized (wordCache) {
+			words = wordCache.get(key);
+		}
+		if (words != null) {
+			cacheHits.incrementAndGet();
+			return new ArrayList<WordElement>(words);
+		}
+
+		cacheMisses.incrementAndGet();
+		words = getWordsFromDB(term, kind == LookupStage.BASE, category);
+		// DB errors are not cached
+		if (words != null) {
+			synchronized (wordCache) {
+				if (cacheSize > 0)
+					wordCache.put(key, new ArrayList<WordElement>(words));
+			}
+		}
+		return words;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWords(java.util.Collection)
+	 */
+	@Override
+	public Map<WordQuery, List<WordElement>> getWords(
+			Collection<WordQuery> queries) {
+		return getCachedWords(LookupStage.BASE, queries);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWordsFromVariant(java.util.Collection)
+	 */
+	@Override
+	public Map<WordQuery, List<WordElement>> getWordsFromVariant(
+			Collection<WordQuery> queries) {
+		return getCachedWords(LookupStage.VARIANT, queries);
+	}
+
+	/**
+	 * batch version of <code>getCachedWords</code>. Queries which are not in
+	 * the word cache are answered by one DB query (per
+	 * <code>MAX_BATCH_SIZE</code> forms)
+	 * 
+	 * @param kind
+	 *            - kind of lookup (BASE or VARIANT)
+	 * @param queries
+	 * @return map from each query to its words
+	 */
+	private Map<WordQuery, List<WordElement>> getCachedWords(LookupStage kind,
+			Collection<WordQuery> queries) {
+		Map<WordQuery, List<WordElement>> result = new LinkedHashMap<WordQuery, List<WordElement>>();
+		List<WordQuery> uncached = new ArrayList<WordQuery>();
+		synchronized (wordCache) {
+			for (WordQuery query : queries) {
+				if (result.containsKey(query))
+					continue;
+				List<WordElement> words = wordCache.get(new CacheKey(kind,
+						query.getForm(), query.getCategory()));
+				if (words != null) {
+					cacheHits.incrementAndGet();
+					result.put(query, new ArrayList<WordElement>(words));
+				} else {
+					result.put(query, null);
+					uncached.add(query);
+				}
+			}
+		}
+
+		// variants which are IDs are looked up one at a time, as lexAccess
+		// treats them specially
+		Set<String> forms = new LinkedHashSet<String>();
+		for (WordQuery query : uncached) {
+			if (kind == LookupStage.VARIANT
+					&& CheckFormatEui.IsValidEui(query.getForm())) {
+				List<WordElement> words = getCachedWords(kind, query
+						.getForm(), query.getCategory());
+				result.put(query, words == null ? new ArrayList<WordElement>()
+						: words);
+			} else
+				forms.add(getDBForm(query.getForm(), kind));
+		}
+
+		Map<String, List<LexRecord>> records = getRecordsFromDB(forms, kind);
+		for (WordQuery query : uncached) {
+			if (result.get(query) != null)
+				continue;
+			if (records == null) {
+				// DB error, already reported
+				result.put(query, new ArrayList<WordElement>());
+				continue;
+			}
+
+			cacheMisses.incrementAndGet();
+			List<LexRecord> queryRecords = records.get(getDBForm(query
+					.getForm(), kind));
+			List<WordElement> words = getWordsFromRecords(query.getCategory(),
+					queryRecords == null ? new ArrayList<LexRecord>()
+							: queryRecords);
+			synchronized (wordCache) {
+				if (cacheSize > 0)
+					wordCache.put(new CacheKey(kind, query.getForm(), query
+							.getCategory()), new ArrayList<WordElement>(words));
+			}
+			result.put(query, words);
+		}
+		return result;
+	}
+
+	/**
+	 * get the IDs of all records in the DB, in order. Used by
+	 * {@link simplenlg.lexicon.NIHLexiconExporter} to split the DB into
+	 * batches which can be read in parallel
+	 * 
+	 * @return list of IDs, or null if there was a DB error
+	 */
+	List<String> getAllIDs() {
+		LexAccessApi lexdb = borrowHandle();
+		if (lexdb == null)
+			return null;
+
+		List<String> ids = new ArrayList<String>();
 		try {
-			LexAccessApiResult lexResult = lexdb.GetLexRecordsByBase(baseForm,
-					LexAccessApi.B_EXACT);			
-			return getWordsFromLexResult(category, lexResult);
+			Statement statement = lexdb.GetConnection().createStatement();
+			try {
+				ResultSet rs = statement
+						.executeQuery("SELECT eui FROM LEX_RECORD WHERE lastAction <> 3 ORDER BY eui");
+				while (rs.next())
+					ids.add(rs.getString(1));
+				rs.close();
+			} finally {
+				statement.close();
+			}
 		} catch (SQLException ex) {
 			System.out.println("Lexical DB error: " + ex.toString());
 			// probably should thrown an exception
+			return null;
+		} finally {
+			returnHandle(lexdb);
 		}
-		return null;
+		return ids;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * get the words with a list of IDs from the DB, with one query per
+	 * <code>MAX_BATCH_SIZE</code> IDs. Words are made afresh, not taken from
+	 * or added to the word cache
 	 * 
-	 * @see simplenlg.lexicon.Lexicon#getWordsByID(java.lang.String)
+	 * @param ids
+	 * @return words, in the order of the IDs, or null if there was a DB error
 	 */
-	@Override
-	public synchronized List<WordElement> getWordsByID(String id) {
-		// get words from DB
+	List<WordElement> getWordsByIDs(List<String> ids) {
+		Map<String, List<LexRecord>> records = getRecordsFromDB(ids,
+				LookupStage.ID);
+		if (records == null)
+			return null;
+
+		List<WordElement> words = new ArrayList<WordElement>();
+		for (String id : ids) {
+			List<LexRecord> idRecords = records.get(id);
+			if (idRecords != null)
+				words.addAll(getWordsFromRecords(LexicalCategory.ANY, idRecords));
+		}
+		return words;
+	}
+
+	/**
+	 * @param form
+	 * @param kind
+	 * @return form as stored in the DB column which is searched; variants are
+	 *         stored in lower case
+	 */
+	private String getDBForm(String form, LookupStage kind) {
+		return kind == LookupStage.VARIANT ? form.toLowerCase() : form;
+	}
+
+	/**
+	 * get the lexical records for a set of base forms, variants or IDs from
+	 * the DB, with one query per <code>MAX_BATCH_SIZE</code> forms. This does
+	 * the same search as <code>GetLexRecordsByBase</code> (exact match) or
+	 * <code>GetLexRecords</code> (variants, in lower case) in lexAccess, but
+	 * for all forms at once
+	 * 
+	 * @param forms
+	 * @param kind
+	 *            - BASE, VARIANT or ID
+	 * @return map from form to its records, or null if there was a DB error
+	 */
+	private Map<String, List<LexRecord>> getRecordsFromDB(
+			Collection<String> forms, LookupStage kind) {
+		Map<String, List<String>> texts = new HashMap<String, List<String>>();
+		Set<String> seen = new HashSet<String>();
+		if (forms.isEmpty())
+			return new HashMap<String, List<LexRecord>>();
+
+		LexAccessApi lexdb = borrowHandle();
+		if (lexdb == null)
+			return null;
+
 		try {
-			LexAccessApiResult lexResult = lexdb.GetLexRecords(id);
-			return getWordsFromLexResult(LexicalCategory.ANY, lexResult);
+			List<String> formList = new ArrayList<String>(forms);
+			for (int start = 0; start < formList.size(); start += MAX_BATCH_SIZE) {
+				List<String> batch = formList.subList(start, Math.min(
+						formList.size(), start + MAX_BATCH_SIZE));
+				PreparedStatement statement = lexdb.GetConnection()
+						.prepareStatement(getBatchQuery(batch.size(), kind));
+				try {
+					for (int i = 0; i < batch.size(); i++)
+						statement.setString(i + 1, batch.get(i));
+					ResultSet rs = statement.executeQuery();
+					while (rs.next()) {
+						String form = rs.getString(1);
+						// a record can be found by several variants of a form
+						if (!seen.add(form + "|" + rs.getString(2)))
+							continue;
+						List<String> formTexts = texts.get(form);
+						if (formTexts == null) {
+							formTexts = new ArrayList<String>();
+							texts.put(form, formTexts);
+						}
+						formTexts.add(rs.getString(3));
+					}
+					rs.close();
+				} finally {
+					statement.close();
+				}
+			}
 		} catch (SQLException ex) {
 			System.out.println("Lexical DB error: " + ex.toString());
 			// probably should thrown an exception
+			return null;
+		} finally {
+			returnHandle(lexdb);
 		}
-		return null;
+
+		// records are parsed after the connection is returned
+		Map<String, List<LexRecord>> records = new HashMap<String, List<LexRecord>>();
+		for (Map.Entry<String, List<String>> entry : texts.entrySet()) {
+			List<LexRecord> formRecords = new ArrayList<LexRecord>();
+			for (String text : entry.getValue()) {
+				try {
+					formRecords.addAll(ToJavaObjApi.ToJavaObjsFromText(text));
+				} catch (Exception ex) {
+					System.out.println("Cannot read lexical record: "
+							+ ex.toString());
+				}
+			}
+			records.put(entry.getKey(), formRecords);
+		}
+		return records;
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * @param size
+	 *            - number of forms
+	 * @param kind
+	 * @return SQL query which returns form, EUI and record text for each
+	 *         record matching one of size forms
+	 */
+	private String getBatchQuery(int size, LookupStage kind) {
+		StringBuilder sql = new StringBuilder();
+		if (kind == LookupStage.BASE)
+			sql.append("SELECT base, eui, lexRecord FROM LEX_RECORD"
+					+ " WHERE lastAction <> 3 AND base IN (");
+		else if (kind == LookupStage.ID)
+			sql.append("SELECT eui, eui, lexRecord FROM LEX_RECORD"
+					+ " WHERE lastAction <> 3 AND eui IN (");
+		else
+			sql.append("SELECT i.inflVarLc, r.eui, r.lexRecord"
+					+ " FROM INFL_VARS i, LEX_RECORD r WHERE i.eui = r.eui"
+					+ " AND r.lastAction <> 3 AND i.inflVarLc IN (");
+		for (int i = 0; i < size; i++)
+			sql.append(i == 0 ? "?" : ", ?");
+		return sql.append(")").toString();
+	}
+
+	/**
+	 * get words from the DB, using a lexical access object from the pool. The
+	 * object is returned to the pool as soon as the query is done; the words
+	 * are made afterwards, as making a word may need further queries (eg, for
+	 * acronyms)
 	 * 
-	 * @see simplenlg.lexicon.Lexicon#getWordsFromVariant(java.lang.String,
-	 * simplenlg.features.LexicalCategory)
+	 * @param term
+	 *            - base form, or variant or ID
+	 * @param byBase
+	 *            - if true, look up records with this exact base; otherwise
+	 *            records with this term as base, variant or ID
+	 * @param category
+	 * @return list of words, or null if there was a DB error
 	 */
-	@Override
-	public synchronized List<WordElement> getWordsFromVariant(String variant,
+	private List<WordElement> getWordsFromDB(String term, boolean byBase,
 			LexicalCategory category) {
+		LexAccessApiResult lexResult = null;
+		LexAccessApi lexdb = borrowHandle();
+		if (lexdb == null)
+			return null;
+
 		// get words from DB
 		try {
-			LexAccessApiResult lexResult = lexdb.GetLexRecords(variant);
-			return getWordsFromLexResult(category, lexResult);
+			if (byBase)
+				lexResult = lexdb.GetLexRecordsByBase(term,
+						LexAccessApi.B_EXACT);
+			else
+				lexResult = lexdb.GetLexRecords(term);
 		} catch (SQLException ex) {
 			System.out.println("Lexical DB error: " + ex.toString());
 			// probably should thrown an exception
+			return null;
+		} finally {
+			returnHandle(lexdb);
+		}
+
+		return getWordsFromLexResult(category, lexResult);
+	}
+
+	/**
+	 * key for the word cache: the form looked up, its category and the kind of
+	 * lookup
+	 */
+	private static class CacheKey {
+		private final LookupStage kind;
+		private final String term;
+		private final LexicalCategory category;
+
+		CacheKey(LookupStage kind, String term, LexicalCategory category) {
+			this.kind = kind;
+			this.term = term;
+			this.category = category;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof CacheKey))
+				return false;
+			CacheKey other = (CacheKey) o;
+			return kind == other.kind && category == other.category
+					&& (term == null ? other.term == null : term
+							.equals(other.term));
+		}
+
+		@Override
+		public int hashCode() {
+			return ((term == null ? 0 : term.hashCode()) * 31 + kind
+					.hashCode()) * 31
+					+ (category == null ? 0 : category.hashCode());
 		}
-		return null;
 	}
 
 	/****************************************************************************/
@@ -219,8 +810,12 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	@Override
 	public void close() {
-		if (lexdb != null)
+		clearCache();
+		for (LexAccessApi lexdb : allHandles)
 			lexdb.CleanUp();
+		allHandles.clear();
+		idleHandles.clear();
+		openHandles.set(0);
 	}
 
 	/**
@@ -314,8 +909,18 @@ public class NIHDBLexicon extends Lexicon {
 	 */
 	private List<WordElement> getWordsFromLexResult(LexicalCategory category,
 			LexAccessApiResult lexResult) {
-		List<LexRecord> records = lexResult.GetJavaObjs();
+		return getWordsFromRecords(category, lexResult.GetJavaObjs());
+	}
 
+	/**
+	 * make WordElements from the lexical records in a category
+	 * 
+	 * @param category
+	 * @param records
+	 * @return list of WordElement
+	 */
+	private List<WordElement> getWordsFromRecords(LexicalCategory category,
+			List<LexRecord> records) {
 		// set up array of words to return
 		List<WordElement> wordElements = new ArrayList<WordElement>();
 
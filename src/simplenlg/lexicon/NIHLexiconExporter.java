@@ -0,0 +1,527 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Saad Mahamood.
+ */
+package simplenlg.lexicon;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * This class exports words from the NIH Specialist Lexicon (see
+ * {@link simplenlg.lexicon.NIHDBLexicon}) to a file which can be loaded
+ * without the DB, either in XML (for {@link simplenlg.lexicon.XMLLexicon}) or
+ * in the compiled binary format (for {@link simplenlg.lexicon.BinaryLexicon}).
+ * 
+ * <P>
+ * Either all records in the DB are exported, or the words in a word list file.
+ * Each line of a word list is a base form and a category, separated by a comma
+ * (eg, <code>dog,noun</code>); categories are abbreviated as in
+ * <code>adj</code>, <code>adv</code>, <code>det</code>, <code>prep</code>,
+ * <code>pron</code>, <code>conj</code>.
+ * 
+ * <P>
+ * The words are split into batches which are read from the DB in parallel,
+ * each thread using its own DB connection. XML is written as batches are
+ * finished, in order, so the whole lexicon is never held in memory; the binary
+ * format needs all words before it can build its indices.
+ * 
+ * <P>
+ * Usage:
+ * <code>java simplenlg.lexicon.NIHLexiconExporter [-binary] [-threads n]
+ * &lt;NIH DB file&gt; &lt;word list file | -all&gt; &lt;output file&gt;</code>
+ * <br>
+ * The binary format is also used if the output file name ends in
+ * <code>.bin</code>
+ * 
+ * <P>
+ * Words which are already loaded (eg, from another lexicon) can be written in
+ * the same formats with {@link #exportWords(List, File, boolean)}.
+ */
+public class NIHLexiconExporter {
+
+	// number of words or IDs read from the DB in one batch
+	private static final int BATCH_SIZE = 500;
+
+	private NIHDBLexicon lexicon; // lexicon to export from
+	private int threads; // number of batches read at once
+
+	// word list entries not found by the last export
+	private List<String> missingWords = Collections
+			.synchronizedList(new ArrayList<String>());
+
+	/**
+	 * export words from the NIH lexicon
+	 * 
+	 * @param args
+	 *            - see class description
+	 */
+	public static void main(String[] args) {
+		boolean binary = false;
+		int threads = NIHDBLexicon.DEFAULT_POOL_SIZE;
+		int arg = 0;
+		while (arg < args.length && args[arg].startsWith("-")
+				&& !args[arg].equals("-all")) {
+			if (args[arg].equals("-binary"))
+				binary = true;
+			else if (args[arg].equals("-threads") && arg + 1 < args.length)
+				threads = Integer.parseInt(args[++arg]);
+			else
+				break;
+			arg++;
+		}
+		if (args.length - arg != 3) {
+			System.out
+					.println("usage: NIHLexiconExporter [-binary] [-threads n] <NIH DB file> <word list file | -all> <output file>");
+			return;
+		}
+
+		String dbFile = args[arg];
+		String wordList = args[arg + 1];
+		File output = new File(args[arg + 2]);
+		binary = binary || output.getName().endsWith(".bin");
+
+		NIHDBLexicon lexicon = new NIHDBLexicon(dbFile, threads);
+		try {
+			long startTime = System.currentTimeMillis();
+			NIHLexiconExporter exporter = new NIHLexiconExporter(lexicon,
+					threads);
+			int words;
+			if (wordList.equals("-all"))
+				words = exporter.exportAll(output, binary);
+			else
+				words = exporter.exportWordList(new File(wordList), output,
+						binary);
+			for (String missing : exporter.getMissingWords())
+				System.out.println("Missing " + missing);
+			System.out.format("Exported %d words to %s in %d ms%n", words,
+					output, System.currentTimeMillis() - startTime);
+		} catch (IOException ex) {
+			System.out.println("Cannot export lexicon: " + ex.toString());
+		} finally {
+			lexicon.close();
+		}
+	}
+
+	/**
+	 * set up an exporter
+	 * 
+	 * @param lexicon
+	 *            - NIH lexicon to export from; this should have a connection
+	 *            pool of at least <code>threads</code>. It may be null if
+	 *            only <code>exportWords</code> is used
+	 * @param threads
+	 *            - number of batches read from the DB at once
+	 */
+	public NIHLexiconExporter(NIHDBLexicon lexicon, int threads) {
+		this.lexicon = lexicon;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * @return word list entries (as <code>base:category</code>) which were
+	 *         not found by the last export, either because the category is
+	 *         unknown or because the word is not in the DB
+	 */
+	public List<String> getMissingWords() {
+		synchronized (missingWords) {
+			return new ArrayList<String>(missingWords);
+		}
+	}
+
+	/**
+	 * export all records in the DB
+	 * 
+	 * @param output
+	 * @param binary
+	 *            - if true, write the binary format, else XML
+	 * @return number of words written
+	 * @throws IOException
+	 */
+	public int exportAll(File output, boolean binary) throws IOException {
+		missingWords.clear();
+		List<String> ids = lexicon.getAllIDs();
+		if (ids == null)
+			throw new IOException("Cannot read IDs from lexical DB");
+
+		List<Callable<List<WordElement>>> batches = new ArrayList<Callable<List<WordElement>>>();
+		for (int start = 0; start < ids.size(); start += BATCH_SIZE) {
+			final List<String> batch = ids.subList(start, Math.min(ids.size(),
+					start + BATCH_SIZE));
+			batches.add(new Callable<List<WordElement>>() {
+				public List<WordElement> call() throws IOException {
+					List<WordElement> words = lexicon.getWordsByIDs(batch);
+					if (words == null)
+						throw new IOException("Cannot read words from lexical DB");
+					return words;
+				}
+			});
+		}
+		return export(batches, output, binary);
+	}
+
+	/**
+	 * export the words in a word list file
+	 * 
+	 * @param wordList
+	 *            - file with one base form and category per line
+	 * @param output
+	 * @param binary
+	 *            - if true, write the binary format, else XML
+	 * @return number of words written
+	 * @throws IOException
+	 */
+	public int exportWordList(File wordList, File output, boolean binary)
+			throws IOException {
+		missingWords.clear();
+		List<WordQuery> queries = readWordList(wordList);
+
+		List<Callable<List<WordElement>>> batches = new ArrayList<Callable<List<WordElement>>>();
+		for (int start = 0; start < queries.size(); start += BATCH_SIZE) {
+			final List<WordQuery> batch = queries.subList(start, Math.min(
+					queries.size(), start + BATCH_SIZE));
+			batches.add(new Callable<List<WordElement>>() {
+				public List<WordElement> call() {
+					List<WordElement> words = new ArrayList<WordElement>();
+					Map<WordQuery, List<WordElement>> found = lexicon
+							.getWords(batch);
+					for (WordQuery query : batch) {
+						List<WordElement> queryWords = found.get(query);
+						if (queryWords == null || queryWords.isEmpty())
+							missingWords.add(query.getForm() + ":"
+									+ query.getCategory());
+						else
+							words.add(queryWords.get(0));
+					}
+					return words;
+				}
+			});
+		}
+		return export(batches, output, binary);
+	}
+
+	/**
+	 * export words which have already been read, eg from another lexicon
+	 * 
+	 * @param words
+	 * @param output
+	 * @param binary
+	 *            - if true, write the binary format, else XML
+	 * @return number of words written
+	 * @throws IOException
+	 */
+	public int exportWords(final List<WordElement> words, File output,
+			boolean binary) throws IOException {
+		missingWords.clear();
+		List<Callable<List<WordElement>>> batches = new ArrayList<Callable<List<WordElement>>>();
+		batches.add(new Callable<List<WordElement>>() {
+			public List<WordElement> call() {
+				return words;
+			}
+		});
+		return export(batches, output, binary);
+	}
+
+	/**
+	 * read a word list file. Lines with an unknown category are added to the
+	 * missing words and skipped; lines without a category match words of any
+	 * category
+	 * 
+	 * @param wordList
+	 * @return queries, in file order
+	 * @throws IOException
+	 */
+	private List<WordQuery> readWordList(File wordList) throws IOException {
+		List<WordQuery> queries = new ArrayList<WordQuery>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(
+				new FileInputStream(wordList), "UTF-8"));
+		try {
+			String line = in.readLine();
+			while (line != null) {
+				String[] cols = line.split(",");
+				String base = cols[0].trim();
+				if (base.length() > 0) {
+					LexicalCategory category = cols.length > 1 ? getCategory(cols[1]
+							.trim())
+							: LexicalCategory.ANY;
+					if (category == null)
+						missingWords.add(base + ":" + cols[1].trim());
+					else
+						queries.add(new WordQuery(base, category));
+				}
+				line = in.readLine();
+			}
+		} finally {
+			in.close();
+		}
+		return queries;
+	}
+
+	/**
+	 * @param cat
+	 *            - category as written in a word list
+	 * @return simplenlg category, or null if unknown
+	 */
+	private static LexicalCategory getCategory(String cat) {
+		if (cat.equalsIgnoreCase("noun"))
+			return LexicalCategory.NOUN;
+		else if (cat.equalsIgnoreCase("verb"))
+			return LexicalCategory.VERB;
+		else if (cat.equalsIgnoreCase("adv"))
+			return LexicalCategory.ADVERB;
+		else if (cat.equalsIgnoreCase("adj"))
+			return LexicalCategory.ADJECTIVE;
+		else if (cat.equalsIgnoreCase("det"))
+			return LexicalCategory.DETERMINER;
+		else if (cat.equalsIgnoreCase("prep"))
+			return LexicalCategory.PREPOSITION;
+		else if (cat.equalsIgnoreCase("pron"))
+			return LexicalCategory.PRONOUN;
+		else if (cat.equalsIgnoreCase("conj"))
+			return LexicalCategory.CONJUNCTION;
+		else if (cat.equalsIgnoreCase("modal"))
+			return LexicalCategory.MODAL;
+		else if (cat.equalsIgnoreCase("interjection"))
+			return LexicalCategory.NOUN; // Kilgarriff's interjections are mostly nouns in the lexicon
+		return null;
+	}
+
+	/**
+	 * run batches in parallel, and write their words in batch order. At most
+	 * twice as many batches as threads are read ahead of the writer
+	 * 
+	 * @param batches
+	 * @param output
+	 * @param binary
+	 * @return number of words written
+	 * @throws IOException
+	 */
+	private int export(List<Callable<List<WordElement>>> batches,
+			File output, boolean binary) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		// base form, category and ID of the words written; each lookup
+		// makes a new WordElement, so the words themselves cannot be compared
+		Set<List<Object>> written = new HashSet<List<Object>>();
+		List<WordElement> allWords = new ArrayList<WordElement>();
+		Writer xml = null;
+
+		try {
+			if (!binary) {
+				xml = new BufferedWriter(new OutputStreamWriter(
+						new FileOutputStream(output), "UTF-8"));
+				xml.write("<lexicon>\n");
+			}
+
+			Iterator<Callable<List<WordElement>>> next = batches.iterator();
+			LinkedList<Future<List<WordElement>>> pending = new LinkedList<Future<List<WordElement>>>();
+			while (next.hasNext() && pending.size() < 2 * threads)
+				pending.add(executor.submit(next.next()));
+
+			while (!pending.isEmpty()) {
+				List<WordElement> words = getBatch(pending.removeFirst());
+				if (next.hasNext())
+					pending.add(executor.submit(next.next()));
+
+				for (WordElement word : words) {
+					// the same word may be found by several list entries
+					if (!written.add(Arrays.<Object> asList(word.getBaseForm(),
+							word.getCategory(), word.getId())))
+						continue;
+					if (binary)
+						allWords.add(word);
+					else
+						writeWord(xml, word);
+				}
+			}
+
+			if (binary) {
+				BinaryLexiconWriter.write(new XMLLexicon(allWords), output);
+			} else {
+				xml.write("</lexicon>\n");
+			}
+		} finally {
+			executor.shutdownNow();
+			if (xml != null)
+				xml.close();
+		}
+		return written.size();
+	}
+
+	/**
+	 * wait for a batch to be read
+	 * 
+	 * @param batch
+	 * @return words in batch
+	 * @throws IOException
+	 *             if the batch could not be read
+	 */
+	private List<WordElement> getBatch(Future<List<WordElement>> batch)
+			throws IOException {
+		try {
+			return batch.get();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Export interrupted");
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof IOException)
+				throw (IOException) ex.getCause();
+			throw new IOException(ex.getCause().toString());
+		}
+	}
+
+	/**
+	 * write a word in the XML lexicon format. This is like
+	 * <code>WordElement.toXML</code>, except that text is escaped, the output
+	 * goes straight to the writer, and inflection codes are written as
+	 * <code>XMLLexicon</code> reads them (eg, <code>&lt;irreg/&gt;</code>)
+	 * rather than as a <code>default_infl</code> feature
+	 * 
+	 * @param out
+	 * @param word
+	 * @throws IOException
+	 */
+	static void writeWord(Writer out, WordElement word) throws IOException {
+		out.write("<word>\n");
+		if (word.getBaseForm() != null)
+			writeElement(out, "base", word.getBaseForm());
+		if (word.getCategory() != LexicalCategory.ANY)
+			writeElement(out, "category", word.getCategory().toString()
+					.toLowerCase());
+		if (word.getId() != null)
+			writeElement(out, "id", word.getId());
+		writeInflections(out, word);
+
+		// list features in alpha order
+		SortedSet<String> featureNames = new TreeSet<String>(word
+				.getAllFeatureNames());
+		featureNames.remove(LexicalFeature.DEFAULT_INFL);
+		for (String feature : featureNames) {
+			Object value = word.getFeature(feature);
+			if (value instanceof Boolean) {
+				// booleans ignored if false, shown as <XX/> if true
+				if (((Boolean) value).booleanValue())
+					out.write("  <" + feature + "/>\n");
+			} else if (value != null) {
+				writeElement(out, feature, value.toString());
+			}
+		}
+		out.write("</word>\n");
+	}
+
+	/**
+	 * write a word's inflection codes, default first. Nothing is written if
+	 * the word is only regular, as that is what XMLLexicon assumes
+	 * 
+	 * @param out
+	 * @param word
+	 * @throws IOException
+	 */
+	private static void writeInflections(Writer out, WordElement word)
+			throws IOException {
+		List<Inflection> inflections = new ArrayList<Inflection>();
+		Object defaultInfl = word.getDefaultInflectionalVariant();
+		if (defaultInfl instanceof Inflection)
+			inflections.add((Inflection) defaultInfl);
+		for (Inflection infl : Inflection.values())
+			if (word.hasInflectionalVariant(infl) && !inflections.contains(infl))
+				inflections.add(infl);
+
+		if (inflections.size() == 1 && inflections.get(0) == Inflection.REGULAR)
+			return;
+		for (Inflection infl : inflections)
+			out.write("  <" + getInflectionCode(infl) + "/>\n");
+	}
+
+	/**
+	 * @param infl
+	 * @return code for an inflection in an XML lexicon; the reverse of
+	 *         <code>Inflection.getInflCode</code>
+	 */
+	private static String getInflectionCode(Inflection infl) {
+		switch (infl) {
+		case IRREGULAR:
+			return "irreg";
+		case REGULAR_DOUBLE:
+			return "regd";
+		case GRECO_LATIN_REGULAR:
+			return "glreg";
+		case UNCOUNT:
+			return "uncount";
+		case INVARIANT:
+			return "inv";
+		default:
+			return "reg";
+		}
+	}
+
+	/**
+	 * write an XML element with text content on its own line
+	 * 
+	 * @param out
+	 * @param name
+	 * @param text
+	 * @throws IOException
+	 */
+	private static void writeElement(Writer out, String name, String text)
+			throws IOException {
+		out.write("  <");
+		out.write(name);
+		out.write('>');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '&')
+				out.write("&amp;");
+			else if (c == '<')
+				out.write("&lt;");
+			else if (c == '>')
+				out.write("&gt;");
+			else
+				out.write(c);
+		}
+		out.write("</");
+		out.write(name);
+		out.write(">\n");
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Saad Mahamood.
+ */
+package simplenlg.lexicon;
+
+import simplenlg.framework.LexicalCategory;
+
+/**
+ * <p>
+ * A form and {@link simplenlg.framework.LexicalCategory} to look up in a
+ * lexicon, for example "dog" and <code>Noun</code>. The batch methods of
+ * {@link Lexicon} (<code>getWords(Collection)</code>,
+ * <code>getWordsFromVariant(Collection)</code> and
+ * <code>lookupWords(Collection)</code>) take a collection of these and return
+ * a map from each query to its result.
+ * </p>
+ */
+public class WordQuery {
+
+	private final String form;
+	private final LexicalCategory category;
+
+	/**
+	 * create a query for a form in any category
+	 * 
+	 * @param form
+	 */
+	public WordQuery(String form) {
+		this(form, LexicalCategory.ANY);
+	}
+
+	/**
+	 * create a query for a form in a category
+	 * 
+	 * @param form
+	 *            - base form, variant or ID, depending on the lookup
+	 * @param category
+	 *            - category of the word; <code>ANY</code> (or null) matches
+	 *            all categories
+	 */
+	public WordQuery(String form, LexicalCategory category) {
+		this.form = form;
+		this.category = category == null ? LexicalCategory.ANY : category;
+	}
+
+	/**
+	 * @return the form to look up
+	 */
+	public String getForm() {
+		return form;
+	}
+
+	/**
+	 * @return the category to look up
+	 */
+	public LexicalCategory getCategory() {
+		return category;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof WordQuery))
+			return false;
+		WordQuery other = (WordQuery) o;
+		return category == other.category
+				&& (form == null ? other.form == null : form.equals(other.form));
+	}
+
+	@Override
+	public int hashCode() {
+		return (form == null ? 0 : form.hashCode()) * 31 + category.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return form + " (" + category + ")";
+	}
+}
@@ -19,22 +19,25 @@
 package simplenlg.lexicon;
 
 import java.io.File;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import simplenlg.features.Inflection;
 import simplenlg.features.LexicalFeature;
@@ -59,15 +62,98 @@ public class XMLLexicon extends Lexicon {
 
 	// lexicon
 	private Set<WordElement> words; // set of words
+
+	// indices used while loading; these are discarded once the lookup index
+	// has been built
 	private Map<String, WordElement> indexByID; // map from ID to word
 	private Map<String, List<WordElement>> indexByBase; // map from base to set
 	// of words with this
 	// baseform
 	private Map<String, List<WordElement>> indexByVariant; // map from variants
-
 	// to set of words
 	// with this variant
 
+	// lookup index: map from a form (base, variant or ID) to the words with
+	// that form, partitioned by category. Lookups only read this map, and all
+	// the lists in it are read-only, so lookups do not allocate
+	private Map<String, FormEntry> index;
+
+	/**
+	 * Words which are indexed under one key (eg, all the words with base form
+	 * "can"), with precomputed read-only lists for each category
+	 */
+	private static class CategoryIndex {
+		// all words, for LexicalCategory.ANY
+		private final List<WordElement> all;
+
+		// the category of the words, if they all have the same category
+		private final ElementCategory onlyCategory;
+
+		// otherwise, the words of each category
+		private final Map<LexicalCategory, List<WordElement>> byCategory;
+
+		CategoryIndex(List<WordElement> words) {
+			this.all = Collections.unmodifiableList(words);
+
+			ElementCategory first = words.get(0).getCategory();
+			boolean oneCategory = true;
+			for (WordElement word : words)
+				oneCategory &= word.getCategory() == first;
+
+			if (oneCategory) {
+				this.onlyCategory = first;
+				this.byCategory = null;
+			} else {
+				this.onlyCategory = null;
+				Map<LexicalCategory, List<WordElement>> partition = new EnumMap<LexicalCategory, List<WordElement>>(
+						LexicalCategory.class);
+				for (WordElement word : words) {
+					if (word.getCategory() instanceof LexicalCategory) {
+						LexicalCategory category = (LexicalCategory) word
+								.getCategory();
+						if (!partition.containsKey(category))
+							partition.put(category,
+									new ArrayList<WordElement>());
+						partition.get(category).add(word);
+					}
+				}
+				for (Map.Entry<LexicalCategory, List<WordElement>> entry : partition
+						.entrySet())
+					entry.setValue(Collections.unmodifiableList(entry
+							.getValue()));
+				this.byCategory = partition;
+			}
+		}
+
+		/**
+		 * @param category
+		 * @return words of this category (all words if category is ANY)
+		 */
+		List<WordElement> get(LexicalCategory category) {
+			if (category == LexicalCategory.ANY)
+				return all;
+			else if (byCategory == null)
+				return category == onlyCategory ? all : NO_WORDS;
+
+			List<WordElement> result = byCategory.get(category);
+			return result == null ? NO_WORDS : result;
+		}
+	}
+
+	/**
+	 * Entry in the lookup index: the words which have a form as base form, as
+	 * a variant, or as ID
+	 */
+	private static class FormEntry {
+		CategoryIndex base;
+		CategoryIndex variant;
+		List<WordElement> id;
+	}
+
+	// returned when there are no matching words
+	private static final List<WordElement> NO_WORDS = Collections
+			.emptyList();
+
 	/**********************************************************************/
 	// constructors
 	/**********************************************************************/
@@ -103,6 +189,22 @@ public class XMLLexicon extends Lexicon {
 		createLexicon(lexiconURI);
 	}
 
+	/**
+	 * Create a lexicon from words which have already been made, for example
+	 * by {@link simplenlg.lexicon.NIHLexiconExporter}. The words are indexed
+	 * in the same way as words loaded from an XML file
+	 * 
+	 * @param words
+	 */
+	public XMLLexicon(Collection<WordElement> words) {
+		super();
+		startIndex();
+		for (WordElement word : words)
+			if (this.words.add(word))
+				IndexWord(word);
+		finishIndex();
+	}
+
 	public XMLLexicon() {
 		try {
 			
@@ -117,43 +219,110 @@ public class XMLLexicon extends Lexicon {
 	}
 
 	/**
-	 * method to actually load and index the lexicon from a URI
+	 * method to actually load and index the lexicon from a URI. The lexicon is
+	 * read with a streaming (StAX) parser: each word is built and indexed as
+	 * soon as its closing tag is read, so no DOM of the whole file is kept in
+	 * memory
 	 * 
 	 * @param uri
 	 */
 	private void createLexicon(URI lexiconURI) {
-		// initialise objects
-		words = new HashSet<WordElement>();
-		indexByID = new HashMap<String, WordElement>();
-		indexByBase = new HashMap<String, List<WordElement>>();
-		indexByVariant = new HashMap<String, List<WordElement>>();
+		startIndex();
 
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory
-					.newInstance();
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			Document doc = builder.parse(lexiconURI.toString());
-
-			if (doc != null) {
-				Element lexRoot = doc.getDocumentElement();
-				NodeList wordNodes = lexRoot.getChildNodes();
-				for (int i = 0; i < wordNodes.getLength(); i++) {
-					Node wordNode = wordNodes.item(i);
-					// ignore things that aren't elements
-					if (wordNode.getNodeType() == Node.ELEMENT_NODE) {
-						WordElement word = convertNodeToWord(wordNode);
-						if (word != null) {
-							words.add(word);
-							IndexWord(word);
+			InputStream in = lexiconURI.toURL().openStream();
+			try {
+				XMLStreamReader reader = XMLInputFactory.newInstance()
+						.createXMLStreamReader(lexiconURI.toString(), in);
+				try {
+					// depth 1 is the lexicon node, words are at depth 2
+					int depth = 0;
+					while (reader.hasNext()) {
+						int event = reader.next();
+						if (event == XMLStreamConstants.START_ELEMENT) {
+							depth++;
+							if (depth == 2) {
+								WordElement word = readWord(reader);
+								depth--; // readWord consumes the end tag
+								if (word != null) {
+									words.add(word);
+									IndexWord(word);
+								}
+							}
+						} else if (event == XMLStreamConstants.END_ELEMENT) {
+							depth--;
 						}
 					}
+				} finally {
+					reader.close();
 				}
+			} finally {
+				in.close();
 			}
 		} catch (Exception ex) {
 			System.out.println(ex.toString());
 		}
 
+		finishIndex();
+	}
+
+	/**
+	 * set up the word set and the indices used while loading
+	 */
+	private void startIndex() {
+		words = new LinkedHashSet<WordElement>();
+		indexByID = new HashMap<String, WordElement>();
+		indexByBase = new HashMap<String, List<WordElement>>();
+		indexByVariant = new HashMap<String, List<WordElement>>();
+	}
+
+	/**
+	 * add special cases and build the lookup index once all words are loaded
+	 */
+	private void finishIndex() {
 		addSpecialCases();
+		buildLookupIndex();
+	}
+
+	/**
+	 * build the lookup index from the indices used while loading, then
+	 * discard those
+	 */
+	private void buildLookupIndex() {
+		index = new HashMap<String, FormEntry>();
+
+		for (Map.Entry<String, List<WordElement>> entry : indexByBase
+				.entrySet())
+			getFormEntry(entry.getKey()).base = new CategoryIndex(entry
+					.getValue());
+
+		for (Map.Entry<String, List<WordElement>> entry : indexByVariant
+				.entrySet())
+			getFormEntry(entry.getKey()).variant = new CategoryIndex(entry
+					.getValue());
+
+		for (Map.Entry<String, WordElement> entry : indexByID.entrySet())
+			getFormEntry(entry.getKey()).id = Collections.singletonList(entry
+					.getValue());
+
+		indexByBase = null;
+		indexByVariant = null;
+		indexByID = null;
+	}
+
+	/**
+	 * get the entry for a form in the lookup index, creating it if necessary
+	 * 
+	 * @param form
+	 * @return
+	 */
+	private FormEntry getFormEntry(String form) {
+		FormEntry entry = index.get(form);
+		if (entry == null) {
+			entry = new FormEntry();
+			index.put(form, entry);
+		}
+		return entry;
 	}
 
 	/**
@@ -162,7 +331,11 @@ public class XMLLexicon extends Lexicon {
 	 */
 	private void addSpecialCases() {
 		// add variants of "be"
-		WordElement be = getWord("be", LexicalCategory.VERB);
+		WordElement be = null;
+		if (indexByBase.containsKey("be"))
+			for (WordElement word : indexByBase.get("be"))
+				if (be == null && word.getCategory() == LexicalCategory.VERB)
+					be = word;
 		if (be != null) {
 			updateIndex(be, "is", indexByVariant);
 			updateIndex(be, "am", indexByVariant);
@@ -173,70 +346,59 @@ public class XMLLexicon extends Lexicon {
 	}
 
 	/**
-	 * create a simplenlg WordElement from a Word node in a lexicon XML file
+	 * create a simplenlg WordElement from a Word node in a lexicon XML file.
+	 * The reader is positioned on the start tag of the node, and is left on
+	 * its end tag
 	 * 
-	 * @param wordNode
+	 * @param reader
 	 * @return
-	 * @throws XPathUtilException
+	 * @throws XMLStreamException
 	 */
-	private WordElement convertNodeToWord(Node wordNode) {
+	private WordElement readWord(XMLStreamReader reader)
+			throws XMLStreamException {
 		// if this isn't a Word node, ignore it
-		if (!wordNode.getNodeName().equalsIgnoreCase(XML_WORD))
-			return null;
-
-		// // if there is no base, flag an error and return null
-		// String base = XPathUtil.extractValue(wordNode, Constants.XML_BASE);
-		// if (base == null) {
-		// System.out.println("Error in loading XML lexicon: Word with no base");
-		// return null;
-		// }
+		boolean isWord = getNodeName(reader).equalsIgnoreCase(XML_WORD);
 
 		// create word
 		WordElement word = new WordElement();
 		List<Inflection> inflections = new ArrayList<Inflection>();
 
-		// now copy features
-		NodeList nodes = wordNode.getChildNodes();
-		for (int i = 0; i < nodes.getLength(); i++) {
-			Node featureNode = nodes.item(i);
-
-			if (featureNode.getNodeType() == Node.ELEMENT_NODE) {
-				String feature = featureNode.getNodeName().trim();
-				String value = featureNode.getTextContent();
-
-				if (value != null)
-					value = value.trim();
-
-				if (feature == null) {
-					System.out.println("Error in XML lexicon node for "
-							+ word.toString());
-					break;
+		// now copy features; each feature is a child node, and its value is
+		// all the text inside it
+		String feature = null;
+		StringBuilder value = new StringBuilder();
+		int depth = 0;
+		while (depth >= 0) {
+			int event = reader.next();
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				if (depth == 0) {
+					feature = getNodeName(reader).trim();
+					value.setLength(0);
 				}
+				depth++;
+				break;
 
-				if (feature.equalsIgnoreCase(XML_BASE)) {
-					word.setBaseForm(value);
-				} else if (feature.equalsIgnoreCase(XML_CATEGORY))
-					word.setCategory(LexicalCategory.valueOf(value
-							.toUpperCase()));
-				else if (feature.equalsIgnoreCase(XML_ID))
-					word.setId(value);
-
-				else if (value == null || value.equals("")) {
-					// if this is an infl code, add it to inflections
-					Inflection infl = Inflection.getInflCode(feature);
-
-					if (infl != null) {
-						inflections.add(infl);
-					} else {
-						// otherwise assume it's a boolean feature
-						word.setFeature(feature, true);
-					}
-				} else
-					word.setFeature(feature, value);
-			}
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				if (depth > 0)
+					value.append(reader.getText());
+				break;
 
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				if (depth == 0 && isWord)
+					addFeature(word, inflections, feature, value.toString()
+							.trim());
+				break;
+			}
 		}
 
+		if (!isWord)
+			return null;
+
 		// if no infl specified, assume regular
 		if (inflections.isEmpty()) {
 			inflections.add(Inflection.REGULAR);
@@ -258,6 +420,53 @@ public class XMLLexicon extends Lexicon {
 		return word;
 	}
 
+	/**
+	 * set a feature of a word from a feature node in a lexicon XML file
+	 * 
+	 * @param word
+	 * @param inflections
+	 *            - inflection codes found so far
+	 * @param feature
+	 *            - name of the feature node
+	 * @param value
+	 *            - text of the feature node
+	 */
+	private void addFeature(WordElement word, List<Inflection> inflections,
+			String feature, String value) {
+		if (feature.equalsIgnoreCase(XML_BASE)) {
+			word.setBaseForm(value);
+		} else if (feature.equalsIgnoreCase(XML_CATEGORY))
+			word.setCategory(LexicalCategory.valueOf(value.toUpperCase()));
+		else if (feature.equalsIgnoreCase(XML_ID))
+			word.setId(value);
+
+		else if (value.equals("")) {
+			// if this is an infl code, add it to inflections
+			Inflection infl = Inflection.getInflCode(feature);
+
+			if (infl != null) {
+				inflections.add(infl);
+			} else {
+				// otherwise assume it's a boolean feature
+				word.setFeature(feature, true);
+			}
+		} else
+			word.setFeature(feature, value);
+	}
+
+	/**
+	 * @param reader
+	 *            - positioned on a start tag
+	 * @return the name of the node, including any namespace prefix
+	 */
+	private String getNodeName(XMLStreamReader reader) {
+		String prefix = reader.getPrefix();
+		if (prefix == null || prefix.length() == 0)
+			return reader.getLocalName();
+		else
+			return prefix + ":" + reader.getLocalName();
+	}
+
 	/**
 	 * add word to internal indices
 	 * 
@@ -303,47 +512,69 @@ public class XMLLexicon extends Lexicon {
 	}
 
 	/******************************************************************************************/
-	// main methods to get data from lexicon
+	// access to the raw indices, used by BinaryLexiconWriter
 	/******************************************************************************************/
 
-	/*
-	 * (non-Javadoc)
-	 * 
-	 * @see simplenlg.lexicon.Lexicon#getWords(java.lang.String,
-	 * simplenlg.features.LexicalCategory)
+	/**
+	 * @return all words in the lexicon, in the order they were loaded
 	 */
+	Set<WordElement> getAllWords() {
+		return words;
+	}
+
 	@Override
-	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
-		return getWordsFromIndex(baseForm, category, indexByBase);
+	protected Collection<WordElement> getLoadedWords() {
+		return words;
 	}
 
 	/**
-	 * get matching keys from an index map
-	 * 
-	 * @param indexKey
-	 * @param category
-	 * @param indexMap
-	 * @return
+	 * @return the index from base form to words
 	 */
-	private List<WordElement> getWordsFromIndex(String indexKey,
-			LexicalCategory category, Map<String, List<WordElement>> indexMap) {
-		List<WordElement> result = new ArrayList<WordElement>();
+	Map<String, List<WordElement>> getBaseIndex() {
+		Map<String, List<WordElement>> baseIndex = new HashMap<String, List<WordElement>>();
+		for (Map.Entry<String, FormEntry> entry : index.entrySet())
+			if (entry.getValue().base != null)
+				baseIndex.put(entry.getKey(), entry.getValue().base.all);
+		return baseIndex;
+	}
 
-		// case 1: unknown, return empty list
-		if (!indexMap.containsKey(indexKey))
-			return result;
+	/**
+	 * @return the index from inflected form or spelling variant to words
+	 */
+	Map<String, List<WordElement>> getVariantIndex() {
+		Map<String, List<WordElement>> variantIndex = new HashMap<String, List<WordElement>>();
+		for (Map.Entry<String, FormEntry> entry : index.entrySet())
+			if (entry.getValue().variant != null)
+				variantIndex.put(entry.getKey(), entry.getValue().variant.all);
+		return variantIndex;
+	}
 
-		// case 2: category is ANY, return everything
-		if (category == LexicalCategory.ANY)
-			return indexMap.get(indexKey);
+	/**
+	 * @return the index from ID to word
+	 */
+	Map<String, WordElement> getIDIndex() {
+		Map<String, WordElement> idIndex = new HashMap<String, WordElement>();
+		for (Map.Entry<String, FormEntry> entry : index.entrySet())
+			if (entry.getValue().id != null)
+				idIndex.put(entry.getKey(), entry.getValue().id.get(0));
+		return idIndex;
+	}
 
-		// case 3: other category, search for match
-		else
-			for (WordElement word : indexMap.get(indexKey))
-				if (word.getCategory() == category)
-					result.add(word);
+	/******************************************************************************************/
+	// main methods to get data from lexicon
+	/******************************************************************************************/
 
-		return result;
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getWords(java.lang.String,
+	 * simplenlg.features.LexicalCategory)
+	 */
+	@Override
+	public List<WordElement> getWords(String baseForm, LexicalCategory category) {
+		FormEntry entry = index.get(baseForm);
+		return entry == null || entry.base == null ? NO_WORDS : entry.base
+				.get(category);
 	}
 
 	/*
@@ -353,10 +584,8 @@ public class XMLLexicon extends Lexicon {
 	 */
 	@Override
 	public List<WordElement> getWordsByID(String id) {
-		List<WordElement> result = new ArrayList<WordElement>();
-		if (indexByID.containsKey(id))
-			result.add(indexByID.get(id));
-		return result;
+		FormEntry entry = index.get(id);
+		return entry == null || entry.id == null ? NO_WORDS : entry.id;
 	}
 
 	/*
@@ -368,7 +597,84 @@ public class XMLLexicon extends Lexicon {
 	@Override
 	public List<WordElement> getWordsFromVariant(String variant,
 			LexicalCategory category) {
-		return getWordsFromIndex(variant, category, indexByVariant);
+		FormEntry entry = index.get(variant);
+		return entry == null || entry.variant == null ? NO_WORDS
+				: entry.variant.get(category);
+	}
+
+	/**
+	 * General word lookup method, tries base form, variant, ID (in this
+	 * order). This does a single probe of the lookup index, which holds all
+	 * three for each form. Creates new word if can't find existing word; as in
+	 * {@link Lexicon#lookupWord(String, LexicalCategory)}, such forms are
+	 * remembered in the negative lookup cache
+	 * 
+	 * @param baseForm
+	 * @param category
+	 * @return word
+	 */
+	@Override
+	public WordElement lookupWord(String baseForm, LexicalCategory category) {
+		if (isKnownMiss(baseForm, category)) {
+			recordLookup(LookupStage.CREATED);
+			return createWord(baseForm, category);
+		}
+
+		FormEntry entry = index.get(baseForm);
+		if (entry != null) {
+			// all words in the base index have exactly this base form, so
+			// the first is the best match
+			if (entry.base != null && !entry.base.get(category).isEmpty()) {
+				recordLookup(LookupStage.BASE);
+				return entry.base.get(category).get(0);
+			}
+			if (entry.variant != null
+					&& !entry.variant.get(category).isEmpty()) {
+				recordLookup(LookupStage.VARIANT);
+				return entry.variant.get(category).get(0);
+			}
+			if (entry.id != null) {
+				recordLookup(LookupStage.ID);
+				return entry.id.get(0);
+			}
+		}
+		recordMiss(baseForm, category);
+		recordLookup(LookupStage.CREATED);
+		return createWord(baseForm, category);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#getForms(simplenlg.lexicon.LookupStage)
+	 */
+	@Override
+	Collection<String> getForms(LookupStage kind) {
+		List<String> forms = new ArrayList<String>();
+		for (Map.Entry<String, FormEntry> entry : index.entrySet()) {
+			FormEntry formEntry = entry.getValue();
+			if (kind == LookupStage.BASE ? formEntry.base != null
+					: kind == LookupStage.VARIANT ? formEntry.variant != null
+							: formEntry.id != null)
+				forms.add(entry.getKey());
+		}
+		return forms;
+	}
+
+	/**
+	 * look up a collection of queries. Each query needs just one probe of the
+	 * index, as in <code>lookupWord</code>
+	 * 
+	 * @see simplenlg.lexicon.Lexicon#lookupWords(java.util.Collection)
+	 */
+	@Override
+	public Map<WordQuery, WordElement> lookupWords(Collection<WordQuery> queries) {
+		Map<WordQuery, WordElement> result = new LinkedHashMap<WordQuery, WordElement>();
+		for (WordQuery query : queries)
+			if (!result.containsKey(query))
+				result.put(query, lookupWord(query.getForm(), query
+						.getCategory()));
+		return result;
 	}
 
 	/**
@@ -0,0 +1,181 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.morphology.english;
+
+import java.util.Arrays;
+
+import simplenlg.features.Feature;
+import simplenlg.framework.BoundedCache;
+import simplenlg.framework.ElementCategory;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * <p>
+ * A cache of the forms worked out by <code>MorphologyRules</code> for nouns,
+ * verbs, adjectives and adverbs, used by the {@link MorphologyProcessor} so
+ * that a word which recurs is only inflected once. It is meant for lexicons
+ * which are too big to have inflection tables made for every word (see
+ * {@link InflectionTable}), and most of all for words which are not in the
+ * lexicon, whose forms are always made by the rules.
+ * </p>
+ * 
+ * <p>
+ * A form is looked up by what the rules read: the category, the base form,
+ * the slot (plural for nouns; form, tense, number and person for verbs; and
+ * degree for adjectives and adverbs), whether a noun is possessive, and the
+ * values of the lexical features such as <code>LexicalFeature.PLURAL</code>
+ * and <code>LexicalFeature.DEFAULT_INFL</code> on both the inflected word and
+ * its base word. The base word itself is not part of the key, as a word which
+ * is not in the lexicon is made again each time it is looked up, and a word
+ * which is changed is then looked up by its new values.
+ * </p>
+ * 
+ * <p>
+ * The cache holds a limited number of forms, and counts how many forms were
+ * found and not found (see {@link BoundedCache}). It can be used by several
+ * threads at once.
+ * </p>
+ */
+public class InflectionCache extends BoundedCache<InflectionCache.Key, String> {
+
+	/**
+	 * What the rules read to inflect a word.
+	 */
+	static final class Key {
+
+		private final LexicalCategory category;
+		private final int slot;
+		private final boolean possessive;
+		private final String baseForm;
+
+		// the values of the lexical features on the inflected word, then on
+		// the base word
+		private final Object[] values;
+		private final int hashCode;
+
+		private Key(LexicalCategory category, int slot, boolean possessive,
+				String baseForm, Object[] values) {
+			this.category = category;
+			this.slot = slot;
+			this.possessive = possessive;
+			this.baseForm = baseForm;
+			this.values = values;
+
+			int hash = category.hashCode();
+			hash = 31 * hash + slot;
+			hash = 31 * hash + (possessive ? 1 : 0);
+			hash = 31 * hash + (baseForm == null ? 0 : baseForm.hashCode());
+			this.hashCode = 31 * hash + Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			} else if (!(other instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) other;
+			return this.hashCode == key.hashCode
+					&& this.category == key.category
+					&& this.slot == key.slot
+					&& this.possessive == key.possessive
+					&& (this.baseForm == null ? key.baseForm == null
+							: this.baseForm.equals(key.baseForm))
+					&& Arrays.equals(this.values, key.values);
+		}
+	}
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maximumSize
+	 *            the most forms held, at least 1.
+	 */
+	public InflectionCache(int maximumSize) {
+		super(maximumSize);
+	}
+
+	/**
+	 * Makes the key of an inflected word.
+	 * 
+	 * @param element
+	 *            the inflected word.
+	 * @param baseWord
+	 *            its base word, or <code>null</code> if it has none.
+	 * @return the key, or <code>null</code> if the word is not a noun, verb,
+	 *         adjective or adverb.
+	 */
+	static Key createKey(InflectedWordElement element, WordElement baseWord) {
+		ElementCategory category = element.getCategory();
+		if (!(category instanceof LexicalCategory)) {
+			return null;
+		}
+		String[] features = InflectionTable
+				.getFeatures((LexicalCategory) category);
+		if (features == null) {
+			return null;
+		}
+
+		Object[] values = new Object[2 * features.length];
+		for (int index = 0; index < features.length; index++) {
+			values[index] = element.getFeature(features[index]);
+			if (baseWord != null) {
+				values[features.length + index] = baseWord
+						.getFeature(features[index]);
+			}
+		}
+		return new Key((LexicalCategory) category, InflectionTable.getSlot(
+				element, (LexicalCategory) category),
+				category == LexicalCategory.NOUN
+						&& element.getFeatureAsBoolean(Feature.POSSESSIVE)
+								.booleanValue(), MorphologyRules.getBaseForm(
+						element, baseWord), values);
+	}
+
+	/**
+	 * Looks up the form of an inflected word.
+	 * 
+	 * @param key
+	 *            the key of the word.
+	 * @return the form, or <code>null</code> if it is not in the cache.
+	 */
+	String get(Key key) {
+		return getValue(key);
+	}
+
+	/**
+	 * Adds the form of an inflected word to the cache.
+	 * 
+	 * @param key
+	 *            the key of the word.
+	 * @param form
+	 *            the form made by the rules.
+	 */
+	void put(Key key, String form) {
+		putValue(key, form);
+	}
+}
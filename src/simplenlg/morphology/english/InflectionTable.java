@@ -0,0 +1,436 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.morphology.english;
+
+import java.util.Arrays;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+import simplenlg.features.Tense;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+
+/**
+ * <p>
+ * The inflected forms of a noun, verb, adjective or adverb, worked out once by
+ * <code>MorphologyRules</code> so that the morphology processor can look them
+ * up. A form is found by its slot: plural for nouns; form, tense, number and
+ * person for verbs; and degree for adjectives and adverbs.
+ * </p>
+ * 
+ * <p>
+ * The forms also depend on the lexical features the rules read from the
+ * inflected word, such as <code>LexicalFeature.PLURAL</code> and
+ * <code>LexicalFeature.DEFAULT_INFL</code>. A table holds the forms for an
+ * inflected word which has the same values for these features as the base
+ * word, which is how the syntax processor makes them, and for one which has
+ * none, as made by <code>NLGFactory</code>. Any other inflected word, and
+ * possessive nouns, are left to the rules. A table is dropped by its word
+ * when the word is changed.
+ * </p>
+ * 
+ * <p>
+ * Tables are made by a lexicon which precomputes inflections (see
+ * {@link simplenlg.lexicon.Lexicon#setPrecomputeInflections(boolean)}). They
+ * are not changed once made, so can be shared between threads.
+ * </p>
+ */
+public final class InflectionTable {
+
+	// slots for nouns, adjectives and adverbs
+	private static final int BASE = 0;
+	private static final int PLURAL = 1;
+	private static final int COMPARATIVE = 1;
+	private static final int SUPERLATIVE = 2;
+
+	// slots for verbs, which follow the order of the tests in
+	// MorphologyRules.doVerbMorphology
+	private static final int INFINITIVE = 0;
+	private static final int PRESENT_PARTICIPLE = 1;
+	private static final int PAST_PARTICIPLE = 2;
+	private static final int PAST = 3;
+	private static final int PAST_PLURAL_OR_SECOND = 4;
+	private static final int PRESENT_3S = 5;
+	private static final int PRESENT_FIRST_SINGULAR = 6;
+	private static final int PRESENT = 7;
+
+	// the lexical features read by the rules for each category
+	private static final String[] NOUN_FEATURES = { LexicalFeature.BASE_FORM,
+			LexicalFeature.DEFAULT_INFL, LexicalFeature.PLURAL };
+
+	private static final String[] VERB_FEATURES = {
+			LexicalFeature.DEFAULT_INFL, LexicalFeature.PRESENT_PARTICIPLE,
+			LexicalFeature.PAST_PARTICIPLE, LexicalFeature.PAST,
+			LexicalFeature.PRESENT3S };
+
+	private static final String[] ADJECTIVE_FEATURES = {
+			LexicalFeature.BASE_FORM, LexicalFeature.DEFAULT_INFL,
+			LexicalFeature.COMPARATIVE, LexicalFeature.SUPERLATIVE };
+
+	private static final String[] ADVERB_FEATURES = { LexicalFeature.BASE_FORM,
+			LexicalFeature.COMPARATIVE, LexicalFeature.SUPERLATIVE };
+
+	private final LexicalCategory category;
+
+	// the lexical features read by the rules, and their values on the word
+	private final String[] features;
+	private final Object[] values;
+
+	// the forms when the inflected word has the word's values, and when it
+	// has none (null if not the same base form); usually the same array
+	private final String[] forms;
+	private final String[] bareForms;
+
+	private InflectionTable(LexicalCategory category, String[] features,
+			Object[] values, String[] forms, String[] bareForms) {
+		this.category = category;
+		this.features = features;
+		this.values = values;
+		this.forms = forms;
+		this.bareForms = bareForms;
+	}
+
+	/**
+	 * Works out the inflected forms of a word.
+	 * 
+	 * @param word
+	 *            the word.
+	 * @return the table, or <code>null</code> if the word is not a noun,
+	 *         verb, adjective or adverb, has no base form, or cannot be
+	 *         inflected by the rules.
+	 */
+	public static InflectionTable build(WordElement word) {
+		if (!(word.getCategory() instanceof LexicalCategory)
+				|| word.getDefaultSpellingVariant() == null) {
+			return null;
+		}
+		LexicalCategory category = (LexicalCategory) word.getCategory();
+		String[] features = getFeatures(category);
+		if (features == null) {
+			return null;
+		}
+
+		try {
+			InflectedWordElement copied = new InflectedWordElement(word);
+			for (String feature : word.getAllFeatureNames()) {
+				copied.setFeature(feature, word.getFeature(feature));
+			}
+			InflectedWordElement bare = new InflectedWordElement(word);
+
+			Object[] values = new Object[features.length];
+			for (int index = 0; index < features.length; index++) {
+				values[index] = copied.getFeature(features[index]);
+			}
+			String[] forms = buildForms(copied, word);
+			String[] bareForms = null;
+			if (equal(copied.getBaseForm(), bare.getBaseForm())) {
+				bareForms = buildForms(bare, word);
+				if (Arrays.equals(forms, bareForms)) {
+					bareForms = forms;
+				}
+			}
+			return new InflectionTable(category, features, values, forms,
+					bareForms);
+
+		} catch (RuntimeException ex) {
+			// left to the rules, which will fail in the same way
+			return null;
+		}
+	}
+
+	/**
+	 * Looks up the form of an inflected word.
+	 * 
+	 * @param element
+	 *            the inflected word, whose base word has this table.
+	 * @return the form, or <code>null</code> if the word must be inflected by
+	 *         the rules.
+	 */
+	String lookup(InflectedWordElement element) {
+		if (element.getCategory() != this.category
+				|| (this.category == LexicalCategory.NOUN && element
+						.getFeatureAsBoolean(Feature.POSSESSIVE)
+						.booleanValue())) {
+			return null;
+		}
+
+		boolean copied = true;
+		boolean bare = this.bareForms != null;
+		for (int index = 0; index < this.features.length; index++) {
+			Object value = element.getFeature(this.features[index]);
+			if (LexicalFeature.BASE_FORM.equals(this.features[index])) {
+				copied = copied && equal(value, this.values[index]);
+				bare = bare && equal(value, this.values[index]);
+			} else {
+				copied = copied && equal(value, this.values[index]);
+				bare = bare && value == null;
+			}
+			if (!copied && !bare) {
+				return null;
+			}
+		}
+		return (copied ? this.forms : this.bareForms)[getSlot(element,
+				this.category)];
+	}
+
+	/**
+	 * @return the number of forms in this table.
+	 */
+	public int getFormCount() {
+		return this.forms.length;
+	}
+
+	/**
+	 * Estimates the memory taken by this table, assuming a 64-bit JVM with
+	 * compressed references. Strings which are also held by the word, such as
+	 * its base form and irregular forms, are not counted.
+	 * 
+	 * @return the approximate size in bytes.
+	 */
+	public long getEstimatedSize() {
+		long size = align(12 + 5 * 4) + arraySize(this.values.length)
+				+ arraySize(this.forms.length) + newStringsSize(this.forms);
+		if (this.bareForms != null && this.bareForms != this.forms) {
+			size += arraySize(this.bareForms.length)
+					+ newStringsSize(this.bareForms);
+		}
+		return size;
+	}
+
+	/**
+	 * @param forms
+	 *            the forms.
+	 * @return the approximate size of the forms made by the rules.
+	 */
+	private long newStringsSize(String[] forms) {
+		long size = 0;
+		for (int index = 0; index < forms.length; index++) {
+			String form = forms[index];
+			boolean counted = form == null;
+			for (int other = 0; other < index && !counted; other++) {
+				counted = forms[other] == form;
+			}
+			for (int other = 0; other < this.values.length && !counted; other++) {
+				counted = this.values[other] == form;
+			}
+			if (!counted) {
+				size += align(12 + 3 * 4) + align(16 + 2 * form.length());
+			}
+		}
+		return size;
+	}
+
+	private static long arraySize(int length) {
+		return align(16 + 4 * length);
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	/**
+	 * @param category
+	 *            the category.
+	 * @return the lexical features read by the rules for a category, or
+	 *         <code>null</code> if words of the category have no table.
+	 */
+	static String[] getFeatures(LexicalCategory category) {
+		switch (category) {
+		case NOUN:
+			return NOUN_FEATURES;
+		case VERB:
+			return VERB_FEATURES;
+		case ADJECTIVE:
+			return ADJECTIVE_FEATURES;
+		case ADVERB:
+			return ADVERB_FEATURES;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * Inflects a word for every slot. Equal forms are kept once.
+	 * 
+	 * @param element
+	 *            the inflected word, whose slot features are changed.
+	 * @param word
+	 *            the base word.
+	 * @return the forms.
+	 */
+	private static String[] buildForms(InflectedWordElement element,
+			WordElement word) {
+		String[] forms;
+		switch ((LexicalCategory) element.getCategory()) {
+		case NOUN:
+			forms = new String[2];
+			element.setFeature(Feature.POSSESSIVE, false);
+			element.setFeature(LexicalFeature.PROPER, false);
+			setSlot(element, null, null, null, null, false);
+			forms[BASE] = inflect(element, word);
+			element.setPlural(true);
+			forms[PLURAL] = inflect(element, word);
+			break;
+
+		case VERB:
+			forms = new String[8];
+			setSlot(element, null, null, null, null, true);
+			forms[INFINITIVE] = inflect(element, word);
+			setSlot(element, Form.PRESENT_PARTICIPLE, null, null, null, false);
+			forms[PRESENT_PARTICIPLE] = inflect(element, word);
+			setSlot(element, Form.PAST_PARTICIPLE, null, null, null, false);
+			forms[PAST_PARTICIPLE] = inflect(element, word);
+			setSlot(element, null, Tense.PAST, null, null, false);
+			forms[PAST] = inflect(element, word);
+			setSlot(element, null, Tense.PAST, NumberAgreement.PLURAL, null,
+					false);
+			forms[PAST_PLURAL_OR_SECOND] = inflect(element, word);
+			setSlot(element, null, null, null, null, false);
+			forms[PRESENT_3S] = inflect(element, word);
+			setSlot(element, null, null, null, Person.FIRST, false);
+			forms[PRESENT_FIRST_SINGULAR] = inflect(element, word);
+			setSlot(element, null, null, null, Person.SECOND, false);
+			forms[PRESENT] = inflect(element, word);
+			break;
+
+		default:
+			forms = new String[3];
+			element.setFeature(Feature.IS_COMPARATIVE, false);
+			element.setFeature(Feature.IS_SUPERLATIVE, false);
+			forms[BASE] = inflect(element, word);
+			element.setFeature(Feature.IS_COMPARATIVE, true);
+			forms[COMPARATIVE] = inflect(element, word);
+			element.setFeature(Feature.IS_COMPARATIVE, false);
+			element.setFeature(Feature.IS_SUPERLATIVE, true);
+			forms[SUPERLATIVE] = inflect(element, word);
+		}
+
+		for (int index = 1; index < forms.length; index++) {
+			for (int other = 0; other < index; other++) {
+				if (equal(forms[index], forms[other])) {
+					forms[index] = forms[other];
+					break;
+				}
+			}
+		}
+		return forms;
+	}
+
+	/**
+	 * Sets the features which select a slot.
+	 */
+	private static void setSlot(InflectedWordElement element, Form form,
+			Tense tense, NumberAgreement number, Person person, boolean negated) {
+		element.setFeature(Feature.FORM, form);
+		element.setFeature(Feature.TENSE, tense);
+		element.setFeature(Feature.NUMBER, number);
+		element.setFeature(Feature.PERSON, person);
+		element.setFeature(Feature.NEGATED, negated);
+	}
+
+	/**
+	 * Inflects a word by the rules.
+	 */
+	private static String inflect(InflectedWordElement element,
+			WordElement word) {
+		switch ((LexicalCategory) element.getCategory()) {
+		case NOUN:
+			return MorphologyRules.doNounMorphology(element, word)
+					.getRealisation();
+		case VERB:
+			return MorphologyRules.doVerbMorphology(element, word)
+					.getRealisation();
+		case ADJECTIVE:
+			return MorphologyRules.doAdjectiveMorphology(element, word)
+					.getRealisation();
+		default:
+			return MorphologyRules.doAdverbMorphology(element, word)
+					.getRealisation();
+		}
+	}
+
+	/**
+	 * Finds the slot of an inflected word, by the same tests as
+	 * <code>MorphologyRules</code>.
+	 * 
+	 * @param element
+	 *            the inflected word.
+	 * @param category
+	 *            its category.
+	 * @return the slot.
+	 */
+	static int getSlot(InflectedWordElement element,
+			LexicalCategory category) {
+		switch (category) {
+		case NOUN:
+			return element.isPlural()
+					&& !element.getFeatureAsBoolean(LexicalFeature.PROPER)
+							.booleanValue() ? PLURAL : BASE;
+
+		case VERB:
+			Object number = element.getFeature(Feature.NUMBER);
+			Object person = element.getFeature(Feature.PERSON);
+			Object tense = element.getFeature(Feature.TENSE);
+			Object form = element.getFeature(Feature.FORM);
+
+			if (element.getFeatureAsBoolean(Feature.NEGATED).booleanValue()
+					|| Form.BARE_INFINITIVE.equals(form)) {
+				return INFINITIVE;
+			} else if (Form.PRESENT_PARTICIPLE.equals(form)) {
+				return PRESENT_PARTICIPLE;
+			} else if (Form.PAST_PARTICIPLE.equals(form)) {
+				return PAST_PARTICIPLE;
+			} else if (Tense.PAST.equals(tense)) {
+				return NumberAgreement.PLURAL.equals(number)
+						|| Person.SECOND.equals(person) ? PAST_PLURAL_OR_SECOND
+						: PAST;
+			} else if ((number == null || NumberAgreement.SINGULAR
+					.equals(number))
+					&& (person == null || Person.THIRD.equals(person))
+					&& (!(tense instanceof Tense) || Tense.PRESENT
+							.equals(tense))) {
+				return PRESENT_3S;
+			} else if (Person.FIRST.equals(person)
+					&& (NumberAgreement.SINGULAR.equals(number) || number == null)) {
+				return PRESENT_FIRST_SINGULAR;
+			} else {
+				return PRESENT;
+			}
+
+		default:
+			if (element.getFeatureAsBoolean(Feature.IS_COMPARATIVE)
+					.booleanValue()) {
+				return COMPARATIVE;
+			} else if (element.getFeatureAsBoolean(Feature.IS_SUPERLATIVE)
+					.booleanValue()) {
+				return SUPERLATIVE;
+			} else {
+				return BASE;
+			}
+		}
+	}
+
+	private static boolean equal(Object first, Object second) {
+		return first == second || (first != null && first.equals(second));
+	}
+}
@@ -34,6 +34,7 @@ import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGModule;
 import simplenlg.framework.StringElement;
 import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
 
 /**
  * <p>
@@ -59,6 +60,27 @@ import simplenlg.framework.WordElement;
  * </p>
  * 
  * <p>
+ * The orthography processor can also inflect the words as it goes (see
+ * {@link simplenlg.orthography.english.OrthographyProcessor#realiseInflecting(NLGElement, MorphologyProcessor)}
+ * ), using {@link #inflect(NLGElement)} and
+ * {@link #inflectComponents(List)}, so that the morphology does not build a
+ * tree of its own.
+ * </p>
+ * 
+ * <p>
+ * If the lexicon precomputes inflections (see
+ * {@link simplenlg.lexicon.Lexicon#setPrecomputeInflections(boolean)}), words
+ * are inflected from their {@link InflectionTable} where it applies, rather
+ * than by the rules; the forms are the same.
+ * </p>
+ * 
+ * <p>
+ * Forms made by the rules can also be kept in an {@link InflectionCache} (see
+ * {@link #setInflectionCacheSize(int)}), which suits lexicons too big for
+ * tables and words which are not in the lexicon.
+ * </p>
+ * 
+ * <p>
  * <b>N.B.</b> the use of <em>module</em>, <em>processing module</em> and
  * <em>processor</em> is interchangeable. They all mean an instance of this
  * class.
@@ -70,11 +92,50 @@ import simplenlg.framework.WordElement;
  */
 public class MorphologyProcessor extends NLGModule {
 
+	// forms made by the rules (null for none)
+	private volatile InflectionCache inflectionCache = null;
+
 	@Override
 	public void initialise() {
 		// Do nothing
 	}
 
+	@Override
+	public void setLexicon(Lexicon newLexicon) {
+		super.setLexicon(newLexicon);
+
+		InflectionCache cache = this.inflectionCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return the cache of forms made by the rules, or <code>null</code> if
+	 *         there is none.
+	 */
+	public InflectionCache getInflectionCache() {
+		return this.inflectionCache;
+	}
+
+	/**
+	 * Set how many forms of nouns, verbs, adjectives and adverbs made by the
+	 * rules are cached. The cache is off (size <code>0</code>) by default, as
+	 * the rules read much the same features as the cache key, so looking a
+	 * regular word up takes about as long as inflecting it again (see
+	 * <code>InflectionCacheBenchmark</code>). Setting the size starts a new,
+	 * empty cache, and setting the lexicon empties it.
+	 * 
+	 * @param size
+	 *            the most forms cached, or <code>0</code> for no cache.
+	 */
+	public void setInflectionCacheSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("cache size must not be negative"); //$NON-NLS-1$
+		}
+		this.inflectionCache = size == 0 ? null : new InflectionCache(size);
+	}
+
 	@Override
 	public NLGElement realise(NLGElement element) {
 		NLGElement realisedElement = null;
@@ -96,29 +157,39 @@ public class MorphologyProcessor extends NLGModule {
 			}
 
 		} else if (element instanceof DocumentElement) {
-			List<NLGElement> children = element.getChildren();
-			((DocumentElement) element).setComponents(realise(children));
-			realisedElement = element;
+			// build a new document rather than changing the one given
+			DocumentElement realisedDocument = new DocumentElement();
+			realisedDocument.setCategory(element.getCategory());
+			for (String feature : element.getAllFeatureNames()) {
+				realisedDocument.setFeature(feature, element.getFeature(feature));
+			}
+			realisedDocument.setComponents(realise(element.getChildrenView()));
+			realisedElement = realisedDocument;
 
 		} else if (element instanceof ListElement) {
 			realisedElement = new ListElement();
 			((ListElement) realisedElement).addComponents(realise(element
-					.getChildren()));
+					.getChildrenView()));
 
 		} else if (element instanceof CoordinatedPhraseElement) {
-			List<NLGElement> children = element.getChildren();
-			((CoordinatedPhraseElement) element).clearCoordinates();
+			List<NLGElement> children = element.getChildrenView();
 
 			if (children != null && children.size() > 0) {
-				((CoordinatedPhraseElement) element)
-						.addCoordinate(realise(children.get(0)));
+				// build a new coordination rather than changing the one given
+				CoordinatedPhraseElement realisedCoordination = new CoordinatedPhraseElement();
+				for (String feature : element.getAllFeatureNames()) {
+					realisedCoordination.setFeature(feature, element
+							.getFeature(feature));
+				}
+				realisedCoordination.clearCoordinates();
+				realisedCoordination.addCoordinate(realise(children.get(0)));
 
 				for (int index = 1; index < children.size(); index++) {
-					((CoordinatedPhraseElement) element)
-							.addCoordinate(realise(children.get(index)));
+					realisedCoordination.addCoordinate(realise(children
+							.get(index)));
 				}
 
-				realisedElement = element;
+				realisedElement = realisedCoordination;
 			}
 
 		} else if (element != null) {
@@ -153,10 +224,36 @@ public class MorphologyProcessor extends NLGModule {
 			if (baseWord == null && this.lexicon != null) {
 				baseWord = this.lexicon.lookupWord(element.getBaseForm());
 			}
-			
+
+			// use the precomputed forms if the lexicon made them
+			String form = null;
+			if (baseWord instanceof WordElement) {
+				InflectionTable table = ((WordElement) baseWord)
+						.getInflectionTable();
+				if (table != null) {
+					form = table.lookup(element);
+				}
+			}
+
+			// otherwise a form the rules made before
+			InflectionCache cache = this.inflectionCache;
+			InflectionCache.Key key = null;
+			if (form == null && cache != null
+					&& (baseWord == null || baseWord instanceof WordElement)) {
+				key = InflectionCache.createKey(element, (WordElement) baseWord);
+				if (key != null) {
+					form = cache.get(key);
+				}
+			}
+
 			ElementCategory category = element.getCategory();
-			
-			if (category instanceof LexicalCategory) {
+
+			if (form != null) {
+				realisedElement = new StringElement(form);
+				realisedElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
+						element.getFeature(InternalFeature.DISCOURSE_FUNCTION));
+
+			} else if (category instanceof LexicalCategory) {
 				switch ((LexicalCategory) category) {
 				case PRONOUN:
 					realisedElement = MorphologyRules
@@ -191,20 +288,83 @@ public class MorphologyProcessor extends NLGModule {
 									element
 											.getFeature(InternalFeature.DISCOURSE_FUNCTION));
 				}
+
+				if (key != null && realisedElement != null
+						&& realisedElement.getRealisation() != null) {
+					cache.put(key, realisedElement.getRealisation());
+				}
 			}
 		}
 		return realisedElement;
 	}
 
+	/**
+	 * Inflects an element if it is a word, as {@link #realise(NLGElement)}
+	 * does. Documents, lists and coordinated phrases are returned unchanged,
+	 * their components being left to be inflected when they are reached; an
+	 * empty coordinated phrase, which is not realised, gives <code>null</code>.
+	 * 
+	 * @param element
+	 *            the element.
+	 * @return the inflected word, the element itself, or <code>null</code>.
+	 */
+	public NLGElement inflect(NLGElement element) {
+		NLGElement inflectedElement = null;
+
+		if (element instanceof DocumentElement
+				|| element instanceof ListElement) {
+			inflectedElement = element;
+
+		} else if (element instanceof CoordinatedPhraseElement) {
+			if (!element.getChildrenView().isEmpty()) {
+				inflectedElement = element;
+			}
+
+		} else {
+			inflectedElement = realise(element);
+		}
+		return inflectedElement;
+	}
+
+	/**
+	 * Inflects the words in a list of elements, as
+	 * {@link #realise(List)} does, including the agreement of determiners with
+	 * the following word. Documents, lists and coordinated phrases in the list
+	 * are not copied (see {@link #inflect(NLGElement)}).
+	 * 
+	 * @param elements
+	 *            the elements.
+	 * @return the inflected elements.
+	 */
+	public List<NLGElement> inflectComponents(List<NLGElement> elements) {
+		return realiseList(elements, false);
+	}
+
 	@Override
 	public List<NLGElement> realise(List<NLGElement> elements) {
+		return realiseList(elements, true);
+	}
+
+	/**
+	 * Realises or inflects a list of elements.
+	 * 
+	 * @param elements
+	 *            the elements.
+	 * @param realiseAll
+	 *            whether the elements are realised (<code>true</code>) or only
+	 *            inflected (<code>false</code>).
+	 * @return the realised elements.
+	 */
+	private List<NLGElement> realiseList(List<NLGElement> elements,
+			boolean realiseAll) {
 		List<NLGElement> realisedElements = new ArrayList<NLGElement>();
 		NLGElement currentElement = null;
 		NLGElement determiner = null;
 
 		if (elements != null) {
 			for (NLGElement eachElement : elements) {
-				currentElement = realise(eachElement);				
+				currentElement = realiseAll ? realise(eachElement)
+						: inflect(eachElement);
 				
 				if (currentElement != null) {
 					//pass the discourse function and appositive features -- important for orth processor
@@ -234,16 +394,23 @@ public class MorphologyProcessor extends NLGModule {
 
 						if (currentElement instanceof ListElement) {
 							// list elements: ensure det matches first element
-							NLGElement firstChild = ((ListElement) currentElement)
-									.getChildren().get(0);
+							NLGElement firstChild = realiseAll ? ((ListElement) currentElement)
+									.getChildrenView().get(0)
+									: firstInflected(currentElement);
 
 							if (firstChild != null) {
 								//AG: need to check if child is a coordinate
 								if (firstChild instanceof CoordinatedPhraseElement) {
+									NLGElement firstCoordinate = firstChild
+											.getChildrenView().get(0);
+									if (!realiseAll) {
+										firstCoordinate = inflect(firstCoordinate);
+									}
 									MorphologyRules.doDeterminerMorphology(
-											determiner, firstChild
-													.getChildren().get(0)
-													.getRealisation());
+											determiner,
+											firstCoordinate == null ? null
+													: firstCoordinate
+															.getRealisation());
 								} else {
 									MorphologyRules.doDeterminerMorphology(
 											determiner, firstChild
@@ -265,4 +432,23 @@ public class MorphologyProcessor extends NLGModule {
 
 		return realisedElements;
 	}
+
+	/**
+	 * Finds the first component of a list as it would be realised, without
+	 * realising the others.
+	 * 
+	 * @param list
+	 *            the list.
+	 * @return the first component which is not dropped by
+	 *         {@link #inflect(NLGElement)}, inflected, or <code>null</code>.
+	 */
+	private NLGElement firstInflected(NLGElement list) {
+		for (NLGElement child : list.getChildrenView()) {
+			NLGElement inflectedChild = child == null ? null : inflect(child);
+			if (inflectedChild != null) {
+				return inflectedChild;
+			}
+		}
+		return null;
+	}
 }
@@ -88,6 +88,104 @@ public abstract class MorphologyRules {
 	private static final String[] WH_PRONOUNS = { "who", "what", "which",
 			"where", "why", "how", "how many" };
 
+	/**
+	 * Rules for regular plural nouns, in the order they are tried. See
+	 * {@link #buildRegularPluralNoun(String)}.
+	 */
+	private static final SuffixRule[] REGULAR_PLURAL_RULES = {
+			SuffixRule.ending("y").after(SuffixRule.CONSONANTS).replace("y", "ies"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("s").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("z").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("x").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("h").after("cs").append("es"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("").append("s") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Rules for Greco-Latin plural nouns. See
+	 * {@link #buildGrecoLatinPluralNoun(String)}. Words ending <em>-u</em>,
+	 * <em>-m</em>, <em>-o</em> or <em>-n</em> have every such word-final
+	 * letter replaced by <em>a</em>, as the original pattern
+	 * <code>[(um)(on)]</code> did; this takes in <em>-men</em> as well.
+	 */
+	private static final SuffixRule[] GRECO_LATIN_PLURAL_RULES = {
+			SuffixRule.ending("us").replace("us", "i"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("ma").append("ta"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("a").append("e"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("u").replaceAny("(um)(on)", "a"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("m").replaceAny("(um)(on)", "a"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("o").replaceAny("(um)(on)", "a"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("n").replaceAny("(um)(on)", "a"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("sis").replace("sis", "ses"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("is").replace("is", "ides"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("men").replace("men", "mina"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("ex").replace("ex", "ices"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("x").replace("x", "ces"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("") }; //$NON-NLS-1$
+
+	/**
+	 * Rules for the present third-person singular of verbs other than
+	 * <em>be</em>. See {@link #buildPresent3SVerb(String)}. As with the
+	 * original pattern <code>[szx(ch)(sh)]</code>, any word ending <em>-c</em>
+	 * or <em>-h</em> takes <em>-es</em>.
+	 */
+	private static final SuffixRule[] PRESENT_3S_RULES = {
+			SuffixRule.ending("s").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("z").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("x").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("c").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("h").append("es"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("y").after(SuffixRule.CONSONANTS).replace("y", "ies"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("").append("s") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Rules for the past tense of regular verbs other than <em>be</em>. See
+	 * {@link #buildRegularPastVerb(String, Object, Object)}.
+	 */
+	private static final SuffixRule[] REGULAR_PAST_RULES = {
+			SuffixRule.ending("e").append("d"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("y").after(SuffixRule.CONSONANTS).replace("y", "ied"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("").append("ed") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Rules for the present participle of regular verbs other than
+	 * <em>be</em>. See {@link #buildRegularPresPartVerb(String)}.
+	 */
+	private static final SuffixRule[] REGULAR_PRESENT_PARTICIPLE_RULES = {
+			SuffixRule.ending("ie").replace("ie", "ying"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("e").notAfter("iyeo").replace("e", "ing"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			SuffixRule.ending("").append("ing") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Rules for the comparative of regular adjectives. See
+	 * {@link #buildRegularComparative(String)}.
+	 */
+	private static final SuffixRule[] REGULAR_COMPARATIVE_RULES = {
+			SuffixRule.ending("y").after(SuffixRule.CONSONANTS).replace("y", "ier"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("e").append("r"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("").append("er") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Rules for the superlative of regular adjectives. See
+	 * {@link #buildRegularSuperlative(String)}.
+	 */
+	private static final SuffixRule[] REGULAR_SUPERLATIVE_RULES = {
+			SuffixRule.ending("y").after(SuffixRule.CONSONANTS).replace("y", "iest"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			SuffixRule.ending("e").append("st"), //$NON-NLS-1$ //$NON-NLS-2$
+			SuffixRule.ending("").append("est") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/** Rules doubling the last consonant, one for each suffix. */
+	private static final SuffixRule[] DOUBLE_PAST_RULES = { SuffixRule
+			.ending("").doubleAndAppend("ed") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final SuffixRule[] DOUBLE_PRESENT_PARTICIPLE_RULES = { SuffixRule
+			.ending("").doubleAndAppend("ing") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final SuffixRule[] DOUBLE_COMPARATIVE_RULES = { SuffixRule
+			.ending("").doubleAndAppend("er") }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final SuffixRule[] DOUBLE_SUPERLATIVE_RULES = { SuffixRule
+			.ending("").doubleAndAppend("est") }; //$NON-NLS-1$ //$NON-NLS-2$
+
 	/**
 	 * This method performs the morphology for nouns.
 	 * 
@@ -182,20 +280,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildRegularPluralNoun(String baseForm) {
-		String plural = null;
-		if (baseForm != null) {
-			if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("y\\b", "ies"); //$NON-NLS-1$ //$NON-NLS-2$
-			
-				//AG: changed regex from ".*[szx(ch)(sh)]\\b" (tip of the hat to Ian Tabolt)				
-			} else if (baseForm.matches(".*([szx]|[cs]h)\\b")) { //$NON-NLS-1$
-				plural = baseForm + "es"; //$NON-NLS-1$
-			
-			} else {
-				plural = baseForm + "s"; //$NON-NLS-1$
-			}
-		}
-		return plural;
+		return SuffixRule.inflect(REGULAR_PLURAL_RULES, baseForm);
 	}
 
 	/**
@@ -227,31 +312,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildGrecoLatinPluralNoun(String baseForm) {
-		String plural = null;
-		if (baseForm != null) {
-			if (baseForm.endsWith("us")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("us\\b", "i"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("ma")) { //$NON-NLS-1$
-				plural = baseForm + "ta"; //$NON-NLS-1$
-			} else if (baseForm.endsWith("a")) { //$NON-NLS-1$
-				plural = baseForm + "e"; //$NON-NLS-1$
-			} else if (baseForm.matches(".*[(um)(on)]\\b")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("[(um)(on)]\\b", "a"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("sis")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("sis\\b", "ses"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("is")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("is\\b", "ides"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("men")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("men\\b", "mina"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("ex")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("ex\\b", "ices"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("x")) { //$NON-NLS-1$
-				plural = baseForm.replaceAll("x\\b", "ces"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else {
-				plural = baseForm;
-			}
-		}
-		return plural;
+		return SuffixRule.inflect(GRECO_LATIN_PLURAL_RULES, baseForm);
 	}
 
 	/**
@@ -390,7 +451,7 @@ public abstract class MorphologyRules {
 	 * @param baseWord
 	 * @return
 	 */
-	private static String getBaseForm(InflectedWordElement element,
+	static String getBaseForm(InflectedWordElement element,
 			WordElement baseWord) {
 		// unclear what the right behaviour should be
 		// for now, prefer baseWord.getBaseForm() to element.getBaseForm() for
@@ -476,12 +537,8 @@ public abstract class MorphologyRules {
 		if (baseForm != null) {
 			if (baseForm.equalsIgnoreCase("be")) { //$NON-NLS-1$
 				morphology = "is"; //$NON-NLS-1$
-			} else if (baseForm.matches(".*[szx(ch)(sh)]\\b")) { //$NON-NLS-1$
-				morphology = baseForm + "es"; //$NON-NLS-1$
-			} else if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) { //$NON-NLS-1$
-				morphology = baseForm.replaceAll("y\\b", "ies"); //$NON-NLS-1$ //$NON-NLS-2$
 			} else {
-				morphology = baseForm + "s"; //$NON-NLS-1$
+				morphology = SuffixRule.inflect(PRESENT_3S_RULES, baseForm);
 			}
 		}
 		return morphology;
@@ -526,12 +583,8 @@ public abstract class MorphologyRules {
 				} else {
 					morphology = "was";
 				}
-			} else if (baseForm.endsWith("e")) { //$NON-NLS-1$
-				morphology = baseForm + "d"; //$NON-NLS-1$
-			} else if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) { //$NON-NLS-1$
-				morphology = baseForm.replaceAll("y\\b", "ied"); //$NON-NLS-1$ //$NON-NLS-2$
 			} else {
-				morphology = baseForm + "ed"; //$NON-NLS-1$
+				morphology = SuffixRule.inflect(REGULAR_PAST_RULES, baseForm);
 			}
 		}
 		return morphology;
@@ -547,12 +600,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildDoublePastVerb(String baseForm) {
-		String morphology = null;
-		if (baseForm != null) {
-			morphology = baseForm + baseForm.charAt(baseForm.length() - 1)
-					+ "ed"; //$NON-NLS-1$
-		}
-		return morphology;
+		return SuffixRule.inflect(DOUBLE_PAST_RULES, baseForm);
 	}
 
 	/**
@@ -582,12 +630,9 @@ public abstract class MorphologyRules {
 		if (baseForm != null) {
 			if (baseForm.equalsIgnoreCase("be")) { //$NON-NLS-1$
 				morphology = "being"; //$NON-NLS-1$
-			} else if (baseForm.endsWith("ie")) { //$NON-NLS-1$
-				morphology = baseForm.replaceAll("ie\\b", "ying"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.matches(".*[^iyeo]e\\b")) { //$NON-NLS-1$
-				morphology = baseForm.replaceAll("e\\b", "ing"); //$NON-NLS-1$ //$NON-NLS-2$
 			} else {
-				morphology = baseForm + "ing"; //$NON-NLS-1$
+				morphology = SuffixRule.inflect(
+						REGULAR_PRESENT_PARTICIPLE_RULES, baseForm);
 			}
 		}
 		return morphology;
@@ -604,12 +649,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildDoublePresPartVerb(String baseForm) {
-		String morphology = null;
-		if (baseForm != null) {
-			morphology = baseForm + baseForm.charAt(baseForm.length() - 1)
-					+ "ing"; //$NON-NLS-1$
-		}
-		return morphology;
+		return SuffixRule.inflect(DOUBLE_PRESENT_PARTICIPLE_RULES, baseForm);
 	}
 
 	/**
@@ -681,12 +721,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildDoubleCompAdjective(String baseForm) {
-		String morphology = null;
-		if (baseForm != null) {
-			morphology = baseForm + baseForm.charAt(baseForm.length() - 1)
-					+ "er"; //$NON-NLS-1$
-		}
-		return morphology;
+		return SuffixRule.inflect(DOUBLE_COMPARATIVE_RULES, baseForm);
 	}
 
 	/**
@@ -709,17 +744,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildRegularComparative(String baseForm) {
-		String morphology = null;
-		if (baseForm != null) {
-			if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) { //$NON-NLS-1$
-				morphology = baseForm.replaceAll("y\\b", "ier"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("e")) { //$NON-NLS-1$
-				morphology = baseForm + "r"; //$NON-NLS-1$
-			} else {
-				morphology = baseForm + "er"; //$NON-NLS-1$
-			}
-		}
-		return morphology;
+		return SuffixRule.inflect(REGULAR_COMPARATIVE_RULES, baseForm);
 	}
 
 	/**
@@ -732,12 +757,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildDoubleSuperAdjective(String baseForm) {
-		String morphology = null;
-		if (baseForm != null) {
-			morphology = baseForm + baseForm.charAt(baseForm.length() - 1)
-					+ "est"; //$NON-NLS-1$
-		}
-		return morphology;
+		return SuffixRule.inflect(DOUBLE_SUPERLATIVE_RULES, baseForm);
 	}
 
 	/**
@@ -760,17 +780,7 @@ public abstract class MorphologyRules {
 	 * @return the inflected word.
 	 */
 	private static String buildRegularSuperlative(String baseForm) {
-		String morphology = null;
-		if (baseForm != null) {
-			if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) { //$NON-NLS-1$
-				morphology = baseForm.replaceAll("y\\b", "iest"); //$NON-NLS-1$ //$NON-NLS-2$
-			} else if (baseForm.endsWith("e")) { //$NON-NLS-1$
-				morphology = baseForm + "st"; //$NON-NLS-1$
-			} else {
-				morphology = baseForm + "est"; //$NON-NLS-1$
-			}
-		}
-		return morphology;
+		return SuffixRule.inflect(REGULAR_SUPERLATIVE_RULES, baseForm);
 	}
 
 	/**
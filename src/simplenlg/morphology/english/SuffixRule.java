@@ -0,0 +1,288 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.morphology.english;
+
+/**
+ * <p>
+ * A rule for inflecting a word by its ending. A rule applies to words which end
+ * with a given string, optionally only when the character before that ending
+ * is (or is not) one of a given set. It then either appends a suffix, perhaps
+ * after doubling the last character, or replaces an ending with another.
+ * </p>
+ * 
+ * <p>
+ * The rules for one inflection are kept in an array and tried in order by
+ * {@link #inflect(SuffixRule[], String)}; the first which applies gives the
+ * inflected form. Rules work on the characters of the word and build the
+ * result in one buffer, so no patterns are compiled or matched.
+ * </p>
+ * 
+ * <p>
+ * Replacement behaves like <code>String.replaceAll(ending + "\\b",
+ * replacement)</code> in the rules this class replaced: every occurrence of
+ * the ending which is followed by a word boundary is replaced, so
+ * <em>fly by</em> has every word-final <em>y</em> replaced, not just the last.
+ * Rules are built once, when <code>MorphologyRules</code> is loaded, and are
+ * not changed afterwards, so they can be shared between threads.
+ * </p>
+ */
+final class SuffixRule {
+
+	/** Lower-case consonants, including <em>y</em>. */
+	static final String CONSONANTS = "bcdfghjklmnpqrstvwxyz"; //$NON-NLS-1$
+
+	// the word must end with this
+	private final String ending;
+
+	// the characters that may (or, if excluded, may not) precede the ending;
+	// null if any character, or none, may
+	private String preceding;
+	private boolean precedingExcluded;
+
+	// what is replaced, either a string or any one of a set of characters;
+	// null if the suffix is appended
+	private String replaced;
+	private boolean replacedAnyChar;
+
+	// the suffix appended or replacement made
+	private String suffix = ""; //$NON-NLS-1$
+
+	// whether the last character is doubled before the suffix is appended
+	private boolean doubling;
+
+	private SuffixRule(String ending) {
+		this.ending = ending;
+	}
+
+	/**
+	 * Creates a rule for words with the given ending. An empty ending matches
+	 * every word.
+	 * 
+	 * @param ending
+	 *            the ending the word must have.
+	 * @return the rule, which appends nothing until told otherwise.
+	 */
+	static SuffixRule ending(String ending) {
+		return new SuffixRule(ending);
+	}
+
+	/**
+	 * Requires the ending to follow one of the given characters.
+	 * 
+	 * @param chars
+	 *            the characters allowed before the ending.
+	 * @return this rule.
+	 */
+	SuffixRule after(String chars) {
+		this.preceding = chars;
+		this.precedingExcluded = false;
+		return this;
+	}
+
+	/**
+	 * Requires the ending to follow a character which is not one of those
+	 * given. The ending must still have some character before it.
+	 * 
+	 * @param chars
+	 *            the characters not allowed before the ending.
+	 * @return this rule.
+	 */
+	SuffixRule notAfter(String chars) {
+		this.preceding = chars;
+		this.precedingExcluded = true;
+		return this;
+	}
+
+	/**
+	 * Makes the rule append a suffix to the word.
+	 * 
+	 * @param suffix
+	 *            the suffix.
+	 * @return this rule.
+	 */
+	SuffixRule append(String suffix) {
+		this.suffix = suffix;
+		return this;
+	}
+
+	/**
+	 * Makes the rule double the last character of the word and then append a
+	 * suffix, as in <em>tug</em>, <em>tugged</em>.
+	 * 
+	 * @param suffix
+	 *            the suffix.
+	 * @return this rule.
+	 */
+	SuffixRule doubleAndAppend(String suffix) {
+		this.doubling = true;
+		return append(suffix);
+	}
+
+	/**
+	 * Makes the rule replace every word-final occurrence of a string.
+	 * 
+	 * @param target
+	 *            the string to replace.
+	 * @param replacement
+	 *            what it is replaced with.
+	 * @return this rule.
+	 */
+	SuffixRule replace(String target, String replacement) {
+		this.replaced = target;
+		this.replacedAnyChar = false;
+		return append(replacement);
+	}
+
+	/**
+	 * Makes the rule replace every character from the given set which is
+	 * followed by a word boundary.
+	 * 
+	 * @param chars
+	 *            the characters to replace.
+	 * @param replacement
+	 *            what each is replaced with.
+	 * @return this rule.
+	 */
+	SuffixRule replaceAny(String chars, String replacement) {
+		this.replaced = chars;
+		this.replacedAnyChar = true;
+		return append(replacement);
+	}
+
+	/**
+	 * Inflects a word by the first of the rules which applies to it.
+	 * 
+	 * @param rules
+	 *            the rules, in the order they are tried.
+	 * @param word
+	 *            the base form of the word.
+	 * @return the inflected word, the word itself if no rule applies, or
+	 *         <code>null</code> if the word is <code>null</code>.
+	 */
+	static String inflect(SuffixRule[] rules, String word) {
+		if (word != null) {
+			for (SuffixRule rule : rules) {
+				if (rule.appliesTo(word)) {
+					return rule.apply(word);
+				}
+			}
+		}
+		return word;
+	}
+
+	/**
+	 * @param word
+	 *            the word.
+	 * @return <code>true</code> if the word has this rule's ending, preceded
+	 *         by an allowed character.
+	 */
+	boolean appliesTo(String word) {
+		int start = word.length() - this.ending.length();
+		if (start < 0 || !word.startsWith(this.ending, start)) {
+			return false;
+		} else if (this.preceding == null) {
+			return true;
+		} else {
+			return start > 0
+					&& (this.preceding.indexOf(word.charAt(start - 1)) >= 0) != this.precedingExcluded;
+		}
+	}
+
+	/**
+	 * Applies this rule to a word which it applies to.
+	 * 
+	 * @param word
+	 *            the word.
+	 * @return the inflected word.
+	 */
+	String apply(String word) {
+		int length = word.length();
+		if (this.replaced == null) {
+			if (this.suffix.length() == 0 && !this.doubling) {
+				return word;
+			}
+			StringBuilder inflected = new StringBuilder(length + 1
+					+ this.suffix.length());
+			inflected.append(word);
+			if (this.doubling) {
+				inflected.append(word.charAt(length - 1));
+			}
+			return inflected.append(this.suffix).toString();
+		}
+
+		int replacedLength = this.replacedAnyChar ? 1 : this.replaced.length();
+		StringBuilder inflected = new StringBuilder(length
+				+ this.suffix.length());
+		int index = 0;
+		while (index < length) {
+			if (isReplacedAt(word, index)
+					&& isWordBoundary(word, index + replacedLength)) {
+				inflected.append(this.suffix);
+				index += replacedLength;
+			} else {
+				inflected.append(word.charAt(index++));
+			}
+		}
+		return inflected.toString();
+	}
+
+	/**
+	 * @param word
+	 *            the word.
+	 * @param index
+	 *            a position in the word.
+	 * @return <code>true</code> if what this rule replaces occurs at that
+	 *         position.
+	 */
+	private boolean isReplacedAt(String word, int index) {
+		if (this.replacedAnyChar) {
+			return this.replaced.indexOf(word.charAt(index)) >= 0;
+		} else {
+			return word.startsWith(this.replaced, index);
+		}
+	}
+
+	/**
+	 * Tells whether there is a word boundary at a position, meaning that the
+	 * characters either side of it are not both word characters or both
+	 * non-word characters. Word characters are letters, digits and
+	 * underscores, and the ends of the word count as non-word characters, as
+	 * for <code>\b</code> in <code>java.util.regex</code>.
+	 * 
+	 * @param word
+	 *            the word.
+	 * @param index
+	 *            a position in the word, between 0 and its length.
+	 * @return <code>true</code> if there is a word boundary at that position.
+	 */
+	private static boolean isWordBoundary(String word, int index) {
+		boolean before = index > 0 && isWordChar(word.charAt(index - 1));
+		boolean after = index < word.length() && isWordChar(word.charAt(index));
+		return before != after;
+	}
+
+	/**
+	 * @param c
+	 *            a character.
+	 * @return <code>true</code> if it is a letter, digit or underscore.
+	 */
+	private static boolean isWordChar(char c) {
+		return c == '_' || Character.isLetterOrDigit(c);
+	}
+}
@@ -32,6 +32,7 @@ import simplenlg.framework.ListElement;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGModule;
 import simplenlg.framework.StringElement;
+import simplenlg.morphology.english.MorphologyProcessor;
 
 /**
  * <p>
@@ -47,6 +48,14 @@ import simplenlg.framework.StringElement;
  * </ul>
  * </p>
  * 
+ * <p>
+ * The processor normally works on the output of the morphology processor.
+ * {@link #realiseInflecting(NLGElement, MorphologyProcessor)} instead works
+ * on the output of the syntax processor, inflecting the words of each list as
+ * it reaches them, which gives the same realisation without the morphology
+ * processor building a tree of its own.
+ * </p>
+ * 
  * 
  * @author D. Westwater, University of Aberdeen.
  * @version 4.0
@@ -54,10 +63,10 @@ import simplenlg.framework.StringElement;
  */
 public class OrthographyProcessor extends NLGModule {
 
-	private boolean commaSepPremodifiers; // set whether to separate
+	private volatile boolean commaSepPremodifiers; // set whether to separate
 											// premodifiers using commas
 
-	private boolean commaSepCuephrase; // set whether to include a comma after a
+	private volatile boolean commaSepCuephrase; // set whether to include a comma after a
 										// cue phrase (if marked by the
 										// CUE_PHRASE=true) feature.
 
@@ -115,12 +124,75 @@ public class OrthographyProcessor extends NLGModule {
 
 	@Override
 	public NLGElement realise(NLGElement element) {
+		return realise(element, null);
+	}
+
+	/**
+	 * Realises an element which has not been through the morphology processor,
+	 * inflecting the words as they are reached. The realisation is the same as
+	 * that of the element after morphology.
+	 * 
+	 * @param element
+	 *            the element, as realised by the syntax processor.
+	 * @param morphology
+	 *            the morphology processor which inflects the words.
+	 * @return the realised element.
+	 */
+	public NLGElement realiseInflecting(NLGElement element,
+			MorphologyProcessor morphology) {
+		return realise(morphology.inflect(element), morphology);
+	}
+
+	/**
+	 * Gets the components of an element, inflecting the words among them if
+	 * the element has not been through the morphology processor.
+	 * 
+	 * @param element
+	 *            the element.
+	 * @param morphology
+	 *            the morphology processor, or <code>null</code> if the words
+	 *            have been inflected.
+	 * @return the components.
+	 */
+	private List<NLGElement> getComponents(NLGElement element,
+			MorphologyProcessor morphology) {
+		List<NLGElement> components = element.getChildrenView();
+
+		if (morphology != null) {
+			if (element instanceof CoordinatedPhraseElement) {
+				// coordinates are realised one at a time, with no agreement
+				List<NLGElement> coordinates = new ArrayList<NLGElement>(
+						components.size());
+				for (NLGElement coordinate : components) {
+					coordinates.add(morphology.inflect(coordinate));
+				}
+				components = coordinates;
+			} else {
+				components = morphology.inflectComponents(components);
+			}
+		}
+		return components;
+	}
+
+	/**
+	 * Realises an element.
+	 * 
+	 * @param element
+	 *            the element.
+	 * @param morphology
+	 *            the morphology processor, or <code>null</code> if the words
+	 *            have been inflected.
+	 * @return the realised element.
+	 */
+	private NLGElement realise(NLGElement element,
+			MorphologyProcessor morphology) {
 		NLGElement realisedElement = null;
 		Object function = null; //the element's discourse function
+		List<NLGElement> children = null;
 		
 		//get the element's function first
 		if(element instanceof ListElement) {
-			List<NLGElement> children = element.getChildren();	
+			children = getComponents(element, morphology);
 			if (!children.isEmpty()) {
 				NLGElement firstChild = children.get(0);
 				function = firstChild
@@ -136,13 +208,14 @@ public class OrthographyProcessor extends NLGModule {
 
 			if (category instanceof DocumentCategory
 					&& element instanceof DocumentElement) {
-				List<NLGElement> components = ((DocumentElement) element)
-						.getComponents();
+				List<NLGElement> components = getComponents(element,
+						morphology);
 
 				switch ((DocumentCategory) category) {
 
 				case SENTENCE:
-					realisedElement = realiseSentence(components, element);
+					realisedElement = realiseSentence(components, element,
+							morphology);
 					break;
 
 				case LIST_ITEM:
@@ -150,14 +223,16 @@ public class OrthographyProcessor extends NLGModule {
 						// recursively realise whatever's in the list item
 						// NB: this will realise embedded lists within list
 						// items
-						realisedElement = new ListElement(realise(components));
+						realisedElement = new ListElement(realise(components,
+								morphology));
 					}
 					break;
 
 				default:
-					((DocumentElement) element)
-							.setComponents(realise(components));
-					realisedElement = element;
+					DocumentElement realisedDocument = copyDocument(element);
+					realisedDocument.setComponents(realise(components,
+							morphology));
+					realisedElement = realisedDocument;
 				}
 
 			} else if (element instanceof ListElement) {
@@ -169,13 +244,13 @@ public class OrthographyProcessor extends NLGModule {
 							
 
 				if (DiscourseFunction.PRE_MODIFIER.equals(function)) {
-					realiseList(buffer, element.getChildren(),
-							this.commaSepPremodifiers ? "," : "");
+					realiseList(buffer, children,
+							this.commaSepPremodifiers ? "," : "", morphology);
 
 				} else if (DiscourseFunction.POST_MODIFIER.equals(function)) {// &&
 																				// appositive)
 																				// {
-					List<NLGElement> postmods = element.getChildren();
+					List<NLGElement> postmods = children;
 					// bug fix due to Owen Bennett
 					int len = postmods.size();
 
@@ -187,27 +262,27 @@ public class OrthographyProcessor extends NLGModule {
 						// commas
 						if (postmod.getFeatureAsBoolean(Feature.APPOSITIVE)) {
 							buffer.append(", ");
-							buffer.append(realise(postmod));
+							buffer.append(realise(postmod, morphology));
 
 							if (i < len - 1) {
 								buffer.append(", ");
 							}
 						} else {
-							buffer.append(realise(postmod));
+							buffer.append(realise(postmod, morphology));
 							buffer.append(" ");
 						}
 					}
 
 				} else {
-					realiseList(buffer, element.getChildren(), "");
+					realiseList(buffer, children, "", morphology);
 				}
 
 				// realiseList(buffer, element.getChildren(), "");
 				realisedElement = new StringElement(buffer.toString());				
 
 			} else if (element instanceof CoordinatedPhraseElement) {
-				realisedElement = realiseCoordinatedPhrase(element
-						.getChildren());
+				realisedElement = realiseCoordinatedPhrase(getComponents(
+						element, morphology), morphology);
 
 			} else {
 				realisedElement = element;
@@ -259,30 +334,49 @@ public class OrthographyProcessor extends NLGModule {
 	 *            the components that make up the sentence.
 	 * @param element
 	 *            the <code>NLGElement</code> representing the sentence.
+	 * @param morphology
+	 *            the morphology processor, or <code>null</code> if the words
+	 *            have been inflected.
 	 * @return the realised element as an <code>NLGElement</code>.
 	 */
 	private NLGElement realiseSentence(List<NLGElement> components,
-			NLGElement element) {
+			NLGElement element, MorphologyProcessor morphology) {
 
 		NLGElement realisedElement = null;
 		if (components != null && components.size() > 0) {
 			StringBuffer realisation = new StringBuffer();
-			realiseList(realisation, components, "");
+			realiseList(realisation, components, "", morphology);
 
 			capitaliseFirstLetter(realisation);
 			terminateSentence(realisation,
 					element.getFeatureAsBoolean(InternalFeature.INTERROGATIVE)
 							.booleanValue());
 
-			((DocumentElement) element).clearComponents();
 			// realisation.append(' ');
-			element.setRealisation(realisation.toString());
-			realisedElement = element;
+			realisedElement = copyDocument(element);
+			realisedElement.setRealisation(realisation.toString());
 		}
 
 		return realisedElement;
 	}
 
+	/**
+	 * Makes a new document element with the category and features of the given
+	 * one, so that realisation does not change the element it was given.
+	 * 
+	 * @param element
+	 *            the <code>DocumentElement</code> being realised.
+	 * @return the new <code>DocumentElement</code>.
+	 */
+	private DocumentElement copyDocument(NLGElement element) {
+		DocumentElement document = new DocumentElement();
+		document.setCategory(element.getCategory());
+		for (String feature : element.getAllFeatureNames()) {
+			document.setFeature(feature, element.getFeature(feature));
+		}
+		return document;
+	}
+
 	/**
 	 * Adds the sentence terminator to the sentence. This is a period ('.') for
 	 * normal sentences or a question mark ('?') for interrogatives.
@@ -324,12 +418,30 @@ public class OrthographyProcessor extends NLGModule {
 
 	@Override
 	public List<NLGElement> realise(List<NLGElement> elements) {
+		return realise(elements, null);
+	}
+
+	/**
+	 * Realises the documents in a list of elements. Other elements are kept
+	 * as they are, after morphology if they have not been through it.
+	 * 
+	 * @param elements
+	 *            the elements.
+	 * @param morphology
+	 *            the morphology processor, or <code>null</code> if the words
+	 *            have been inflected.
+	 * @return the realised elements.
+	 */
+	private List<NLGElement> realise(List<NLGElement> elements,
+			MorphologyProcessor morphology) {
 		List<NLGElement> realisedList = new ArrayList<NLGElement>();
 
 		if (elements != null && elements.size() > 0) {
 			for (NLGElement eachElement : elements) {
 				if (eachElement instanceof DocumentElement) {
-					realisedList.add(realise(eachElement));
+					realisedList.add(realise(eachElement, morphology));
+				} else if (morphology != null) {
+					realisedList.add(morphology.realise(eachElement));
 				} else {
 					realisedList.add(eachElement);
 				}
@@ -351,15 +463,19 @@ public class OrthographyProcessor extends NLGModule {
 	 * @param listSeparator
 	 *            the string to use to separate elements of the list, empty if
 	 *            no separator needed
+	 * @param morphology
+	 *            the morphology processor, or <code>null</code> if the words
+	 *            have been inflected.
 	 */
 	private void realiseList(StringBuffer realisation,
-			List<NLGElement> components, String listSeparator) {
+			List<NLGElement> components, String listSeparator,
+			MorphologyProcessor morphology) {
 
 		NLGElement realisedChild = null;
 
 		for (int i = 0; i < components.size(); i++) {
 			NLGElement thisElement = components.get(i);
-			realisedChild = realise(thisElement);
+			realisedChild = realise(thisElement, morphology);
 			String childRealisation = realisedChild.getRealisation();
 
 			// check that the child realisation is non-empty
@@ -389,9 +505,13 @@ public class OrthographyProcessor extends NLGModule {
 	 * @param components
 	 *            the <code>List</code> of <code>NLGElement</code>s representing
 	 *            the components that make up the sentence.
+	 * @param morphology
+	 *            the morphology processor, or <code>null</code> if the words
+	 *            have been inflected.
 	 * @return the realised element as an <code>NLGElement</code>.
 	 */
-	private NLGElement realiseCoordinatedPhrase(List<NLGElement> components) {
+	private NLGElement realiseCoordinatedPhrase(List<NLGElement> components,
+			MorphologyProcessor morphology) {
 		StringBuffer realisation = new StringBuffer();
 		NLGElement realisedChild = null;
 
@@ -405,7 +525,7 @@ public class OrthographyProcessor extends NLGModule {
 
 				realisation.append(", "); //$NON-NLS-1$
 			} else {
-				realisedChild = realise(realisedChild);
+				realisedChild = realise(realisedChild, morphology);
 				realisation.append(realisedChild.getRealisation()).append(' ');
 			}
 		}
@@ -0,0 +1,85 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.realiser.english;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+import simplenlg.framework.NLGElement;
+
+/**
+ * <p>
+ * Thrown by {@link Realiser#realise(List)} when some of the elements of a list
+ * could not be realised. The other elements are still realised: the exception
+ * holds their realisations, in the same order as the elements, with
+ * <code>null</code> for each element which failed, and the exception thrown
+ * by each of those elements, keyed by its index in the list.
+ * </p>
+ * 
+ * <p>
+ * The cause of the exception is the failure of the first element which
+ * failed.
+ * </p>
+ */
+public class BatchRealisationException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The realisations, with null for the elements which failed. */
+	private final List<NLGElement> realisations;
+
+	/** The failures, by index. */
+	private final SortedMap<Integer, RuntimeException> failures;
+
+	/**
+	 * Creates the exception for a list of elements.
+	 * 
+	 * @param realisations
+	 *            the realisations, with <code>null</code> for each element
+	 *            which failed.
+	 * @param failures
+	 *            the exception thrown by each element which failed, keyed by
+	 *            its index; not empty.
+	 */
+	public BatchRealisationException(List<NLGElement> realisations,
+			SortedMap<Integer, RuntimeException> failures) {
+		super(failures.size() + " of " + realisations.size() //$NON-NLS-1$
+				+ " elements could not be realised, the first at index " //$NON-NLS-1$
+				+ failures.firstKey(), failures.get(failures.firstKey()));
+		this.realisations = Collections.unmodifiableList(realisations);
+		this.failures = Collections.unmodifiableSortedMap(failures);
+	}
+
+	/**
+	 * @return the realisations of all the elements, in order, with
+	 *         <code>null</code> for each element which failed.
+	 */
+	public List<NLGElement> getRealisations() {
+		return this.realisations;
+	}
+
+	/**
+	 * @return the exception thrown by each element which failed, keyed by its
+	 *         index in the list, in order of index.
+	 */
+	public SortedMap<Integer, RuntimeException> getFailures() {
+		return this.failures;
+	}
+}
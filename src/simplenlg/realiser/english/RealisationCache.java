@@ -0,0 +1,138 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.realiser.english;
+
+import simplenlg.framework.BoundedCache;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGModule;
+
+/**
+ * <p>
+ * A cache of realisations, used by a {@link Realiser} to skip the syntax,
+ * morphology and orthography processors for elements it has already realised.
+ * An element is looked up by its structure (see
+ * {@link NLGElement#equals(Object)}), together with the realiser settings
+ * which change the text: whether premodifiers and cue phrases are followed by
+ * commas, and the formatter. The cache keeps a copy of each element, so
+ * changing an element after it has been realised does not change the cache.
+ * </p>
+ * 
+ * <p>
+ * The cache holds a limited number of realisations, and counts how many
+ * elements were found and not found (see {@link BoundedCache}). It can be
+ * used by several threads at once.
+ * </p>
+ */
+public class RealisationCache extends BoundedCache<RealisationCache.Key, NLGElement> {
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maximumSize
+	 *            the most realisations held, at least 1.
+	 */
+	public RealisationCache(int maximumSize) {
+		super(maximumSize);
+	}
+
+	/**
+	 * Looks up the realisation of an element. The realisation returned is
+	 * shared, and must not be changed.
+	 * 
+	 * @param element
+	 *            the element.
+	 * @param commaSepPremodifiers
+	 *            whether premodifiers are separated by commas.
+	 * @param commaSepCuephrase
+	 *            whether cue phrases are followed by a comma.
+	 * @param formatter
+	 *            the formatter, or <code>null</code>.
+	 * @return the realisation, or <code>null</code> if the element is not in
+	 *         the cache.
+	 */
+	NLGElement get(NLGElement element, boolean commaSepPremodifiers,
+			boolean commaSepCuephrase, NLGModule formatter) {
+		return getValue(new Key(element, commaSepPremodifiers,
+				commaSepCuephrase, formatter));
+	}
+
+	/**
+	 * Adds the realisation of an element to the cache. A copy of the element is
+	 * kept, but not of the realisation, which must not be changed afterwards.
+	 * 
+	 * @param element
+	 *            the element.
+	 * @param commaSepPremodifiers
+	 *            whether premodifiers are separated by commas.
+	 * @param commaSepCuephrase
+	 *            whether cue phrases are followed by a comma.
+	 * @param formatter
+	 *            the formatter, or <code>null</code>.
+	 * @param realised
+	 *            the realisation of the element.
+	 */
+	void put(NLGElement element, boolean commaSepPremodifiers,
+			boolean commaSepCuephrase, NLGModule formatter, NLGElement realised) {
+		putValue(new Key(element.deepCopy(), commaSepPremodifiers,
+				commaSepCuephrase, formatter), realised);
+	}
+
+	/**
+	 * An element and the realiser settings, as looked up in the cache. The
+	 * formatter is compared by identity, as formatters do not define equality.
+	 */
+	static class Key {
+
+		private final NLGElement element;
+		private final boolean commaSepPremodifiers;
+		private final boolean commaSepCuephrase;
+		private final NLGModule formatter;
+		private final int hashCode;
+
+		Key(NLGElement element, boolean commaSepPremodifiers,
+				boolean commaSepCuephrase, NLGModule formatter) {
+			this.element = element;
+			this.commaSepPremodifiers = commaSepPremodifiers;
+			this.commaSepCuephrase = commaSepCuephrase;
+			this.formatter = formatter;
+			this.hashCode = 31
+					* (31 * (31 * element.hashCode() + (commaSepPremodifiers ? 1
+							: 0)) + (commaSepCuephrase ? 1 : 0))
+					+ System.identityHashCode(formatter);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return this.hashCode == key.hashCode
+					&& this.commaSepPremodifiers == key.commaSepPremodifiers
+					&& this.commaSepCuephrase == key.commaSepCuephrase
+					&& this.formatter == key.formatter
+					&& this.element.equals(key.element);
+		}
+	}
+}
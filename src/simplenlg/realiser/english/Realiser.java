@@ -18,7 +18,19 @@
  */
 package simplenlg.realiser.english;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import simplenlg.format.english.TextFormatter;
 import simplenlg.framework.DocumentCategory;
@@ -26,21 +38,54 @@ import simplenlg.framework.DocumentElement;
 import simplenlg.framework.NLGElement;
 import simplenlg.framework.NLGModule;
 import simplenlg.lexicon.Lexicon;
+import simplenlg.morphology.english.InflectionCache;
 import simplenlg.morphology.english.MorphologyProcessor;
 import simplenlg.orthography.english.OrthographyProcessor;
+import simplenlg.syntax.english.PhraseCache;
 import simplenlg.syntax.english.SyntaxProcessor;
 
 /**
+ * <p>
+ * The realiser runs the syntax, morphology and orthography processors and the
+ * formatter over an element, turning it into text.
+ * </p>
+ * 
+ * <p>
+ * A realiser can be shared by several threads, which may call the
+ * <code>realise</code> methods at the same time. It does not change the
+ * elements it is given, and the processors keep no state from one call to the
+ * next, so one realiser (and one lexicon) can serve a whole application,
+ * rather than one being created for each request. This needs a lexicon which
+ * can be read by several threads, as all the lexicons in
+ * <code>simplenlg.lexicon</code> can, and a formatter which keeps no state, as
+ * the formatters in <code>simplenlg.format.english</code> do. Settings (such
+ * as the formatter or lexicon) may be changed at any time, but a call which
+ * is already under way may use either the old or the new setting.
+ * </p>
+ * 
  * @author D. Westwater, Data2Text Ltd
  * 
  */
 public class Realiser extends NLGModule {
 
-	private MorphologyProcessor morphology;
-	private OrthographyProcessor orthography;
-	private SyntaxProcessor syntax;
-	private NLGModule formatter = null;
-	private boolean debug = false;
+	private volatile MorphologyProcessor morphology;
+	private volatile OrthographyProcessor orthography;
+	private volatile SyntaxProcessor syntax;
+	private volatile NLGModule formatter = null;
+	private volatile boolean debug = false;
+
+	// whether the orthography processor inflects the words as it goes, rather
+	// than the morphology processor inflecting them first
+	private volatile boolean fused = false;
+
+	// how many threads realise a list of elements, and the executor which
+	// runs them (null to start threads for each list)
+	private volatile int parallelism = Runtime.getRuntime()
+			.availableProcessors();
+	private volatile Executor executor = null;
+
+	// realisations of elements already realised (null for none)
+	private volatile RealisationCache cache = null;
 
 	/**
 	 * create a realiser (no lexicon)
@@ -136,8 +181,58 @@ public class Realiser extends NLGModule {
 		this.formatter.initialise();
 	}
 
+	/**
+	 * Realises an element. If there is a cache (see {@link #setCacheSize(int)}
+	 * ) and it has the realisation of an element with the same structure, a
+	 * copy of that realisation is returned.
+	 */
 	@Override
 	public NLGElement realise(NLGElement element) {
+		RealisationCache realisationCache = this.cache;
+		if (realisationCache == null || this.debug || element == null) {
+			return realiseElement(element);
+		}
+		NLGElement realised = realiseCached(element, realisationCache);
+		return realised == null ? null : realised.deepCopy();
+	}
+
+	/**
+	 * Realises an element using the cache. The realisation returned may be
+	 * shared, and must not be changed.
+	 * 
+	 * @param element
+	 *            the element to be realised.
+	 * @param realisationCache
+	 *            the cache.
+	 * @return the realisation.
+	 */
+	private NLGElement realiseCached(NLGElement element,
+			RealisationCache realisationCache) {
+		boolean commaSepPremodifiers = isCommaSepPremodifiers();
+		boolean commaSepCuephrase = isCommaSepCuephrase();
+		NLGModule currentFormatter = this.formatter;
+		NLGElement realised = realisationCache.get(element,
+				commaSepPremodifiers, commaSepCuephrase, currentFormatter);
+
+		if (realised == null) {
+			realised = realiseElement(element);
+			if (realised != null) {
+				realisationCache.put(element, commaSepPremodifiers,
+						commaSepCuephrase, currentFormatter, realised);
+			}
+		}
+		return realised;
+	}
+
+	/**
+	 * Realises an element with the syntax, morphology and orthography
+	 * processors and the formatter.
+	 * 
+	 * @param element
+	 *            the element to be realised.
+	 * @return the realisation.
+	 */
+	private NLGElement realiseElement(NLGElement element) {
 		if (this.debug) {
 			System.out.println("INITIAL TREE\n"); //$NON-NLS-1$
 			System.out.println(element.printTree(null));
@@ -147,13 +242,19 @@ public class Realiser extends NLGModule {
 			System.out.println("\nPOST-SYNTAX TREE\n"); //$NON-NLS-1$
 			System.out.println(postSyntax.printTree(null));
 		}
-		NLGElement postMorphology = this.morphology.realise(postSyntax);
-		if (this.debug) {
-			System.out.println("\nPOST-MORPHOLOGY TREE\n"); //$NON-NLS-1$
-			System.out.println(postMorphology.printTree(null));
-		}
+		NLGElement postOrthography = null;
+		if (this.fused) {
+			postOrthography = this.orthography.realiseInflecting(postSyntax,
+					this.morphology);
+		} else {
+			NLGElement postMorphology = this.morphology.realise(postSyntax);
+			if (this.debug) {
+				System.out.println("\nPOST-MORPHOLOGY TREE\n"); //$NON-NLS-1$
+				System.out.println(postMorphology.printTree(null));
+			}
 
-		NLGElement postOrthography = this.orthography.realise(postMorphology);
+			postOrthography = this.orthography.realise(postMorphology);
+		}
 		if (this.debug) {
 			System.out.println("\nPOST-ORTHOGRAPHY TREE\n"); //$NON-NLS-1$
 			System.out.println(postOrthography.printTree(null));
@@ -180,25 +281,232 @@ public class Realiser extends NLGModule {
 	 * @return String realisation of the NLGElement
 	 */
 	public String realiseSentence(NLGElement element) {
-		NLGElement realised = null;
-		if (element instanceof DocumentElement)
-			realised = realise(element);
-		else {
-			DocumentElement sentence = new DocumentElement(
+		NLGElement sentence = element;
+		if (!(element instanceof DocumentElement)) {
+			// the element is not added with addComponent, which would make the
+			// new sentence its parent
+			DocumentElement wrapper = new DocumentElement(
 					DocumentCategory.SENTENCE, null);
-			sentence.addComponent(element);
-			realised = realise(sentence);
+			List<NLGElement> components = new ArrayList<NLGElement>();
+			components.add(element);
+			wrapper.setComponents(components);
+			sentence = wrapper;
 		}
 
+		// the realisation is not changed, so a cached one need not be copied
+		RealisationCache realisationCache = this.cache;
+		NLGElement realised = realisationCache == null || this.debug ? realiseElement(sentence)
+				: realiseCached(sentence, realisationCache);
+
 		if (realised == null)
 			return null;
 		else
 			return realised.getRealisation();
 	}
 
+	/**
+	 * Realises a list of elements, as {@link #realise(NLGElement)} does for
+	 * each one. The elements are shared out between several threads (see
+	 * {@link #setParallelism(int)} and {@link #setExecutor(Executor)}), but
+	 * the realisations are returned in the same order as the elements. A
+	 * <code>null</code> element gives a <code>null</code> realisation.
+	 * 
+	 * <br/>
+	 * An element which cannot be realised does not stop the others. Once
+	 * every element has been tried, a {@link BatchRealisationException} is
+	 * thrown, which holds the realisations of the other elements and the
+	 * exception thrown by each element which failed. An <code>Error</code>
+	 * does stop the list, and is thrown once the elements already started have
+	 * finished. In debug mode the elements are realised one at a time, so that
+	 * the trees are printed in order.
+	 * 
+	 * @param elements
+	 *            the elements to be realised.
+	 * @return the realisations, one for each element.
+	 * @throws BatchRealisationException
+	 *             if any of the elements could not be realised.
+	 */
 	@Override
 	public List<NLGElement> realise(List<NLGElement> elements) {
-		return null;
+		List<NLGElement> realisedElements = new ArrayList<NLGElement>();
+
+		if (elements != null && !elements.isEmpty()) {
+			Batch batch = new Batch(elements.toArray(new NLGElement[elements
+					.size()]));
+			int threads = this.debug ? 1 : Math.min(this.parallelism,
+					batch.elements.length);
+
+			ExecutorService ownExecutor = null;
+			Executor batchExecutor = this.executor;
+			if (threads > 1 && batchExecutor == null) {
+				ownExecutor = Executors.newFixedThreadPool(threads - 1,
+						new BatchThreadFactory());
+				batchExecutor = ownExecutor;
+			}
+
+			try {
+				List<BatchWorker> workers = new ArrayList<BatchWorker>();
+				for (int thread = 1; thread < threads; thread++) {
+					BatchWorker worker = new BatchWorker(batch);
+					try {
+						batchExecutor.execute(worker);
+						workers.add(worker);
+					} catch (RejectedExecutionException ex) {
+						// the calling thread does the work instead
+					}
+				}
+				realiseBatch(batch);
+
+				// the calling thread has taken every element left, so a
+				// worker which has not started (eg, the executor is busy, or
+				// is running this thread) is cancelled rather than waited for
+				for (BatchWorker worker : workers) {
+					worker.await();
+				}
+
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(
+						"Interrupted while realising elements"); //$NON-NLS-1$
+
+			} finally {
+				if (ownExecutor != null) {
+					ownExecutor.shutdown();
+				}
+			}
+
+			if (batch.error != null) {
+				throw batch.error;
+			}
+			realisedElements.addAll(Arrays.asList(batch.realised));
+
+			SortedMap<Integer, RuntimeException> failures = new TreeMap<Integer, RuntimeException>();
+			for (int index = 0; index < batch.failures.length; index++) {
+				if (batch.failures[index] != null) {
+					failures.put(index, batch.failures[index]);
+				}
+			}
+			if (!failures.isEmpty()) {
+				throw new BatchRealisationException(realisedElements, failures);
+			}
+		}
+		return realisedElements;
+	}
+
+	/**
+	 * Realises elements of a batch until there are none left, or an
+	 * <code>Error</code> has been thrown. An element which throws an
+	 * exception is recorded as failed, and the thread goes on to the next.
+	 * This is run by each thread realising the batch.
+	 * 
+	 * @param batch
+	 *            the batch.
+	 */
+	private void realiseBatch(Batch batch) {
+		NLGElement[] elements = batch.elements;
+		for (int index = batch.next.getAndIncrement(); index < elements.length; index = batch.next
+				.getAndIncrement()) {
+			if (elements[index] != null) {
+				try {
+					batch.realised[index] = realise(elements[index]);
+				} catch (RuntimeException ex) {
+					batch.failures[index] = ex;
+				} catch (Error ex) {
+					batch.fail(ex);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A list of elements being realised by several threads.
+	 */
+	private static class Batch {
+
+		final NLGElement[] elements;
+
+		// the realisations, and the exceptions of the elements which failed,
+		// in the same order; each is written by the thread which took the
+		// element, and read once every thread has finished
+		final NLGElement[] realised;
+		final RuntimeException[] failures;
+
+		// the index of the next element to be realised
+		final AtomicInteger next = new AtomicInteger();
+
+		// the first error, read once every thread has finished
+		volatile Error error;
+
+		Batch(NLGElement[] elements) {
+			this.elements = elements;
+			this.realised = new NLGElement[elements.length];
+			this.failures = new RuntimeException[elements.length];
+		}
+
+		/**
+		 * Records an error, and stops the threads taking more elements.
+		 */
+		synchronized void fail(Error ex) {
+			if (this.error == null) {
+				this.error = ex;
+			}
+			this.next.set(this.elements.length);
+		}
+	}
+
+	/**
+	 * The share of a batch run by a thread of the executor. It does nothing
+	 * if it only starts once the calling thread has cancelled it.
+	 */
+	private class BatchWorker implements Runnable {
+
+		private final Batch batch;
+
+		// whether the worker has been run or cancelled
+		private final AtomicBoolean claimed = new AtomicBoolean();
+
+		private final CountDownLatch finished = new CountDownLatch(1);
+
+		BatchWorker(Batch batch) {
+			this.batch = batch;
+		}
+
+		public void run() {
+			if (this.claimed.compareAndSet(false, true)) {
+				try {
+					realiseBatch(this.batch);
+				} finally {
+					this.finished.countDown();
+				}
+			}
+		}
+
+		/**
+		 * Waits for the worker to finish, unless it has not started, in
+		 * which case it is cancelled.
+		 */
+		void await() throws InterruptedException {
+			if (this.claimed.compareAndSet(false, true)) {
+				return;
+			}
+			this.finished.await();
+		}
+	}
+
+	/**
+	 * Makes the daemon threads used to realise a batch when no executor has
+	 * been set.
+	 */
+	private static class BatchThreadFactory implements ThreadFactory {
+
+		private static final AtomicInteger threadCount = new AtomicInteger();
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Realiser-" //$NON-NLS-1$
+					+ threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
 	}
 
 	@Override
@@ -206,6 +514,11 @@ public class Realiser extends NLGModule {
 		this.syntax.setLexicon(newLexicon);
 		this.morphology.setLexicon(newLexicon);
 		this.orthography.setLexicon(newLexicon);
+
+		RealisationCache realisationCache = this.cache;
+		if (realisationCache != null) {
+			realisationCache.clear();
+		}
 	}
 
 	public void setFormatter(NLGModule formatter) {
@@ -215,4 +528,144 @@ public class Realiser extends NLGModule {
 	public void setDebugMode(boolean debugOn) {
 		this.debug = debugOn;
 	}
+
+	/**
+	 * @return <code>true</code> if morphology is done by the orthography
+	 *         processor as it goes.
+	 */
+	public boolean isFusedRealisation() {
+		return this.fused;
+	}
+
+	/**
+	 * Set whether the words are inflected by the orthography processor as it
+	 * reaches them (see
+	 * {@link OrthographyProcessor#realiseInflecting(NLGElement, MorphologyProcessor)}
+	 * ), rather than by a separate pass of the morphology processor. This
+	 * saves building the tree of inflected words, and gives the same
+	 * realisation. It is off by default; in debug mode, no post-morphology
+	 * tree is printed when it is on.
+	 * 
+	 * @param fused
+	 *            whether morphology is done with orthography.
+	 */
+	public void setFusedRealisation(boolean fused) {
+		this.fused = fused;
+	}
+
+	/**
+	 * @return the number of threads which realise a list of elements.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Set how many threads realise a list of elements with
+	 * {@link #realise(List)}, including the calling thread. The default is the
+	 * number of processors; 1 realises the list on the calling thread.
+	 * 
+	 * @param parallelism
+	 *            the number of threads, at least 1.
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism must be at least 1"); //$NON-NLS-1$
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * @return the executor which runs the threads realising a list, or
+	 *         <code>null</code> if threads are started for each list.
+	 */
+	public Executor getExecutor() {
+		return this.executor;
+	}
+
+	/**
+	 * Set the executor which runs the extra threads that realise a list of
+	 * elements with {@link #realise(List)}, for example a pool shared by the
+	 * application. If it is <code>null</code> (the default), threads are
+	 * started for each list and stopped when it has been realised. If the
+	 * executor refuses a task, or has not started it by the time the calling
+	 * thread has taken the last element, the calling thread does that share
+	 * of the work, so a busy executor, or one which is running the calling
+	 * thread, does not hold up the list.
+	 * 
+	 * @param executor
+	 *            the executor, or <code>null</code>.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * @return the cache of realisations, or <code>null</code> if there is
+	 *         none.
+	 */
+	public RealisationCache getCache() {
+		return this.cache;
+	}
+
+	/**
+	 * Set how many realisations are cached. Elements which are realised again
+	 * (with the same formatter and comma settings) are then not passed through
+	 * the processors; see {@link RealisationCache}. The cache is off (size
+	 * <code>0</code>) by default, and is not used in debug mode. Setting the
+	 * size starts a new, empty cache, and setting the lexicon empties it.
+	 * 
+	 * @param size
+	 *            the most realisations cached, or <code>0</code> for no cache.
+	 */
+	public void setCacheSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("cache size must not be negative"); //$NON-NLS-1$
+		}
+		this.cache = size == 0 ? null : new RealisationCache(size);
+	}
+
+	/**
+	 * @return the cache of realised noun and prepositional phrases, or
+	 *         <code>null</code> if there is none.
+	 */
+	public PhraseCache getPhraseCache() {
+		return this.syntax.getPhraseCache();
+	}
+
+	/**
+	 * Set how many realised noun and prepositional phrases are cached by the
+	 * syntax processor, so that phrases which recur in different sentences are
+	 * only realised once; see {@link PhraseCache}. The cache is off (size
+	 * <code>0</code>) by default, as looking up and copying a phrase takes
+	 * about as long as realising a short noun phrase, so the cache only pays
+	 * for longer phrases which recur often.
+	 * 
+	 * @param size
+	 *            the most phrases cached, or <code>0</code> for no cache.
+	 */
+	public void setPhraseCacheSize(int size) {
+		this.syntax.setPhraseCacheSize(size);
+	}
+
+	/**
+	 * @return the cache of inflected forms made by the morphology rules, or
+	 *         <code>null</code> if there is none.
+	 */
+	public InflectionCache getInflectionCache() {
+		return this.morphology.getInflectionCache();
+	}
+
+	/**
+	 * Set how many forms of nouns, verbs, adjectives and adverbs made by the
+	 * morphology rules are cached, so that a word which recurs is only
+	 * inflected once; see {@link InflectionCache}. The cache is off (size
+	 * <code>0</code>) by default.
+	 * 
+	 * @param size
+	 *            the most forms cached, or <code>0</code> for no cache.
+	 */
+	public void setInflectionCacheSize(int size) {
+		this.morphology.setInflectionCacheSize(size);
+	}
 }
@@ -97,7 +97,7 @@ abstract class ClauseHelper {
 						.realiseList(
 								parent,
 								realisedElement,
-								phrase.getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS),
+								phrase.getFeatureAsElementListView(InternalFeature.FRONT_MODIFIERS),
 								DiscourseFunction.FRONT_MODIFIER);
 			}
 
@@ -142,7 +142,7 @@ abstract class ClauseHelper {
 				.getFeature(Feature.INTERROGATIVE_TYPE))) {
 			NLGElement word = phraseFactory.createWord(
 					"to", LexicalCategory.PREPOSITION); //$NON-NLS-1$
-			realisedElement.addComponent(parent.realise(word));
+			realisedElement.addComponent(parent.realiseElement(word));
 		}
 	}
 
@@ -163,8 +163,8 @@ abstract class ClauseHelper {
 		NLGElement currentElement = null;
 		if (phrase.hasFeature(Feature.INTERROGATIVE_TYPE)) {
 			for (NLGElement subject : phrase
-					.getFeatureAsElementList(InternalFeature.FRONT_MODIFIERS)) {
-				currentElement = parent.realise(subject);
+					.getFeatureAsElementListView(InternalFeature.FRONT_MODIFIERS)) {
+				currentElement = parent.realiseElement(subject);
 				if (currentElement != null) {
 					currentElement.setFeature(
 							InternalFeature.DISCOURSE_FUNCTION,
@@ -196,11 +196,11 @@ abstract class ClauseHelper {
 
 		if (phrase.getFeatureAsBoolean(Feature.PASSIVE).booleanValue()) {
 			List<NLGElement> allSubjects = phrase
-					.getFeatureAsElementList(InternalFeature.SUBJECTS);
+					.getFeatureAsElementListView(InternalFeature.SUBJECTS);
 
 			if (allSubjects.size() > 0
 					|| phrase.hasFeature(Feature.INTERROGATIVE_TYPE)) {
-				realisedElement.addComponent(parent.realise(phraseFactory
+				realisedElement.addComponent(parent.realiseElement(phraseFactory
 						.createPrepositionPhrase("by"))); //$NON-NLS-1$
 			}
 
@@ -209,7 +209,7 @@ abstract class ClauseHelper {
 				subject.setFeature(Feature.PASSIVE, true);
 				if (subject.isA(PhraseCategory.NOUN_PHRASE)
 						|| subject instanceof CoordinatedPhraseElement) {
-					currentElement = parent.realise(subject);
+					currentElement = parent.realiseElement(subject);
 					if (currentElement != null) {
 						currentElement.setFeature(
 								InternalFeature.DISCOURSE_FUNCTION,
@@ -246,7 +246,7 @@ abstract class ClauseHelper {
 
 		setVerbFeatures(phrase, verbElement);
 
-		NLGElement currentElement = parent.realise(verbElement);
+		NLGElement currentElement = parent.realiseElement(verbElement);
 		if (currentElement != null) {
 			if (splitVerb == null) {
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
@@ -256,7 +256,7 @@ abstract class ClauseHelper {
 
 			} else {
 				if (currentElement instanceof ListElement) {
-					List<NLGElement> children = currentElement.getChildren();
+					List<NLGElement> children = currentElement.getChildrenView();
 					currentElement = children.get(0);
 					currentElement.setFeature(
 							InternalFeature.DISCOURSE_FUNCTION,
@@ -364,7 +364,7 @@ abstract class ClauseHelper {
 
 			// complements of a clause are stored in the VPPhraseSpec
 			for (NLGElement subject : verbPhrase
-					.getFeatureAsElementList(InternalFeature.COMPLEMENTS)) {
+					.getFeatureAsElementListView(InternalFeature.COMPLEMENTS)) {
 
 				// AG: complement needn't be an NP
 				// subject.isA(PhraseCategory.NOUN_PHRASE) &&
@@ -372,7 +372,7 @@ abstract class ClauseHelper {
 						.getFeature(InternalFeature.DISCOURSE_FUNCTION))) {
 					subject.setFeature(Feature.PASSIVE, true);
 					numComps++;
-					currentElement = parent.realise(subject);
+					currentElement = parent.realiseElement(subject);
 
 					if (currentElement != null) {
 						currentElement.setFeature(
@@ -462,7 +462,7 @@ abstract class ClauseHelper {
 				&& !phrase.getFeatureAsBoolean(Feature.PASSIVE).booleanValue()
 				&& splitVerb == null) {
 			realisedElement.addComponents(realiseSubjects(phrase, parent)
-					.getChildren());
+					.getChildrenView());
 		}
 	}
 
@@ -484,7 +484,7 @@ abstract class ClauseHelper {
 		ListElement realisedElement = new ListElement();
 
 		for (NLGElement subject : phrase
-				.getFeatureAsElementList(InternalFeature.SUBJECTS)) {
+				.getFeatureAsElementListView(InternalFeature.SUBJECTS)) {
 
 			subject.setFeature(InternalFeature.DISCOURSE_FUNCTION,
 					DiscourseFunction.SUBJECT);
@@ -493,7 +493,7 @@ abstract class ClauseHelper {
 							Feature.SUPPRESS_GENITIVE_IN_GERUND).booleanValue()) {
 				subject.setFeature(Feature.POSSESSIVE, true);
 			}
-			currentElement = parent.realise(subject);
+			currentElement = parent.realiseElement(subject);
 			if (currentElement != null) {
 				realisedElement.addComponent(currentElement);
 			}
@@ -658,7 +658,7 @@ abstract class ClauseHelper {
 		doPhrase.setFeature(Feature.TENSE, phrase.getFeature(Feature.TENSE));
 		doPhrase.setFeature(Feature.PERSON, phrase.getFeature(Feature.PERSON));
 		doPhrase.setFeature(Feature.NUMBER, phrase.getFeature(Feature.NUMBER));
-		realisedElement.addComponent(parent.realise(doPhrase));
+		realisedElement.addComponent(parent.realiseElement(doPhrase));
 	}
 
 	/**
@@ -684,7 +684,7 @@ abstract class ClauseHelper {
 
 		if (keyWord != null) {
 			NLGElement question = phraseFactory.createWord(keyWord, cat);
-			NLGElement currentElement = parent.realise(question);
+			NLGElement currentElement = parent.realiseElement(question);
 
 			if (currentElement != null) {
 				realisedElement.addComponent(currentElement);
@@ -756,7 +756,7 @@ abstract class ClauseHelper {
 	private static void addCuePhrase(PhraseElement phrase,
 			SyntaxProcessor parent, ListElement realisedElement) {
 
-		NLGElement currentElement = parent.realise(phrase
+		NLGElement currentElement = parent.realiseElement(phrase
 				.getFeatureAsElement(Feature.CUE_PHRASE));
 
 		if (currentElement != null) {
@@ -790,7 +790,7 @@ abstract class ClauseHelper {
 						.getFeatureAsBoolean(Feature.SUPRESSED_COMPLEMENTISER)
 						.booleanValue()) {
 
-			currentElement = parent.realise(phrase
+			currentElement = parent.realiseElement(phrase
 					.getFeatureAsElement(Feature.COMPLEMENTISER));
 
 			if (currentElement != null) {
@@ -881,7 +881,7 @@ abstract class ClauseHelper {
 	 */
 	private static void checkDiscourseFunction(PhraseElement phrase) {
 		List<NLGElement> subjects = phrase
-				.getFeatureAsElementList(InternalFeature.SUBJECTS);
+				.getFeatureAsElementListView(InternalFeature.SUBJECTS);
 		Object clauseForm = phrase.getFeature(Feature.FORM);
 		Object discourseValue = phrase
 				.getFeature(InternalFeature.DISCOURSE_FUNCTION);
@@ -916,7 +916,7 @@ abstract class ClauseHelper {
 			NLGElement verbElement) {
 		NLGElement currentElement = null;
 		List<NLGElement> subjects = phrase
-				.getFeatureAsElementList(InternalFeature.SUBJECTS);
+				.getFeatureAsElementListView(InternalFeature.SUBJECTS);
 		boolean pluralSubjects = false;
 		Person person = null;
 
@@ -59,11 +59,12 @@ abstract class CoordinatedPhraseHelper {
 		if (phrase != null) {
 			realisedElement = new ListElement();
 			PhraseHelper.realiseList(parent, realisedElement, phrase
-					.getPreModifiers(), DiscourseFunction.PRE_MODIFIER);
+					.getFeatureAsElementListView(InternalFeature.PREMODIFIERS),
+					DiscourseFunction.PRE_MODIFIER);
 
 			CoordinatedPhraseElement coordinated = new CoordinatedPhraseElement();
 
-			List<NLGElement> children = phrase.getChildren();
+			List<NLGElement> children = phrase.getChildrenView();
 			String conjunction = phrase.getFeatureAsString(Feature.CONJUNCTION);
 			coordinated.setFeature(Feature.CONJUNCTION, conjunction);
 			coordinated.setFeature(Feature.CONJUNCTION_TYPE, phrase
@@ -86,7 +87,7 @@ abstract class CoordinatedPhraseHelper {
 
 				setChildFeatures(phrase, child);
 
-				coordinated.addCoordinate(parent.realise(child));
+				coordinated.addCoordinate(parent.realiseElement(child));
 				for (int index = 1; index < children.size(); index++) {
 					child = children.get(index);
 					setChildFeatures(phrase, child);
@@ -114,15 +115,17 @@ abstract class CoordinatedPhraseHelper {
 						coordinated.addCoordinate(conjunctionElement);
 					}
 
-					coordinated.addCoordinate(parent.realise(child));
+					coordinated.addCoordinate(parent.realiseElement(child));
 				}
 				realisedElement.addComponent(coordinated);
 			}
 
 			PhraseHelper.realiseList(parent, realisedElement, phrase
-					.getPostModifiers(), DiscourseFunction.POST_MODIFIER);
+					.getFeatureAsElementListView(InternalFeature.POSTMODIFIERS),
+					DiscourseFunction.POST_MODIFIER);
 			PhraseHelper.realiseList(parent, realisedElement, phrase
-					.getComplements(), DiscourseFunction.COMPLEMENT);
+					.getFeatureAsElementListView(InternalFeature.COMPLEMENTS),
+					DiscourseFunction.COMPLEMENT);
 		}
 		return realisedElement;
 	}
@@ -83,11 +83,12 @@ abstract class NounPhraseHelper {
 				realisePreModifiers(phrase, parent, realisedElement);
 				realiseHeadNoun(phrase, parent, realisedElement);
 				PhraseHelper.realiseList(parent, realisedElement, phrase
-						.getFeatureAsElementList(InternalFeature.COMPLEMENTS),
+						.getFeatureAsElementListView(InternalFeature.COMPLEMENTS),
 						DiscourseFunction.COMPLEMENT);
 
 				PhraseHelper.realiseList(parent, realisedElement, phrase
-						.getPostModifiers(), DiscourseFunction.POST_MODIFIER);
+						.getFeatureAsElementListView(InternalFeature.POSTMODIFIERS),
+						DiscourseFunction.POST_MODIFIER);
 			}
 		}
 
@@ -124,7 +125,7 @@ abstract class NounPhraseHelper {
 					.getFeature(Feature.POSSESSIVE));
 			headElement.setFeature(Feature.PASSIVE, phrase
 					.getFeature(Feature.PASSIVE));
-			NLGElement currentElement = parent.realise(headElement);
+			NLGElement currentElement = parent.realiseElement(headElement);
 			currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
 					DiscourseFunction.SUBJECT);
 			realisedElement.addComponent(currentElement);
@@ -146,7 +147,8 @@ abstract class NounPhraseHelper {
 	private static void realisePreModifiers(PhraseElement phrase,
 			SyntaxProcessor parent, ListElement realisedElement) {
 
-		List<NLGElement> preModifiers = phrase.getPreModifiers();
+		List<NLGElement> preModifiers = phrase
+				.getFeatureAsElementListView(InternalFeature.PREMODIFIERS);
 		if (phrase.getFeatureAsBoolean(Feature.ADJECTIVE_ORDERING)
 				.booleanValue()) {
 			preModifiers = sortNPPreModifiers(preModifiers);
@@ -180,7 +182,7 @@ abstract class NounPhraseHelper {
 						.getFeature(Feature.NUMBER));
 			}
 			
-			NLGElement currentElement = parent.realise(specifierElement);
+			NLGElement currentElement = parent.realiseElement(specifierElement);
 			
 			if (currentElement != null) {
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
@@ -0,0 +1,229 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.syntax.english;
+
+import java.util.Arrays;
+
+import simplenlg.framework.BoundedCache;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.ElementCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.PhraseCategory;
+import simplenlg.framework.PhraseElement;
+
+/**
+ * <p>
+ * A cache of realised noun and prepositional phrases, used by the
+ * {@link SyntaxProcessor} so that a phrase which recurs in many sentences is
+ * only realised once. A phrase is looked up by its structure (see
+ * {@link NLGElement#equals(Object)}) as it stands when the syntax processor
+ * reaches it, so the features set on it by the phrase it is part of, such as
+ * number, person, discourse function, possessive and elided, are part of what
+ * is looked up.
+ * </p>
+ * 
+ * <p>
+ * Only phrases whose realisation does not depend on anything outside them are
+ * cached: noun and prepositional phrases which do not contain a clause or a
+ * verb phrase, as clauses change the phrase they are part of and verb phrases
+ * look at their clause.
+ * </p>
+ * 
+ * <p>
+ * A phrase is only added the second time it is not found, as adding it means
+ * copying it before it is realised, and most phrases which are not found are
+ * never seen again. The hash codes of the phrases not found are remembered for
+ * this in a table the size of the cache, where a phrase takes the place of an
+ * earlier one with the same slot.
+ * </p>
+ * 
+ * <p>
+ * The cache holds a limited number of phrases, and counts how many phrases
+ * were found and not found (see {@link BoundedCache}). It can be used by
+ * several threads at once.
+ * </p>
+ */
+public class PhraseCache extends BoundedCache<PhraseCache.Key, NLGElement> {
+
+	/**
+	 * The hash codes of phrases not found, by slot. It is not locked, as a
+	 * phrase missing from it, or found there by mistake, is only added to the
+	 * cache later, or sooner, than it would be.
+	 */
+	private final int[] missed;
+
+	private final int missedShift;
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maximumSize
+	 *            the most phrases held, at least 1.
+	 */
+	public PhraseCache(int maximumSize) {
+		super(maximumSize);
+		int shift = 28;
+		while (shift > 12 && 1 << (32 - shift) < maximumSize) {
+			shift--;
+		}
+		this.missed = new int[1 << (32 - shift)];
+		this.missedShift = shift;
+	}
+
+	/**
+	 * Checks whether a phrase can be cached: it is a noun or prepositional
+	 * phrase with no clauses or verb phrases below it.
+	 * 
+	 * @param phrase
+	 *            the phrase.
+	 * @return <code>true</code> if the phrase can be cached.
+	 */
+	static boolean isCacheable(PhraseElement phrase) {
+		ElementCategory category = phrase.getCategory();
+		return (PhraseCategory.NOUN_PHRASE.equals(category) || PhraseCategory.PREPOSITIONAL_PHRASE
+				.equals(category))
+				&& isContextFree(phrase);
+	}
+
+	/**
+	 * @param element
+	 *            an element of a phrase.
+	 * @return <code>true</code> if the element and the elements below it are
+	 *         realised without looking outside the element.
+	 */
+	private static boolean isContextFree(NLGElement element) {
+		if (element instanceof PhraseElement) {
+			ElementCategory category = element.getCategory();
+			if (PhraseCategory.CLAUSE.equals(category)
+					|| PhraseCategory.VERB_PHRASE.equals(category)) {
+				return false;
+			}
+		} else if (!(element instanceof CoordinatedPhraseElement || element instanceof ListElement)) {
+			// words and strings
+			return true;
+		}
+
+		for (NLGElement child : element.getChildrenView()) {
+			if (child != null && !isContextFree(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Looks up the realisation of a phrase.
+	 * 
+	 * @param key
+	 *            the key of the phrase.
+	 * @return a copy of the realisation, or <code>null</code> if the phrase is
+	 *         not in the cache.
+	 */
+	NLGElement get(Key key) {
+		NLGElement realised = getValue(key);
+		return realised == null ? null : realised.copyOnWrite();
+	}
+
+	/**
+	 * Records that a phrase was not found in the cache, and checks whether it
+	 * should be added.
+	 * 
+	 * @param key
+	 *            the key of the phrase.
+	 * @return <code>true</code> if a phrase with the same hash code was not
+	 *         found before, so the phrase is likely to recur.
+	 */
+	boolean missedBefore(Key key) {
+		int slot = (key.hashCode * 0x9E3779B9) >>> this.missedShift;
+		if (this.missed[slot] == key.hashCode) {
+			return true;
+		}
+		this.missed[slot] = key.hashCode;
+		return false;
+	}
+
+	/**
+	 * Adds the realisation of a phrase to the cache. A copy of the realisation
+	 * is kept, so it can be changed afterwards.
+	 * 
+	 * @param key
+	 *            the key of the phrase, as it was before it was realised (see
+	 *            {@link Key#copy()}).
+	 * @param realised
+	 *            the realisation of the phrase.
+	 */
+	void put(Key key, NLGElement realised) {
+		putValue(key, realised.copyOnWrite());
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		Arrays.fill(this.missed, 0);
+	}
+
+	/**
+	 * A phrase, as looked up in the cache. The hash code of a phrase is worked
+	 * out from the whole tree below it, and is not kept by phrases whose
+	 * modifiers have another parent, so the key works it out once for the
+	 * lookup, the phrase being added, and its eviction.
+	 */
+	static final class Key {
+
+		private final NLGElement phrase;
+		private final int hashCode;
+
+		/**
+		 * @param phrase
+		 *            the phrase.
+		 */
+		Key(NLGElement phrase) {
+			this(phrase, phrase.hashCode());
+		}
+
+		private Key(NLGElement phrase, int hashCode) {
+			this.phrase = phrase;
+			this.hashCode = hashCode;
+		}
+
+		/**
+		 * @return a key holding a copy of the phrase, so that the phrase can
+		 *         be changed while the copy is kept by the cache.
+		 */
+		Key copy() {
+			return new Key(this.phrase.copyOnWrite(), this.hashCode);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return this.hashCode == key.hashCode
+					&& this.phrase.equals(key.phrase);
+		}
+	}
+}
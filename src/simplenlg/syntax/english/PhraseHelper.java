@@ -57,14 +57,16 @@ abstract class PhraseHelper {
 		if (phrase != null) {
 			realisedElement = new ListElement();
 
-			realiseList(parent, realisedElement, phrase.getPreModifiers(),
+			realiseList(parent, realisedElement, phrase
+					.getFeatureAsElementListView(InternalFeature.PREMODIFIERS),
 					DiscourseFunction.PRE_MODIFIER);
 
 			realiseHead(parent, phrase, realisedElement);
 			realiseComplements(parent, phrase, realisedElement);
 
 			PhraseHelper.realiseList(parent, realisedElement, phrase
-					.getPostModifiers(), DiscourseFunction.POST_MODIFIER);
+					.getFeatureAsElementListView(InternalFeature.POSTMODIFIERS),
+					DiscourseFunction.POST_MODIFIER);
 		}
 		
 		return realisedElement;
@@ -89,8 +91,8 @@ abstract class PhraseHelper {
 		NLGElement currentElement = null;
 
 		for (NLGElement complement : phrase
-				.getFeatureAsElementList(InternalFeature.COMPLEMENTS)) {
-			currentElement = parent.realise(complement);
+				.getFeatureAsElementListView(InternalFeature.COMPLEMENTS)) {
+			currentElement = parent.realiseElement(complement);
 			if (currentElement != null) {
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
 						DiscourseFunction.COMPLEMENT);
@@ -128,7 +130,7 @@ abstract class PhraseHelper {
 				head.setFeature(Feature.IS_SUPERLATIVE, phrase
 						.getFeature(Feature.IS_SUPERLATIVE));
 			}
-			head = parent.realise(head);
+			head = parent.realiseElement(head);
 			head.setFeature(InternalFeature.DISCOURSE_FUNCTION,
 					DiscourseFunction.HEAD);
 			realisedElement.addComponent(head);
@@ -166,7 +168,7 @@ abstract class PhraseHelper {
 		NLGElement currentElement = null;
 
 		for (NLGElement eachElement : elementList) {
-			currentElement = parent.realise(eachElement);
+			currentElement = parent.realiseElement(eachElement);
 
 			if (currentElement != null) {
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
@@ -181,7 +183,7 @@ abstract class PhraseHelper {
 			}
 		}
 
-		if (!realisedList.getChildren().isEmpty()) {
+		if (!realisedList.getChildrenView().isEmpty()) {
 			realisedElement.addComponent(realisedList);
 		}
 	}
@@ -195,7 +197,7 @@ abstract class PhraseHelper {
 	 */
 	public static boolean isExpletiveSubject(PhraseElement phrase) {
 		List<NLGElement> subjects = phrase
-				.getFeatureAsElementList(InternalFeature.SUBJECTS);
+				.getFeatureAsElementListView(InternalFeature.SUBJECTS);
 		boolean expletive = false;
 
 		if (subjects.size() == 1) {
@@ -33,6 +33,7 @@ import simplenlg.framework.NLGModule;
 import simplenlg.framework.PhraseCategory;
 import simplenlg.framework.PhraseElement;
 import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
 
 /**
  * <p>
@@ -49,6 +50,19 @@ import simplenlg.framework.WordElement;
  * </p>
  * 
  * <p>
+ * The syntax processor works on a copy of the tree it is given (see
+ * {@link NLGElement#deepCopy()}), so the caller's phrases are not changed and
+ * the same phrase can be realised more than once, or by several threads at a
+ * time.
+ * </p>
+ * 
+ * <p>
+ * Noun and prepositional phrases which recur can be realised once and then
+ * copied, by setting a {@link PhraseCache} (see
+ * {@link #setPhraseCacheSize(int)}).
+ * </p>
+ * 
+ * <p>
  * <b>N.B.</b> the use of <em>module</em>, <em>processing module</em> and
  * <em>processor</em> is interchangeable. They all mean an instance of this
  * class.
@@ -59,21 +73,84 @@ import simplenlg.framework.WordElement;
  */
 public class SyntaxProcessor extends NLGModule {
 
+	// realised noun and prepositional phrases (null for none)
+	private volatile PhraseCache phraseCache = null;
+
 	@Override
 	public void initialise() {
 		// Do nothing
 	}
 
+	@Override
+	public void setLexicon(Lexicon newLexicon) {
+		super.setLexicon(newLexicon);
+
+		PhraseCache cache = this.phraseCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * @return the cache of realised phrases, or <code>null</code> if there is
+	 *         none.
+	 */
+	public PhraseCache getPhraseCache() {
+		return this.phraseCache;
+	}
+
+	/**
+	 * Set how many realised noun and prepositional phrases are cached. The
+	 * cache is off (size <code>0</code>) by default. Setting the size starts a
+	 * new, empty cache, and setting the lexicon empties it.
+	 * 
+	 * @param size
+	 *            the most phrases cached, or <code>0</code> for no cache.
+	 */
+	public void setPhraseCacheSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("cache size must not be negative"); //$NON-NLS-1$
+		}
+		this.phraseCache = size == 0 ? null : new PhraseCache(size);
+	}
+
 	@Override
 	public NLGElement realise(NLGElement element) {
+		// the helpers set features on the elements they realise, so they are
+		// given a copy rather than the caller's tree
+		return element == null ? null : realiseElement(element.deepCopy());
+	}
+
+	@Override
+	public List<NLGElement> realise(List<NLGElement> elements) {
+		List<NLGElement> copies = null;
+
+		if (elements != null) {
+			copies = new ArrayList<NLGElement>(elements.size());
+			for (NLGElement eachElement : elements) {
+				copies.add(eachElement == null ? null : eachElement.deepCopy());
+			}
+		}
+		return realiseElements(copies);
+	}
+
+	/**
+	 * Realises an element of the working copy. This is the method used by the
+	 * helpers to realise the parts of a phrase.
+	 * 
+	 * @param element
+	 *            the element to be realised
+	 * @return the realised element.
+	 */
+	NLGElement realiseElement(NLGElement element) {
 		NLGElement realisedElement = null;
 
 		if (element != null
 				&& !element.getFeatureAsBoolean(Feature.ELIDED).booleanValue()) {
 
 			if (element instanceof DocumentElement) {
-				List<NLGElement> children = element.getChildren();
-				((DocumentElement) element).setComponents(realise(children));
+				List<NLGElement> children = element.getChildrenView();
+				((DocumentElement) element).setComponents(realiseElements(children));
 				realisedElement = element;
 
 			} else if (element instanceof PhraseElement) {
@@ -81,8 +158,8 @@ public class SyntaxProcessor extends NLGModule {
 
 			} else if (element instanceof ListElement) {
 				realisedElement = new ListElement();
-				((ListElement) realisedElement).addComponents(realise(element
-						.getChildren()));
+				((ListElement) realisedElement).addComponents(realiseElements(element
+						.getChildrenView()));
 
 			} else if (element instanceof InflectedWordElement) {
 				String baseForm = ((InflectedWordElement) element)
@@ -121,7 +198,7 @@ public class SyntaxProcessor extends NLGModule {
 					infl.setFeature(feature, element.getFeature(feature));
 				}
 
-				realisedElement = realise(infl);
+				realisedElement = realiseElement(infl);
 
 			} else if (element instanceof CoordinatedPhraseElement) {
 				realisedElement = CoordinatedPhraseHelper.realise(this,
@@ -142,20 +219,26 @@ public class SyntaxProcessor extends NLGModule {
 		return realisedElement;
 	}
 
-	@Override
-	public List<NLGElement> realise(List<NLGElement> elements) {
+	/**
+	 * Realises a list of elements of the working copy.
+	 * 
+	 * @param elements
+	 *            the elements to be realised
+	 * @return the realised elements.
+	 */
+	List<NLGElement> realiseElements(List<NLGElement> elements) {
 		List<NLGElement> realisedList = new ArrayList<NLGElement>();
 		NLGElement childRealisation = null;
 
 		if (elements != null) {
 			for (NLGElement eachElement : elements) {
 				if (eachElement != null) {
-					childRealisation = realise(eachElement);
+					childRealisation = realiseElement(eachElement);
 					if (childRealisation != null) {
 						if (childRealisation instanceof ListElement) {
 							realisedList
 									.addAll(((ListElement) childRealisation)
-											.getChildren());
+											.getChildrenView());
 						} else {
 							realisedList.add(childRealisation);
 						}
@@ -174,6 +257,37 @@ public class SyntaxProcessor extends NLGModule {
 	 * @return the realised element.
 	 */
 	private NLGElement realisePhraseElement(PhraseElement phrase) {
+		PhraseCache cache = this.phraseCache;
+		NLGElement realisedElement = null;
+
+		if (phrase != null && cache != null && PhraseCache.isCacheable(phrase)) {
+			PhraseCache.Key key = new PhraseCache.Key(phrase);
+			realisedElement = cache.get(key);
+
+			if (realisedElement == null) {
+				// the helpers change the phrase, so a phrase to be added is
+				// copied first
+				PhraseCache.Key original = cache.missedBefore(key) ? key
+						.copy() : null;
+				realisedElement = realiseUncachedPhrase(phrase);
+				if (realisedElement != null && original != null) {
+					cache.put(original, realisedElement);
+				}
+			}
+		} else {
+			realisedElement = realiseUncachedPhrase(phrase);
+		}
+		return realisedElement;
+	}
+
+	/**
+	 * Realises a phrase element with the helper for its category.
+	 * 
+	 * @param phrase
+	 *            the element to be realised
+	 * @return the realised element.
+	 */
+	private NLGElement realiseUncachedPhrase(PhraseElement phrase) {
 		NLGElement realisedElement = null;
 
 		if (phrase != null) {
@@ -0,0 +1,626 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.syntax.english;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.PhraseElement;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+
+/**
+ * <p>
+ * The plan of a verb group: which auxiliaries, modal, <em>not</em> and
+ * particle go with the head verb, in which order, and which features each of
+ * them is given. The plan depends only on a few features of the verb phrase
+ * (tense, form, modal, perfect, progressive, passive, negated and
+ * interrogative type) and on whether it has a particle and what its head is,
+ * so it is worked out once for each combination and kept. Applying a plan to
+ * a phrase makes the words of its verb group.
+ * </p>
+ * 
+ * <p>
+ * Plans are not changed once made, so can be shared between threads. Only the
+ * first {@link #MAXIMUM_PLANS} combinations are kept, which is more than the
+ * features allow in practice; others are worked out each time.
+ * </p>
+ */
+final class VerbGroupPlan {
+
+	/** The most plans kept. */
+	static final int MAXIMUM_PLANS = 1024;
+
+	// the kinds of word in a verb group
+	private static final int PARTICLE = 0;
+	private static final int MAIN = 1;
+	private static final int AUXILIARY = 2;
+	private static final int DO = 3;
+	private static final int MODAL = 4;
+
+	// feature values taken from the phrase when a plan is applied
+	private static final Object PHRASE_PERSON = new Object();
+	private static final Object PHRASE_NUMBER = new Object();
+
+	// the features of a phrase which decide its plan
+	private static final int HAS_MODAL = 1;
+	private static final int INTERROGATIVE = 1 << 1;
+	private static final int HAS_PARTICLE = 1 << 2;
+	private static final int HAS_HEAD = 1 << 3;
+	private static final int COORDINATED_HEAD = 1 << 4;
+	private static final int COPULAR_HEAD = 1 << 5;
+	private static final int COPULAR_MAIN_VERB = 1 << 6;
+	private static final int PASSIVE = 1 << 7;
+	private static final int PROGRESSIVE = 1 << 8;
+	private static final int PERFECT = 1 << 9;
+	private static final int NEGATED = 1 << 10;
+	private static final int IGNORE_MODAL = 1 << 11;
+
+	private static final ConcurrentHashMap<Key, VerbGroupPlan> PLANS = new ConcurrentHashMap<Key, VerbGroupPlan>();
+
+	/**
+	 * What a plan depends on.
+	 */
+	private static final class Key {
+
+		private final int flags;
+		private final Object form;
+		private final Tense tense;
+		private final Object interrogativeType;
+		private final int hashCode;
+
+		Key(PhraseElement phrase) {
+			NLGElement head = phrase.getHead();
+			Object particle = phrase.getFeature(Feature.PARTICLE);
+			boolean copularHead = VerbPhraseHelper.isCopular(head);
+
+			// the head verb is copied if it is a word, and the copy's base
+			// form is the word's default spelling
+			boolean copularMainVerb = head instanceof WordElement ? "be" //$NON-NLS-1$
+					.equalsIgnoreCase(((WordElement) head)
+							.getDefaultSpellingVariant())
+					: copularHead;
+
+			this.form = phrase.getFeature(Feature.FORM);
+			this.tense = (Tense) phrase.getFeature(Feature.TENSE);
+			this.interrogativeType = phrase
+					.getFeature(Feature.INTERROGATIVE_TYPE);
+			this.flags = flag(phrase.getFeatureAsString(Feature.MODAL) != null,
+					HAS_MODAL)
+					| flag(phrase.hasFeature(Feature.INTERROGATIVE_TYPE),
+							INTERROGATIVE)
+					| flag(particle instanceof String
+							|| particle instanceof NLGElement, HAS_PARTICLE)
+					| flag(head != null, HAS_HEAD)
+					| flag(head instanceof CoordinatedPhraseElement,
+							COORDINATED_HEAD)
+					| flag(copularHead, COPULAR_HEAD)
+					| flag(copularMainVerb, COPULAR_MAIN_VERB)
+					| flag(phrase.getFeatureAsBoolean(Feature.PASSIVE)
+							.booleanValue(), PASSIVE)
+					| flag(phrase.getFeatureAsBoolean(Feature.PROGRESSIVE)
+							.booleanValue(), PROGRESSIVE)
+					| flag(phrase.getFeatureAsBoolean(Feature.PERFECT)
+							.booleanValue(), PERFECT)
+					| flag(phrase.getFeatureAsBoolean(Feature.NEGATED)
+							.booleanValue(), NEGATED)
+					| flag(phrase.getFeatureAsBoolean(
+							InternalFeature.IGNORE_MODAL).booleanValue(),
+							IGNORE_MODAL);
+
+			int hash = this.flags;
+			hash = 31 * hash + (this.form == null ? 0 : this.form.hashCode());
+			hash = 31 * hash + (this.tense == null ? 0 : this.tense.hashCode());
+			this.hashCode = 31
+					* hash
+					+ (this.interrogativeType == null ? 0
+							: this.interrogativeType.hashCode());
+		}
+
+		private static int flag(boolean value, int flag) {
+			return value ? flag : 0;
+		}
+
+		boolean has(int flag) {
+			return (this.flags & flag) != 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			} else if (!(other instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) other;
+			return this.flags == key.flags && this.tense == key.tense
+					&& equal(this.form, key.form)
+					&& equal(this.interrogativeType, key.interrogativeType);
+		}
+
+		private static boolean equal(Object first, Object second) {
+			return first == second || (first != null && first.equals(second));
+		}
+	}
+
+	/**
+	 * A word of the verb group while the plan is worked out: what it is and
+	 * the features it is given, in order.
+	 */
+	private static final class Word {
+
+		final int kind;
+		final String baseForm;
+		final LexicalCategory category;
+		final List<String> features = new ArrayList<String>();
+		final List<Object> values = new ArrayList<Object>();
+		int number;
+
+		Word(int kind, String baseForm, LexicalCategory category) {
+			this.kind = kind;
+			this.baseForm = baseForm;
+			this.category = category;
+		}
+
+		void setFeature(String feature, Object value) {
+			this.features.add(feature);
+			this.values.add(value);
+		}
+	}
+
+	// the words, in the order they are made, with their kinds, base forms,
+	// categories and features
+	private final int[] kinds;
+	private final String[] baseForms;
+	private final LexicalCategory[] categories;
+	private final String[][] features;
+	private final Object[][] values;
+
+	// the words of the verb group, bottom of the stack first; a word can be
+	// there more than once
+	private final int[] group;
+
+	/**
+	 * Finds the plan for the verb group of a phrase, working it out if it has
+	 * not been used before.
+	 * 
+	 * @param phrase
+	 *            the verb phrase.
+	 * @return the plan.
+	 */
+	static VerbGroupPlan forPhrase(PhraseElement phrase) {
+		Key key = new Key(phrase);
+		VerbGroupPlan plan = PLANS.get(key);
+
+		if (plan == null) {
+			plan = new VerbGroupPlan(key);
+			if (PLANS.size() < MAXIMUM_PLANS) {
+				PLANS.putIfAbsent(key, plan);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * @return the number of plans kept.
+	 */
+	static int getPlanCount() {
+		return PLANS.size();
+	}
+
+	/**
+	 * Makes the words of the verb group of a phrase. The head verb is copied
+	 * if it is a <code>WordElement</code>, and otherwise is given the features
+	 * itself.
+	 * 
+	 * @param parent
+	 *            the parent <code>SyntaxProcessor</code> that will realise the
+	 *            particle.
+	 * @param phrase
+	 *            the verb phrase, which has this plan.
+	 * @param vgComponents
+	 *            the list the verb group is added to, bottom of the stack
+	 *            first.
+	 */
+	void apply(SyntaxProcessor parent, PhraseElement phrase,
+			List<NLGElement> vgComponents) {
+		NLGElement[] words = new NLGElement[this.kinds.length];
+
+		for (int index = 0; index < words.length; index++) {
+			NLGElement word = makeWord(index, parent, phrase);
+			String[] wordFeatures = this.features[index];
+			Object[] wordValues = this.values[index];
+
+			for (int feature = 0; feature < wordFeatures.length; feature++) {
+				Object value = wordValues[feature];
+				if (value == PHRASE_PERSON) {
+					value = phrase.getFeature(Feature.PERSON);
+				} else if (value == PHRASE_NUMBER) {
+					value = VerbPhraseHelper.determineNumber(phrase
+							.getParent(), phrase);
+				}
+				word.setFeature(wordFeatures[feature], value);
+			}
+			words[index] = word;
+		}
+
+		for (int index : this.group) {
+			vgComponents.add(words[index]);
+		}
+	}
+
+	/**
+	 * Makes a word of the verb group, without its features.
+	 */
+	private NLGElement makeWord(int index, SyntaxProcessor parent,
+			PhraseElement phrase) {
+		switch (this.kinds[index]) {
+		case PARTICLE:
+			Object particle = phrase.getFeature(Feature.PARTICLE);
+			if (particle instanceof String) {
+				return new StringElement((String) particle);
+			}
+			return parent.realiseElement((NLGElement) particle);
+
+		case MAIN:
+			NLGElement head = phrase.getHead();
+			if (head instanceof WordElement) {
+				return new InflectedWordElement((WordElement) head);
+			}
+			return head;
+
+		case DO:
+			NLGFactory factory = phrase.getFactory();
+			if (factory != null) {
+				return factory.createInflectedWord("do", LexicalCategory.VERB); //$NON-NLS-1$
+			}
+			return new InflectedWordElement("do", LexicalCategory.VERB); //$NON-NLS-1$
+
+		case MODAL:
+			if (this.baseForms[index] == null) {
+				return new InflectedWordElement(phrase
+						.getFeatureAsString(Feature.MODAL),
+						LexicalCategory.MODAL);
+			}
+			return new InflectedWordElement(this.baseForms[index],
+					LexicalCategory.MODAL);
+
+		default:
+			return new InflectedWordElement(this.baseForms[index],
+					this.categories[index]);
+		}
+	}
+
+	/**
+	 * Works out the plan for a combination of features. Auxiliary verbs are
+	 * added as required, in the way the verb group used to be built for each
+	 * phrase.
+	 * 
+	 * @param key
+	 *            the features.
+	 */
+	private VerbGroupPlan(Key key) {
+		List<Word> words = new ArrayList<Word>();
+		List<Word> vgComponents = new ArrayList<Word>();
+
+		Object formValue = key.form;
+		Tense tenseValue = key.tense;
+		boolean hasModal = key.has(HAS_MODAL);
+		boolean hasActualModal = false;
+		String actualModal = null;
+		boolean modalPast = false;
+		boolean interrogative = key.has(INTERROGATIVE);
+
+		if (Form.GERUND.equals(formValue) || Form.INFINITIVE.equals(formValue)) {
+			tenseValue = Tense.PRESENT;
+		}
+
+		if (Form.INFINITIVE.equals(formValue)) {
+			hasActualModal = true;
+			actualModal = "to"; //$NON-NLS-1$
+
+		} else if (formValue == null || Form.NORMAL.equals(formValue)) {
+			if (Tense.FUTURE.equals(tenseValue)
+					&& !hasModal
+					&& (!key.has(COORDINATED_HEAD) || (key
+							.has(COORDINATED_HEAD) && interrogative))) {
+
+				hasActualModal = true;
+				actualModal = "will"; //$NON-NLS-1$
+
+			} else if (hasModal) {
+				// the phrase's own modal
+				hasActualModal = true;
+
+				if (Tense.PAST.equals(tenseValue)) {
+					modalPast = true;
+				}
+			}
+		}
+
+		if (key.has(HAS_PARTICLE)) {
+			vgComponents.add(newWord(words, PARTICLE, null, null));
+		}
+		Word frontVG = grabHeadVerb(key, words, tenseValue, hasModal);
+		checkImperativeInfinitive(formValue, frontVG);
+
+		if (key.has(PASSIVE)) {
+			frontVG = addBe(words, frontVG, vgComponents, Form.PAST_PARTICIPLE);
+		}
+
+		if (key.has(PROGRESSIVE)) {
+			frontVG = addBe(words, frontVG, vgComponents,
+					Form.PRESENT_PARTICIPLE);
+		}
+
+		if (key.has(PERFECT) || modalPast) {
+			frontVG = addHave(words, frontVG, vgComponents, hasModal,
+					tenseValue);
+		}
+
+		frontVG = pushIfModal(key, hasActualModal, frontVG, vgComponents);
+		frontVG = createNot(key, words, vgComponents, frontVG, hasModal);
+
+		if (frontVG != null) {
+			pushFrontVerb(key, vgComponents, frontVG, formValue, interrogative);
+		}
+
+		if (hasActualModal && !key.has(IGNORE_MODAL)) {
+			vgComponents.add(newWord(words, MODAL, actualModal,
+					LexicalCategory.MODAL));
+		}
+
+		int count = words.size();
+		this.kinds = new int[count];
+		this.baseForms = new String[count];
+		this.categories = new LexicalCategory[count];
+		this.features = new String[count][];
+		this.values = new Object[count][];
+		for (int index = 0; index < count; index++) {
+			Word word = words.get(index);
+			this.kinds[index] = word.kind;
+			this.baseForms[index] = word.baseForm;
+			this.categories[index] = word.category;
+			this.features[index] = word.features
+					.toArray(new String[word.features.size()]);
+			this.values[index] = word.values.toArray();
+		}
+
+		this.group = new int[vgComponents.size()];
+		for (int index = 0; index < this.group.length; index++) {
+			this.group[index] = vgComponents.get(index).number;
+		}
+	}
+
+	/**
+	 * Adds a new word to the plan.
+	 */
+	private static Word newWord(List<Word> words, int kind, String baseForm,
+			LexicalCategory category) {
+		Word word = new Word(kind, baseForm, category);
+		word.number = words.size();
+		words.add(word);
+		return word;
+	}
+
+	/**
+	 * @return <code>true</code> if the word is <em>be</em>.
+	 */
+	private static boolean isCopular(Key key, Word word) {
+		return word.kind == MAIN ? key.has(COPULAR_MAIN_VERB) : "be" //$NON-NLS-1$
+				.equalsIgnoreCase(word.baseForm);
+	}
+
+	/**
+	 * Takes the head verb of the verb phrase, giving it the tense of the
+	 * phrase. It also turns off negation if the group has a modal.
+	 * 
+	 * @return the head verb, or <code>null</code> if the phrase has no head.
+	 */
+	private static Word grabHeadVerb(Key key, List<Word> words,
+			Tense tenseValue, boolean hasModal) {
+		Word frontVG = null;
+
+		if (key.has(HAS_HEAD)) {
+			frontVG = newWord(words, MAIN, null, null);
+
+			// AG: tense value should always be set on frontVG
+			if (tenseValue != null) {
+				frontVG.setFeature(Feature.TENSE, tenseValue);
+			}
+
+			if (hasModal) {
+				frontVG.setFeature(Feature.NEGATED, false);
+			}
+		}
+		return frontVG;
+	}
+
+	/**
+	 * Checks to see if the phrase is in imperative, infinitive or bare
+	 * infinitive form. If it is then no morphology is done on the main verb.
+	 */
+	private static void checkImperativeInfinitive(Object formValue,
+			Word frontVG) {
+
+		if ((Form.IMPERATIVE.equals(formValue)
+				|| Form.INFINITIVE.equals(formValue) || Form.BARE_INFINITIVE
+				.equals(formValue))
+				&& frontVG != null) {
+			frontVG.setFeature(InternalFeature.NON_MORPH, true);
+		}
+	}
+
+	/**
+	 * Adds the <em>be</em> verb to the front of the group.
+	 * 
+	 * @return the new word for the front of the group.
+	 */
+	private static Word addBe(List<Word> words, Word frontVG,
+			List<Word> vgComponents, Form frontForm) {
+
+		if (frontVG != null) {
+			frontVG.setFeature(Feature.FORM, frontForm);
+			vgComponents.add(frontVG);
+		}
+		return newWord(words, AUXILIARY, "be", LexicalCategory.VERB); //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds <em>have</em> to the front of the group.
+	 * 
+	 * @return the new word for the front of the group.
+	 */
+	private static Word addHave(List<Word> words, Word frontVG,
+			List<Word> vgComponents, boolean hasModal, Tense tenseValue) {
+
+		if (frontVG != null) {
+			frontVG.setFeature(Feature.FORM, Form.PAST_PARTICIPLE);
+			vgComponents.add(frontVG);
+		}
+		Word newFront = newWord(words, AUXILIARY, "have", LexicalCategory.VERB); //$NON-NLS-1$
+		newFront.setFeature(Feature.TENSE, tenseValue);
+		if (hasModal) {
+			newFront.setFeature(InternalFeature.NON_MORPH, true);
+		}
+		return newFront;
+	}
+
+	/**
+	 * Pushes the front verb on to the group if the phrase has a modal.
+	 * 
+	 * @return the new word for the front of the group.
+	 */
+	private static Word pushIfModal(Key key, boolean hasActualModal,
+			Word frontVG, List<Word> vgComponents) {
+
+		Word newFront = frontVG;
+		if (hasActualModal && !key.has(IGNORE_MODAL)) {
+			if (frontVG != null) {
+				frontVG.setFeature(InternalFeature.NON_MORPH, true);
+				vgComponents.add(frontVG);
+			}
+			newFront = null;
+		}
+		return newFront;
+	}
+
+	/**
+	 * Adds <em>not</em> to the group if the phrase is negated, and
+	 * <em>do</em> if there is no other auxiliary.
+	 * 
+	 * @return the new word for the front of the group.
+	 */
+	private static Word createNot(Key key, List<Word> words,
+			List<Word> vgComponents, Word frontVG, boolean hasModal) {
+		Word newFront = frontVG;
+
+		if (key.has(NEGATED)) {
+			// before adding "do", check if this is an object WH
+			// interrogative
+			// in which case, don't add anything as it's already done by
+			// ClauseHelper
+			Object interrType = key.interrogativeType;
+			boolean addDo = !(InterrogativeType.WHAT_OBJECT.equals(interrType) || InterrogativeType.WHO_OBJECT
+					.equals(interrType));
+
+			if (!vgComponents.isEmpty() || frontVG != null
+					&& isCopular(key, frontVG)) {
+				vgComponents.add(newWord(words, AUXILIARY, "not", //$NON-NLS-1$
+						LexicalCategory.ADVERB));
+			} else {
+				if (frontVG != null && !hasModal) {
+					frontVG.setFeature(Feature.NEGATED, true);
+					vgComponents.add(frontVG);
+				}
+
+				vgComponents.add(newWord(words, AUXILIARY, "not", //$NON-NLS-1$
+						LexicalCategory.ADVERB));
+
+				if (addDo) {
+					newFront = newWord(words, DO, "do", LexicalCategory.VERB); //$NON-NLS-1$
+				}
+			}
+		}
+		return newFront;
+	}
+
+	/**
+	 * Pushes the front verb onto the group, with the form, or the tense,
+	 * person and number, it takes from the phrase.
+	 */
+	private static void pushFrontVerb(Key key, List<Word> vgComponents,
+			Word frontVG, Object formValue, boolean interrogative) {
+		Object interrogType = key.interrogativeType;
+
+		if (Form.GERUND.equals(formValue)) {
+			frontVG.setFeature(Feature.FORM, Form.PRESENT_PARTICIPLE);
+			vgComponents.add(frontVG);
+
+		} else if (Form.PAST_PARTICIPLE.equals(formValue)) {
+			frontVG.setFeature(Feature.FORM, Form.PAST_PARTICIPLE);
+			vgComponents.add(frontVG);
+
+		} else if (Form.PRESENT_PARTICIPLE.equals(formValue)) {
+			frontVG.setFeature(Feature.FORM, Form.PRESENT_PARTICIPLE);
+			vgComponents.add(frontVG);
+
+		} else if ((!(formValue == null || Form.NORMAL.equals(formValue)) || interrogative)
+				&& !key.has(COPULAR_HEAD) && vgComponents.isEmpty()) {
+
+			// AG: fix below: if interrogative, only set non-morph feature in
+			// case it's not WHO_SUBJECT OR WHAT_SUBJECT
+			if (!(InterrogativeType.WHO_SUBJECT.equals(interrogType) || InterrogativeType.WHAT_SUBJECT
+					.equals(interrogType))) {
+				frontVG.setFeature(InternalFeature.NON_MORPH, true);
+			}
+
+			vgComponents.add(frontVG);
+
+		} else {
+			frontVG.setFeature(Feature.TENSE, key.tense);
+			frontVG.setFeature(Feature.PERSON, PHRASE_PERSON);
+			frontVG.setFeature(Feature.NUMBER, PHRASE_NUMBER);
+
+			// don't push the front VG if it's a negated interrogative WH
+			// object question
+			if (!(key.has(NEGATED) && (InterrogativeType.WHO_OBJECT
+					.equals(interrogType) || InterrogativeType.WHAT_OBJECT
+					.equals(interrogType)))) {
+				vgComponents.add(frontVG);
+			}
+		}
+	}
+}
@@ -18,26 +18,20 @@
  */
 package simplenlg.syntax.english;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Stack;
 
 import simplenlg.features.DiscourseFunction;
 import simplenlg.features.Feature;
-import simplenlg.features.Form;
 import simplenlg.features.InternalFeature;
 import simplenlg.features.InterrogativeType;
 import simplenlg.features.NumberAgreement;
-import simplenlg.features.Tense;
-import simplenlg.framework.CoordinatedPhraseElement;
 import simplenlg.framework.InflectedWordElement;
-import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.ListElement;
 import simplenlg.framework.NLGElement;
-import simplenlg.framework.NLGFactory;
 import simplenlg.framework.PhraseCategory;
 import simplenlg.framework.PhraseElement;
-import simplenlg.framework.StringElement;
 import simplenlg.framework.WordElement;
 import simplenlg.phrasespec.SPhraseSpec;
 
@@ -52,6 +46,69 @@ import simplenlg.phrasespec.SPhraseSpec;
  */
 abstract class VerbPhraseHelper {
 
+	/**
+	 * Scratch space for realising one verb phrase. Each thread keeps its own,
+	 * one for each verb phrase it is realising at once (a verb phrase can
+	 * contain another), and reuses them for the phrases it realises after.
+	 */
+	private static final class Scratch {
+
+		/** The verb group, bottom of the stack first. */
+		final ArrayList<NLGElement> verbGroup = new ArrayList<NLGElement>();
+
+		// the realised complements, by discourse function
+		final ArrayList<NLGElement> indirects = new ArrayList<NLGElement>();
+		final ArrayList<NLGElement> directs = new ArrayList<NLGElement>();
+		final ArrayList<NLGElement> unknowns = new ArrayList<NLGElement>();
+
+		/**
+		 * Empties the lists, so that they do not keep elements.
+		 */
+		void clear() {
+			this.verbGroup.clear();
+			this.indirects.clear();
+			this.directs.clear();
+			this.unknowns.clear();
+		}
+	}
+
+	/**
+	 * The scratch space of a thread, as a stack with one entry for each verb
+	 * phrase being realised.
+	 */
+	private static final class ScratchStack {
+
+		private Scratch[] scratches = new Scratch[4];
+		private int depth = 0;
+
+		Scratch acquire() {
+			if (this.depth == this.scratches.length) {
+				Scratch[] larger = new Scratch[2 * this.depth];
+				System.arraycopy(this.scratches, 0, larger, 0, this.depth);
+				this.scratches = larger;
+			}
+			Scratch scratch = this.scratches[this.depth];
+			if (scratch == null) {
+				scratch = new Scratch();
+				this.scratches[this.depth] = scratch;
+			}
+			this.depth++;
+			return scratch;
+		}
+
+		void release(Scratch scratch) {
+			scratch.clear();
+			this.depth--;
+		}
+	}
+
+	private static final ThreadLocal<ScratchStack> SCRATCH = new ThreadLocal<ScratchStack>() {
+		@Override
+		protected ScratchStack initialValue() {
+			return new ScratchStack();
+		}
+	};
+
 	/**
 	 * The main method for realising verb phrases.
 	 * 
@@ -63,69 +120,96 @@ abstract class VerbPhraseHelper {
 	 */
 	static NLGElement realise(SyntaxProcessor parent, PhraseElement phrase) {
 		ListElement realisedElement = null;
-		Stack<NLGElement> vgComponents = null;
-		Stack<NLGElement> mainVerbRealisation = new Stack<NLGElement>();
-		Stack<NLGElement> auxiliaryRealisation = new Stack<NLGElement>();
 
 		if (phrase != null) {
-			vgComponents = createVerbGroup(parent, phrase);
-			splitVerbGroup(vgComponents, mainVerbRealisation,
-					auxiliaryRealisation);
+			ScratchStack scratchStack = SCRATCH.get();
+			Scratch scratch = scratchStack.acquire();
+			try {
+				realisedElement = realise(parent, phrase, scratch);
+			} finally {
+				scratchStack.release(scratch);
+			}
+		}
+
+		return realisedElement;
+	}
 
-			realisedElement = new ListElement();
+	/**
+	 * Realises a verb phrase using the given scratch space.
+	 * 
+	 * @param parent
+	 *            the <code>SyntaxProcessor</code> that called this method.
+	 * @param phrase
+	 *            the <code>PhraseElement</code> to be realised.
+	 * @param scratch
+	 *            the scratch space, which is empty.
+	 * @return the realised <code>NLGElement</code>.
+	 */
+	private static ListElement realise(SyntaxProcessor parent,
+			PhraseElement phrase, Scratch scratch) {
+		List<NLGElement> vgComponents = scratch.verbGroup;
+		createVerbGroup(parent, phrase, vgComponents);
+		int mainVerbCount = splitVerbGroup(vgComponents);
 
-			if (!phrase.hasFeature(InternalFeature.REALISE_AUXILIARY)
-					|| phrase.getFeatureAsBoolean(
-							InternalFeature.REALISE_AUXILIARY).booleanValue()) {
+		ListElement realisedElement = new ListElement();
 
-				realiseAuxiliaries(parent, realisedElement,
-						auxiliaryRealisation);
+		if (!phrase.hasFeature(InternalFeature.REALISE_AUXILIARY)
+				|| phrase.getFeatureAsBoolean(InternalFeature.REALISE_AUXILIARY)
+						.booleanValue()) {
 
-				PhraseHelper.realiseList(parent, realisedElement, phrase
-						.getPreModifiers(), DiscourseFunction.PRE_MODIFIER);
+			realiseAuxiliaries(parent, realisedElement, vgComponents,
+					mainVerbCount);
 
-				realiseMainVerb(parent, phrase, mainVerbRealisation,
-						realisedElement);
+			PhraseHelper.realiseList(parent, realisedElement, phrase
+					.getFeatureAsElementListView(InternalFeature.PREMODIFIERS),
+					DiscourseFunction.PRE_MODIFIER);
 
-			} else if (isCopular(phrase.getHead())) {
-				realiseMainVerb(parent, phrase, mainVerbRealisation,
-						realisedElement);
-				PhraseHelper.realiseList(parent, realisedElement, phrase
-						.getPreModifiers(), DiscourseFunction.PRE_MODIFIER);
+			realiseMainVerb(parent, phrase, vgComponents, mainVerbCount,
+					realisedElement);
 
-			} else {
-				PhraseHelper.realiseList(parent, realisedElement, phrase
-						.getPreModifiers(), DiscourseFunction.PRE_MODIFIER);
-				realiseMainVerb(parent, phrase, mainVerbRealisation,
-						realisedElement);
-			}
-			realiseComplements(parent, phrase, realisedElement);
+		} else if (isCopular(phrase.getHead())) {
+			realiseMainVerb(parent, phrase, vgComponents, mainVerbCount,
+					realisedElement);
+			PhraseHelper.realiseList(parent, realisedElement, phrase
+					.getFeatureAsElementListView(InternalFeature.PREMODIFIERS),
+					DiscourseFunction.PRE_MODIFIER);
+
+		} else {
 			PhraseHelper.realiseList(parent, realisedElement, phrase
-					.getPostModifiers(), DiscourseFunction.POST_MODIFIER);
+					.getFeatureAsElementListView(InternalFeature.PREMODIFIERS),
+					DiscourseFunction.PRE_MODIFIER);
+			realiseMainVerb(parent, phrase, vgComponents, mainVerbCount,
+					realisedElement);
 		}
+		realiseComplements(parent, phrase, realisedElement, scratch);
+		PhraseHelper.realiseList(parent, realisedElement, phrase
+				.getFeatureAsElementListView(InternalFeature.POSTMODIFIERS),
+				DiscourseFunction.POST_MODIFIER);
 
 		return realisedElement;
 	}
 
 	/**
-	 * Realises the auxiliary verbs in the verb group.
+	 * Realises the auxiliary verbs in the verb group, from the top of the group
+	 * down to the main verbs.
 	 * 
 	 * @param parent
 	 *            the parent <code>SyntaxProcessor</code> that will do the
 	 *            realisation of the complementiser.
 	 * @param realisedElement
 	 *            the current realisation of the noun phrase.
-	 * @param auxiliaryRealisation
-	 *            the stack of auxiliary verbs.
+	 * @param vgComponents
+	 *            the verb group, bottom of the stack first.
+	 * @param mainVerbCount
+	 *            the number of main verbs at the bottom of the group.
 	 */
 	private static void realiseAuxiliaries(SyntaxProcessor parent,
-			ListElement realisedElement, Stack<NLGElement> auxiliaryRealisation) {
+			ListElement realisedElement, List<NLGElement> vgComponents,
+			int mainVerbCount) {
 
-		NLGElement aux = null;
 		NLGElement currentElement = null;
-		while (!auxiliaryRealisation.isEmpty()) {
-			aux = auxiliaryRealisation.pop();
-			currentElement = parent.realise(aux);
+		for (int index = vgComponents.size() - 1; index >= mainVerbCount; index--) {
+			currentElement = parent.realiseElement(vgComponents.get(index));
 			if (currentElement != null) {
 				realisedElement.addComponent(currentElement);
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
@@ -135,30 +219,33 @@ abstract class VerbPhraseHelper {
 	}
 
 	/**
-	 * Realises the main group of verbs in the phrase.
+	 * Realises the main group of verbs in the phrase, from the top of the group
+	 * down.
 	 * 
 	 * @param parent
 	 *            the parent <code>SyntaxProcessor</code> that will do the
 	 *            realisation of the complementiser.
 	 * @param phrase
 	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param mainVerbRealisation
-	 *            the stack of the main verbs in the phrase.
+	 * @param vgComponents
+	 *            the verb group, bottom of the stack first.
+	 * @param mainVerbCount
+	 *            the number of main verbs at the bottom of the group.
 	 * @param realisedElement
 	 *            the current realisation of the noun phrase.
 	 */
 	private static void realiseMainVerb(SyntaxProcessor parent,
-			PhraseElement phrase, Stack<NLGElement> mainVerbRealisation,
-			ListElement realisedElement) {
+			PhraseElement phrase, List<NLGElement> vgComponents,
+			int mainVerbCount, ListElement realisedElement) {
 
 		NLGElement currentElement = null;
 		NLGElement main = null;
 
-		while (!mainVerbRealisation.isEmpty()) {
-			main = mainVerbRealisation.pop();
+		for (int index = mainVerbCount - 1; index >= 0; index--) {
+			main = vgComponents.get(index);
 			main.setFeature(Feature.INTERROGATIVE_TYPE, phrase
 					.getFeature(Feature.INTERROGATIVE_TYPE));
-			currentElement = parent.realise(main);
+			currentElement = parent.realiseElement(main);
 
 			if (currentElement != null) {
 				realisedElement.addComponent(currentElement);
@@ -176,452 +263,90 @@ abstract class VerbPhraseHelper {
 	 *            the <code>PhraseElement</code> representing this noun phrase.
 	 * @param realisedElement
 	 *            the current realisation of the noun phrase.
+	 * @param scratch
+	 *            the scratch space whose complement lists are used.
 	 */
 	private static void realiseComplements(SyntaxProcessor parent,
-			PhraseElement phrase, ListElement realisedElement) {
+			PhraseElement phrase, ListElement realisedElement, Scratch scratch) {
 
-		ListElement indirects = new ListElement();
-		ListElement directs = new ListElement();
-		ListElement unknowns = new ListElement();
+		List<NLGElement> indirects = scratch.indirects;
+		List<NLGElement> directs = scratch.directs;
+		List<NLGElement> unknowns = scratch.unknowns;
 		Object discourseValue = null;
 		NLGElement currentElement = null;
 
 		for (NLGElement complement : phrase
-				.getFeatureAsElementList(InternalFeature.COMPLEMENTS)) {
+				.getFeatureAsElementListView(InternalFeature.COMPLEMENTS)) {
 
 			discourseValue = complement
 					.getFeature(InternalFeature.DISCOURSE_FUNCTION);
-			currentElement = parent.realise(complement);
+			currentElement = parent.realiseElement(complement);
 			if (currentElement != null) {
 				currentElement.setFeature(InternalFeature.DISCOURSE_FUNCTION,
 						DiscourseFunction.COMPLEMENT);
 
 				if (DiscourseFunction.INDIRECT_OBJECT.equals(discourseValue)) {
-					indirects.addComponent(currentElement);
+					indirects.add(currentElement);
 				} else if (DiscourseFunction.OBJECT.equals(discourseValue)) {
-					directs.addComponent(currentElement);
+					directs.add(currentElement);
 				} else {
-					unknowns.addComponent(currentElement);
+					unknowns.add(currentElement);
 				}
 			}
 		}
 		if (!InterrogativeType.isIndirectObject(phrase
 				.getFeature(Feature.INTERROGATIVE_TYPE))) {
-			realisedElement.addComponents(indirects.getChildren());
+			realisedElement.addComponents(indirects);
 		}
 		if (!phrase.getFeatureAsBoolean(Feature.PASSIVE).booleanValue()) {
 			if (!InterrogativeType.isObject(phrase
 					.getFeature(Feature.INTERROGATIVE_TYPE))) {
-				realisedElement.addComponents(directs.getChildren());
+				realisedElement.addComponents(directs);
 			}
-			realisedElement.addComponents(unknowns.getChildren());
+			realisedElement.addComponents(unknowns);
 		}
 	}
 
 	/**
-	 * Splits the stack of verb components into two sections. One being the verb
+	 * Splits the verb components into two sections. One being the verb
 	 * associated with the main verb group, the other being associated with the
 	 * auxiliary verb group.
 	 * 
 	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 * @param mainVerbRealisation
-	 *            the main group of verbs.
-	 * @param auxiliaryRealisation
-	 *            the auxiliary group of verbs.
+	 *            the verb components in the verb group, bottom of the stack
+	 *            first.
+	 * @return the number of components at the bottom of the group which belong
+	 *         to the main verb group; the rest are auxiliaries.
 	 */
-	private static void splitVerbGroup(Stack<NLGElement> vgComponents,
-			Stack<NLGElement> mainVerbRealisation,
-			Stack<NLGElement> auxiliaryRealisation) {
-
-		boolean mainVerbSeen = false;
+	private static int splitVerbGroup(List<NLGElement> vgComponents) {
+		int mainVerbCount = 0;
 
 		for (NLGElement word : vgComponents) {
-			if (!mainVerbSeen) {
-				mainVerbRealisation.push(word);
-				if (!word.equals("not")) { //$NON-NLS-1$
-					mainVerbSeen = true;
-				}
-			} else {
-				auxiliaryRealisation.push(word);
+			mainVerbCount++;
+			if (!word.equals("not")) { //$NON-NLS-1$
+				break;
 			}
 		}
-
+		return mainVerbCount;
 	}
 
 	/**
-	 * Creates a stack of verbs for the verb phrase. Additional auxiliary verbs
-	 * are added as required based on the features of the verb phrase.
+	 * Creates the verbs of the verb phrase. Additional auxiliary verbs are added
+	 * as required based on the features of the verb phrase, following the
+	 * phrase's {@link VerbGroupPlan}.
 	 * 
 	 * @param parent
 	 *            the parent <code>SyntaxProcessor</code> that will do the
 	 *            realisation of the complementiser.
 	 * @param phrase
 	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @return the verb group as a <code>Stack</code> of <code>NLGElement</code>
-	 *         s.
-	 */
-	static final private Stack<NLGElement> createVerbGroup(
-			SyntaxProcessor parent, PhraseElement phrase) {
-
-		String actualModal = null;
-		Object formValue = phrase.getFeature(Feature.FORM);
-		Tense tenseValue = (Tense) phrase.getFeature(Feature.TENSE);
-		String modal = phrase.getFeatureAsString(Feature.MODAL);
-		boolean modalPast = false;
-		Stack<NLGElement> vgComponents = new Stack<NLGElement>();
-		boolean interrogative = phrase.hasFeature(Feature.INTERROGATIVE_TYPE);
-
-		if (Form.GERUND.equals(formValue) || Form.INFINITIVE.equals(formValue)) {
-			tenseValue = Tense.PRESENT;
-		}
-
-		if (Form.INFINITIVE.equals(formValue)) {
-			actualModal = "to"; //$NON-NLS-1$
-
-		} else if (formValue == null || Form.NORMAL.equals(formValue)) {
-			if (Tense.FUTURE.equals(tenseValue)
-					&& modal == null
-					&& ((!(phrase.getHead() instanceof CoordinatedPhraseElement)) || (phrase
-							.getHead() instanceof CoordinatedPhraseElement && interrogative))) {
-
-				actualModal = "will"; //$NON-NLS-1$
-
-			} else if (modal != null) {
-				actualModal = modal;
-
-				if (Tense.PAST.equals(tenseValue)) {
-					modalPast = true;
-				}
-			}
-		}
-
-		pushParticles(phrase, parent, vgComponents);
-		NLGElement frontVG = grabHeadVerb(phrase, tenseValue, modal != null);
-		checkImperativeInfinitive(formValue, frontVG);
-
-		if (phrase.getFeatureAsBoolean(Feature.PASSIVE).booleanValue()) {
-			frontVG = addBe(frontVG, vgComponents, Form.PAST_PARTICIPLE);
-		}
-
-		if (phrase.getFeatureAsBoolean(Feature.PROGRESSIVE).booleanValue()) {
-			frontVG = addBe(frontVG, vgComponents, Form.PRESENT_PARTICIPLE);
-		}
-
-		if (phrase.getFeatureAsBoolean(Feature.PERFECT).booleanValue()
-				|| modalPast) {
-			frontVG = addHave(frontVG, vgComponents, modal, tenseValue);
-		}
-
-		frontVG = pushIfModal(actualModal != null, phrase, frontVG,
-				vgComponents);
-		frontVG = createNot(phrase, vgComponents, frontVG, modal != null);
-
-		if (frontVG != null) {
-			pushFrontVerb(phrase, vgComponents, frontVG, formValue,
-					interrogative);
-		}
-
-		pushModal(actualModal, phrase, vgComponents);
-		return vgComponents;
-	}
-
-	/**
-	 * Pushes the modal onto the stack of verb components.
-	 * 
-	 * @param actualModal
-	 *            the modal to be used.
-	 * @param phrase
-	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 */
-	private static void pushModal(String actualModal, PhraseElement phrase,
-			Stack<NLGElement> vgComponents) {
-		if (actualModal != null
-				&& !phrase.getFeatureAsBoolean(InternalFeature.IGNORE_MODAL)
-						.booleanValue()) {
-			vgComponents.push(new InflectedWordElement(actualModal,
-					LexicalCategory.MODAL));
-		}
-	}
-
-	/**
-	 * Pushes the front verb onto the stack of verb components.
-	 * 
-	 * @param phrase
-	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 * @param frontVG
-	 *            the first verb in the verb group.
-	 * @param formValue
-	 *            the <code>Form</code> of the phrase.
-	 * @param interrogative
-	 *            <code>true</code> if the phrase is interrogative.
-	 */
-	private static void pushFrontVerb(PhraseElement phrase,
-			Stack<NLGElement> vgComponents, NLGElement frontVG,
-			Object formValue, boolean interrogative) {
-		Object interrogType = phrase.getFeature(Feature.INTERROGATIVE_TYPE);
-		
-		if (Form.GERUND.equals(formValue)) {
-			frontVG.setFeature(Feature.FORM, Form.PRESENT_PARTICIPLE);
-			vgComponents.push(frontVG);
-
-		} else if (Form.PAST_PARTICIPLE.equals(formValue)) {
-			frontVG.setFeature(Feature.FORM, Form.PAST_PARTICIPLE);
-			vgComponents.push(frontVG);
-
-		} else if (Form.PRESENT_PARTICIPLE.equals(formValue)) {
-			frontVG.setFeature(Feature.FORM, Form.PRESENT_PARTICIPLE);
-			vgComponents.push(frontVG);
-
-		} else if ((!(formValue == null || Form.NORMAL.equals(formValue)) || interrogative)
-				&& !isCopular(phrase.getHead()) && vgComponents.isEmpty()) {
-
-			// AG: fix below: if interrogative, only set non-morph feature in
-			// case it's not WHO_SUBJECT OR WHAT_SUBJECT			
-			if (!(InterrogativeType.WHO_SUBJECT.equals(interrogType) || InterrogativeType.WHAT_SUBJECT
-					.equals(interrogType))) {
-				frontVG.setFeature(InternalFeature.NON_MORPH, true);
-			}
-
-			vgComponents.push(frontVG);
-
-		} else {
-			NumberAgreement numToUse = determineNumber(phrase.getParent(),
-					phrase);
-			frontVG.setFeature(Feature.TENSE, phrase.getFeature(Feature.TENSE));
-			frontVG.setFeature(Feature.PERSON, phrase
-					.getFeature(Feature.PERSON));
-			frontVG.setFeature(Feature.NUMBER, numToUse);
-			
-			//don't push the front VG if it's a negated interrogative WH object question
-			if (!(phrase.getFeatureAsBoolean(Feature.NEGATED).booleanValue() && (InterrogativeType.WHO_OBJECT
-					.equals(interrogType) || InterrogativeType.WHAT_OBJECT
-					.equals(interrogType)))) {
-				vgComponents.push(frontVG);
-			}
-		}
-	}
-
-	/**
-	 * Adds <em>not</em> to the stack if the phrase is negated.
-	 * 
-	 * @param phrase
-	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 * @param frontVG
-	 *            the first verb in the verb group.
-	 * @param hasModal
-	 *            the phrase has a modal
-	 * @return the new element for the front of the group.
-	 */
-	private static NLGElement createNot(PhraseElement phrase,
-			Stack<NLGElement> vgComponents, NLGElement frontVG, boolean hasModal) {
-		NLGElement newFront = frontVG;
-
-		if (phrase.getFeatureAsBoolean(Feature.NEGATED).booleanValue()) {
-			NLGFactory factory = phrase.getFactory();
-
-			// before adding "do", check if this is an object WH
-			// interrogative
-			// in which case, don't add anything as it's already done by
-			// ClauseHelper
-			Object interrType = phrase.getFeature(Feature.INTERROGATIVE_TYPE);
-			boolean addDo = !(InterrogativeType.WHAT_OBJECT.equals(interrType) || InterrogativeType.WHO_OBJECT
-					.equals(interrType));
-
-			if (!vgComponents.empty() || frontVG != null && isCopular(frontVG)) {
-				vgComponents.push(new InflectedWordElement(
-						"not", LexicalCategory.ADVERB)); //$NON-NLS-1$
-			} else {
-				if (frontVG != null && !hasModal) {
-					frontVG.setFeature(Feature.NEGATED, true);
-					vgComponents.push(frontVG);
-				}
-
-				vgComponents.push(new InflectedWordElement(
-						"not", LexicalCategory.ADVERB)); //$NON-NLS-1$
-
-				if (addDo) {
-					if (factory != null) {
-						newFront = factory.createInflectedWord("do",
-								LexicalCategory.VERB);
-
-					} else {
-						newFront = new InflectedWordElement(
-								"do", LexicalCategory.VERB); //$NON-NLS-1$
-					}
-				}
-			}
-		}
-
-		return newFront;
-	}
-
-	/**
-	 * Pushes the front verb on to the stack if the phrase has a modal.
-	 * 
-	 * @param hasModal
-	 *            the phrase has a modal
-	 * @param phrase
-	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param frontVG
-	 *            the first verb in the verb group.
 	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 * @return the new element for the front of the group.
+	 *            the empty list the verb group is added to, bottom of the stack
+	 *            first.
 	 */
-	private static NLGElement pushIfModal(boolean hasModal,
-			PhraseElement phrase, NLGElement frontVG,
-			Stack<NLGElement> vgComponents) {
-
-		NLGElement newFront = frontVG;
-		if (hasModal
-				&& !phrase.getFeatureAsBoolean(InternalFeature.IGNORE_MODAL)
-						.booleanValue()) {
-			if (frontVG != null) {
-				frontVG.setFeature(InternalFeature.NON_MORPH, true);
-				vgComponents.push(frontVG);
-			}
-			newFront = null;
-		}
-		return newFront;
-	}
-
-	/**
-	 * Adds <em>have</em> to the stack.
-	 * 
-	 * @param frontVG
-	 *            the first verb in the verb group.
-	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 * @param modal
-	 *            the modal to be used.
-	 * @param tenseValue
-	 *            the <code>Tense</code> of the phrase.
-	 * @return the new element for the front of the group.
-	 */
-	private static NLGElement addHave(NLGElement frontVG,
-			Stack<NLGElement> vgComponents, String modal, Tense tenseValue) {
-		NLGElement newFront = frontVG;
-
-		if (frontVG != null) {
-			frontVG.setFeature(Feature.FORM, Form.PAST_PARTICIPLE);
-			vgComponents.push(frontVG);
-		}
-		newFront = new InflectedWordElement("have", LexicalCategory.VERB); //$NON-NLS-1$
-		newFront.setFeature(Feature.TENSE, tenseValue);
-		if (modal != null) {
-			newFront.setFeature(InternalFeature.NON_MORPH, true);
-		}
-		return newFront;
-	}
-
-	/**
-	 * Adds the <em>be</em> verb to the front of the group.
-	 * 
-	 * @param frontVG
-	 *            the first verb in the verb group.
-	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 * @param frontForm
-	 *            the form the current front verb is to take.
-	 * @return the new element for the front of the group.
-	 */
-	private static NLGElement addBe(NLGElement frontVG,
-			Stack<NLGElement> vgComponents, Form frontForm) {
-
-		if (frontVG != null) {
-			frontVG.setFeature(Feature.FORM, frontForm);
-			vgComponents.push(frontVG);
-		}
-		return new InflectedWordElement("be", LexicalCategory.VERB); //$NON-NLS-1$
-	}
-
-	/**
-	 * Checks to see if the phrase is in imperative, infinitive or bare
-	 * infinitive form. If it is then no morphology is done on the main verb.
-	 * 
-	 * @param formValue
-	 *            the <code>Form</code> of the phrase.
-	 * @param frontVG
-	 *            the first verb in the verb group.
-	 */
-	private static void checkImperativeInfinitive(Object formValue,
-			NLGElement frontVG) {
-
-		if ((Form.IMPERATIVE.equals(formValue)
-				|| Form.INFINITIVE.equals(formValue) || Form.BARE_INFINITIVE
-				.equals(formValue))
-				&& frontVG != null) {
-			frontVG.setFeature(InternalFeature.NON_MORPH, true);
-		}
-	}
-
-	/**
-	 * Grabs the head verb of the verb phrase and sets it to future tense if the
-	 * phrase is future tense. It also turns off negation if the group has a
-	 * modal.
-	 * 
-	 * @param phrase
-	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param tenseValue
-	 *            the <code>Tense</code> of the phrase.
-	 * @param hasModal
-	 *            <code>true</code> if the verb phrase has a modal.
-	 * @return the modified head element
-	 */
-	private static NLGElement grabHeadVerb(PhraseElement phrase,
-			Tense tenseValue, boolean hasModal) {
-		NLGElement frontVG = phrase.getHead();
-
-		if (frontVG != null) {
-			if (frontVG instanceof WordElement) {
-				frontVG = new InflectedWordElement((WordElement) frontVG);
-			}
-
-			// AG: tense value should always be set on frontVG
-			if (tenseValue != null) {
-				frontVG.setFeature(Feature.TENSE, tenseValue);
-			}
-
-			// if (Tense.FUTURE.equals(tenseValue) && frontVG != null) {
-			// frontVG.setFeature(Feature.TENSE, Tense.FUTURE);
-			// }
-
-			if (hasModal) {
-				frontVG.setFeature(Feature.NEGATED, false);
-			}
-		}
-
-		return frontVG;
-	}
-
-	/**
-	 * Pushes the particles of the main verb onto the verb group stack.
-	 * 
-	 * @param phrase
-	 *            the <code>PhraseElement</code> representing this noun phrase.
-	 * @param parent
-	 *            the parent <code>SyntaxProcessor</code> that will do the
-	 *            realisation of the complementiser.
-	 * @param vgComponents
-	 *            the stack of verb components in the verb group.
-	 */
-	private static void pushParticles(PhraseElement phrase,
-			SyntaxProcessor parent, Stack<NLGElement> vgComponents) {
-		Object particle = phrase.getFeature(Feature.PARTICLE);
-
-		if (particle instanceof String) {
-			vgComponents.push(new StringElement((String) particle));
-
-		} else if (particle instanceof NLGElement) {
-			vgComponents.push(parent.realise((NLGElement) particle));
-		}
+	static final private void createVerbGroup(SyntaxProcessor parent,
+			PhraseElement phrase, List<NLGElement> vgComponents) {
+		VerbGroupPlan.forPhrase(phrase).apply(parent, phrase, vgComponents);
 	}
 
 	/**
@@ -634,7 +359,7 @@ abstract class VerbPhraseHelper {
 	 *            the <code>PhraseElement</code> representing this noun phrase.
 	 * @return the <code>NumberAgreement</code> to be used for the phrase.
 	 */
-	private static NumberAgreement determineNumber(NLGElement parent,
+	static NumberAgreement determineNumber(NLGElement parent,
 			PhraseElement phrase) {
 		Object numberValue = phrase.getFeature(Feature.NUMBER);
 		NumberAgreement number = null;
@@ -656,7 +381,7 @@ abstract class VerbPhraseHelper {
 					&& isCopular(phrase.getHead())) {
 
 				if (hasPluralComplement(phrase
-						.getFeatureAsElementList(InternalFeature.COMPLEMENTS))) {
+						.getFeatureAsElementListView(InternalFeature.COMPLEMENTS))) {
 					number = NumberAgreement.PLURAL;
 				} else {
 					number = NumberAgreement.SINGULAR;
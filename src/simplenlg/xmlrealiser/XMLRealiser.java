@@ -25,12 +25,15 @@ public class XMLRealiser {
 	/** The lex db. */
 	static String lexDB = null;
 
-	/** The lexicon. */
+	/** The lexicon. Guarded by the class lock, as are the next two fields. */
 	static Lexicon lexicon = null;
 
 	/** The lexicon type. */
 	static LexiconType lexiconType = null;
 
+	/** The realiser, shared by all requests using the lexicon. */
+	static LexiconRealiser realiser = null;
+
 	/** The record. */
 	static Recording record = null;
 
@@ -163,7 +166,8 @@ public class XMLRealiser {
 	 * @param lexFile
 	 *            the lex file
 	 */
-	public static void setLexicon(LexiconType lexType, String lexFile) {
+	public static synchronized void setLexicon(LexiconType lexType,
+			String lexFile) {
 		if (lexiconType != null && lexicon != null && lexType == lexiconType) {
 			return; // done already
 		}
@@ -173,6 +177,7 @@ public class XMLRealiser {
 			lexicon = null;
 			lexiconType = null;
 		}
+		realiser = null;
 
 		if (lexType == LexiconType.XML) {
 			lexicon = new XMLLexicon(lexFile);
@@ -243,16 +248,11 @@ public class XMLRealiser {
 		String output = "";
 		if (wt != null) {
 			try {
-				if (lexicon == null) {
-					lexicon = Lexicon.getDefaultLexicon();
-				}
-				UnWrapper w = new UnWrapper(lexicon);
+				LexiconRealiser r = getRealiser();
+				UnWrapper w = new UnWrapper(r.lexicon);
 				DocumentElement t = w.UnwrapDocumentElement(wt);
 				if (t != null) {
-					Realiser r = new Realiser(lexicon);
-					r.initialise();
-
-					NLGElement tr = r.realise(t);
+					NLGElement tr = r.realiser.realise(t);
 
 					output = tr.getRealisation();
 				}
@@ -265,6 +265,47 @@ public class XMLRealiser {
 		return output;
 	}
 
+	/**
+	 * Gets the realiser for the current lexicon, creating both if necessary.
+	 * A realiser can be used by several threads at once, so one is shared by
+	 * all requests. It comes with its lexicon, so that a request uses the same
+	 * lexicon throughout even if <code>setLexicon</code> is called meanwhile.
+	 * 
+	 * @return the realiser and its lexicon
+	 */
+	private static synchronized LexiconRealiser getRealiser() {
+		if (lexicon == null) {
+			lexicon = Lexicon.getDefaultLexicon();
+		}
+		if (realiser == null) {
+			realiser = new LexiconRealiser(lexicon);
+		}
+		return realiser;
+	}
+
+	/**
+	 * A realiser and the lexicon it was made with.
+	 */
+	static class LexiconRealiser {
+
+		/** The lexicon. */
+		final Lexicon lexicon;
+
+		/** The realiser. */
+		final Realiser realiser;
+
+		/**
+		 * Makes a realiser for a lexicon.
+		 * 
+		 * @param lexicon
+		 *            the lexicon
+		 */
+		LexiconRealiser(Lexicon lexicon) {
+			this.lexicon = lexicon;
+			this.realiser = new Realiser(lexicon);
+		}
+	}
+
 	/**
 	 * Start recording.
 	 * 
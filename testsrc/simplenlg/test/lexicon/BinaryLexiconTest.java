@@ -0,0 +1,156 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.lexicon;
+
+import java.io.File;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.BinaryLexicon;
+import simplenlg.lexicon.BinaryLexiconWriter;
+import simplenlg.lexicon.XMLLexicon;
+
+/**
+ * Tests for the compiled (binary) lexicon. The default XML lexicon is compiled
+ * to a temporary file, which is then loaded as a BinaryLexicon
+ */
+public class BinaryLexiconTest extends TestCase {
+
+	// the XML lexicon, and the binary lexicon compiled from it
+	XMLLexicon xmlLexicon = null;
+	BinaryLexicon lexicon = null;
+	File lexiconFile = null;
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		this.xmlLexicon = new XMLLexicon();
+		this.lexiconFile = File.createTempFile("simplenlg-lexicon", ".bin");
+		BinaryLexiconWriter.write(this.xmlLexicon, this.lexiconFile);
+
+		long startTime = System.currentTimeMillis();
+		this.lexicon = new BinaryLexicon(this.lexiconFile);
+		long stopTime = System.currentTimeMillis();
+		System.out.format("Loading binary lexicon took %d ms%n", stopTime
+				- startTime);
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		super.tearDown();
+		if (lexicon != null)
+			lexicon.close();
+		if (lexiconFile != null)
+			lexiconFile.delete();
+	}
+
+	@Test
+	public void testBasics() {
+		SharedLexiconTests.doBasicTests(lexicon);
+	}
+
+	/**
+	 * Lookups in the binary lexicon should give the same words as lookups in
+	 * the XML lexicon
+	 */
+	@Test
+	public void testSameAsXMLLexicon() {
+		String[] forms = { "dog", "can", "good", "be", "is", "were", "women",
+				"eating", "sand", "quickly", "E0051632", "E0054448",
+				"akjmchsgk" };
+
+		for (String form : forms) {
+			assertSameWords(xmlLexicon.getWords(form), lexicon.getWords(form));
+			assertSameWords(xmlLexicon.getWords(form, LexicalCategory.VERB),
+					lexicon.getWords(form, LexicalCategory.VERB));
+			assertSameWords(xmlLexicon.getWordsFromVariant(form), lexicon
+					.getWordsFromVariant(form));
+			assertSameWords(xmlLexicon.getWordsByID(form), lexicon
+					.getWordsByID(form));
+		}
+	}
+
+	/**
+	 * Words are only decoded once, so repeated lookups give the same object
+	 */
+	@Test
+	public void testWordsDecodedOnce() {
+		WordElement first = lexicon.getWord("dog", LexicalCategory.NOUN);
+		WordElement second = lexicon.getWordFromVariant("dogs",
+				LexicalCategory.NOUN);
+		assertSame(first, second);
+	}
+
+	/**
+	 * The compiled lexicon is smaller than the XML lexicon it is compiled from
+	 */
+	@Test
+	public void testCompact() throws Exception {
+		File xmlFile = new File(getClass().getResource(
+				"/simplenlg/lexicon/default-lexicon.xml").toURI());
+		assertTrue(lexiconFile.length() < xmlFile.length());
+	}
+
+	/**
+	 * The no-argument constructor loads the compiled default lexicon, which
+	 * is only on the classpath once the compile.lexicon target has been run
+	 */
+	@Test
+	public void testDefaultLexicon() {
+		if (getClass().getResource("/simplenlg/lexicon/default-lexicon.bin") == null) {
+			try {
+				new BinaryLexicon();
+				fail("default lexicon should not be found");
+			} catch (IllegalArgumentException ex) {
+				// no compiled default lexicon
+			}
+			return;
+		}
+
+		BinaryLexicon defaultLexicon = new BinaryLexicon();
+		try {
+			SharedLexiconTests.doBasicTests(defaultLexicon);
+		} finally {
+			defaultLexicon.close();
+		}
+	}
+
+	private void assertSameWords(List<WordElement> expected,
+			List<WordElement> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getBaseForm(), actual.get(i)
+					.getBaseForm());
+			assertEquals(expected.get(i).getCategory(), actual.get(i)
+					.getCategory());
+			assertEquals(expected.get(i).getAllFeatures(), actual.get(i)
+					.getAllFeatures());
+			assertEquals(expected.get(i).getDefaultInflectionalVariant(),
+					actual.get(i).getDefaultInflectionalVariant());
+		}
+	}
+}
@@ -18,6 +18,8 @@
  */
 package simplenlg.test.lexicon;
 
+import java.io.File;
+import java.io.FileWriter;
 import java.util.Properties;
 
 import junit.framework.Assert;
@@ -27,6 +29,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import simplenlg.features.LexicalFeature;
+import simplenlg.framework.LexicalCategory;
 import simplenlg.framework.WordElement;
 import simplenlg.lexicon.MultipleLexicon;
 import simplenlg.lexicon.NIHDBLexicon;
@@ -97,5 +100,84 @@ public class MultipleLexiconTest {
 		lexicon.setAlwaysSearchAll(alwaysSearchAll);	
 	}
 
+	@Test
+	public void testMergedIndex() throws Exception {
+		// domain lexicon: "tree" as a verb, and a noun "tree" with an ID
+		File file = File.createTempFile("lexicon", ".xml");
+		file.deleteOnExit();
+		FileWriter out = new FileWriter(file);
+		out.write("<lexicon>" +
+				"<word><base>tree</base><category>noun</category><id>D1</id></word>" +
+				"<word><base>tree</base><category>verb</category><id>D2</id></word>" +
+				"<word><base>frob</base><category>verb</category><id>D3</id></word>" +
+				"</lexicon>");
+		out.close();
+		XMLLexicon domain = new XMLLexicon(file);
+		XMLLexicon general = new XMLLexicon();
+
+		MultipleLexicon stacked = new MultipleLexicon(general);
+		stacked.addInitialLexicon(domain);
+		stacked.setUseMergedIndex(true);
+		Assert.assertTrue(stacked.hasMergedIndex());
+
+		// same answers as searching the lexicons in order
+		MultipleLexicon searched = new MultipleLexicon(domain, general);
+		for (boolean searchAll : new boolean[] { false, true }) {
+			stacked.setAlwaysSearchAll(searchAll);
+			searched.setAlwaysSearchAll(searchAll);
+			for (String form : new String[] { "tree", "trees", "frob", "frobbed",
+					"dog", "dogs", "D1", "E0051632", "akjmchsgk" }) {
+				Assert.assertEquals(searched.getWords(form), stacked.getWords(form));
+				Assert.assertEquals(searched.getWordsFromVariant(form), stacked.getWordsFromVariant(form));
+				Assert.assertEquals(searched.getWordsByID(form), stacked.getWordsByID(form));
+				for (LexicalCategory category : LexicalCategory.values()) {
+					Assert.assertEquals(searched.getWords(form, category), stacked.getWords(form, category));
+					Assert.assertEquals(searched.getWordsFromVariant(form, category),
+							stacked.getWordsFromVariant(form, category));
+				}
+			}
+		}
+		stacked.setAlwaysSearchAll(false);
+		Assert.assertEquals("D1", stacked.getWord("tree", LexicalCategory.NOUN).getId());
+
+		// a final lexicon comes after the others
+		MultipleLexicon appended = new MultipleLexicon(general);
+		appended.setUseMergedIndex(true);
+		appended.addFinalLexicon(domain);
+		Assert.assertEquals("E0061978", appended.getWord("tree", LexicalCategory.NOUN).getId());
+		Assert.assertEquals("D3", appended.getWord("frob", LexicalCategory.VERB).getId());
+
+		// DB lexicons cannot be indexed
+		Assert.assertFalse(lexicon.isUseMergedIndex());
+		lexicon.setUseMergedIndex(true);
+		Assert.assertFalse(lexicon.hasMergedIndex());
+	}
+
+	@Test
+	public void testNullCategory() throws Exception {
+		// "tree" is a noun and a verb in the domain lexicon
+		File file = File.createTempFile("lexicon", ".xml");
+		file.deleteOnExit();
+		FileWriter out = new FileWriter(file);
+		out.write("<lexicon>" +
+				"<word><base>tree</base><category>noun</category><id>D1</id></word>" +
+				"<word><base>tree</base><category>verb</category><id>D2</id></word>" +
+				"</lexicon>");
+		out.close();
+		MultipleLexicon stacked = new MultipleLexicon(new XMLLexicon(file), new XMLLexicon());
+
+		// a null category matches all categories, whether or not the merged
+		// index has been built
+		for (boolean useMergedIndex : new boolean[] { false, true }) {
+			stacked.setUseMergedIndex(useMergedIndex);
+			Assert.assertEquals(useMergedIndex, stacked.hasMergedIndex());
+			Assert.assertEquals(2, stacked.getWords("tree", null).size());
+			Assert.assertEquals(stacked.getWords("tree", LexicalCategory.ANY), stacked.getWords("tree", null));
+			Assert.assertEquals(2, stacked.getWordsFromVariant("trees", null).size());
+			Assert.assertEquals(stacked.getWordsFromVariant("trees", LexicalCategory.ANY),
+					stacked.getWordsFromVariant("trees", null));
+			Assert.assertTrue(stacked.getWords("akjmchsgk", null).isEmpty());
+		}
+	}
 
 }
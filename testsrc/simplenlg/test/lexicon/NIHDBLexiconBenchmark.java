@@ -0,0 +1,143 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.lexicon;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Ignore;
+
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.NIHDBLexicon;
+
+/**
+ * Measures how many words an <code>NIHDBLexicon</code> looks up a second from
+ * one thread and from as many threads as it has DB connections, with its word
+ * cache turned off so that every lookup goes to the DB. It needs the NIH
+ * lexicon DB, so it is not a test, and is run by hand:
+ * 
+ * <p>
+ * <code>java simplenlg.test.lexicon.NIHDBLexiconBenchmark [seconds] [DB file]</code>
+ * </p>
+ * 
+ * The DB file defaults to the one named in <code>lexicon.properties</code>,
+ * as for {@link NIHDBLexiconTest}. Each setting is warmed up for a quarter of
+ * the time and then timed for the rest, and every thread checks the words it
+ * gets.
+ */
+@Ignore
+public class NIHDBLexiconBenchmark {
+
+	private static final String[] BASES = { "lie", "bark", "house", "big", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"quickly", "run", "woman", "child", "eat", "happy" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	/**
+	 * @param args
+	 *            how long to run each setting for, in seconds (default 10),
+	 *            and the DB file.
+	 */
+	public static void main(String[] args) throws Exception {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+		String filename = args.length > 1 ? args[1] : getDefaultFilename();
+
+		NIHDBLexicon lexicon = new NIHDBLexicon(filename);
+		try {
+			lexicon.setCacheSize(0);
+			for (int threads : new int[] { 1, lexicon.getPoolSize() }) {
+				run(lexicon, threads, seconds * 250);
+				double rate = run(lexicon, threads, seconds * 750);
+				System.out.format("%d thread(s): %.0f lookups/s%n", threads, //$NON-NLS-1$
+						rate);
+			}
+		} finally {
+			lexicon.close();
+		}
+	}
+
+	/**
+	 * @return the DB file named in <code>lexicon.properties</code>, or the
+	 *         default of {@link NIHDBLexiconTest}.
+	 */
+	private static String getDefaultFilename() {
+		try {
+			InputStream in = NIHDBLexiconBenchmark.class.getClassLoader()
+					.getResourceAsStream("lexicon.properties"); //$NON-NLS-1$
+			if (in != null) {
+				Properties properties = new Properties();
+				properties.load(in);
+				in.close();
+				String filename = properties.getProperty("DB_FILENAME"); //$NON-NLS-1$
+				if (filename != null) {
+					return filename;
+				}
+			}
+		} catch (Exception ex) {
+			// use the default
+		}
+		return NIHDBLexiconTest.DB_FILENAME;
+	}
+
+	/**
+	 * Looks up the words on several threads for a while.
+	 * 
+	 * @return the lookups made a second, over all the threads.
+	 */
+	private static double run(final NIHDBLexicon lexicon, int threads,
+			long millis) throws InterruptedException {
+		final long[] counts = new long[threads];
+		final String[] errors = new String[threads];
+		final long end = System.currentTimeMillis() + millis;
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+
+		for (int thread = 0; thread < threads; thread++) {
+			final int index = thread;
+			workers[thread] = new Thread() {
+				@Override
+				public void run() {
+					long count = 0;
+					while (System.currentTimeMillis() < end) {
+						for (String base : BASES) {
+							List<WordElement> words = lexicon.getWords(base);
+							if (words.isEmpty()
+									|| !base.equals(words.get(0).getBaseForm())) {
+								errors[index] = base;
+							}
+						}
+						count += BASES.length;
+					}
+					counts[index] = count;
+				}
+			};
+			workers[thread].start();
+		}
+
+		long total = 0;
+		for (int thread = 0; thread < threads; thread++) {
+			workers[thread].join();
+			total += counts[thread];
+			if (errors[thread] != null) {
+				throw new IllegalStateException("wrong words for " //$NON-NLS-1$
+						+ errors[thread]);
+			}
+		}
+		return total * 1e9 / (System.nanoTime() - start);
+	}
+}
@@ -19,9 +19,13 @@
 
 package simplenlg.test.lexicon;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -224,6 +228,84 @@ public class NIHDBLexiconTest extends TestCase {
 		Assert.assertEquals("bark", runner2.word.getBaseForm());
 	}
 
+	/**
+	 * Test the word cache: repeated lookups are hits and give the same word,
+	 * and the cache keeps no more results than its size
+	 */
+	public void testWordCache() {
+		int cacheSize = lexicon.getCacheSize();
+		try {
+			lexicon.setCacheSize(2);
+			lexicon.resetCacheStatistics();
+
+			WordElement house = lexicon.getWord("house", LexicalCategory.NOUN);
+			Assert.assertSame(house, lexicon.getWord("house",
+					LexicalCategory.NOUN));
+			Assert.assertEquals(1, lexicon.getCacheHits());
+
+			// different category and kind of lookup are different entries
+			lexicon.getWord("house", LexicalCategory.VERB);
+			lexicon.getWordFromVariant("houses", LexicalCategory.NOUN);
+			Assert.assertEquals(1, lexicon.getCacheHits());
+			Assert.assertEquals(1, lexicon.getCacheEvictions());
+
+			lexicon.setCacheSize(0);
+			lexicon.getWord("house", LexicalCategory.VERB);
+			lexicon.getWord("house", LexicalCategory.VERB);
+			Assert.assertEquals(1, lexicon.getCacheHits());
+		} finally {
+			lexicon.setCacheSize(cacheSize);
+		}
+	}
+
+	/**
+	 * Look up the same words from as many threads as the lexicon has DB
+	 * connections, and check that every thread gets the right words. The word
+	 * cache is turned off, so that every lookup goes to the DB. (Throughput is
+	 * measured by hand with NIHDBLexiconBenchmark.)
+	 */
+	public void testConcurrentLookups() throws Exception {
+		int cacheSize = lexicon.getCacheSize();
+		lexicon.setCacheSize(0);
+		try {
+			lookUpConcurrently();
+		} finally {
+			lexicon.setCacheSize(cacheSize);
+		}
+	}
+
+	private void lookUpConcurrently() throws Exception {
+		final String[] bases = { "lie", "bark", "house", "big", "quickly",
+				"run", "woman", "child", "eat", "happy" };
+		final int lookups = 200;
+
+		int threads = lexicon.getPoolSize();
+		ExecutorService service = Executors.newFixedThreadPool(threads);
+		List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+		for (int i = 0; i < threads; i++) {
+			tasks.add(new Callable<Integer>() {
+				public Integer call() {
+					int found = 0;
+					for (int j = 0; j < lookups; j++) {
+						String base = bases[j % bases.length];
+						List<WordElement> words = lexicon.getWords(base);
+						if (!words.isEmpty()
+								&& base.equals(words.get(0).getBaseForm()))
+							found++;
+					}
+					return found;
+				}
+			});
+		}
+
+		List<Future<Integer>> results = service.invokeAll(tasks);
+		service.shutdown();
+
+		Assert.assertEquals(threads, results.size());
+		for (Future<Integer> result : results)
+			Assert.assertEquals(lookups, result.get().intValue());
+	}
+
 	/*
 	 * Class that implements a thread from which a lexical item can be retrieved
 	 */
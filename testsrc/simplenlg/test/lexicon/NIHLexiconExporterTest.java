@@ -0,0 +1,168 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.lexicon;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.BinaryLexicon;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.NIHLexiconExporter;
+import simplenlg.lexicon.XMLLexicon;
+
+/**
+ * Tests for writing words with the NIH lexicon exporter. These do not need
+ * the NIH DB: the words are made here and exported with
+ * <code>exportWords</code>
+ */
+public class NIHLexiconExporterTest extends TestCase {
+
+	// an exporter without a DB, and the file it writes
+	NIHLexiconExporter exporter = null;
+	File output = null;
+
+	@Override
+	@Before
+	public void setUp() throws Exception {
+		this.exporter = new NIHLexiconExporter(null, 2);
+		this.output = File.createTempFile("simplenlg-export", ".xml");
+	}
+
+	@Override
+	@After
+	public void tearDown() throws Exception {
+		super.tearDown();
+		if (output != null)
+			output.delete();
+	}
+
+	/**
+	 * @return words to export: a noun which needs escaping in XML, and an
+	 *         irregular verb
+	 */
+	private List<WordElement> createWords() {
+		WordElement att = new WordElement("AT&T", LexicalCategory.NOUN, //$NON-NLS-1$
+				"E0000001"); //$NON-NLS-1$
+		att.setFeature(LexicalFeature.PROPER, true);
+		att.setFeature(LexicalFeature.PLURAL, "<none>"); //$NON-NLS-1$
+
+		WordElement lie = new WordElement("lie", LexicalCategory.VERB, //$NON-NLS-1$
+				"E0000002"); //$NON-NLS-1$
+		lie.setFeature(LexicalFeature.PAST, "lay"); //$NON-NLS-1$
+		lie.setFeature(LexicalFeature.PAST_PARTICIPLE, "lain"); //$NON-NLS-1$
+		lie.setDefaultInflectionalVariant(Inflection.IRREGULAR);
+		lie.addInflectionalVariant(Inflection.IRREGULAR);
+		return Arrays.asList(att, lie);
+	}
+
+	/**
+	 * Checks the words made by <code>createWords</code>, as read back from an
+	 * exported file
+	 */
+	private void checkWords(Lexicon lexicon) {
+		WordElement att = lexicon.getWordByID("E0000001"); //$NON-NLS-1$
+		assertEquals("AT&T", att.getBaseForm()); //$NON-NLS-1$
+		assertEquals(LexicalCategory.NOUN, att.getCategory());
+		assertTrue(att.getFeatureAsBoolean(LexicalFeature.PROPER));
+		assertEquals("<none>", att.getFeatureAsString(LexicalFeature.PLURAL)); //$NON-NLS-1$
+
+		WordElement lie = lexicon.getWord("lie", LexicalCategory.VERB); //$NON-NLS-1$
+		assertEquals("E0000002", lie.getId()); //$NON-NLS-1$
+		assertEquals("lay", lie.getFeatureAsString(LexicalFeature.PAST)); //$NON-NLS-1$
+		assertEquals(Inflection.IRREGULAR, lie.getDefaultInflectionalVariant());
+		assertTrue(lie.hasInflectionalVariant(Inflection.IRREGULAR));
+		assertFalse(lie.hasInflectionalVariant(Inflection.REGULAR));
+	}
+
+	/**
+	 * Words written as XML, with text escaped, can be read by XMLLexicon
+	 */
+	@Test
+	public void testExportXML() throws Exception {
+		assertEquals(2, exporter.exportWords(createWords(), output, false));
+		checkWords(new XMLLexicon(output));
+	}
+
+	/**
+	 * Words written in the binary format can be read by BinaryLexicon
+	 */
+	@Test
+	public void testExportBinary() throws Exception {
+		assertEquals(2, exporter.exportWords(createWords(), output, true));
+		BinaryLexicon lexicon = new BinaryLexicon(output);
+		try {
+			checkWords(lexicon);
+		} finally {
+			lexicon.close();
+		}
+	}
+
+	/**
+	 * A word found more than once, as a new WordElement each time, is only
+	 * written once
+	 */
+	@Test
+	public void testDuplicates() throws Exception {
+		List<WordElement> words = new ArrayList<WordElement>(createWords());
+		words.addAll(createWords());
+		words.add(new WordElement("lie", LexicalCategory.NOUN, "E0000003")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals(3, exporter.exportWords(words, output, false));
+
+		XMLLexicon lexicon = new XMLLexicon(output);
+		assertEquals(2, lexicon.getWords("lie").size()); //$NON-NLS-1$
+		assertEquals(1, lexicon.getWords("AT&T").size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Word list entries with an unknown category are returned as missing
+	 * rather than printed
+	 */
+	@Test
+	public void testMissingWords() throws Exception {
+		File wordList = File.createTempFile("simplenlg-words", ".txt");
+		try {
+			Writer out = new OutputStreamWriter(new FileOutputStream(wordList),
+					"UTF-8");
+			out.write("dog,animal\ncat, creature\n");
+			out.close();
+
+			assertEquals(0, exporter.exportWordList(wordList, output, false));
+			assertEquals(Arrays.asList("dog:animal", "cat:creature"), //$NON-NLS-1$ //$NON-NLS-2$
+					exporter.getMissingWords());
+			assertTrue(new XMLLexicon(output).getWords("dog").isEmpty()); //$NON-NLS-1$
+		} finally {
+			wordList.delete();
+		}
+	}
+}
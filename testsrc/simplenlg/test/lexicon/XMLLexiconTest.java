@@ -18,13 +18,30 @@
  */
 package simplenlg.test.lexicon;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import junit.framework.TestCase;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGFactory;
+import simplenlg.framework.WordElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.LookupStage;
+import simplenlg.lexicon.WordQuery;
 import simplenlg.lexicon.XMLLexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
 
 /**
  * @author D. Westwater, Data2Text Ltd
@@ -72,4 +89,233 @@ public class XMLLexiconTest extends TestCase {
 		SharedLexiconTests.doBasicTests(lexicon);
 	}
 
+	/**
+	 * Check that a lexicon file is loaded word by word: non-word nodes are
+	 * ignored, feature values may contain entities and CDATA, and empty
+	 * feature nodes are inflection codes or boolean features
+	 */
+	@Test
+	public void testLoadFromFile() throws Exception {
+		File file = File.createTempFile("simplenlg-lexicon", ".xml");
+		try {
+			FileWriter writer = new FileWriter(file);
+			writer.write("<lexicon>\n" //
+					+ "<comment>not a word</comment>\n" //
+					+ "<word>\n" //
+					+ "  <base>fish &amp; chips</base>\n" //
+					+ "  <category>noun</category>\n" //
+					+ "  <id>X001</id>\n" //
+					+ "  <plural><![CDATA[fishes & chips]]></plural>\n" //
+					+ "  <uncount/>\n" //
+					+ "  <proper/>\n" //
+					+ "</word>\n" //
+					+ "</lexicon>\n");
+			writer.close();
+
+			XMLLexicon fileLexicon = new XMLLexicon(file);
+			assertEquals(1, fileLexicon.getWords("fish & chips").size());
+			assertEquals(0, fileLexicon.getWords("not a word").size());
+
+			WordElement word = fileLexicon.getWordByID("X001");
+			assertEquals("fish & chips", word.getBaseForm());
+			assertEquals(LexicalCategory.NOUN, word.getCategory());
+			assertEquals("fishes & chips", word
+					.getFeatureAsString(LexicalFeature.PLURAL));
+			assertEquals(true, word.getFeatureAsBoolean(LexicalFeature.PROPER)
+					.booleanValue());
+			assertEquals(Inflection.UNCOUNT, word
+					.getDefaultInflectionalVariant());
+			assertEquals(word, fileLexicon.getWordFromVariant("fishes & chips"));
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * The default lexicon is loaded once and shared, and can be read from
+	 * several threads; createDefaultLexicon gives a private copy
+	 */
+	@Test
+	public void testSharedDefaultLexicon() throws Exception {
+		final Lexicon shared = Lexicon.getDefaultLexicon();
+		assertSame(shared, Lexicon.getDefaultLexicon());
+		assertNotSame(shared, Lexicon.createDefaultLexicon());
+
+		final WordElement expected = shared.getWord("dog", LexicalCategory.NOUN);
+		final boolean[] ok = new boolean[4];
+		Thread[] threads = new Thread[ok.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					boolean same = true;
+					for (int j = 0; j < 1000; j++)
+						same &= Lexicon.getDefaultLexicon().getWord("dog",
+								LexicalCategory.NOUN) == expected;
+					ok[index] = same;
+				}
+			};
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+			assertTrue(ok[i]);
+		}
+
+		// lists returned by the shared lexicon are read-only
+		try {
+			shared.getWords("dog").clear();
+			fail("shared lexicon list should be read-only");
+		} catch (UnsupportedOperationException ex) {
+			// expected
+		}
+
+		// the shared lexicon's words cannot be given inflection tables
+		try {
+			shared.setPrecomputeInflections(true);
+			fail("shared lexicon should not precompute inflections");
+		} catch (UnsupportedOperationException ex) {
+			// expected
+		}
+
+		// the factory copies the shared words, so changing a phrase does not
+		// change the lexicon
+		NLGFactory factory = new NLGFactory(shared);
+		NPPhraseSpec dogs = factory.createNounPhrase("dog");
+		assertNotSame(expected, dogs.getHead());
+		dogs.getHead().setFeature(LexicalFeature.PLURAL, "doggies");
+		assertNull(expected.getFeature(LexicalFeature.PLURAL));
+		WordElement dog = (WordElement) factory.createWord("dog",
+				LexicalCategory.NOUN);
+		assertFalse(expected.hasInflectionalVariant(Inflection.IRREGULAR));
+		dog.addInflectionalVariant(Inflection.IRREGULAR);
+		dog.addInflectionalVariant(Inflection.UNCOUNT, LexicalFeature.PLURAL,
+				"dog");
+		assertTrue(dog.hasInflectionalVariant(Inflection.IRREGULAR));
+		assertFalse(expected.hasInflectionalVariant(Inflection.IRREGULAR));
+		assertFalse(expected.hasInflectionalVariant(Inflection.UNCOUNT));
+		assertSame(expected, shared.getWord("dog", LexicalCategory.NOUN));
+	}
+
+	/**
+	 * Lookups by category return shared, read-only lists, and lookupWord
+	 * tries base form, variant and ID in that order
+	 */
+	@Test
+	public void testCategoryIndex() {
+		// "can" is a noun, a verb and a modal
+		assertEquals(3, lexicon.getWords("can").size());
+		assertEquals(LexicalCategory.MODAL, lexicon.getWords("can",
+				LexicalCategory.MODAL).get(0).getCategory());
+		assertSame(lexicon.getWords("can", LexicalCategory.NOUN), lexicon
+				.getWords("can", LexicalCategory.NOUN));
+		assertSame(lexicon.getWords("can", LexicalCategory.ADJECTIVE),
+				lexicon.getWordsFromVariant("akjmchsgk",
+						LexicalCategory.NOUN));
+
+		assertEquals("dog", lexicon.lookupWord("dogs", LexicalCategory.NOUN)
+				.getBaseForm());
+		assertEquals("quickly", lexicon.lookupWord("E0051632").getBaseForm());
+		WordElement unknown = lexicon.lookupWord("akjmchsgk",
+				LexicalCategory.NOUN);
+		assertEquals("akjmchsgk", unknown.getBaseForm());
+		assertEquals(LexicalCategory.NOUN, unknown.getCategory());
+	}
+
+	/**
+	 * Batch lookups give the same words as single lookups, and every word in
+	 * a phrase can be collected for preloading
+	 */
+	@Test
+	public void testBatchLookup() {
+		List<WordQuery> queries = new ArrayList<WordQuery>();
+		queries.add(new WordQuery("dog", LexicalCategory.NOUN));
+		queries.add(new WordQuery("dogs", LexicalCategory.NOUN));
+		queries.add(new WordQuery("E0051632"));
+		queries.add(new WordQuery("akjmchsgk", LexicalCategory.VERB));
+		queries.add(new WordQuery("dog", LexicalCategory.NOUN));
+
+		Map<WordQuery, WordElement> words = lexicon.lookupWords(queries);
+		assertEquals(4, words.size());
+		for (WordQuery query : queries)
+			assertEquals(lexicon.lookupWord(query.getForm(), query
+					.getCategory()), words.get(query));
+
+		Map<WordQuery, List<WordElement>> baseWords = lexicon
+				.getWords(queries);
+		assertEquals(lexicon.getWords("dog", LexicalCategory.NOUN), baseWords
+				.get(queries.get(0)));
+		assertTrue(baseWords.get(queries.get(1)).isEmpty());
+		assertEquals("dog", lexicon.getWordsFromVariant(queries).get(
+				queries.get(1)).get(0).getBaseForm());
+
+		NLGFactory factory = new NLGFactory(lexicon);
+		NPPhraseSpec cat = factory.createNounPhrase("a", "cat");
+		cat.addModifier("big");
+		SPhraseSpec clause = factory.createClause(factory.createNounPhrase(
+				"the", "dog"), "chase", cat);
+		Set<WordQuery> collected = Lexicon.collectWordQueries(clause);
+		assertTrue(collected.contains(new WordQuery("dog",
+				LexicalCategory.NOUN)));
+		assertTrue(collected.contains(new WordQuery("chase",
+				LexicalCategory.VERB)));
+		assertTrue(collected.contains(new WordQuery("big",
+				LexicalCategory.ADJECTIVE)));
+		assertTrue(collected.contains(new WordQuery("the",
+				LexicalCategory.DETERMINER)));
+	}
+
+	/**
+	 * Misses are remembered by form and category, and each lookup is counted
+	 * by the stage which resolved it
+	 */
+	@Test
+	public void testNegativeCacheAndStatistics() {
+		lexicon.resetLookupStatistics();
+		lexicon.lookupWord("dog", LexicalCategory.NOUN);
+		lexicon.lookupWord("dogs", LexicalCategory.NOUN);
+		lexicon.lookupWord("E0051632");
+		for (int i = 0; i < 3; i++)
+			lexicon.lookupWord("paracetamolx", LexicalCategory.NOUN);
+		lexicon.lookupWord("paracetamolx", LexicalCategory.VERB);
+
+		assertEquals(1, lexicon.getLookupCount(LookupStage.BASE));
+		assertEquals(1, lexicon.getLookupCount(LookupStage.VARIANT));
+		assertEquals(1, lexicon.getLookupCount(LookupStage.ID));
+		assertEquals(4, lexicon.getLookupCount(LookupStage.CREATED));
+		// NOUN miss was cached after first lookup, VERB is a new miss
+		assertEquals(2, lexicon.getNegativeCacheHits());
+		assertEquals(Integer.valueOf(4), lexicon.getMissedForms().get(
+				"paracetamolx"));
+
+		WordElement created = lexicon.lookupWord("paracetamolx",
+				LexicalCategory.NOUN);
+		assertEquals("paracetamolx", created.getBaseForm());
+		assertEquals(LexicalCategory.NOUN, created.getCategory());
+
+		// cache is bounded
+		lexicon.setNegativeCacheSize(2);
+		lexicon.lookupWord("unknownone");
+		lexicon.lookupWord("unknowntwo");
+		lexicon.lookupWord("unknownthree");
+		assertEquals(2, lexicon.getMissedForms().size());
+		assertFalse(lexicon.getMissedForms().containsKey("paracetamolx"));
+	}
+
+	/**
+	 * A lookup without a category creates a word, and is not cached
+	 */
+	@Test
+	public void testNegativeCacheWithoutCategory() {
+		lexicon.resetLookupStatistics();
+		for (int i = 0; i < 2; i++) {
+			WordElement created = lexicon.lookupWord("paracetamoly", null);
+			assertEquals("paracetamoly", created.getBaseForm());
+		}
+		assertEquals(2, lexicon.getLookupCount(LookupStage.CREATED));
+		assertEquals(0, lexicon.getNegativeCacheHits());
+		assertFalse(lexicon.getMissedForms().containsKey("paracetamoly"));
+	}
+
 }
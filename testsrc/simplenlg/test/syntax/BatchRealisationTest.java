@@ -0,0 +1,232 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.format.english.TextFormatter;
+import simplenlg.framework.NLGElement;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.BatchRealisationException;
+
+/**
+ * Tests for realising a list of elements with <code>realise(List)</code>.
+ */
+public class BatchRealisationTest extends SimpleNLG4Test {
+
+	private static final String[] SUBJECTS = { "the man", "the woman", //$NON-NLS-1$ //$NON-NLS-2$
+			"the dog", "a boy", "Mary" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	private static final String[] VERBS = { "chase", "see", "kiss", "give" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	/**
+	 * Instantiates a new batch realisation test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public BatchRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @param count
+	 *            the number of sentences
+	 * @return different sentences, with some null elements
+	 */
+	private List<NLGElement> createSentences(int count) {
+		List<NLGElement> sentences = new ArrayList<NLGElement>();
+		for (int i = 0; i < count; i++) {
+			if (i % 50 == 7) {
+				sentences.add(null);
+			} else {
+				SPhraseSpec clause = this.phraseFactory.createClause(
+						SUBJECTS[i % SUBJECTS.length], VERBS[i % VERBS.length],
+						SUBJECTS[(i / SUBJECTS.length) % SUBJECTS.length]);
+				if (i % 3 == 0) {
+					clause.setFeature(Feature.TENSE, Tense.PAST);
+				}
+				clause.setFeature(Feature.PASSIVE, i % 4 == 1);
+				sentences.add(this.phraseFactory.createSentence(clause));
+			}
+		}
+		return sentences;
+	}
+
+	/**
+	 * Checks a batch realisation against realising the elements one at a
+	 * time.
+	 */
+	private void assertSameRealisations(List<NLGElement> elements,
+			List<NLGElement> realised) {
+		Assert.assertEquals(elements.size(), realised.size());
+		for (int i = 0; i < elements.size(); i++) {
+			if (elements.get(i) == null) {
+				Assert.assertNull(realised.get(i));
+			} else {
+				Assert.assertEquals(this.realiser.realise(elements.get(i))
+						.getRealisation(), realised.get(i).getRealisation());
+			}
+		}
+	}
+
+	/**
+	 * Realisations are returned in order, whatever the number of threads.
+	 */
+	@Test
+	public void testRealiseList() {
+		List<NLGElement> sentences = createSentences(500);
+
+		this.realiser.setParallelism(1);
+		assertSameRealisations(sentences, this.realiser.realise(sentences));
+		this.realiser.setParallelism(4);
+		assertSameRealisations(sentences, this.realiser.realise(sentences));
+
+		Assert.assertTrue(this.realiser.realise(new ArrayList<NLGElement>())
+				.isEmpty());
+	}
+
+	/**
+	 * A supplied executor does the work.
+	 */
+	@Test
+	public void testExecutor() {
+		List<NLGElement> sentences = createSentences(200);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			this.realiser.setExecutor(executor);
+			this.realiser.setParallelism(4);
+			assertSameRealisations(sentences, this.realiser.realise(sentences));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * A supplied executor which is busy, or which is running the calling
+	 * thread, does not hold up the list: the calling thread does the work.
+	 */
+	@Test
+	public void testBusyExecutor() throws Exception {
+		final List<NLGElement> sentences = createSentences(50);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		final CountDownLatch release = new CountDownLatch(1);
+
+		try {
+			this.realiser.setExecutor(executor);
+			this.realiser.setParallelism(4);
+
+			// the executor's only thread waits until the list is realised
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						release.await();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			assertSameRealisations(sentences, this.realiser.realise(sentences));
+			release.countDown();
+
+			// the list is realised on the executor's only thread
+			Future<List<NLGElement>> realised = executor
+					.submit(new Callable<List<NLGElement>>() {
+						public List<NLGElement> call() {
+							return realiser.realise(sentences);
+						}
+					});
+			assertSameRealisations(sentences, realised.get(60,
+					TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * An element which fails does not stop the others: once they are all
+	 * realised, an exception holding their realisations, in order, and the
+	 * failure of each element which failed is thrown to the caller.
+	 */
+	@Test
+	public void testFailure() {
+		List<NLGElement> sentences = createSentences(100);
+		List<NLGElement> expected = this.realiser.realise(sentences);
+		this.realiser.setFormatter(new TextFormatter() {
+			@Override
+			public NLGElement realise(NLGElement element) {
+				if (element.getRealisation() != null
+						&& element.getRealisation().startsWith("Mary")) { //$NON-NLS-1$
+					throw new IllegalStateException("Mary"); //$NON-NLS-1$
+				}
+				return super.realise(element);
+			}
+		});
+
+		for (int parallelism : new int[] { 1, 4 }) {
+			this.realiser.setParallelism(parallelism);
+			try {
+				this.realiser.realise(sentences);
+				Assert.fail("the exception should be thrown"); //$NON-NLS-1$
+			} catch (BatchRealisationException ex) {
+				List<NLGElement> realised = ex.getRealisations();
+				Assert.assertEquals(sentences.size(), realised.size());
+				int failed = 0;
+				for (int i = 0; i < sentences.size(); i++) {
+					if (expected.get(i) != null
+							&& expected.get(i).getRealisation().startsWith(
+									"Mary")) { //$NON-NLS-1$
+						Assert.assertNull(realised.get(i));
+						Assert.assertEquals("Mary", ex.getFailures().get(i) //$NON-NLS-1$
+								.getMessage());
+						failed++;
+					} else if (expected.get(i) == null) {
+						Assert.assertNull(realised.get(i));
+					} else {
+						Assert.assertEquals(expected.get(i).getRealisation(),
+								realised.get(i).getRealisation());
+					}
+				}
+				Assert.assertTrue(failed > 0);
+				Assert.assertEquals(failed, ex.getFailures().size());
+				Assert.assertSame(ex.getFailures().get(
+						ex.getFailures().firstKey()), ex.getCause());
+			}
+		}
+
+		// the realiser can still be used
+		this.realiser.setFormatter(new TextFormatter());
+		assertSameRealisations(sentences, this.realiser.realise(sentences));
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.framework.BoundedCache;
+
+/**
+ * Tests for the bounded cache shared by the realiser and its processors.
+ */
+public class BoundedCacheTest extends TestCase {
+
+	/**
+	 * A cache of strings by number.
+	 */
+	private static class NumberCache extends BoundedCache<Integer, String> {
+
+		NumberCache(int maximumSize) {
+			super(maximumSize);
+		}
+
+		String get(int key) {
+			return getValue(key);
+		}
+
+		void put(int key) {
+			putValue(key, Integer.toString(key));
+		}
+	}
+
+	/**
+	 * A small cache drops the value used longest ago.
+	 */
+	@Test
+	public void testSmallCache() {
+		NumberCache cache = new NumberCache(2);
+		cache.put(1);
+		cache.put(2);
+		Assert.assertEquals("1", cache.get(1)); //$NON-NLS-1$
+		cache.put(3);
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNull(cache.get(2));
+		Assert.assertEquals("1", cache.get(1)); //$NON-NLS-1$
+		Assert.assertEquals("3", cache.get(3)); //$NON-NLS-1$
+
+		Assert.assertEquals(3, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+		Assert.assertEquals(0.75, cache.getHitRate(), 1e-9);
+		Assert.assertEquals("NumberCache[size=2, maximumSize=2, hits=3, misses=1]", //$NON-NLS-1$
+				cache.toString());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0.0, cache.getHitRate(), 1e-9);
+
+		try {
+			new NumberCache(0);
+			Assert.fail("size 0 should be refused"); //$NON-NLS-1$
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+	}
+
+	/**
+	 * A large cache, which is split into segments, holds no more than its
+	 * size, and keeps the values which are used.
+	 */
+	@Test
+	public void testLargeCache() {
+		NumberCache cache = new NumberCache(5000);
+		for (int key = 0; key < 5000; key++) {
+			cache.put(key);
+			Assert.assertEquals(Integer.toString(key % 100), cache.get(key % 100));
+		}
+		Assert.assertEquals(0, cache.getMisses());
+
+		for (int key = 5000; key < 20000; key++) {
+			cache.put(key);
+			Assert.assertEquals(Integer.toString(key % 100), cache.get(key % 100));
+		}
+		Assert.assertTrue(cache.size() <= 5000);
+		Assert.assertTrue(cache.size() > 4000);
+		Assert.assertEquals(0, cache.getMisses());
+	}
+
+	/**
+	 * Threads using a cache at once see the values put, and every lookup is
+	 * counted.
+	 */
+	@Test
+	public void testThreads() throws Exception {
+		final NumberCache cache = new NumberCache(1000);
+		final String[] errors = new String[4];
+		Thread[] threads = new Thread[errors.length];
+
+		for (int thread = 0; thread < threads.length; thread++) {
+			final int index = thread;
+			threads[thread] = new Thread() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 20000; i++) {
+						int key = (i * 7 + index) % 3000;
+						String value = cache.get(key);
+						if (value == null) {
+							cache.put(key);
+						} else if (!value.equals(Integer.toString(key))) {
+							errors[index] = value;
+						}
+					}
+				}
+			};
+			threads[thread].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (String error : errors) {
+			Assert.assertNull(error);
+		}
+		Assert.assertEquals(4 * 20000, cache.getHits() + cache.getMisses());
+		Assert.assertTrue(cache.size() <= 1000);
+	}
+}
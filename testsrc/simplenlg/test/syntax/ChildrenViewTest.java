@@ -0,0 +1,188 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.PhraseCategory;
+import simplenlg.framework.PhraseElement;
+import simplenlg.framework.StringElement;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests that the read-only child views hold the same elements as
+ * <code>getChildren</code>.
+ */
+public class ChildrenViewTest extends SimpleNLG4Test {
+
+	/**
+	 * Instantiates a new children view test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public ChildrenViewTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Checks the view of the element against its children.
+	 * 
+	 * @param element
+	 *            the element
+	 */
+	private void assertSameChildren(NLGElement element) {
+		List<NLGElement> children = element.getChildren();
+		List<NLGElement> view = element.getChildrenView();
+
+		Assert.assertEquals(children, view);
+		for (int index = 0; index < view.size(); index++) {
+			Assert.assertSame(children.get(index), view.get(index));
+		}
+	}
+
+	/**
+	 * Views of phrases, coordinations, lists and documents.
+	 */
+	@Test
+	public void testChildrenView() {
+		this.man.addPreModifier(this.beautiful);
+		this.man.addPostModifier(this.inTheRoom);
+		SPhraseSpec clause = this.phraseFactory.createClause(this.man, "kiss", //$NON-NLS-1$
+				this.woman);
+		clause.addFrontModifier("yesterday"); //$NON-NLS-1$
+		CoordinatedPhraseElement coordinate = this.phraseFactory
+				.createCoordinatedPhrase(this.dog, this.boy);
+		ListElement list = new ListElement(this.woman);
+		DocumentElement sentence = this.phraseFactory.createSentence(clause);
+
+		assertSameChildren(this.man);
+		assertSameChildren(clause);
+		assertSameChildren(clause.getVerbPhrase());
+		assertSameChildren(this.inTheRoom);
+		assertSameChildren(coordinate);
+		assertSameChildren(list);
+		assertSameChildren(sentence);
+		Assert.assertEquals(3, clause.getChildrenView().size());
+	}
+
+	/**
+	 * Views follow changes to the element, and cannot be changed themselves.
+	 */
+	@Test
+	public void testViewIsReadOnly() {
+		List<NLGElement> view = this.man.getChildrenView();
+		Assert.assertEquals(2, view.size());
+		this.man.addPreModifier(this.beautiful);
+		Assert.assertEquals(3, view.size());
+		Assert.assertSame(this.beautiful, view.get(1));
+
+		try {
+			view.add(this.woman);
+			Assert.fail("view should be read-only"); //$NON-NLS-1$
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+
+		List<NLGElement> modifiers = this.man
+				.getFeatureAsElementListView(InternalFeature.PREMODIFIERS);
+		Assert.assertEquals(this.man
+				.getFeatureAsElementList(InternalFeature.PREMODIFIERS),
+				modifiers);
+		Assert.assertTrue(this.man.getFeatureAsElementListView(
+				Feature.CUE_PHRASE).isEmpty());
+	}
+
+	/**
+	 * A cue phrase given as a string is wrapped once for each view.
+	 */
+	@Test
+	public void testStringChild() {
+		SPhraseSpec clause = this.phraseFactory.createClause(this.man, "kiss", //$NON-NLS-1$
+				this.woman);
+		clause.setFeature(Feature.CUE_PHRASE, "however"); //$NON-NLS-1$
+		List<NLGElement> view = clause.getChildrenView();
+
+		Assert.assertEquals(3, view.size());
+		Assert.assertEquals("however", view.get(0).getRealisation()); //$NON-NLS-1$
+		Assert.assertSame(view.get(0), view.get(0));
+		Assert.assertSame(view.get(0), view.iterator().next());
+		Assert.assertSame(this.man, view.get(1));
+	}
+
+	/**
+	 * Indexed access reads the children again after the phrase changes, and
+	 * iterating gives the same wrapped strings.
+	 */
+	@Test
+	public void testIndexedAfterChange() {
+		for (int i = 0; i < 50; i++) {
+			this.man.addPreModifier("very"); //$NON-NLS-1$
+		}
+		List<NLGElement> view = this.man.getChildrenView();
+		Assert.assertEquals(52, view.size());
+		Assert.assertSame(this.man.getHead(), view.get(51));
+
+		this.man.setFeature(InternalFeature.HEAD, "woman"); //$NON-NLS-1$
+		Assert.assertEquals(52, view.size());
+		Assert.assertEquals("woman", view.get(51).getRealisation()); //$NON-NLS-1$
+		NLGElement last = null;
+		for (NLGElement child : view) {
+			last = child;
+		}
+		Assert.assertSame(view.get(51), last);
+		Assert.assertEquals(this.man.getChildren(), view);
+	}
+
+	/**
+	 * Canned text, and strings, have empty views.
+	 */
+	@Test
+	public void testCannedTextView() {
+		PhraseElement canned = new PhraseElement(PhraseCategory.CANNED_TEXT);
+		canned.setHead("the dog"); //$NON-NLS-1$
+		assertSameChildren(canned);
+		Assert.assertTrue(canned.getChildrenView().isEmpty());
+		Assert.assertTrue(new StringElement("the dog").getChildrenView() //$NON-NLS-1$
+				.isEmpty());
+	}
+
+	/**
+	 * Words have empty views.
+	 */
+	@Test
+	public void testWordView() {
+		Assert.assertTrue(this.lexicon.getWord("dog", LexicalCategory.NOUN) //$NON-NLS-1$
+				.getChildrenView().isEmpty());
+		Assert.assertTrue(new InflectedWordElement("dog", //$NON-NLS-1$
+				LexicalCategory.NOUN).getChildrenView().isEmpty());
+	}
+}
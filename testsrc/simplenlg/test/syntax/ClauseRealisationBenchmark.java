@@ -0,0 +1,120 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Ignore;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.Realiser;
+
+/**
+ * Measures how many clauses a realiser makes a second, for clauses with verb
+ * groups of every tense, with and without modal, perfect, progressive,
+ * passive, negation and question. It is not a test, and is run by hand:
+ * 
+ * <p>
+ * <code>java simplenlg.test.syntax.ClauseRealisationBenchmark [seconds]</code>
+ * </p>
+ * 
+ * Each round realises all the clauses once; the rate is printed after each
+ * round, so the first rounds show the warm-up.
+ */
+@Ignore
+public class ClauseRealisationBenchmark {
+
+	/**
+	 * @param args
+	 *            how long to run for, in seconds (default 10).
+	 */
+	public static void main(String[] args) {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+
+		Lexicon lexicon = new XMLLexicon();
+		NLGFactory factory = new NLGFactory(lexicon);
+		Realiser realiser = new Realiser(lexicon);
+		List<SPhraseSpec> clauses = createClauses(factory);
+
+		long end = System.currentTimeMillis() + seconds * 1000;
+		long total = 0;
+		long totalTime = 0;
+		for (int round = 1; System.currentTimeMillis() < end; round++) {
+			long start = System.nanoTime();
+			int length = 0;
+			for (SPhraseSpec clause : clauses) {
+				length += realiser.realise(clause).getRealisation().length();
+			}
+			long time = System.nanoTime() - start;
+			total += clauses.size();
+			totalTime += time;
+			System.out.format("round %d: %.0f clauses/s (%d chars)%n", round, //$NON-NLS-1$
+					clauses.size() * 1e9 / time, length);
+		}
+		System.out.format("%d clauses in %.1f s: %.0f clauses/s%n", total, //$NON-NLS-1$
+				totalTime / 1e9, total * 1e9 / totalTime);
+	}
+
+	/**
+	 * @return clauses with every combination of tense, modal, perfect,
+	 *         progressive, passive, negation and question.
+	 */
+	private static List<SPhraseSpec> createClauses(NLGFactory factory) {
+		List<SPhraseSpec> clauses = new ArrayList<SPhraseSpec>();
+		String[] verbs = { "chase", "give", "be" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Object[] questions = { null, InterrogativeType.YES_NO,
+				InterrogativeType.WHO_SUBJECT, InterrogativeType.WHAT_OBJECT };
+
+		for (String verb : verbs) {
+			for (Tense tense : Tense.values()) {
+				for (String modal : new String[] { null, "can" }) { //$NON-NLS-1$
+					for (int aspect = 0; aspect < 16; aspect++) {
+						for (Object question : questions) {
+							NPPhraseSpec dogs = factory.createNounPhrase(
+									"the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+							dogs.setPlural(true);
+							SPhraseSpec clause = factory.createClause(dogs,
+									verb, factory.createNounPhrase("a", //$NON-NLS-1$
+											"cat")); //$NON-NLS-1$
+							clause.setFeature(Feature.TENSE, tense);
+							clause.setFeature(Feature.MODAL, modal);
+							clause.setFeature(Feature.PERFECT, (aspect & 1) != 0);
+							clause.setFeature(Feature.PROGRESSIVE,
+									(aspect & 2) != 0);
+							clause.setFeature(Feature.PASSIVE, (aspect & 4) != 0);
+							clause.setFeature(Feature.NEGATED, (aspect & 8) != 0);
+							clause.setFeature(Feature.INTERROGATIVE_TYPE,
+									question);
+							clauses.add(clause);
+						}
+					}
+				}
+			}
+		}
+		return clauses;
+	}
+}
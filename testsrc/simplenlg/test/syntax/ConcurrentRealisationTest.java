@@ -0,0 +1,247 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests that one realiser can be used by several threads at once, and gives
+ * the same results as when it is used by one thread.
+ */
+public class ConcurrentRealisationTest extends SimpleNLG4Test {
+
+	private static final String[] SUBJECTS = { "I", "you", "he", "she", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"they", "the man", "a dog", "Mary" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private static final String[] VERBS = { "chase", "see", "be", "give", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"eat" }; //$NON-NLS-1$
+
+	private static final String[] OBJECTS = { "him", "the ball", "them", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"an apple", "herself" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final int SENTENCES = 200;
+
+	private static final int THREADS = 8;
+
+	/**
+	 * Instantiates a new concurrent realisation test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public ConcurrentRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @param i
+	 *            the number of the sentence
+	 * @return a sentence (or, for some numbers, a paragraph), which uses
+	 *         pronouns, tenses, the passive, questions or coordination
+	 *         depending on the number
+	 */
+	private DocumentElement createElement(int i) {
+		SPhraseSpec clause = this.phraseFactory.createClause(
+				SUBJECTS[i % SUBJECTS.length], VERBS[i % VERBS.length],
+				OBJECTS[i % OBJECTS.length]);
+		if (i % 3 == 0) {
+			clause.setFeature(Feature.TENSE, Tense.PAST);
+		} else if (i % 3 == 1) {
+			clause.setFeature(Feature.TENSE, Tense.FUTURE);
+		}
+		clause.setFeature(Feature.PASSIVE, i % 4 == 1);
+		clause.setFeature(Feature.NEGATED, i % 5 == 2);
+		clause.setFeature(Feature.PROGRESSIVE, i % 7 == 3);
+		if (i % 6 == 4) {
+			clause.setFeature(Feature.INTERROGATIVE_TYPE,
+					InterrogativeType.YES_NO);
+		} else if (i % 6 == 5) {
+			clause.setFeature(Feature.INTERROGATIVE_TYPE,
+					InterrogativeType.WHO_SUBJECT);
+		}
+		if (i % 8 == 6) {
+			clause.addComplement(this.phraseFactory.createPrepositionPhrase(
+					"in", "the park")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (i % 9 == 7) {
+			CoordinatedPhraseElement coord = this.phraseFactory
+					.createCoordinatedPhrase(clause, this.phraseFactory
+							.createClause("we", "leave")); //$NON-NLS-1$ //$NON-NLS-2$
+			return this.phraseFactory.createSentence(coord);
+		}
+		if (i % 10 == 8) {
+			List<DocumentElement> sentences = new ArrayList<DocumentElement>();
+			sentences.add(this.phraseFactory.createSentence(clause));
+			sentences.add(this.phraseFactory.createSentence("it", "rain")); //$NON-NLS-1$ //$NON-NLS-2$
+			return this.phraseFactory.createParagraph(sentences);
+		}
+		return this.phraseFactory.createSentence(clause);
+	}
+
+	/**
+	 * @param elements
+	 *            the elements
+	 * @return the realisation of each element, in order
+	 */
+	private List<String> realiseAll(List<? extends NLGElement> elements) {
+		List<String> realisations = new ArrayList<String>();
+		for (NLGElement element : elements) {
+			realisations.add(this.realiser.realise(element).getRealisation());
+		}
+		return realisations;
+	}
+
+	/**
+	 * Several threads sharing a realiser, each building and realising its own
+	 * elements, get the same results as one thread.
+	 */
+	@Test
+	public void testSharedRealiser() throws Exception {
+		List<DocumentElement> elements = new ArrayList<DocumentElement>();
+		for (int i = 0; i < SENTENCES; i++) {
+			elements.add(createElement(i));
+		}
+		final List<String> expected = realiseAll(elements);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		try {
+			List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+			for (int t = 0; t < THREADS; t++) {
+				final int offset = t * 17;
+				results.add(executor.submit(new Callable<List<String>>() {
+					public List<String> call() {
+						// each thread starts at a different sentence
+						List<String> realisations = new ArrayList<String>();
+						for (int j = 0; j < 5 * SENTENCES; j++) {
+							int i = (offset + j) % SENTENCES;
+							realisations.add(i + ": " //$NON-NLS-1$
+									+ realiser.realise(createElement(i))
+											.getRealisation());
+						}
+						return realisations;
+					}
+				}));
+			}
+			for (int t = 0; t < THREADS; t++) {
+				List<String> realisations = results.get(t).get();
+				for (int j = 0; j < realisations.size(); j++) {
+					int i = (t * 17 + j) % SENTENCES;
+					Assert.assertEquals(i + ": " + expected.get(i), //$NON-NLS-1$
+							realisations.get(j));
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Several threads realising the same elements with a shared realiser get
+	 * the same results as one thread, and do not change the elements.
+	 */
+	@Test
+	public void testSharedElements() throws Exception {
+		final List<DocumentElement> elements = new ArrayList<DocumentElement>();
+		for (int i = 0; i < SENTENCES; i++) {
+			elements.add(createElement(i));
+		}
+		final List<String> expected = realiseAll(elements);
+		List<String> before = new ArrayList<String>();
+		for (DocumentElement element : elements) {
+			before.add(element.printTree(null));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		try {
+			List<Future<List<String>>> results = new ArrayList<Future<List<String>>>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(executor.submit(new Callable<List<String>>() {
+					public List<String> call() {
+						List<String> realisations = null;
+						for (int j = 0; j < 5; j++) {
+							realisations = realiseAll(elements);
+						}
+						return realisations;
+					}
+				}));
+			}
+			for (Future<List<String>> result : results) {
+				Assert.assertEquals(expected, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		for (int i = 0; i < SENTENCES; i++) {
+			Assert.assertEquals(before.get(i), elements.get(i).printTree(null));
+		}
+	}
+
+	/**
+	 * Several threads realising lists with the shared realiser, each list in
+	 * parallel as well, get the same results as one thread.
+	 */
+	@Test
+	public void testSharedBatches() throws Exception {
+		final List<NLGElement> elements = new ArrayList<NLGElement>();
+		for (int i = 0; i < SENTENCES; i++) {
+			elements.add(createElement(i));
+		}
+		List<String> expected = realiseAll(elements);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+		try {
+			List<Future<List<NLGElement>>> results = new ArrayList<Future<List<NLGElement>>>();
+			for (int t = 0; t < THREADS; t++) {
+				results.add(executor.submit(new Callable<List<NLGElement>>() {
+					public List<NLGElement> call() {
+						return realiser.realise(elements);
+					}
+				}));
+			}
+			for (Future<List<NLGElement>> result : results) {
+				List<NLGElement> realised = result.get();
+				Assert.assertEquals(SENTENCES, realised.size());
+				for (int i = 0; i < SENTENCES; i++) {
+					Assert.assertEquals(expected.get(i), realised.get(i)
+							.getRealisation());
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import org.junit.Ignore;
+
+import simplenlg.features.Feature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Measures how long <code>deepCopy</code> and <code>copyOnWrite</code> take
+ * to copy a clause, on its own and followed by the changes made to a copy of
+ * a template (the tense of the clause, and the number of the subject and its
+ * head word). It is not a test, and is run by hand:
+ * 
+ * <p>
+ * <code>java simplenlg.test.syntax.ElementCopyBenchmark [seconds]</code>
+ * </p>
+ * 
+ * Each setting is warmed up for a quarter of the time and then timed for the
+ * rest, and the settings are run twice.
+ */
+@Ignore
+public class ElementCopyBenchmark {
+
+	/**
+	 * @param args
+	 *            how long to run each setting for, in seconds (default 10).
+	 */
+	public static void main(String[] args) {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+		SPhraseSpec clause = createClause(new NLGFactory(new XMLLexicon()));
+
+		for (int round = 0; round < 2; round++) {
+			for (boolean change : new boolean[] { false, true }) {
+				for (boolean shared : new boolean[] { false, true }) {
+					run(clause, shared, change, seconds * 250);
+					double time = run(clause, shared, change, seconds * 750);
+					System.out.format("%s%s: %.0f ns/copy%n", //$NON-NLS-1$
+							shared ? "copyOnWrite" : "deepCopy", //$NON-NLS-1$ //$NON-NLS-2$
+							change ? " and change" : "", time); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies the clause for a while.
+	 * 
+	 * @return the time per copy, in nanoseconds.
+	 */
+	private static double run(SPhraseSpec clause, boolean shared,
+			boolean change, long millis) {
+		long end = System.currentTimeMillis() + millis;
+		long start = System.nanoTime();
+		long count = 0;
+		while (System.currentTimeMillis() < end) {
+			for (int i = 0; i < 1000; i++) {
+				SPhraseSpec copy = (SPhraseSpec) (shared ? clause.copyOnWrite()
+						: clause.deepCopy());
+				if (change) {
+					copy.setFeature(Feature.TENSE, Tense.PAST);
+					NPPhraseSpec subject = (NPPhraseSpec) copy.getSubject();
+					subject.setPlural(true);
+					subject.getHead().setFeature(Feature.NUMBER,
+							NumberAgreement.PLURAL);
+				}
+			}
+			count += 1000;
+		}
+		return (double) (System.nanoTime() - start) / count;
+	}
+
+	/**
+	 * @return a clause, <i>the patient's resting heart rate rose sharply in
+	 *         the last two hours</i>.
+	 */
+	private static SPhraseSpec createClause(NLGFactory factory) {
+		NPPhraseSpec owner = factory.createNounPhrase("the", "patient"); //$NON-NLS-1$ //$NON-NLS-2$
+		owner.setFeature(Feature.POSSESSIVE, true);
+		NPPhraseSpec subject = factory.createNounPhrase(owner, "rate"); //$NON-NLS-1$
+		subject.addPreModifier("resting"); //$NON-NLS-1$
+		subject.addPreModifier("heart"); //$NON-NLS-1$
+
+		NPPhraseSpec time = factory.createNounPhrase("the", "hour"); //$NON-NLS-1$ //$NON-NLS-2$
+		time.addPreModifier("last"); //$NON-NLS-1$
+		time.addPreModifier("two"); //$NON-NLS-1$
+		time.setPlural(true);
+		PPPhraseSpec during = factory.createPrepositionPhrase("in", time); //$NON-NLS-1$
+
+		SPhraseSpec clause = factory.createClause(subject, "rise"); //$NON-NLS-1$
+		clause.addModifier("sharply"); //$NON-NLS-1$
+		clause.addPostModifier(during);
+		return clause;
+	}
+}
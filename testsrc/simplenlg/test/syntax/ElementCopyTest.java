@@ -0,0 +1,238 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+
+package simplenlg.test.syntax;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.ListElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests for copying element trees with <code>deepCopy</code> and
+ * <code>copyOnWrite</code>.
+ */
+public class ElementCopyTest extends SimpleNLG4Test {
+
+	/**
+	 * Instantiates a new element copy test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public ElementCopyTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @return the clause <em>the man kisses the woman in the room</em>
+	 */
+	private SPhraseSpec createClause() {
+		SPhraseSpec clause = this.phraseFactory.createClause(this.man, "kiss", //$NON-NLS-1$
+				this.woman);
+		clause.addPostModifier(this.inTheRoom);
+		return clause;
+	}
+
+	/**
+	 * Changing a deep copy does not change the original.
+	 */
+	@Test
+	public void testDeepCopy() {
+		SPhraseSpec clause = createClause();
+		SPhraseSpec copy = (SPhraseSpec) clause.deepCopy();
+
+		Assert.assertNotSame(clause, copy);
+		Assert.assertEquals(clause, copy);
+		Assert.assertNotSame(clause.getSubject(), copy.getSubject());
+		Assert.assertSame(copy, copy.getVerbPhrase().getParent());
+		Assert.assertNull(copy.getParent());
+
+		copy.setFeature(Feature.TENSE, Tense.PAST);
+		copy.getSubject().setPlural(true);
+		Assert.assertEquals("the men kissed the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(copy).getRealisation());
+		Assert.assertEquals("the man kisses the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(clause).getRealisation());
+	}
+
+	/**
+	 * Coordinations, documents and lists are copied with their components,
+	 * but inflected words keep their base word from the lexicon.
+	 */
+	@Test
+	public void testDeepCopyComponents() {
+		CoordinatedPhraseElement coord = new CoordinatedPhraseElement(
+				this.dog, this.boy);
+		DocumentElement sentence = this.phraseFactory.createSentence(coord);
+		DocumentElement copy = (DocumentElement) sentence.deepCopy();
+
+		NLGElement coordCopy = copy.getComponents().get(0);
+		Assert.assertNotSame(coord, coordCopy);
+		Assert.assertSame(copy, coordCopy.getParent());
+		((CoordinatedPhraseElement) coordCopy).addCoordinate(this.woman);
+		Assert.assertEquals("The dog, the boy and the woman.", this.realiser //$NON-NLS-1$
+				.realise(copy).getRealisation());
+		Assert.assertEquals("The dog and the boy.", this.realiser.realise( //$NON-NLS-1$
+				sentence).getRealisation());
+
+		InflectedWordElement dogs = (InflectedWordElement) this.phraseFactory
+				.createInflectedWord("dog", LexicalCategory.NOUN); //$NON-NLS-1$
+		dogs.setPlural(true);
+		ListElement list = new ListElement(dogs);
+		ListElement listCopy = (ListElement) list.deepCopy();
+		InflectedWordElement dogsCopy = (InflectedWordElement) listCopy
+				.getFirst();
+		Assert.assertNotSame(dogs, dogsCopy);
+		Assert.assertSame(dogs.getBaseWord(), dogsCopy.getBaseWord());
+		Assert.assertEquals("dogs", this.realiser.realise(listCopy) //$NON-NLS-1$
+				.getRealisation());
+	}
+
+	/**
+	 * Copy-on-write copies can be changed independently of each other and of
+	 * the original.
+	 */
+	@Test
+	public void testCopyOnWrite() {
+		SPhraseSpec clause = createClause();
+		SPhraseSpec past = (SPhraseSpec) clause.copyOnWrite();
+		SPhraseSpec plural = (SPhraseSpec) clause.copyOnWrite();
+
+		Assert.assertEquals(clause, past);
+		Assert.assertEquals("the man kisses the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(past).getRealisation());
+
+		past.setFeature(Feature.TENSE, Tense.PAST);
+		plural.getSubject().setPlural(true);
+		((NPPhraseSpec) plural.getObject()).setSpecifier("a"); //$NON-NLS-1$
+
+		Assert.assertEquals("the man kissed the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(past).getRealisation());
+		Assert.assertEquals("the men kiss a woman in the room", //$NON-NLS-1$
+				this.realiser.realise(plural).getRealisation());
+		Assert.assertEquals("the man kisses the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(clause).getRealisation());
+		Assert.assertEquals("the woman", this.realiser.realise(this.woman) //$NON-NLS-1$
+				.getRealisation());
+
+		// copies of copies
+		SPhraseSpec both = (SPhraseSpec) past.copyOnWrite();
+		both.getSubject().setPlural(true);
+		Assert.assertEquals("the men kissed the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(both).getRealisation());
+		Assert.assertEquals("the man kissed the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(past).getRealisation());
+	}
+
+	/**
+	 * Reading a copy-on-write copy does not change it, and changes made to
+	 * the original after copying, down to its words, are not seen by the copy.
+	 */
+	@Test
+	public void testCopyOnWriteAfterOriginalChanges() {
+		SPhraseSpec clause = createClause();
+		SPhraseSpec copy = (SPhraseSpec) clause.copyOnWrite();
+
+		clause.getSubject().setPlural(true);
+		((NPPhraseSpec) clause.getSubject()).getHead().setFeature(
+				"my_feature", true); //$NON-NLS-1$
+
+		NLGElement subject = copy.getSubject();
+		NLGElement head = ((NPPhraseSpec) subject).getHead();
+		Assert.assertSame(subject, copy.getSubject());
+		Assert.assertSame(head, ((NPPhraseSpec) copy.getSubject()).getHead());
+		Assert.assertNull(head.getFeature("my_feature")); //$NON-NLS-1$
+		Assert.assertEquals("the man kisses the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(copy).getRealisation());
+		Assert.assertEquals("the men kiss the woman in the room", //$NON-NLS-1$
+				this.realiser.realise(clause).getRealisation());
+	}
+
+	/**
+	 * Changing a copied word through its feature map, while walking it, does
+	 * not change the original it shares the map with.
+	 */
+	@Test
+	public void testCopyOnWriteFeatureMap() {
+		WordElement word = new WordElement("lie", LexicalCategory.VERB); //$NON-NLS-1$
+		word.setFeature("my_feature", true); //$NON-NLS-1$
+		WordElement copy = (WordElement) word.copyOnWrite();
+		int size = word.getAllFeatures().size();
+
+		for (Iterator<Map.Entry<String, Object>> entries = copy
+				.getAllFeatures().entrySet().iterator(); entries.hasNext();) {
+			Map.Entry<String, Object> entry = entries.next();
+			if ("my_feature".equals(entry.getKey())) { //$NON-NLS-1$
+				entries.remove();
+			} else {
+				entry.setValue("changed"); //$NON-NLS-1$
+			}
+		}
+		Assert.assertNull(copy.getFeature("my_feature")); //$NON-NLS-1$
+		Assert.assertEquals(size - 1, copy.getAllFeatures().size());
+		Assert.assertEquals(Boolean.TRUE, word.getFeature("my_feature")); //$NON-NLS-1$
+		Assert.assertEquals(size, word.getAllFeatures().size());
+		Assert.assertFalse(word.getAllFeatures().containsValue("changed")); //$NON-NLS-1$
+
+		copy.getAllFeatureNames().clear();
+		Assert.assertTrue(copy.getAllFeatures().isEmpty());
+		Assert.assertEquals(size, word.getAllFeatureNames().size());
+	}
+
+	/**
+	 * A copied word shares its inflectional variants with the original until
+	 * either of them adds one.
+	 */
+	@Test
+	public void testCopyOnWriteInflectionalVariants() {
+		WordElement word = new WordElement("lie", LexicalCategory.VERB); //$NON-NLS-1$
+		word.addInflectionalVariant(Inflection.REGULAR);
+		WordElement copy = (WordElement) word.copyOnWrite();
+		Assert.assertEquals(word, copy);
+
+		copy.addInflectionalVariant(Inflection.IRREGULAR, LexicalFeature.PAST,
+				"lay"); //$NON-NLS-1$
+		Assert.assertTrue(copy.hasInflectionalVariant(Inflection.IRREGULAR));
+		Assert.assertFalse(word.hasInflectionalVariant(Inflection.IRREGULAR));
+
+		WordElement copy2 = (WordElement) word.copyOnWrite();
+		word.addInflectionalVariant(Inflection.REGULAR, LexicalFeature.PAST,
+				"lied"); //$NON-NLS-1$
+		Assert.assertFalse(word.equals(copy2));
+		word.addInflectionalVariant(Inflection.UNCOUNT);
+		Assert.assertFalse(copy2.hasInflectionalVariant(Inflection.UNCOUNT));
+	}
+}
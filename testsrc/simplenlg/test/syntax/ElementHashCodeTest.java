@@ -0,0 +1,237 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.StringElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests that the hash codes of elements agree with <code>equals</code> and
+ * follow changes to the elements.
+ */
+public class ElementHashCodeTest extends SimpleNLG4Test {
+
+	/**
+	 * Instantiates a new element hash code test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public ElementHashCodeTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @return the clause <em>the dog chases the cat in the garden</em>
+	 */
+	private SPhraseSpec createClause() {
+		NPPhraseSpec garden = this.phraseFactory.createNounPhrase("the", //$NON-NLS-1$
+				"garden"); //$NON-NLS-1$
+		SPhraseSpec clause = this.phraseFactory.createClause(
+				this.phraseFactory.createNounPhrase("the", "dog"), "chase", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				this.phraseFactory.createNounPhrase("the", "cat")); //$NON-NLS-1$ //$NON-NLS-2$
+		clause.addPostModifier(this.phraseFactory.createPrepositionPhrase(
+				"in", garden)); //$NON-NLS-1$
+		return clause;
+	}
+
+	/**
+	 * Equal trees built separately have equal hash codes.
+	 */
+	@Test
+	public void testEqualTrees() {
+		SPhraseSpec clause1 = createClause();
+		SPhraseSpec clause2 = createClause();
+
+		Assert.assertEquals(clause1, clause2);
+		Assert.assertEquals(clause1.hashCode(), clause2.hashCode());
+		Assert.assertEquals(clause1.hashCode(), clause1.deepCopy().hashCode());
+
+		Set<NLGElement> set = new HashSet<NLGElement>();
+		set.add(clause1);
+		Assert.assertTrue(set.contains(clause2));
+
+		Assert.assertEquals(new StringElement("dog"), new StringElement("dog")); //$NON-NLS-1$ //$NON-NLS-2$
+		Assert.assertEquals(new StringElement("dog").hashCode(), //$NON-NLS-1$
+				new StringElement("dog").hashCode()); //$NON-NLS-1$
+		Assert.assertFalse(new StringElement("dog").hashCode() == new StringElement( //$NON-NLS-1$
+				"cat").hashCode()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Changing an element, or an element below it, changes its hash code.
+	 */
+	@Test
+	public void testChanges() {
+		SPhraseSpec clause1 = createClause();
+		SPhraseSpec clause2 = createClause();
+		int hash = clause1.hashCode();
+		clause2.hashCode();
+
+		clause1.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertFalse(hash == clause1.hashCode());
+		Assert.assertFalse(clause1.equals(clause2));
+
+		clause2.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals(clause1.hashCode(), clause2.hashCode());
+		Assert.assertEquals(clause1, clause2);
+
+		// a change deep in the tree, made through the element itself
+		hash = clause1.hashCode();
+		((NPPhraseSpec) clause1.getSubject()).setPlural(true);
+		Assert.assertFalse(hash == clause1.hashCode());
+		Assert.assertFalse(clause1.equals(clause2));
+	}
+
+	/**
+	 * A change to an element reaches the hash codes kept above it through its
+	 * parents, including after it has been given another parent.
+	 */
+	@Test
+	public void testChangesThroughParents() {
+		NPPhraseSpec dog1 = this.phraseFactory.createNounPhrase("dog"); //$NON-NLS-1$
+		NLGElement head = dog1.getHead();
+		Assert.assertSame(dog1, head.getParent());
+
+		int hash = dog1.hashCode();
+		head.setFeature("my_feature", true); //$NON-NLS-1$
+		Assert.assertFalse(hash == dog1.hashCode());
+
+		// the word is made the head of a new phrase, and now has it as parent
+		NPPhraseSpec dog2 = this.phraseFactory.createNounPhrase();
+		dog2.setHead(head);
+		head.setParent(dog2);
+		Assert.assertSame(dog2, head.getParent());
+		Assert.assertEquals(dog1, dog2);
+		Assert.assertEquals(dog1.hashCode(), dog2.hashCode());
+
+		hash = dog1.hashCode();
+		head.setFeature("my_feature", false); //$NON-NLS-1$
+		Assert.assertFalse(hash == dog1.hashCode());
+		Assert.assertEquals(dog1.hashCode(), dog2.hashCode());
+	}
+
+	/**
+	 * Changes made through the live feature map and feature names of an
+	 * element reach the hash codes kept above it.
+	 */
+	@Test
+	public void testChangesThroughFeatureMap() {
+		NPPhraseSpec dog = this.phraseFactory.createNounPhrase("dog"); //$NON-NLS-1$
+		NLGElement head = dog.getHead();
+		Map<String, Object> features = head.getAllFeatures();
+
+		int hash = dog.hashCode();
+		features.put("my_feature", true); //$NON-NLS-1$
+		Assert.assertEquals(Boolean.TRUE, head.getFeature("my_feature")); //$NON-NLS-1$
+		Assert.assertFalse(hash == dog.hashCode());
+
+		hash = dog.hashCode();
+		for (Map.Entry<String, Object> entry : features.entrySet()) {
+			if ("my_feature".equals(entry.getKey())) { //$NON-NLS-1$
+				entry.setValue(false);
+			}
+		}
+		Assert.assertEquals(Boolean.FALSE, head.getFeature("my_feature")); //$NON-NLS-1$
+		Assert.assertFalse(hash == dog.hashCode());
+
+		hash = dog.hashCode();
+		Assert.assertTrue(head.getAllFeatureNames().remove("my_feature")); //$NON-NLS-1$
+		Assert.assertFalse(features.containsKey("my_feature")); //$NON-NLS-1$
+		Assert.assertFalse(hash == dog.hashCode());
+
+		hash = dog.hashCode();
+		Iterator<String> names = head.getAllFeatureNames().iterator();
+		names.next();
+		names.remove();
+		Assert.assertFalse(hash == dog.hashCode());
+	}
+
+	/**
+	 * Words are equal only if they also have the same category and
+	 * inflectional variants.
+	 */
+	@Test
+	public void testWordFields() {
+		WordElement noun = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		WordElement verb = new WordElement("blick", LexicalCategory.VERB); //$NON-NLS-1$
+		Assert.assertFalse(noun.equals(verb));
+		Assert.assertFalse(noun.hashCode() == verb.hashCode());
+
+		WordElement irregular = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		Assert.assertEquals(noun, irregular);
+		irregular.addInflectionalVariant(Inflection.IRREGULAR,
+				LexicalFeature.PLURAL, "blickies"); //$NON-NLS-1$
+		Assert.assertFalse(noun.equals(irregular));
+
+		WordElement irregular2 = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		irregular2.addInflectionalVariant(Inflection.IRREGULAR,
+				LexicalFeature.PLURAL, "blickies"); //$NON-NLS-1$
+		Assert.assertEquals(irregular2, irregular);
+		Assert.assertEquals(irregular2.hashCode(), irregular.hashCode());
+		irregular2.setDefaultInflectionalVariant(Inflection.IRREGULAR);
+		Assert.assertFalse(irregular2.equals(irregular));
+	}
+
+	/**
+	 * Adding an inflectional variant to a word is a change, which reaches the
+	 * hash codes kept above it.
+	 */
+	@Test
+	public void testInflectionalVariantChanges() {
+		NPPhraseSpec blicks = this.phraseFactory
+				.createNounPhrase(new WordElement("blick", //$NON-NLS-1$
+						LexicalCategory.NOUN));
+		WordElement head = (WordElement) blicks.getHead();
+		int wordHash = head.hashCode();
+		int phraseHash = blicks.hashCode();
+
+		head.addInflectionalVariant(Inflection.IRREGULAR,
+				LexicalFeature.PLURAL, "blickies"); //$NON-NLS-1$
+		Assert.assertFalse(wordHash == head.hashCode());
+		Assert.assertFalse(phraseHash == blicks.hashCode());
+
+		WordElement other = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		other.addInflectionalVariant(Inflection.IRREGULAR,
+				LexicalFeature.PLURAL, "blickies"); //$NON-NLS-1$
+		Assert.assertEquals(other, head);
+		Assert.assertEquals(other.hashCode(), head.hashCode());
+
+		wordHash = head.hashCode();
+		head.addInflectionalVariant(Inflection.UNCOUNT);
+		Assert.assertFalse(wordHash == head.hashCode());
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell, Saad Mahamood.
+ */
+
+package simplenlg.test.syntax;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InternalFeature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.framework.FeatureMap;
+import simplenlg.framework.WordElement;
+
+/**
+ * Tests that {@link FeatureMap} behaves like a <code>HashMap</code>, for both
+ * known features (which have slots) and other features.
+ */
+public class FeatureMapTest extends TestCase {
+
+	/**
+	 * Known and unknown features can be set, read and removed, and the map
+	 * equals a HashMap with the same entries.
+	 */
+	@Test
+	public void testMapBehaviour() {
+		FeatureMap features = new FeatureMap();
+		Map<String, Object> expected = new HashMap<String, Object>();
+
+		String[] names = { Feature.TENSE, InternalFeature.HEAD,
+				LexicalFeature.PLURAL, Feature.NEGATED, "my_feature",
+				new String(Feature.PASSIVE) };
+		for (int i = 0; i < names.length; i++) {
+			features.put(names[i], i);
+			expected.put(names[i], i);
+		}
+		Assert.assertEquals(expected, features);
+		Assert.assertEquals(features, expected);
+		Assert.assertEquals(expected.hashCode(), features.hashCode());
+		Assert.assertEquals(expected.keySet(), features.keySet());
+		Assert.assertEquals(3, features.get(Feature.NEGATED));
+		Assert.assertEquals(5, features.get(Feature.PASSIVE));
+		Assert.assertTrue(FeatureMap.getSlot(Feature.TENSE) >= 0);
+		Assert.assertEquals(-1, FeatureMap.getSlot("my_feature"));
+
+		Assert.assertEquals(0, features.put(Feature.TENSE, Tense.PAST));
+		Assert.assertEquals(Tense.PAST, features.get(Feature.TENSE));
+		Assert.assertEquals(2, features.remove(LexicalFeature.PLURAL));
+		Assert.assertEquals(4, features.remove("my_feature"));
+		Assert.assertNull(features.remove(LexicalFeature.PLURAL));
+		Assert.assertFalse(features.containsKey(LexicalFeature.PLURAL));
+		Assert.assertEquals(4, features.size());
+
+		// removing through the iterator
+		Iterator<String> keys = features.keySet().iterator();
+		while (keys.hasNext())
+			if (keys.next().equals(InternalFeature.HEAD))
+				keys.remove();
+		Assert.assertFalse(features.containsKey(InternalFeature.HEAD));
+		Assert.assertEquals(3, features.size());
+
+		FeatureMap copy = new FeatureMap(features);
+		copy.put(Feature.NEGATED, true);
+		Assert.assertEquals(3, features.get(Feature.NEGATED));
+
+		features.clear();
+		Assert.assertTrue(features.isEmpty());
+		Assert.assertEquals(3, copy.size());
+	}
+
+	/**
+	 * Elements keep working through the feature map.
+	 */
+	@Test
+	public void testElementFeatures() {
+		WordElement word = new WordElement("dog");
+		word.setFeature(LexicalFeature.PLURAL, "dogs");
+		word.setFeature("my_feature", true);
+		word.setFeature(Feature.NEGATED, false);
+		word.setFeature(Feature.NEGATED, null);
+
+		Assert.assertEquals(2, word.getAllFeatures().size());
+		Assert.assertTrue(word.getAllFeatureNames().contains("my_feature"));
+		Assert.assertEquals("dogs", word.getFeatureAsString(LexicalFeature.PLURAL));
+		Assert.assertTrue(word.getFeatureAsBoolean("my_feature").booleanValue());
+		Assert.assertFalse(word.hasFeature(Feature.NEGATED));
+	}
+}
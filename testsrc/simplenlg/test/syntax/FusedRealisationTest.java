@@ -0,0 +1,185 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.format.english.HTMLFormatter;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.framework.NLGElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.Realiser;
+
+/**
+ * Tests that realisation with the morphology done by the orthography processor
+ * (<code>Realiser.setFusedRealisation</code>) gives the same results as the
+ * separate passes.
+ */
+public class FusedRealisationTest extends SimpleNLG4Test {
+
+	/** A realiser with fused realisation. */
+	private Realiser fused;
+
+	/**
+	 * Instantiates a new fused realisation test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public FusedRealisationTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() {
+		super.setUp();
+		this.fused = new Realiser(this.lexicon);
+		this.fused.setFusedRealisation(true);
+	}
+
+	/**
+	 * Checks that an element is realised in the same way by both realisers.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the realisation
+	 */
+	private String assertSameRealisation(NLGElement element) {
+		String expected = this.realiser.realise(element).getRealisation();
+		Assert.assertEquals(expected, this.fused.realise(element)
+				.getRealisation());
+		return expected;
+	}
+
+	/**
+	 * Fused realisation is off by default.
+	 */
+	@Test
+	public void testDefault() {
+		Assert.assertFalse(this.realiser.isFusedRealisation());
+		Assert.assertTrue(this.fused.isFusedRealisation());
+	}
+
+	/**
+	 * Determiners agree with the following word.
+	 */
+	@Test
+	public void testDeterminers() {
+		NPPhraseSpec apple = this.phraseFactory.createNounPhrase("a", "apple"); //$NON-NLS-1$ //$NON-NLS-2$
+		NPPhraseSpec pear = this.phraseFactory.createNounPhrase("a", "pear"); //$NON-NLS-1$ //$NON-NLS-2$
+		pear.addPreModifier("old"); //$NON-NLS-1$
+		NPPhraseSpec dogs = this.phraseFactory.createNounPhrase("a", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		CoordinatedPhraseElement fruit = this.phraseFactory
+				.createCoordinatedPhrase(apple, pear);
+		SPhraseSpec clause = this.phraseFactory.createClause(dogs, "eat", //$NON-NLS-1$
+				fruit);
+
+		Assert.assertEquals("Some dogs eat an apple and an old pear.", //$NON-NLS-1$
+				assertSameRealisation(this.phraseFactory.createSentence(clause)));
+	}
+
+	/**
+	 * Clauses with modifiers, questions, coordination and appositives.
+	 */
+	@Test
+	public void testClauses() {
+		List<NLGElement> elements = new ArrayList<NLGElement>();
+
+		SPhraseSpec clause = this.phraseFactory.createClause("the man", //$NON-NLS-1$
+				"give", "an umbrella"); //$NON-NLS-1$ //$NON-NLS-2$
+		clause.setIndirectObject("a woman"); //$NON-NLS-1$
+		clause.addFrontModifier("yesterday"); //$NON-NLS-1$
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		elements.add(clause);
+
+		SPhraseSpec question = this.phraseFactory.createClause("she", //$NON-NLS-1$
+				"kiss", "him"); //$NON-NLS-1$ //$NON-NLS-2$
+		question.setFeature(Feature.INTERROGATIVE_TYPE, InterrogativeType.WHY);
+		question.setFeature(Feature.PERFECT, true);
+		elements.add(question);
+
+		NPPhraseSpec dog = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		NPPhraseSpec rottweiler = this.phraseFactory.createNounPhrase("a", //$NON-NLS-1$
+				"rottweiler"); //$NON-NLS-1$
+		rottweiler.setFeature(Feature.APPOSITIVE, true);
+		dog.addPostModifier(rottweiler);
+		SPhraseSpec appositive = this.phraseFactory.createClause(dog, "run"); //$NON-NLS-1$
+		appositive.setFeature(Feature.CUE_PHRASE, "however"); //$NON-NLS-1$
+		elements.add(appositive);
+
+		CoordinatedPhraseElement clauses = this.phraseFactory
+				.createCoordinatedPhrase(this.phraseFactory.createClause("I", //$NON-NLS-1$
+						"sing"), this.phraseFactory.createClause("you", //$NON-NLS-1$ //$NON-NLS-2$
+						"dance")); //$NON-NLS-1$
+		clauses.addCoordinate(this.phraseFactory.createClause("they", "sleep")); //$NON-NLS-1$ //$NON-NLS-2$
+		elements.add(clauses);
+
+		NPPhraseSpec road = this.phraseFactory.createNounPhrase("a", "road"); //$NON-NLS-1$ //$NON-NLS-2$
+		road.addPreModifier("empty"); //$NON-NLS-1$
+		road.addPreModifier("dark"); //$NON-NLS-1$
+		elements.add(road);
+
+		for (NLGElement element : elements) {
+			assertSameRealisation(this.phraseFactory.createSentence(element));
+			assertSameRealisation(element);
+		}
+
+		this.realiser.setCommaSepCuephrase(true);
+		this.fused.setCommaSepCuephrase(true);
+		this.realiser.setCommaSepPremodifiers(false);
+		this.fused.setCommaSepPremodifiers(false);
+		for (NLGElement element : elements) {
+			assertSameRealisation(this.phraseFactory.createSentence(element));
+		}
+	}
+
+	/**
+	 * Documents with paragraphs and lists, formatted as text and HTML.
+	 */
+	@Test
+	public void testDocuments() {
+		DocumentElement document = this.phraseFactory.createDocument("Title"); //$NON-NLS-1$
+		DocumentElement section = this.phraseFactory.createSection("Section"); //$NON-NLS-1$
+		section.addComponent(this.phraseFactory.createParagraph(this.phraseFactory
+				.createSentence("the man", "walk"))); //$NON-NLS-1$ //$NON-NLS-2$
+		DocumentElement list = this.phraseFactory.createList();
+		list.addComponent(this.phraseFactory.createListItem(this.phraseFactory
+				.createNounPhrase("an", "egg"))); //$NON-NLS-1$ //$NON-NLS-2$
+		list.addComponent(this.phraseFactory.createListItem(this.phraseFactory
+				.createSentence("a dog", "bark"))); //$NON-NLS-1$ //$NON-NLS-2$
+		section.addComponent(list);
+		document.addComponent(section);
+
+		assertSameRealisation(document);
+		this.realiser.setFormatter(new HTMLFormatter());
+		this.fused.setFormatter(new HTMLFormatter());
+		assertSameRealisation(document);
+	}
+}
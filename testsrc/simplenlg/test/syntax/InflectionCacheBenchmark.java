@@ -0,0 +1,180 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Ignore;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+import simplenlg.features.Tense;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.morphology.english.MorphologyProcessor;
+
+/**
+ * Measures how long the morphology processor takes to inflect a word, with
+ * and without a cache of the forms made by the rules, for nouns, verbs and
+ * adjectives which are in the lexicon and which are not. It is not a test,
+ * and is run by hand:
+ *
+ * <p>
+ * <code>java simplenlg.test.syntax.InflectionCacheBenchmark [seconds] [threads]</code>
+ * </p>
+ *
+ * Each setting is warmed up for a quarter of the time and then timed for the
+ * rest, with every thread inflecting all the words in turn.
+ */
+@Ignore
+public class InflectionCacheBenchmark {
+
+	private static final String[] NOUNS = { "dog", "child", "cactus", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"house", "box" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static final String[] VERBS = { "chase", "carry", "hop", "go", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			"fix" }; //$NON-NLS-1$
+
+	private static final String[] ADJECTIVES = { "happy", "big", "good" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * @param args
+	 *            how long to run each setting for, in seconds (default 10),
+	 *            and how many threads (default 1).
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+		Lexicon lexicon = new XMLLexicon();
+		List<NLGElement> words = createWords(lexicon);
+		MorphologyProcessor morphology = new MorphologyProcessor();
+		morphology.setLexicon(lexicon);
+		morphology.initialise();
+
+		for (int size : new int[] { 0, 10000, 0, 10000 }) {
+			morphology.setInflectionCacheSize(size);
+			run(morphology, words, threads, seconds * 250);
+			double time = run(morphology, words, threads, seconds * 750);
+			System.out.format("cache %5d, %d threads: %.0f ns/word%s%n", size, //$NON-NLS-1$
+					threads, time, size == 0 ? "" : ", hit rate " //$NON-NLS-1$ //$NON-NLS-2$
+							+ morphology.getInflectionCache().getHitRate());
+		}
+	}
+
+	/**
+	 * Inflects the words on several threads for a while.
+	 *
+	 * @return the time per word, in nanoseconds of elapsed time.
+	 */
+	private static double run(final MorphologyProcessor morphology,
+			final List<NLGElement> words, int threads, final long millis)
+			throws InterruptedException {
+		final long[] counts = new long[threads];
+		final long end = System.currentTimeMillis() + millis;
+		Thread[] workers = new Thread[threads];
+		long start = System.nanoTime();
+
+		for (int thread = 0; thread < threads; thread++) {
+			final int index = thread;
+			workers[thread] = new Thread() {
+				@Override
+				public void run() {
+					long count = 0;
+					while (System.currentTimeMillis() < end) {
+						for (NLGElement word : words) {
+							morphology.realise(word);
+						}
+						count += words.size();
+					}
+					counts[index] = count;
+				}
+			};
+			workers[thread].start();
+		}
+
+		long total = 0;
+		for (int thread = 0; thread < threads; thread++) {
+			workers[thread].join();
+			total += counts[thread];
+		}
+		return (double) (System.nanoTime() - start) / total;
+	}
+
+	/**
+	 * @return inflected nouns, verbs and adjectives, the words in the lexicon
+	 *         and 100 made-up words of each category.
+	 */
+	private static List<NLGElement> createWords(Lexicon lexicon) {
+		List<String> nouns = new ArrayList<String>();
+		List<String> verbs = new ArrayList<String>();
+		List<String> adjectives = new ArrayList<String>();
+		for (String noun : NOUNS) {
+			nouns.add(noun);
+		}
+		for (String verb : VERBS) {
+			verbs.add(verb);
+		}
+		for (String adjective : ADJECTIVES) {
+			adjectives.add(adjective);
+		}
+		for (int i = 0; i < 100; i++) {
+			nouns.add("blurg" + i); //$NON-NLS-1$
+			verbs.add("zorble" + i); //$NON-NLS-1$
+			adjectives.add("glarby" + i); //$NON-NLS-1$
+		}
+
+		List<NLGElement> words = new ArrayList<NLGElement>();
+		for (String noun : nouns) {
+			InflectedWordElement plural = new InflectedWordElement(lexicon
+					.lookupWord(noun, LexicalCategory.NOUN));
+			plural.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+			words.add(plural);
+		}
+		for (String verb : verbs) {
+			InflectedWordElement past = new InflectedWordElement(lexicon
+					.lookupWord(verb, LexicalCategory.VERB));
+			past.setFeature(Feature.TENSE, Tense.PAST);
+			words.add(past);
+
+			InflectedWordElement present = new InflectedWordElement(lexicon
+					.lookupWord(verb, LexicalCategory.VERB));
+			present.setFeature(Feature.PERSON, Person.THIRD);
+			words.add(present);
+
+			InflectedWordElement participle = new InflectedWordElement(lexicon
+					.lookupWord(verb, LexicalCategory.VERB));
+			participle.setFeature(Feature.FORM, Form.PRESENT_PARTICIPLE);
+			words.add(participle);
+		}
+		for (String adjective : adjectives) {
+			InflectedWordElement comparative = new InflectedWordElement(lexicon
+					.lookupWord(adjective, LexicalCategory.ADJECTIVE));
+			comparative.setFeature(Feature.IS_COMPARATIVE, true);
+			words.add(comparative);
+		}
+		return words;
+	}
+}
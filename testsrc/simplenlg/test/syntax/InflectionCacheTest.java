@@ -0,0 +1,227 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.morphology.english.InflectionCache;
+import simplenlg.phrasespec.AdjPhraseSpec;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests that words inflected from the cache of forms made by the morphology
+ * rules (<code>Realiser.setInflectionCacheSize</code>) are the same as those
+ * inflected by the rules each time.
+ */
+public class InflectionCacheTest extends SimpleNLG4Test {
+
+	/**
+	 * Instantiates a new inflection cache test.
+	 *
+	 * @param name
+	 *            the name
+	 */
+	public InflectionCacheTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Realises elements without the cache, then twice with a cache which
+	 * holds all their forms, and then with a cache so small that forms are
+	 * evicted and made by the rules again.
+	 *
+	 * @param elements
+	 *            the elements
+	 */
+	private void assertSameFromCache(List<NLGElement> elements) {
+		List<String> expected = new ArrayList<String>();
+		for (NLGElement element : elements) {
+			expected.add(this.realiser.realise(element).getRealisation());
+		}
+
+		// every form is found on the second pass
+		this.realiser.setInflectionCacheSize(1000);
+		InflectionCache cache = this.realiser.getInflectionCache();
+		long misses = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			for (int index = 0; index < elements.size(); index++) {
+				Assert.assertEquals(expected.get(index), this.realiser.realise(
+						elements.get(index)).getRealisation());
+			}
+			if (pass == 0) {
+				misses = cache.getMisses();
+				Assert.assertTrue(cache.size() > 10);
+			}
+		}
+		Assert.assertEquals(misses, cache.getMisses());
+		Assert.assertEquals(misses, cache.size());
+
+		// a small cache evicts forms, which are made again
+		this.realiser.setInflectionCacheSize(10);
+		cache = this.realiser.getInflectionCache();
+		for (int index = 0; index < elements.size(); index++) {
+			Assert.assertEquals(expected.get(index), this.realiser.realise(
+					elements.get(index)).getRealisation());
+		}
+		Assert.assertEquals(10, cache.size());
+		Assert.assertTrue(cache.getMisses() > cache.getMaximumSize());
+	}
+
+	/**
+	 * Verbs, nouns and adjectives, including words not in the lexicon.
+	 */
+	@Test
+	public void testSameForms() {
+		List<NLGElement> elements = new ArrayList<NLGElement>();
+		String[] verbs = { "be", "go", "carry", "hop", "zorble", "flie" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (String verb : verbs) {
+			for (Tense tense : Tense.values()) {
+				SPhraseSpec clause = this.phraseFactory.createClause("I", verb); //$NON-NLS-1$
+				clause.setFeature(Feature.TENSE, tense);
+				elements.add(clause);
+
+				clause = this.phraseFactory.createClause("they", verb); //$NON-NLS-1$
+				clause.setFeature(Feature.TENSE, tense);
+				clause.setFeature(Feature.PROGRESSIVE, true);
+				elements.add(clause);
+			}
+		}
+
+		String[] nouns = { "dog", "child", "cactus", "blurg", "wuzzy", "John" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (String noun : nouns) {
+			for (boolean plural : new boolean[] { false, true }) {
+				for (boolean possessive : new boolean[] { false, true }) {
+					NPPhraseSpec phrase = this.phraseFactory.createNounPhrase(
+							"the", noun); //$NON-NLS-1$
+					phrase.setPlural(plural);
+					phrase.setFeature(Feature.POSSESSIVE, possessive);
+					elements.add(phrase);
+				}
+			}
+		}
+
+		String[] adjectives = { "happy", "good", "glarby" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (String adjective : adjectives) {
+			AdjPhraseSpec comparative = this.phraseFactory
+					.createAdjectivePhrase(adjective);
+			comparative.setFeature(Feature.IS_COMPARATIVE, true);
+			elements.add(comparative);
+			AdjPhraseSpec superlative = this.phraseFactory
+					.createAdjectivePhrase(adjective);
+			superlative.setFeature(Feature.IS_SUPERLATIVE, true);
+			elements.add(superlative);
+		}
+		assertSameFromCache(elements);
+	}
+
+	/**
+	 * A word which is not in the lexicon is found again, although a new word
+	 * is made for it each time.
+	 */
+	@Test
+	public void testUnknownWord() {
+		this.realiser.setInflectionCacheSize(10);
+		InflectionCache cache = this.realiser.getInflectionCache();
+
+		NPPhraseSpec blurgs = this.phraseFactory.createNounPhrase("the", //$NON-NLS-1$
+				"blurg"); //$NON-NLS-1$
+		blurgs.setPlural(true);
+		Assert.assertEquals("the blurgs", this.realiser.realise(blurgs) //$NON-NLS-1$
+				.getRealisation());
+		long misses = cache.getMisses();
+		Assert.assertTrue(misses > 0);
+
+		blurgs = this.phraseFactory.createNounPhrase("the", "blurg"); //$NON-NLS-1$ //$NON-NLS-2$
+		blurgs.setPlural(true);
+		Assert.assertEquals("the blurgs", this.realiser.realise(blurgs) //$NON-NLS-1$
+				.getRealisation());
+		Assert.assertEquals(misses, cache.getMisses());
+		Assert.assertTrue(cache.getHits() > 0);
+		Assert.assertTrue(cache.getHitRate() > 0.0);
+	}
+
+	/**
+	 * A word which is changed is inflected by the rules again.
+	 */
+	@Test
+	public void testChangedWord() {
+		this.realiser.setInflectionCacheSize(10);
+		NPPhraseSpec dogs = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		Assert.assertEquals("the dogs", this.realiser.realise(dogs) //$NON-NLS-1$
+				.getRealisation());
+
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN); //$NON-NLS-1$
+		dog.setFeature(LexicalFeature.PLURAL, "doggies"); //$NON-NLS-1$
+		dogs = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		Assert.assertEquals("the doggies", this.realiser.realise(dogs) //$NON-NLS-1$
+				.getRealisation());
+	}
+
+	/**
+	 * The cache holds no more than its size, and is emptied by setting the
+	 * lexicon.
+	 */
+	@Test
+	public void testSize() {
+		Assert.assertNull(this.realiser.getInflectionCache());
+		this.realiser.setInflectionCacheSize(2);
+		InflectionCache cache = this.realiser.getInflectionCache();
+		Assert.assertEquals(2, cache.getMaximumSize());
+
+		NPPhraseSpec dogs = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		NPPhraseSpec cats = this.phraseFactory.createNounPhrase("the", "cat"); //$NON-NLS-1$ //$NON-NLS-2$
+		cats.setPlural(true);
+		cats.addModifier("happy"); //$NON-NLS-1$
+		SPhraseSpec clause = this.phraseFactory.createClause(dogs, "chase", //$NON-NLS-1$
+				cats);
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("the dogs chased the happy cats", this.realiser //$NON-NLS-1$
+				.realise(clause).getRealisation());
+		Assert.assertEquals(4, cache.getMisses());
+		Assert.assertEquals(2, cache.size());
+
+		this.realiser.setLexicon(this.lexicon);
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getHits() + cache.getMisses());
+
+		try {
+			this.realiser.setInflectionCacheSize(-1);
+			Assert.fail();
+		} catch (IllegalArgumentException ex) {
+			// expected
+		}
+		this.realiser.setInflectionCacheSize(0);
+		Assert.assertNull(this.realiser.getInflectionCache());
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.framework.InflectedWordElement;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.WordElement;
+import simplenlg.morphology.english.MorphologyProcessor;
+
+/**
+ * Tests that the suffix rules used for regular inflection give the same forms
+ * as the regular expressions they replaced, for every base form in the default
+ * lexicon and for some awkward words. The expressions are kept here as the
+ * reference.
+ */
+public class InflectionRulesTest extends TestCase {
+
+	/** Words which exercise the corners of the old expressions. */
+	private static final String[] AWKWARD_WORDS = { "y", "x", "e", "a", "s",
+			"fly by", "spy-fly", "co-operate", "tie", "canoe", "eye", "toe",
+			"foramen", "sync", "laugh", "(ab", "b(um", "cactus", "stigma",
+			"index", "matrix", "crisis", "cystis", "bonus us", "Fly", "play",
+			"buy", "key_y", "fly.", "die e", "café", "naïve", "2y", "boss" };
+
+	private MorphologyProcessor morphology;
+
+	@Override
+	protected void setUp() {
+		this.morphology = new MorphologyProcessor();
+		this.morphology.initialise();
+	}
+
+	/**
+	 * Tests every base form in the default lexicon.
+	 */
+	@Test
+	public void testLexiconWords() throws Exception {
+		List<String> baseForms = readBaseForms();
+		Assert.assertTrue(baseForms.size() > 1000);
+		for (String baseForm : baseForms) {
+			assertSameInflections(baseForm);
+		}
+	}
+
+	/**
+	 * Tests words that the lexicon does not have.
+	 */
+	@Test
+	public void testAwkwardWords() {
+		for (String baseForm : AWKWARD_WORDS) {
+			assertSameInflections(baseForm);
+		}
+	}
+
+	/**
+	 * Tests some forms which are known.
+	 */
+	@Test
+	public void testKnownForms() {
+		Assert.assertEquals("flies bies", inflect("fly by",
+				LexicalCategory.NOUN, Feature.NUMBER, null));
+		Assert.assertEquals("cacti", inflect("cactus", LexicalCategory.NOUN,
+				Feature.NUMBER, Inflection.GRECO_LATIN_REGULAR));
+		Assert.assertEquals("tying", inflect("tie", LexicalCategory.VERB,
+				Feature.FORM, null));
+		Assert.assertEquals("canoeing", inflect("canoe",
+				LexicalCategory.VERB, Feature.FORM, null));
+		Assert.assertEquals("tugged", inflect("tug", LexicalCategory.VERB,
+				Feature.TENSE, Inflection.REGULAR_DOUBLE));
+		Assert.assertEquals("brainiest", inflect("brainy",
+				LexicalCategory.ADJECTIVE, Feature.IS_SUPERLATIVE, null));
+	}
+
+	/**
+	 * Checks every regular inflection of a base form against the old rules.
+	 *
+	 * @param baseForm
+	 *            the base form
+	 */
+	private void assertSameInflections(String baseForm) {
+		if (baseForm.equalsIgnoreCase("be")) {
+			return;
+		}
+		String doubled = baseForm + baseForm.charAt(baseForm.length() - 1);
+		Assert.assertEquals(regularPlural(baseForm), inflect(baseForm,
+				LexicalCategory.NOUN, Feature.NUMBER, null));
+		Assert.assertEquals(grecoLatinPlural(baseForm), inflect(baseForm,
+				LexicalCategory.NOUN, Feature.NUMBER,
+				Inflection.GRECO_LATIN_REGULAR));
+		Assert.assertEquals(present3S(baseForm), inflect(baseForm,
+				LexicalCategory.VERB, null, null));
+		Assert.assertEquals(regularPast(baseForm), inflect(baseForm,
+				LexicalCategory.VERB, Feature.TENSE, null));
+		Assert.assertEquals(doubled + "ed", inflect(baseForm,
+				LexicalCategory.VERB, Feature.TENSE, Inflection.REGULAR_DOUBLE));
+		Assert.assertEquals(regularPresentParticiple(baseForm), inflect(
+				baseForm, LexicalCategory.VERB, Feature.FORM, null));
+		Assert.assertEquals(doubled + "ing", inflect(baseForm,
+				LexicalCategory.VERB, Feature.FORM, Inflection.REGULAR_DOUBLE));
+		Assert.assertEquals(regularComparative(baseForm), inflect(baseForm,
+				LexicalCategory.ADJECTIVE, Feature.IS_COMPARATIVE, null));
+		Assert.assertEquals(doubled + "er", inflect(baseForm,
+				LexicalCategory.ADJECTIVE, Feature.IS_COMPARATIVE,
+				Inflection.REGULAR_DOUBLE));
+		Assert.assertEquals(regularSuperlative(baseForm), inflect(baseForm,
+				LexicalCategory.ADJECTIVE, Feature.IS_SUPERLATIVE, null));
+		Assert.assertEquals(doubled + "est", inflect(baseForm,
+				LexicalCategory.ADJECTIVE, Feature.IS_SUPERLATIVE,
+				Inflection.REGULAR_DOUBLE));
+	}
+
+	/**
+	 * Inflects a word which has no lexicon entry, so that the rules are used.
+	 *
+	 * @param baseForm
+	 *            the base form
+	 * @param category
+	 *            the category
+	 * @param feature
+	 *            NUMBER for a plural, TENSE for a past, FORM for a present
+	 *            participle, IS_COMPARATIVE or IS_SUPERLATIVE; null for the
+	 *            present third-person singular
+	 * @param inflection
+	 *            the inflection pattern, or null for regular
+	 * @return the inflected form
+	 */
+	private String inflect(String baseForm, LexicalCategory category,
+			String feature, Inflection inflection) {
+		InflectedWordElement word = new InflectedWordElement(new WordElement(
+				baseForm, category));
+		if (Feature.NUMBER.equals(feature)) {
+			word.setPlural(true);
+		} else if (Feature.TENSE.equals(feature)) {
+			word.setFeature(Feature.TENSE, Tense.PAST);
+		} else if (Feature.FORM.equals(feature)) {
+			word.setFeature(Feature.FORM, Form.PRESENT_PARTICIPLE);
+		} else if (feature != null) {
+			word.setFeature(feature, true);
+		}
+		if (inflection != null) {
+			word.setFeature(LexicalFeature.DEFAULT_INFL, inflection);
+		}
+		return this.morphology.realise(word).getRealisation();
+	}
+
+	/**
+	 * @return the base forms in the default lexicon
+	 */
+	private List<String> readBaseForms() throws Exception {
+		Set<String> baseForms = new LinkedHashSet<String>();
+		InputStream in = getClass().getResourceAsStream(
+				"/simplenlg/lexicon/default-lexicon.xml");
+		try {
+			XMLStreamReader reader = XMLInputFactory.newInstance()
+					.createXMLStreamReader(in);
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT
+						&& "base".equals(reader.getLocalName())) {
+					baseForms.add(reader.getElementText().trim());
+				}
+			}
+			reader.close();
+		} finally {
+			in.close();
+		}
+		return new ArrayList<String>(baseForms);
+	}
+
+	// the rules as they were written with regular expressions
+
+	private static String regularPlural(String baseForm) {
+		if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) {
+			return baseForm.replaceAll("y\\b", "ies");
+		} else if (baseForm.matches(".*([szx]|[cs]h)\\b")) {
+			return baseForm + "es";
+		} else {
+			return baseForm + "s";
+		}
+	}
+
+	private static String grecoLatinPlural(String baseForm) {
+		if (baseForm.endsWith("us")) {
+			return baseForm.replaceAll("us\\b", "i");
+		} else if (baseForm.endsWith("ma")) {
+			return baseForm + "ta";
+		} else if (baseForm.endsWith("a")) {
+			return baseForm + "e";
+		} else if (baseForm.matches(".*[(um)(on)]\\b")) {
+			return baseForm.replaceAll("[(um)(on)]\\b", "a");
+		} else if (baseForm.endsWith("sis")) {
+			return baseForm.replaceAll("sis\\b", "ses");
+		} else if (baseForm.endsWith("is")) {
+			return baseForm.replaceAll("is\\b", "ides");
+		} else if (baseForm.endsWith("men")) {
+			return baseForm.replaceAll("men\\b", "mina");
+		} else if (baseForm.endsWith("ex")) {
+			return baseForm.replaceAll("ex\\b", "ices");
+		} else if (baseForm.endsWith("x")) {
+			return baseForm.replaceAll("x\\b", "ces");
+		} else {
+			return baseForm;
+		}
+	}
+
+	private static String present3S(String baseForm) {
+		if (baseForm.matches(".*[szx(ch)(sh)]\\b")) {
+			return baseForm + "es";
+		} else if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) {
+			return baseForm.replaceAll("y\\b", "ies");
+		} else {
+			return baseForm + "s";
+		}
+	}
+
+	private static String regularPast(String baseForm) {
+		if (baseForm.endsWith("e")) {
+			return baseForm + "d";
+		} else if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) {
+			return baseForm.replaceAll("y\\b", "ied");
+		} else {
+			return baseForm + "ed";
+		}
+	}
+
+	private static String regularPresentParticiple(String baseForm) {
+		if (baseForm.endsWith("ie")) {
+			return baseForm.replaceAll("ie\\b", "ying");
+		} else if (baseForm.matches(".*[^iyeo]e\\b")) {
+			return baseForm.replaceAll("e\\b", "ing");
+		} else {
+			return baseForm + "ing";
+		}
+	}
+
+	private static String regularComparative(String baseForm) {
+		if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) {
+			return baseForm.replaceAll("y\\b", "ier");
+		} else if (baseForm.endsWith("e")) {
+			return baseForm + "r";
+		} else {
+			return baseForm + "er";
+		}
+	}
+
+	private static String regularSuperlative(String baseForm) {
+		if (baseForm.matches(".*[b-z&&[^eiou]]y\\b")) {
+			return baseForm.replaceAll("y\\b", "iest");
+		} else if (baseForm.endsWith("e")) {
+			return baseForm + "st";
+		} else {
+			return baseForm + "est";
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Form;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Person;
+import simplenlg.features.Tense;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.morphology.english.InflectionTable;
+import simplenlg.phrasespec.AdjPhraseSpec;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests that words inflected from the tables precomputed by the lexicon (
+ * <code>Lexicon.setPrecomputeInflections</code>) are the same as those
+ * inflected by the rules.
+ */
+public class InflectionTableTest extends SimpleNLG4Test {
+
+	/**
+	 * Instantiates a new inflection table test.
+	 *
+	 * @param name
+	 *            the name
+	 */
+	public InflectionTableTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * Realises elements by the rules and from the tables.
+	 *
+	 * @param elements
+	 *            the elements
+	 */
+	private void assertSameRealisations(List<NLGElement> elements) {
+		List<String> expected = new ArrayList<String>();
+		for (NLGElement element : elements) {
+			expected.add(this.realiser.realise(element).getRealisation());
+		}
+		this.lexicon.setPrecomputeInflections(true);
+		for (int index = 0; index < elements.size(); index++) {
+			Assert.assertEquals(expected.get(index), this.realiser.realise(
+					elements.get(index)).getRealisation());
+		}
+		this.lexicon.setPrecomputeInflections(false);
+	}
+
+	/**
+	 * Verbs in every tense, form, number and person.
+	 */
+	@Test
+	public void testVerbs() {
+		List<NLGElement> elements = new ArrayList<NLGElement>();
+		String[] verbs = { "be", "have", "do", "go", "carry", "chase", "hop" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+		for (String verb : verbs) {
+			for (Person person : Person.values()) {
+				for (NumberAgreement number : new NumberAgreement[] {
+						NumberAgreement.SINGULAR, NumberAgreement.PLURAL }) {
+					for (Tense tense : Tense.values()) {
+						SPhraseSpec clause = this.phraseFactory.createClause(
+								"he", verb); //$NON-NLS-1$
+						clause.getSubject().setFeature(Feature.PERSON, person);
+						clause.getSubject().setFeature(Feature.NUMBER, number);
+						clause.setFeature(Feature.TENSE, tense);
+						elements.add(clause);
+
+						clause = this.phraseFactory.createClause("he", verb); //$NON-NLS-1$
+						clause.setFeature(Feature.TENSE, tense);
+						clause.setFeature(Feature.PERFECT, true);
+						clause.setFeature(Feature.PROGRESSIVE, true);
+						clause.setFeature(Feature.NEGATED, true);
+						elements.add(clause);
+					}
+				}
+			}
+			SPhraseSpec passive = this.phraseFactory.createClause("the dog", //$NON-NLS-1$
+					verb, "the cat"); //$NON-NLS-1$
+			passive.setFeature(Feature.PASSIVE, true);
+			elements.add(passive);
+
+			SPhraseSpec gerund = this.phraseFactory.createClause("he", verb); //$NON-NLS-1$
+			gerund.setFeature(Feature.FORM, Form.GERUND);
+			elements.add(gerund);
+		}
+		assertSameRealisations(elements);
+	}
+
+	/**
+	 * Nouns, including irregular, possessive and proper nouns, and adjectives.
+	 */
+	@Test
+	public void testNounsAndAdjectives() {
+		List<NLGElement> elements = new ArrayList<NLGElement>();
+		String[] nouns = { "dog", "child", "box", "sheep", "city", "John" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (String noun : nouns) {
+			for (boolean plural : new boolean[] { false, true }) {
+				for (boolean possessive : new boolean[] { false, true }) {
+					NPPhraseSpec phrase = this.phraseFactory.createNounPhrase(
+							"the", noun); //$NON-NLS-1$
+					phrase.setPlural(plural);
+					phrase.setFeature(Feature.POSSESSIVE, possessive);
+					elements.add(phrase);
+				}
+			}
+			elements.add(this.phraseFactory.createWord(noun,
+					LexicalCategory.NOUN));
+		}
+
+		String[] adjectives = { "happy", "big", "good", "beautiful" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		for (String adjective : adjectives) {
+			AdjPhraseSpec comparative = this.phraseFactory
+					.createAdjectivePhrase(adjective);
+			comparative.setFeature(Feature.IS_COMPARATIVE, true);
+			elements.add(comparative);
+			AdjPhraseSpec superlative = this.phraseFactory
+					.createAdjectivePhrase(adjective);
+			superlative.setFeature(Feature.IS_SUPERLATIVE, true);
+			elements.add(superlative);
+			elements.add(this.phraseFactory.createAdjectivePhrase(adjective));
+		}
+		assertSameRealisations(elements);
+	}
+
+	/**
+	 * Tables are counted and sized, and removed when turned off.
+	 */
+	@Test
+	public void testMemoryReport() {
+		Assert.assertFalse(this.lexicon.isPrecomputeInflections());
+		Assert.assertEquals(0, this.lexicon.getInflectionTableCount());
+		Assert.assertEquals(0, this.lexicon.getInflectionTableSize());
+
+		this.lexicon.setPrecomputeInflections(true);
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN); //$NON-NLS-1$
+		Assert.assertNotNull(dog.getInflectionTable());
+		Assert.assertTrue(this.lexicon.getInflectionTableCount() > 1000);
+		Assert.assertTrue(this.lexicon.getInflectionTableSize() > this.lexicon
+				.getInflectionTableCount() * 50L);
+
+		this.lexicon.setPrecomputeInflections(false);
+		Assert.assertNull(dog.getInflectionTable());
+		Assert.assertEquals(0, this.lexicon.getInflectionTableCount());
+	}
+
+	/**
+	 * A word which is changed loses its table, so the change is seen.
+	 */
+	@Test
+	public void testChangedWord() {
+		this.lexicon.setPrecomputeInflections(true);
+		NPPhraseSpec dogs = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		Assert.assertEquals("the dogs", this.realiser.realise(dogs) //$NON-NLS-1$
+				.getRealisation());
+
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN); //$NON-NLS-1$
+		Assert.assertNotNull(dog.getInflectionTable());
+		dog.setFeature(LexicalFeature.PLURAL, "doggies"); //$NON-NLS-1$
+		Assert.assertNull(dog.getInflectionTable());
+		dogs = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		Assert.assertEquals("the doggies", this.realiser.realise(dogs) //$NON-NLS-1$
+				.getRealisation());
+	}
+
+	/**
+	 * Reading a word, including building a table from it, keeps its table;
+	 * changing its base form or id drops it.
+	 */
+	@Test
+	public void testReadWord() {
+		this.lexicon.setPrecomputeInflections(true);
+		WordElement dog = this.lexicon.getWord("dog", LexicalCategory.NOUN); //$NON-NLS-1$
+		InflectionTable table = dog.getInflectionTable();
+		Assert.assertNotNull(table);
+
+		dog.getAllFeatures();
+		dog.getAllFeatureNames();
+		dog.getFeature(LexicalFeature.PLURAL);
+		dog.hashCode();
+		dog.toXML();
+		Assert.assertNotNull(InflectionTable.build(dog));
+		Assert.assertSame(table, dog.getInflectionTable());
+
+		dog.setBaseForm("dog"); //$NON-NLS-1$
+		Assert.assertNull(dog.getInflectionTable());
+
+		this.lexicon.setPrecomputeInflections(true);
+		Assert.assertNotNull(dog.getInflectionTable());
+		dog.setId(dog.getId());
+		Assert.assertNull(dog.getInflectionTable());
+	}
+}
@@ -393,6 +393,9 @@ public class NounPhraseTest extends SimpleNLG4Test {
 				.createWord("the", LexicalCategory.DETERMINER));
 		// raising spec still returns true as spec has been set
 		cnp2.setFeature(Feature.RAISE_SPECIFIER, true);
+		// realisation does not copy the CNP's specifier into the coordinates
+		// any more, so give the woman the same specifier as the CNP
+		this.woman.setFeature(InternalFeature.SPECIFIER, every);
 
 		// CNP should be realised with pronominal internal const
 		Assert.assertEquals(
@@ -0,0 +1,144 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Ignore;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.Realiser;
+
+/**
+ * Measures how many sentences a realiser makes a second with and without a
+ * phrase cache, for sentences whose noun and prepositional phrases recur (as
+ * in a report) and for sentences whose phrases are all different, where the
+ * cache only costs. The different sentences are made afresh for each pass, so
+ * their phrases never recur, and the time taken to make them is counted in
+ * both settings. It is not a test, and is run by hand:
+ *
+ * <p>
+ * <code>java simplenlg.test.syntax.PhraseCacheBenchmark [seconds]</code>
+ * </p>
+ *
+ * Each setting is warmed up for a quarter of the time and then timed for the
+ * rest.
+ */
+@Ignore
+public class PhraseCacheBenchmark {
+
+	private static final String[] MEASURES = { "heart rate", //$NON-NLS-1$
+			"blood pressure", "oxygen saturation", "body temperature", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"respiratory rate" }; //$NON-NLS-1$
+
+	private static final String[] VERBS = { "rise", "fall", "stay" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * @param args
+	 *            how long to run each setting for, in seconds (default 10).
+	 */
+	public static void main(String[] args) {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+
+		Lexicon lexicon = new XMLLexicon();
+		NLGFactory factory = new NLGFactory(lexicon);
+		Realiser realiser = new Realiser(lexicon);
+
+		for (boolean recurring : new boolean[] { true, false }) {
+			for (int size : new int[] { 0, 1000, 0, 1000 }) {
+				realiser.setPhraseCacheSize(size);
+				run(realiser, factory, recurring, seconds * 250);
+				double rate = run(realiser, factory, recurring, seconds * 750);
+				System.out.format("%s phrases, cache %4d: %.0f sentences/s%s%n", //$NON-NLS-1$
+						recurring ? "recurring" : "different", size, rate, //$NON-NLS-1$ //$NON-NLS-2$
+						size == 0 ? "" : ", hit rate " //$NON-NLS-1$ //$NON-NLS-2$
+								+ realiser.getPhraseCache().getHitRate());
+			}
+		}
+	}
+
+	/**
+	 * Realises the sentences for a while.
+	 *
+	 * @return the sentences realised a second.
+	 */
+	private static double run(Realiser realiser, NLGFactory factory,
+			boolean recurring, long millis) {
+		List<NLGElement> sentences = createSentences(factory, recurring, 0);
+		long end = System.currentTimeMillis() + millis;
+		long start = System.nanoTime();
+		long count = 0;
+		while (System.currentTimeMillis() < end) {
+			if (!recurring) {
+				sentences = createSentences(factory, false, count);
+			}
+			for (NLGElement sentence : sentences) {
+				realiser.realiseSentence(sentence);
+			}
+			count += sentences.size();
+		}
+		return count * 1e9 / (System.nanoTime() - start);
+	}
+
+	/**
+	 * @param recurring
+	 *            whether the phrases recur, or are all different.
+	 * @param first
+	 *            the number of the first sentence, which makes the phrases
+	 *            different.
+	 * @return sentences such as <i>the patient's heart rate rose in the last
+	 *         hours</i>.
+	 */
+	private static List<NLGElement> createSentences(NLGFactory factory,
+			boolean recurring, long first) {
+		List<NLGElement> sentences = new ArrayList<NLGElement>();
+		for (int i = 0; i < 300; i++) {
+			String patient = recurring ? "patient" : "patient" + (first + i); //$NON-NLS-1$ //$NON-NLS-2$
+			String hours = recurring ? "hour" : "hour" + (first + i); //$NON-NLS-1$ //$NON-NLS-2$
+
+			NPPhraseSpec owner = factory.createNounPhrase("the", patient); //$NON-NLS-1$
+			owner.setFeature(Feature.POSSESSIVE, true);
+			String[] measure = MEASURES[i % MEASURES.length].split(" "); //$NON-NLS-1$
+			NPPhraseSpec subject = factory.createNounPhrase(owner, measure[1]);
+			subject.addPreModifier(measure[0]);
+
+			NPPhraseSpec time = factory.createNounPhrase("the", hours); //$NON-NLS-1$
+			time.addPreModifier("last"); //$NON-NLS-1$
+			time.setPlural(true);
+			PPPhraseSpec during = factory.createPrepositionPhrase("in", time); //$NON-NLS-1$
+
+			SPhraseSpec clause = factory.createClause(subject, VERBS[i
+					% VERBS.length]);
+			clause.addPostModifier(during);
+			clause.setFeature(Feature.TENSE, i % 2 == 0 ? Tense.PAST
+					: Tense.PRESENT);
+			sentences.add(clause);
+		}
+		return sentences;
+	}
+}
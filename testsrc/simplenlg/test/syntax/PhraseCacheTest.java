@@ -0,0 +1,231 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Gender;
+import simplenlg.features.Inflection;
+import simplenlg.features.LexicalFeature;
+import simplenlg.features.Tense;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.PPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.Realiser;
+import simplenlg.syntax.english.PhraseCache;
+
+/**
+ * Tests for the cache of realised noun and prepositional phrases in
+ * <code>SyntaxProcessor</code>.
+ */
+public class PhraseCacheTest extends SimpleNLG4Test {
+
+	/** A realiser without the cache, to compare with. */
+	private Realiser uncached;
+
+	/**
+	 * Instantiates a new phrase cache test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public PhraseCacheTest(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() {
+		super.setUp();
+		this.uncached = new Realiser(this.lexicon);
+		this.uncached.setCommaSepPremodifiers(false);
+		this.realiser.setCommaSepPremodifiers(false);
+		this.realiser.setPhraseCacheSize(100);
+	}
+
+	/**
+	 * @return a new noun phrase, <i>the patient's heart rate</i>
+	 */
+	private NPPhraseSpec createHeartRate() {
+		NPPhraseSpec patient = this.phraseFactory.createNounPhrase("the", //$NON-NLS-1$
+				"patient"); //$NON-NLS-1$
+		patient.setFeature(Feature.POSSESSIVE, true);
+		NPPhraseSpec rate = this.phraseFactory.createNounPhrase(patient,
+				"rate"); //$NON-NLS-1$
+		rate.addPreModifier("heart"); //$NON-NLS-1$
+		return rate;
+	}
+
+	/**
+	 * @return a new prepositional phrase, <i>in recent hours</i>
+	 */
+	private PPPhraseSpec createRecentHours() {
+		NPPhraseSpec hours = this.phraseFactory.createNounPhrase("hour"); //$NON-NLS-1$
+		hours.addPreModifier("recent"); //$NON-NLS-1$
+		hours.setPlural(true);
+		return this.phraseFactory.createPrepositionPhrase("in", hours); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return a new noun phrase, <i>the man</i>, to be realised as a pronoun
+	 */
+	private NPPhraseSpec createMan() {
+		NPPhraseSpec man = this.phraseFactory.createNounPhrase("the", "man"); //$NON-NLS-1$ //$NON-NLS-2$
+		man.setFeature(LexicalFeature.GENDER, Gender.MASCULINE);
+		man.setFeature(Feature.PRONOMINAL, true);
+		return man;
+	}
+
+	/**
+	 * Realises an element with and without the cache, and checks the
+	 * realisations are the same.
+	 * 
+	 * @param element
+	 *            the element
+	 * @return the realisation
+	 */
+	private String realise(NLGElement element) {
+		String expected = this.uncached.realiseSentence(element);
+		Assert.assertEquals(expected, this.realiser.realiseSentence(element));
+		return expected;
+	}
+
+	/**
+	 * Phrases which recur in different sentences are added to the cache the
+	 * second time they are realised, and then found.
+	 */
+	@Test
+	public void testRecurringPhrases() {
+		PhraseCache cache = this.realiser.getPhraseCache();
+
+		SPhraseSpec rise = this.phraseFactory.createClause(createHeartRate(),
+				"rise"); //$NON-NLS-1$
+		rise.addComplement(createRecentHours());
+		Assert.assertEquals(
+				"The patient's heart rate rises in recent hours.", //$NON-NLS-1$
+				realise(rise));
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(
+				"The patient's heart rate rises in recent hours.", //$NON-NLS-1$
+				realise(rise));
+		Assert.assertTrue(cache.size() > 0);
+		long misses = cache.getMisses();
+		Assert.assertEquals(0, cache.getHits());
+
+		SPhraseSpec fall = this.phraseFactory.createClause(createHeartRate(),
+				"fall"); //$NON-NLS-1$
+		fall.setFeature(Feature.TENSE, Tense.PAST);
+		fall.addComplement(createRecentHours());
+		Assert.assertEquals(
+				"The patient's heart rate fell in recent hours.", //$NON-NLS-1$
+				realise(fall));
+
+		// the subject and the prepositional phrase are found
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(misses, cache.getMisses());
+	}
+
+	/**
+	 * The same phrase is realised differently when the phrase it is part of
+	 * sets different features on it.
+	 */
+	@Test
+	public void testAgreement() {
+		Assert.assertEquals("He sees him.", realise(this.phraseFactory //$NON-NLS-1$
+				.createClause(createMan(), "see", createMan()))); //$NON-NLS-1$
+		NPPhraseSpec his = createMan();
+		his.setFeature(Feature.POSSESSIVE, true);
+		Assert.assertEquals("He sees his dog.", realise(this.phraseFactory //$NON-NLS-1$
+				.createClause(createMan(), "see", this.phraseFactory //$NON-NLS-1$
+						.createNounPhrase(his, "dog")))); //$NON-NLS-1$
+
+		NPPhraseSpec dogs = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		NPPhraseSpec dog = this.phraseFactory.createNounPhrase("the", "dog"); //$NON-NLS-1$ //$NON-NLS-2$
+		dogs.setPlural(true);
+		Assert.assertEquals("The dogs chase the dog.", realise(this.phraseFactory //$NON-NLS-1$
+				.createClause(dogs, "chase", dog))); //$NON-NLS-1$
+		dog.setFeature(Feature.POSSESSIVE, true);
+		Assert.assertEquals("The dog's bone is big.", //$NON-NLS-1$
+				realise(this.phraseFactory.createClause(this.phraseFactory
+						.createNounPhrase(dog, "bone"), "be", "big"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Phrases whose head words differ only in their category or inflectional
+	 * variants are not taken for each other.
+	 */
+	@Test
+	public void testHeadWords() {
+		PhraseCache cache = this.realiser.getPhraseCache();
+		WordElement noun = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		WordElement verb = new WordElement("blick", LexicalCategory.VERB); //$NON-NLS-1$
+		WordElement irregular = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		irregular.addInflectionalVariant(Inflection.IRREGULAR,
+				LexicalFeature.PLURAL, "blickies"); //$NON-NLS-1$
+
+		String[] realised = new String[3];
+		WordElement[] heads = { noun, verb, irregular };
+		for (int i = 0; i < heads.length; i++) {
+			NPPhraseSpec blicks = this.phraseFactory.createNounPhrase(heads[i]);
+			blicks.setPlural(true);
+			// the second time, the subject is added to the cache
+			realise(this.phraseFactory.createClause(blicks, "sleep")); //$NON-NLS-1$
+			realised[i] = realise(this.phraseFactory.createClause(blicks,
+					"sleep")); //$NON-NLS-1$
+			realise(this.phraseFactory.createPrepositionPhrase("with", blicks)); //$NON-NLS-1$
+		}
+		Assert.assertEquals("Blicks sleep.", realised[0]); //$NON-NLS-1$
+		Assert.assertFalse(realised[0].equals(realised[1]));
+		Assert.assertEquals(0, cache.getHits());
+	}
+
+	/**
+	 * Phrases containing a clause are not cached.
+	 */
+	@Test
+	public void testClauseNotCached() {
+		PhraseCache cache = this.realiser.getPhraseCache();
+		NPPhraseSpec man = this.phraseFactory.createNounPhrase("the", "man"); //$NON-NLS-1$ //$NON-NLS-2$
+		SPhraseSpec relative = this.phraseFactory.createClause(null, "run"); //$NON-NLS-1$
+		relative.setFeature(Feature.COMPLEMENTISER, "who"); //$NON-NLS-1$
+		man.addPostModifier(relative);
+
+		realise(this.phraseFactory.createClause(man, "sleep")); //$NON-NLS-1$
+		realise(this.phraseFactory.createClause(man, "sleep")); //$NON-NLS-1$
+		Assert.assertEquals(0, cache.getHits());
+		Assert.assertEquals(0, cache.getMisses());
+	}
+
+	/**
+	 * Setting the lexicon empties the cache.
+	 */
+	@Test
+	public void testLexiconClears() {
+		realise(this.phraseFactory.createClause(createHeartRate(), "rise")); //$NON-NLS-1$
+		realise(this.phraseFactory.createClause(createHeartRate(), "rise")); //$NON-NLS-1$
+		Assert.assertTrue(this.realiser.getPhraseCache().size() > 0);
+		this.realiser.setLexicon(this.lexicon);
+		Assert.assertEquals(0, this.realiser.getPhraseCache().size());
+	}
+}
@@ -0,0 +1,279 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.NumberAgreement;
+import simplenlg.features.Tense;
+import simplenlg.format.english.HTMLFormatter;
+import simplenlg.framework.LexicalCategory;
+import simplenlg.framework.NLGElement;
+import simplenlg.framework.WordElement;
+import simplenlg.phrasespec.NPPhraseSpec;
+import simplenlg.phrasespec.SPhraseSpec;
+import simplenlg.realiser.english.RealisationCache;
+
+/**
+ * Tests for the cache of realisations in <code>Realiser</code>.
+ */
+public class RealisationCacheTest extends SimpleNLG4Test {
+
+	private static final String[] SUBJECTS = { "the man", "she", "a dog", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"they", "Mary" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * Instantiates a new realisation cache test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public RealisationCacheTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @param subject
+	 *            the subject
+	 * @return a new clause, with a noun phrase object with two premodifiers
+	 */
+	private SPhraseSpec createClause(String subject) {
+		NPPhraseSpec road = this.phraseFactory.createNounPhrase("the", "road"); //$NON-NLS-1$ //$NON-NLS-2$
+		road.addPreModifier("long"); //$NON-NLS-1$
+		road.addPreModifier("dark"); //$NON-NLS-1$
+		return this.phraseFactory.createClause(subject, "follow", road); //$NON-NLS-1$
+	}
+
+	/**
+	 * There is no cache unless a size is set.
+	 */
+	@Test
+	public void testNoCache() {
+		Assert.assertNull(this.realiser.getCache());
+		this.realiser.setCacheSize(10);
+		Assert.assertEquals(10, this.realiser.getCache().getMaximumSize());
+		this.realiser.setCacheSize(0);
+		Assert.assertNull(this.realiser.getCache());
+	}
+
+	/**
+	 * An element with the same structure as one realised before is found in
+	 * the cache.
+	 */
+	@Test
+	public void testHit() {
+		this.realiser.setCacheSize(10);
+		RealisationCache cache = this.realiser.getCache();
+
+		String first = this.realiser.realiseSentence(createClause("the man")); //$NON-NLS-1$
+		String second = this.realiser.realiseSentence(createClause("the man")); //$NON-NLS-1$
+		Assert.assertEquals("The man follows the long, dark road.", first); //$NON-NLS-1$
+		Assert.assertEquals(first, second);
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+		Assert.assertEquals(0.5, cache.getHitRate(), 0.0);
+		Assert.assertEquals(1, cache.size());
+
+		this.realiser.realiseSentence(createClause("she")); //$NON-NLS-1$
+		Assert.assertEquals(2, cache.getMisses());
+		Assert.assertEquals(2, cache.size());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0.0, cache.getHitRate(), 0.0);
+	}
+
+	/**
+	 * The comma settings and the formatter are part of what is looked up.
+	 */
+	@Test
+	public void testSettings() {
+		this.realiser.setCacheSize(10);
+		RealisationCache cache = this.realiser.getCache();
+		SPhraseSpec clause = createClause("the man"); //$NON-NLS-1$
+
+		this.realiser.realiseSentence(clause);
+		this.realiser.setCommaSepPremodifiers(false);
+		Assert.assertEquals("The man follows the long dark road.", //$NON-NLS-1$
+				this.realiser.realiseSentence(clause));
+		Assert.assertEquals(0, cache.getHits());
+
+		this.realiser.setFormatter(new HTMLFormatter());
+		String html = this.realiser.realise(
+				this.phraseFactory.createParagraph(this.phraseFactory
+						.createSentence(clause))).getRealisation();
+		Assert.assertTrue(html.startsWith("<p>")); //$NON-NLS-1$
+		Assert.assertTrue(html.contains("The man follows the long dark road.")); //$NON-NLS-1$
+		Assert.assertEquals(0, cache.getHits());
+
+		this.realiser.setCommaSepPremodifiers(true);
+		this.realiser.setFormatter(null);
+		Assert.assertEquals("The man follows the long, dark road.", //$NON-NLS-1$
+				this.realiser.realiseSentence(clause));
+		Assert.assertEquals(0, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+	}
+
+	/**
+	 * Changing an element after it has been realised does not give the old
+	 * realisation.
+	 */
+	@Test
+	public void testChangedElement() {
+		this.realiser.setCacheSize(10);
+		SPhraseSpec clause = createClause("the man"); //$NON-NLS-1$
+
+		Assert.assertEquals("The man follows the long, dark road.", //$NON-NLS-1$
+				this.realiser.realiseSentence(clause));
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		Assert.assertEquals("The man followed the long, dark road.", //$NON-NLS-1$
+				this.realiser.realiseSentence(clause));
+		((NPPhraseSpec) clause.getObject()).addPreModifier("narrow"); //$NON-NLS-1$
+		Assert.assertEquals("The man followed the long, dark, narrow road.", //$NON-NLS-1$
+				this.realiser.realiseSentence(clause));
+		Assert.assertEquals(0, this.realiser.getCache().getHits());
+	}
+
+	/**
+	 * Words which differ only in their category are not taken for each other.
+	 */
+	@Test
+	public void testWordCategories() {
+		this.realiser.setCacheSize(10);
+		WordElement noun = new WordElement("blick", LexicalCategory.NOUN); //$NON-NLS-1$
+		noun.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+		WordElement verb = new WordElement("blick", LexicalCategory.VERB); //$NON-NLS-1$
+		verb.setFeature(Feature.NUMBER, NumberAgreement.PLURAL);
+
+		Assert.assertEquals("Blicks.", this.realiser.realiseSentence(noun)); //$NON-NLS-1$
+		Assert.assertEquals("Blick.", this.realiser.realiseSentence(verb)); //$NON-NLS-1$
+		Assert.assertEquals(0, this.realiser.getCache().getHits());
+		Assert.assertEquals(2, this.realiser.getCache().size());
+	}
+
+	/**
+	 * The realisation returned by <code>realise</code> can be changed without
+	 * changing the cache.
+	 */
+	@Test
+	public void testRealisationCopied() {
+		this.realiser.setCacheSize(10);
+		NLGElement sentence = this.phraseFactory
+				.createSentence(createClause("she")); //$NON-NLS-1$
+
+		NLGElement realised = this.realiser.realise(sentence);
+		realised.setRealisation("changed"); //$NON-NLS-1$
+		NLGElement again = this.realiser.realise(sentence);
+		Assert.assertEquals("She follows the long, dark road.", again //$NON-NLS-1$
+				.getRealisation());
+		again.setRealisation("changed again"); //$NON-NLS-1$
+		Assert.assertEquals("She follows the long, dark road.", this.realiser //$NON-NLS-1$
+				.realiseSentence(sentence));
+		Assert.assertEquals(2, this.realiser.getCache().getHits());
+	}
+
+	/**
+	 * When the cache is full, the realisation used longest ago is dropped.
+	 */
+	@Test
+	public void testEviction() {
+		this.realiser.setCacheSize(2);
+		RealisationCache cache = this.realiser.getCache();
+
+		this.realiser.realiseSentence(createClause("the man")); //$NON-NLS-1$
+		this.realiser.realiseSentence(createClause("she")); //$NON-NLS-1$
+		this.realiser.realiseSentence(createClause("the man")); //$NON-NLS-1$
+		this.realiser.realiseSentence(createClause("they")); //$NON-NLS-1$
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getHits());
+
+		this.realiser.realiseSentence(createClause("the man")); //$NON-NLS-1$
+		Assert.assertEquals(2, cache.getHits());
+		this.realiser.realiseSentence(createClause("she")); //$NON-NLS-1$
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+	}
+
+	/**
+	 * Several threads using one realiser and a small cache get the same
+	 * results as without the cache.
+	 */
+	@Test
+	public void testConcurrentUse() throws Exception {
+		final List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 20; i++) {
+			expected.add(this.realiser.realiseSentence(createClause(i)));
+		}
+		this.realiser.setCacheSize(8);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int t = 0; t < threads; t++) {
+				final int offset = t;
+				results.add(executor.submit(new Callable<String>() {
+					public String call() {
+						for (int j = 0; j < 500; j++) {
+							int i = ((offset + j) * 7) % 20;
+							String realised = realiser
+									.realiseSentence(createClause(i));
+							if (!expected.get(i).equals(realised)) {
+								return i + ": " + realised; //$NON-NLS-1$
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<String> result : results) {
+				Assert.assertNull(result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		RealisationCache cache = this.realiser.getCache();
+		Assert.assertEquals(threads * 500, cache.getHits() + cache.getMisses());
+		Assert.assertTrue(cache.getHits() > 0);
+		Assert.assertTrue(cache.size() <= 8);
+	}
+
+	/**
+	 * @param i
+	 *            the number of the clause
+	 * @return a new clause, which differs with the number
+	 */
+	private SPhraseSpec createClause(int i) {
+		SPhraseSpec clause = createClause(SUBJECTS[i % SUBJECTS.length]);
+		clause.setFeature(Feature.TENSE, Tense.values()[i % 3]);
+		clause.setFeature(Feature.NEGATED, i % 4 == 1);
+		return clause;
+	}
+}
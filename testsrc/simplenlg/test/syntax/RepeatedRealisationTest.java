@@ -0,0 +1,161 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import simplenlg.features.Feature;
+import simplenlg.features.InterrogativeType;
+import simplenlg.features.Tense;
+import simplenlg.framework.CoordinatedPhraseElement;
+import simplenlg.framework.DocumentElement;
+import simplenlg.phrasespec.SPhraseSpec;
+
+/**
+ * Tests that realisation leaves its input unchanged, so that the same phrase
+ * can be realised more than once, and by several threads at a time.
+ */
+public class RepeatedRealisationTest extends SimpleNLG4Test {
+
+	/**
+	 * Instantiates a new repeated realisation test.
+	 * 
+	 * @param name
+	 *            the name
+	 */
+	public RepeatedRealisationTest(String name) {
+		super(name);
+	}
+
+	/**
+	 * @return a clause with a coordinated subject, complements and modifiers
+	 */
+	private SPhraseSpec createClause() {
+		CoordinatedPhraseElement subject = new CoordinatedPhraseElement(
+				this.man, this.woman);
+		SPhraseSpec clause = this.phraseFactory.createClause(subject, "give",
+				this.dog);
+		clause.setIndirectObject(this.boy);
+		clause.addPostModifier(this.inTheRoom);
+		clause.addFrontModifier("yesterday");
+		clause.setFeature(Feature.TENSE, Tense.PAST);
+		return clause;
+	}
+
+	/**
+	 * Realising a clause twice gives the same result, and does not change the
+	 * clause.
+	 */
+	@Test
+	public void testRealiseTwice() {
+		SPhraseSpec clause = createClause();
+		String before = clause.toString();
+
+		String first = this.realiser.realiseSentence(clause);
+		Assert.assertEquals(
+				"Yesterday the man and the woman gave the boy the dog in the room.", //$NON-NLS-1$
+				first);
+		Assert.assertEquals(before, clause.toString());
+		Assert.assertNull(clause.getParent());
+		Assert.assertEquals(first, this.realiser.realiseSentence(clause));
+
+		// passive and interrogative clauses are changed most by the syntax
+		clause.setFeature(Feature.PASSIVE, true);
+		first = this.realiser.realiseSentence(clause);
+		Assert.assertEquals(first, this.realiser.realiseSentence(clause));
+
+		clause.setFeature(Feature.PASSIVE, false);
+		clause.setFeature(Feature.INTERROGATIVE_TYPE,
+				InterrogativeType.WHO_SUBJECT);
+		before = clause.toString();
+		first = this.realiser.realiseSentence(clause);
+		Assert.assertEquals(
+				"Who gave the boy the dog in the room yesterday?", first); //$NON-NLS-1$
+		Assert.assertEquals(before, clause.toString());
+		Assert.assertEquals(first, this.realiser.realiseSentence(clause));
+	}
+
+	/**
+	 * Realising coordinations and documents leaves their components in place.
+	 */
+	@Test
+	public void testComponentsKept() {
+		CoordinatedPhraseElement coord = new CoordinatedPhraseElement(
+				this.dog, this.woman);
+		Assert.assertEquals("the dog and the woman", this.realiser.realise( //$NON-NLS-1$
+				coord).getRealisation());
+		Assert.assertEquals(2, coord.getChildren().size());
+		Assert.assertEquals("the dog and the woman", this.realiser.realise( //$NON-NLS-1$
+				coord).getRealisation());
+
+		DocumentElement sentence = this.phraseFactory
+				.createSentence(createClause());
+		DocumentElement paragraph = this.phraseFactory
+				.createParagraph(sentence);
+		String first = this.realiser.realise(paragraph).getRealisation();
+		Assert.assertEquals(1, paragraph.getComponents().size());
+		Assert.assertEquals("", sentence.getRealisation()); //$NON-NLS-1$
+		Assert.assertEquals(first, this.realiser.realise(paragraph)
+				.getRealisation());
+	}
+
+	/**
+	 * Several threads realising the same clause with the same realiser all get
+	 * the same result.
+	 */
+	@Test
+	public void testRealiseInParallel() throws Exception {
+		final SPhraseSpec clause = createClause();
+		final String expected = this.realiser.realiseSentence(clause);
+		int threads = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(new Callable<String>() {
+					public String call() {
+						for (int j = 0; j < 100; j++) {
+							String realised = realiser.realiseSentence(clause);
+							if (!expected.equals(realised)) {
+								return realised;
+							}
+						}
+						return expected;
+					}
+				}));
+			}
+			for (Future<String> result : results) {
+				Assert.assertEquals(expected, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
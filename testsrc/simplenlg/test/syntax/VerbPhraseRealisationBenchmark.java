@@ -0,0 +1,119 @@
+/*
+ * The contents of this file are subject to the Mozilla Public License
+ * Version 1.1 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://www.mozilla.org/MPL/
+ *
+ * Software distributed under the License is distributed on an "AS IS"
+ * basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+ * License for the specific language governing rights and limitations
+ * under the License.
+ *
+ * The Original Code is "Simplenlg".
+ *
+ * The Initial Developer of the Original Code is Ehud Reiter, Albert Gatt and Dave Westwater.
+ * Portions created by Ehud Reiter, Albert Gatt and Dave Westwater are Copyright (C) 2010-11 The University of Aberdeen. All Rights Reserved.
+ *
+ * Contributor(s): Ehud Reiter, Albert Gatt, Dave Wewstwater, Roman Kutlak, Margaret Mitchell.
+ */
+package simplenlg.test.syntax;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Ignore;
+
+import simplenlg.features.Feature;
+import simplenlg.features.Tense;
+import simplenlg.framework.NLGFactory;
+import simplenlg.lexicon.Lexicon;
+import simplenlg.lexicon.XMLLexicon;
+import simplenlg.phrasespec.VPPhraseSpec;
+import simplenlg.syntax.english.SyntaxProcessor;
+
+/**
+ * Measures how many verb phrases the syntax processor realises a second, on
+ * one or more threads sharing the processor. Each verb phrase has a verb
+ * group and direct, indirect and other complements. It is not a test, and is
+ * run by hand:
+ * 
+ * <p>
+ * <code>java simplenlg.test.syntax.VerbPhraseRealisationBenchmark [seconds] [threads]</code>
+ * </p>
+ * 
+ * The first half of the time is a warm-up and is not counted.
+ */
+@Ignore
+public class VerbPhraseRealisationBenchmark {
+
+	/**
+	 * @param args
+	 *            how long to run for, in seconds (default 10), and how many
+	 *            threads to use (default 1).
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+		int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+		Lexicon lexicon = new XMLLexicon();
+		final SyntaxProcessor syntax = new SyntaxProcessor();
+		syntax.initialise();
+		syntax.setLexicon(lexicon);
+		final List<VPPhraseSpec> phrases = createPhrases(new NLGFactory(
+				lexicon));
+
+		final long start = System.currentTimeMillis() + seconds * 500;
+		final long end = start + seconds * 500;
+		final AtomicLong total = new AtomicLong();
+		Thread[] threads = new Thread[threadCount];
+		for (int index = 0; index < threadCount; index++) {
+			threads[index] = new Thread() {
+				@Override
+				public void run() {
+					long count = 0;
+					long now;
+					while ((now = System.currentTimeMillis()) < end) {
+						for (VPPhraseSpec phrase : phrases) {
+							syntax.realise(phrase);
+						}
+						if (now >= start) {
+							count += phrases.size();
+						}
+					}
+					total.addAndGet(count);
+				}
+			};
+			threads[index].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		System.out.format("%d threads: %.0f verb phrases/s%n", threadCount, //$NON-NLS-1$
+				total.get() * 2.0 / seconds);
+	}
+
+	/**
+	 * @return verb phrases with every combination of tense, perfect,
+	 *         progressive and negation.
+	 */
+	private static List<VPPhraseSpec> createPhrases(NLGFactory factory) {
+		List<VPPhraseSpec> phrases = new ArrayList<VPPhraseSpec>();
+		for (Tense tense : Tense.values()) {
+			for (int aspect = 0; aspect < 8; aspect++) {
+				VPPhraseSpec phrase = factory.createVerbPhrase("give"); //$NON-NLS-1$
+				phrase.setObject(factory.createNounPhrase("a", "book")); //$NON-NLS-1$ //$NON-NLS-2$
+				phrase.setIndirectObject(factory.createNounPhrase("the", //$NON-NLS-1$
+						"child")); //$NON-NLS-1$
+				phrase.addComplement(factory.createPrepositionPhrase("at", //$NON-NLS-1$
+						factory.createNounPhrase("the", "party"))); //$NON-NLS-1$ //$NON-NLS-2$
+				phrase.setFeature(Feature.TENSE, tense);
+				phrase.setFeature(Feature.PERFECT, (aspect & 1) != 0);
+				phrase.setFeature(Feature.PROGRESSIVE, (aspect & 2) != 0);
+				phrase.setFeature(Feature.NEGATED, (aspect & 4) != 0);
+				phrases.add(phrase);
+			}
+		}
+		return phrases;
+	}
+}
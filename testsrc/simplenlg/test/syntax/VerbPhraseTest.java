@@ -468,4 +468,69 @@ public class VerbPhraseTest extends SimpleNLG4Test {
 				"could not have been kissing the dog and kicking the boy", //$NON-NLS-1$
 				this.realiser.realise(coord1).getRealisation());
 	}
+
+	/**
+	 * Verb phrases with the same features share the plan of their verb group,
+	 * but each gets its own verb, modal, person and number.
+	 */
+	@Test
+	public void testSharedVerbGroupPlan() {
+		String[] verbs = { "kick", "give", "be", "go" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		String[] expected = { "I could not have been kicking", //$NON-NLS-1$
+				"you might not have been giving", //$NON-NLS-1$
+				"he could not have been being", //$NON-NLS-1$
+				"they might not have been going" }; //$NON-NLS-1$
+		String[] subjects = { "I", "you", "he", "they" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		String[] modals = { "could", "might", "could", "might" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+		for (int round = 0; round < 2; round++) {
+			for (int index = 0; index < verbs.length; index++) {
+				SPhraseSpec clause = this.phraseFactory.createClause(
+						subjects[index], verbs[index]);
+				clause.setFeature(Feature.TENSE, Tense.PAST);
+				clause.setFeature(Feature.MODAL, modals[index]);
+				clause.setFeature(Feature.PROGRESSIVE, true);
+				clause.setFeature(Feature.NEGATED, true);
+				Assert.assertEquals(expected[index], this.realiser.realise(
+						clause).getRealisation());
+			}
+
+			SPhraseSpec clause = this.phraseFactory.createClause("the dogs", //$NON-NLS-1$
+					"chase", "the cat"); //$NON-NLS-1$ //$NON-NLS-2$
+			clause.getSubject().setPlural(true);
+			clause.setFeature(Feature.TENSE, Tense.PRESENT);
+			clause.setFeature(Feature.NEGATED, true);
+			Assert.assertEquals("the dogs do not chase the cat", this.realiser //$NON-NLS-1$
+					.realise(clause).getRealisation());
+		}
+	}
+
+	/**
+	 * Verb phrases inside the complements of a verb phrase are realised while
+	 * the outer one is, each with its own verb group and complements.
+	 */
+	@Test
+	public void testNestedVerbPhrases() {
+		SPhraseSpec inner = this.phraseFactory.createClause("the dog", //$NON-NLS-1$
+				"chase", "the cat"); //$NON-NLS-1$ //$NON-NLS-2$
+		inner.setFeature(Feature.PASSIVE, true);
+		inner.setFeature(Feature.TENSE, Tense.PAST);
+
+		SPhraseSpec middle = this.phraseFactory.createClause("Mary", "think", //$NON-NLS-1$ //$NON-NLS-2$
+				inner);
+		middle.setFeature(Feature.PROGRESSIVE, true);
+
+		SPhraseSpec outer = this.phraseFactory.createClause("John", "give", //$NON-NLS-1$ //$NON-NLS-2$
+				"a book"); //$NON-NLS-1$
+		outer.setIndirectObject("Bill"); //$NON-NLS-1$
+		outer.setFeature(Feature.NEGATED, true);
+		outer.addComplement(middle);
+
+		String expected = "John does not give Bill a book that Mary is thinking " //$NON-NLS-1$
+				+ "that the cat was chased by the dog"; //$NON-NLS-1$
+		Assert.assertEquals(expected, this.realiser.realise(outer)
+				.getRealisation());
+		Assert.assertEquals(expected, this.realiser.realise(outer)
+				.getRealisation());
+	}
 }